@@ -0,0 +1,1238 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import android.bluetooth.BluetoothAdapter;
+import android.content.Context;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractInventoryListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractReaderListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractResponseListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.util.BleSettings;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous facade over {@link PassiveReader} and {@link Tag} operations.
+ * <p>
+ * Every method issues the matching {@code PassiveReader} or {@code Tag}
+ * command and returns a {@code CompletableFuture} completed with the typed
+ * command result, or completed exceptionally with a {@link ReaderException}
+ * holding the command and error codes. Futures are completed on the facade
+ * executor, never on the BLE callback thread, so dependent operations can be
+ * chained directly:
+ * <pre>
+ * reader.readTID(tag, 8, null)
+ *         .thenCompose(TID -&gt; reader.writeID(tag, newEPC, NSI))
+ *         .thenCompose(ignored -&gt; reader.lock(tag, lock_type, password));
+ * </pre>
+ * Commands issued while another one is pending are queued by the reader (see
+ * {@link PassiveReader#setCommandQueue(int, long, int)}), so a chained command
+ * is sent as soon as the previous answer has been processed.
+ * <p>
+ * Reader configuration and status attributes are cached with a time to live
+ * per attribute (see {@link #setCacheTTL(int, long)}): firmware versions and
+ * MAC address never expire, configuration attributes expire after {@link
+ * #DEFAULT_CONFIGURATION_TTL} and battery attributes after {@link
+ * #DEFAULT_STATUS_TTL}. Gets of a cached attribute are completed without
+ * sending a command, and concurrent gets of the same attribute share a
+ * single command. Attributes are invalidated by the set commands changing
+ * them (also when sent directly to the underlying reader) and on connection
+ * and disconnection.
+ * <p>
+ * Commands failed with a transient error can be retried transparently,
+ * before their future is completed, by setting a {@link RetryPolicy}; tag
+ * writes, ID writes and locks are retried only after checking the tag, since
+ * their answer may have been lost after the tag was changed.
+ * <p>
+ * Listener events are still forwarded to the listeners given to {@link
+ * #getInstance(AbstractInventoryListener, AbstractReaderListener,
+ * AbstractResponseListener, BluetoothAdapter, BleSettings, Executor)
+ * getInstance}. Commands sent directly to the underlying reader must not be
+ * mixed with the same commands sent through the facade.
+ */
+public final class AsyncPassiveReader {
+    /**
+     * Depth of the reader command queue set by the facade.
+     */
+    public static final int DEFAULT_COMMAND_QUEUE_DEPTH = 32;
+    /**
+     * Time to live of the attributes which never expire.
+     */
+    public static final long CACHE_FOREVER = Long.MAX_VALUE;
+    /**
+     * Default time to live of the cached configuration attributes (ms).
+     */
+    public static final long DEFAULT_CONFIGURATION_TTL = 60000;
+    /**
+     * Default time to live of the cached battery attributes (ms).
+     */
+    public static final long DEFAULT_STATUS_TTL = 5000;
+
+    private static final int VERIFY_TID_LENGTH = 4;
+
+    // shared by all the facades, so that no facade owns a thread to be shut down: both threads are daemon
+    // threads, started by the first retry and by the first future completed on the default executor
+    private static final ScheduledExecutorService retry_scheduler = Executors.newSingleThreadScheduledExecutor(
+            runnable -> newDaemonThread(runnable, "AsyncPassiveReader retry"));
+    private static final Executor default_executor = Executors.newSingleThreadExecutor(
+            runnable -> newDaemonThread(runnable, "AsyncPassiveReader"));
+
+    /**
+     * Firmware version.
+     */
+    public static final class Version {
+        private final int major;
+        private final int minor;
+
+        Version(int major, int minor) {
+            this.major = major;
+            this.minor = minor;
+        }
+
+        /**
+         * Get the major version number.
+         *
+         * @return the major version number
+         */
+        public int getMajor() {
+            return major;
+        }
+
+        /**
+         * Get the minor version number.
+         *
+         * @return the minor version number
+         */
+        public int getMinor() {
+            return minor;
+        }
+
+        @Override
+        public String toString() {
+            return major + "." + minor;
+        }
+    }
+
+    /**
+     * RF power setting.
+     */
+    public static final class RFpower {
+        private final int level;
+        private final int mode;
+
+        RFpower(int level, int mode) {
+            this.level = level;
+            this.mode = mode;
+        }
+
+        /**
+         * Get the RF power level.
+         *
+         * @return the RF power level
+         */
+        public int getLevel() {
+            return level;
+        }
+
+        /**
+         * Get the RF power mode.
+         *
+         * @return the RF power mode
+         */
+        public int getMode() {
+            return mode;
+        }
+    }
+
+    private static final class Request {
+        private final int command;
+        private final Tag tag;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        private final Runnable call;
+        private final Supplier<CompletableFuture<Integer>> verifier;
+        private final CommandHandle handle;
+        private long order;
+        private Object value;
+        private int attempts = 1;
+        private int error;
+
+        private Request(int command, Tag tag, Runnable call, Supplier<CompletableFuture<Integer>> verifier,
+                        CommandHandle handle) {
+            this.command = command;
+            this.tag = tag;
+            this.call = call;
+            this.verifier = verifier;
+            this.handle = handle;
+        }
+
+        private boolean matches(byte[] tag_ID) {
+            if (tag == null || tag_ID == null) {
+                return true;
+            }
+            if (Arrays.equals(tag.getID(), tag_ID)) {
+                return true;
+            }
+            return tag instanceof EPC_tag && Arrays.equals(((EPC_tag) tag).getExtendedID(), tag_ID);
+        }
+    }
+
+    private final HashMap<Integer, ArrayDeque<Request>> requests = new HashMap<>();
+    private long next_order;
+    private final Executor executor;
+    private final PassiveReader passive_reader;
+    private volatile RetryPolicy retry_policy;
+    private final AttributeCache cache = new AttributeCache();
+
+    private AsyncPassiveReader(AbstractInventoryListener inventory_listener,
+                               AbstractReaderListener reader_listener,
+                               AbstractResponseListener response_listener,
+                               BluetoothAdapter bluetoothAdapter, BleSettings bleSettings, Executor executor) {
+        this.executor = executor;
+        passive_reader = PassiveReader.getInstance(inventory_listener, new ReaderForwarder(reader_listener),
+                new ResponseForwarder(response_listener), bluetoothAdapter, bleSettings);
+        passive_reader.setCommandQueue(DEFAULT_COMMAND_QUEUE_DEPTH, 0, PassiveReader.COMMAND_QUEUE_REJECT);
+        cache.setTTL(AbstractReaderListener.GET_FIRMWARE_VERSION_COMMAND, CACHE_FOREVER);
+        cache.setTTL(AbstractReaderListener.GET_BLE_FIRMWARE_VERSION_COMMAND, CACHE_FOREVER);
+        cache.setTTL(AbstractReaderListener.GET_MAC_ADDRESS_COMMAND, CACHE_FOREVER);
+        cache.setTTL(AbstractReaderListener.GET_DEVICE_NAME_COMMAND, DEFAULT_CONFIGURATION_TTL);
+        cache.setTTL(AbstractReaderListener.GET_EPC_FREQUENCY_COMMAND, DEFAULT_CONFIGURATION_TTL);
+        cache.setTTL(AbstractReaderListener.GET_RF_POWER_COMMAND, DEFAULT_CONFIGURATION_TTL);
+        cache.setTTL(AbstractReaderListener.GET_SHUTDOWN_TIME_COMMAND, DEFAULT_CONFIGURATION_TTL);
+        cache.setTTL(AbstractReaderListener.GET_BLE_POWER_COMMAND, DEFAULT_CONFIGURATION_TTL);
+        cache.setTTL(AbstractReaderListener.GET_SECURITY_LEVEL_COMMAND, DEFAULT_CONFIGURATION_TTL);
+        cache.setTTL(AbstractReaderListener.GET_BATTERY_LEVEL_COMMAND, DEFAULT_STATUS_TTL);
+        cache.setTTL(AbstractReaderListener.GET_BATTERY_STATUS_COMMAND, DEFAULT_STATUS_TTL);
+    }
+
+    /**
+     * Create an asynchronous reader.
+     *
+     * @param inventory_listener the inventory listener
+     * @param reader_listener    the reader listener, notified of every reader event
+     * @param response_listener  the response listener, notified of every tag event
+     * @param bluetoothAdapter   the bluetooth adapter
+     * @param bleSettings        the BLE settings
+     * @param executor           the executor completing the futures
+     * @return the asynchronous reader
+     */
+    public static AsyncPassiveReader getInstance(AbstractInventoryListener inventory_listener,
+                                                 AbstractReaderListener reader_listener,
+                                                 AbstractResponseListener response_listener,
+                                                 BluetoothAdapter bluetoothAdapter, BleSettings bleSettings,
+                                                 Executor executor) {
+        return new AsyncPassiveReader(inventory_listener, reader_listener, response_listener, bluetoothAdapter,
+                bleSettings, executor);
+    }
+
+    /**
+     * Create an asynchronous reader completing the futures on a library
+     * thread.
+     * <p>
+     * The thread is shared by all the asynchronous readers created by this
+     * method, so future callbacks should not block.
+     *
+     * @param inventory_listener the inventory listener
+     * @param reader_listener    the reader listener, notified of every reader event
+     * @param response_listener  the response listener, notified of every tag event
+     * @param bluetoothAdapter   the bluetooth adapter
+     * @param bleSettings        the BLE settings
+     * @return the asynchronous reader
+     */
+    public static AsyncPassiveReader getInstance(AbstractInventoryListener inventory_listener,
+                                                 AbstractReaderListener reader_listener,
+                                                 AbstractResponseListener response_listener,
+                                                 BluetoothAdapter bluetoothAdapter, BleSettings bleSettings) {
+        return getInstance(inventory_listener, reader_listener, response_listener, bluetoothAdapter, bleSettings,
+                default_executor);
+    }
+
+    private static Thread newDaemonThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Get the underlying reader, e.g. to connect it or to issue commands
+     * without a facade method.
+     *
+     * @return the reader
+     */
+    public PassiveReader getPassiveReader() {
+        return passive_reader;
+    }
+
+    /**
+     * Set the retry policy of the commands failed with a transient error.
+     *
+     * @param retry_policy the retry policy (null to disable retries, the default)
+     */
+    public void setRetryPolicy(RetryPolicy retry_policy) {
+        this.retry_policy = retry_policy;
+    }
+
+    /**
+     * Get the retry policy of the commands failed with a transient error.
+     *
+     * @return the retry policy (null if retries are disabled)
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retry_policy;
+    }
+
+    /**
+     * Set the time to live of a cached attribute.
+     *
+     * @param command the attribute get command code (e.g. {@link
+     *                AbstractReaderListener#GET_BATTERY_LEVEL_COMMAND})
+     * @param ttl     the time to live (ms, 0 disables the cache, {@link #CACHE_FOREVER} never expires)
+     */
+    public void setCacheTTL(int command, long ttl) {
+        cache.setTTL(command, ttl);
+    }
+
+    /**
+     * Get the time to live of a cached attribute.
+     *
+     * @param command the attribute get command code
+     * @return the time to live (ms, 0 if the attribute is not cached)
+     */
+    public long getCacheTTL(int command) {
+        return cache.getTTL(command);
+    }
+
+    /**
+     * Invalidate all the cached attributes, e.g. after the reader device has
+     * been configured by other means.
+     */
+    public void invalidateCache() {
+        cache.clear();
+    }
+
+    /**
+     * Get the number of attribute gets completed without sending a command.
+     *
+     * @return the cache hits count
+     */
+    public long getCacheHitCount() {
+        return cache.getHitCount();
+    }
+
+    /**
+     * Get the number of attribute gets which needed a command.
+     *
+     * @return the cache misses count
+     */
+    public long getCacheMissCount() {
+        return cache.getMissCount();
+    }
+
+    /**
+     * Connect the reader device.
+     *
+     * @param reader_address the reader device address
+     * @param context        the application context
+     */
+    public void connect(String reader_address, Context context) {
+        cache.clear();
+        passive_reader.connect(reader_address, context);
+    }
+
+    /**
+     * Disconnect the reader device, failing all the uncompleted futures.
+     */
+    public void disconnect() {
+        passive_reader.disconnect();
+        failAll(AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+    }
+
+    /**
+     * Issue a command bound to a deadline and cancellation handle (see {@link
+     * PassiveReader#execute(CommandHandle, Runnable)}).
+     * <p>
+     * If the handle is cancelled or its deadline expires before the command
+     * completes, the future is completed exceptionally with a {@link
+     * ReaderException} holding error code {@link
+     * AbstractReaderListener#READER_DRIVER_COMMAND_CANCELLED_ERROR} or {@link
+     * AbstractReaderListener#READER_DRIVER_COMMAND_DEADLINE_ERROR}:
+     * <pre>
+     * reader.execute(new CommandHandle(500), () -&gt; reader.read(tag, 0, 4));
+     * </pre>
+     *
+     * @param handle  the handle
+     * @param command the facade method invocation
+     * @param <T>     the command result type
+     * @return the future returned by the facade method
+     */
+    public <T> CompletableFuture<T> execute(CommandHandle handle, Supplier<CompletableFuture<T>> command) {
+        AtomicReference<CompletableFuture<T>> future = new AtomicReference<>();
+        passive_reader.execute(handle, () -> future.set(command.get()));
+        return future.get();
+    }
+
+    /**
+     * Test the reader device availability.
+     *
+     * @return the future completed with true if the reader device is available
+     */
+    public CompletableFuture<Boolean> testAvailability() {
+        return submit(AbstractReaderListener.TEST_AVAILABILITY_COMMAND, null, passive_reader::testAvailability);
+    }
+
+    /**
+     * Get the reader device battery level.
+     *
+     * @return the future completed with the battery level (V)
+     */
+    public CompletableFuture<Float> getBatteryLevel() {
+        return cache.get(AbstractReaderListener.GET_BATTERY_LEVEL_COMMAND,
+                () -> submit(AbstractReaderListener.GET_BATTERY_LEVEL_COMMAND, null, passive_reader::getBatteryLevel));
+    }
+
+    /**
+     * Get the reader device battery status.
+     *
+     * @return the future completed with the battery status
+     */
+    public CompletableFuture<Integer> getBatteryStatus() {
+        return cache.get(AbstractReaderListener.GET_BATTERY_STATUS_COMMAND,
+                () -> submit(AbstractReaderListener.GET_BATTERY_STATUS_COMMAND, null,
+                        passive_reader::getBatteryStatus));
+    }
+
+    /**
+     * Get the reader device firmware version.
+     *
+     * @return the future completed with the firmware version
+     */
+    public CompletableFuture<Version> getFirmwareVersion() {
+        return cache.get(AbstractReaderListener.GET_FIRMWARE_VERSION_COMMAND,
+                () -> submit(AbstractReaderListener.GET_FIRMWARE_VERSION_COMMAND, null,
+                        passive_reader::getFirmwareVersion));
+    }
+
+    /**
+     * Get the reader device BLE firmware version.
+     *
+     * @return the future completed with the BLE firmware version
+     */
+    public CompletableFuture<Version> getBLEfirmwareVersion() {
+        return cache.get(AbstractReaderListener.GET_BLE_FIRMWARE_VERSION_COMMAND,
+                () -> submit(AbstractReaderListener.GET_BLE_FIRMWARE_VERSION_COMMAND, null,
+                        passive_reader::getBLEfirmwareVersion));
+    }
+
+    /**
+     * Get the reader device BLE advertising power.
+     *
+     * @return the future completed with the BLE power
+     */
+    public CompletableFuture<Integer> getBLEpower() {
+        return cache.get(AbstractReaderListener.GET_BLE_POWER_COMMAND,
+                () -> submit(AbstractReaderListener.GET_BLE_POWER_COMMAND, null, passive_reader::getBLEpower));
+    }
+
+    /**
+     * Get the reader device EPC frequency.
+     *
+     * @return the future completed with the EPC frequency
+     */
+    public CompletableFuture<Integer> getEPCfrequency() {
+        return cache.get(AbstractReaderListener.GET_EPC_FREQUENCY_COMMAND,
+                () -> submit(AbstractReaderListener.GET_EPC_FREQUENCY_COMMAND, null, passive_reader::getEPCfrequency));
+    }
+
+    /**
+     * Get the reader device RF power.
+     *
+     * @return the future completed with the RF power level and mode
+     */
+    public CompletableFuture<RFpower> getRFpower() {
+        return cache.get(AbstractReaderListener.GET_RF_POWER_COMMAND,
+                () -> submit(AbstractReaderListener.GET_RF_POWER_COMMAND, null, passive_reader::getRFpower));
+    }
+
+    /**
+     * Get the reader device MAC address.
+     *
+     * @return the future completed with the MAC address
+     */
+    public CompletableFuture<byte[]> getMACaddress() {
+        return cache.get(AbstractReaderListener.GET_MAC_ADDRESS_COMMAND,
+                () -> submit(AbstractReaderListener.GET_MAC_ADDRESS_COMMAND, null, passive_reader::getMACaddress));
+    }
+
+    /**
+     * Get the reader device name.
+     *
+     * @return the future completed with the device name
+     */
+    public CompletableFuture<String> getName() {
+        return cache.get(AbstractReaderListener.GET_DEVICE_NAME_COMMAND,
+                () -> submit(AbstractReaderListener.GET_DEVICE_NAME_COMMAND, null, passive_reader::getName));
+    }
+
+    /**
+     * Get the reader device BLE security level.
+     *
+     * @return the future completed with the security level
+     */
+    public CompletableFuture<Integer> getSecurityLevel() {
+        return cache.get(AbstractReaderListener.GET_SECURITY_LEVEL_COMMAND,
+                () -> submit(AbstractReaderListener.GET_SECURITY_LEVEL_COMMAND, null,
+                        passive_reader::getSecurityLevel));
+    }
+
+    /**
+     * Get the reader device shutdown time.
+     *
+     * @return the future completed with the shutdown time (s)
+     */
+    public CompletableFuture<Integer> getShutdownTime() {
+        return cache.get(AbstractReaderListener.GET_SHUTDOWN_TIME_COMMAND,
+                () -> submit(AbstractReaderListener.GET_SHUTDOWN_TIME_COMMAND, null, passive_reader::getShutdownTime));
+    }
+
+    /**
+     * Read a reader device user memory block.
+     *
+     * @param block the block number
+     * @return the future completed with the block data
+     */
+    public CompletableFuture<byte[]> readUserMemory(int block) {
+        return submit(AbstractReaderListener.READ_USER_MEMORY_COMMAND, null,
+                () -> passive_reader.readUserMemory(block));
+    }
+
+    /**
+     * Write a reader device user memory block.
+     *
+     * @param block the block number
+     * @param data  the block data
+     * @return the future completed when the block has been written
+     */
+    public CompletableFuture<Void> writeUserMemory(int block, byte[] data) {
+        return submit(AbstractReaderListener.WRITE_USER_MEMORY_COMMAND, null,
+                () -> passive_reader.writeUserMemory(block, data));
+    }
+
+    /**
+     * Drive the reader device LED.
+     *
+     * @param led_status   the LED status
+     * @param led_blinking the LED blinking time
+     * @return the future completed when the command has been executed
+     * @see PassiveReader#light(boolean, int)
+     */
+    public CompletableFuture<Void> light(boolean led_status, int led_blinking) {
+        return submit(AbstractReaderListener.LIGHT_COMMAND, null,
+                () -> passive_reader.light(led_status, led_blinking));
+    }
+
+    /**
+     * Drive the reader device beeper.
+     *
+     * @param frequency  the sound frequency
+     * @param step       the sound frequency step
+     * @param duration   the sound duration
+     * @param interval   the sound interval
+     * @param repetition the sound repetitions
+     * @return the future completed when the command has been executed
+     * @see PassiveReader#sound(int, int, int, int, int)
+     */
+    public CompletableFuture<Void> sound(int frequency, int step, int duration, int interval, int repetition) {
+        return submit(AbstractReaderListener.SOUND_COMMAND, null,
+                () -> passive_reader.sound(frequency, step, duration, interval, repetition));
+    }
+
+    /**
+     * Set the reader device EPC frequency.
+     *
+     * @param frequency the EPC frequency
+     * @return the future completed when the frequency has been set
+     */
+    public CompletableFuture<Void> setEPCfrequency(int frequency) {
+        return submit(AbstractReaderListener.SET_EPC_FREQUENCY_COMMAND, null,
+                () -> passive_reader.setEPCfrequency(frequency));
+    }
+
+    /**
+     * Set the reader device inventory mode.
+     *
+     * @param mode the inventory mode
+     * @return the future completed when the mode has been set
+     */
+    public CompletableFuture<Void> setInventoryMode(int mode) {
+        return submit(AbstractReaderListener.SET_INVENTORY_MODE_COMMAND, null,
+                () -> passive_reader.setInventoryMode(mode));
+    }
+
+    /**
+     * Set the reader device inventory parameters.
+     *
+     * @param feedback the inventory feedback
+     * @param timeout  the inventory timeout (ms)
+     * @param interval the inventory interval (ms)
+     * @return the future completed when the parameters have been set
+     */
+    public CompletableFuture<Void> setInventoryParameters(int feedback, int timeout, int interval) {
+        return submit(AbstractReaderListener.SET_INVENTORY_PARAMETERS_COMMAND, null,
+                () -> passive_reader.setInventoryParameters(feedback, timeout, interval));
+    }
+
+    /**
+     * Set the reader device inventory standard.
+     *
+     * @param standard the inventory standard
+     * @return the future completed when the standard has been set
+     */
+    public CompletableFuture<Void> setInventoryType(int standard) {
+        return submit(AbstractReaderListener.SET_INVENTORY_TYPE_COMMAND, null,
+                () -> passive_reader.setInventoryType(standard));
+    }
+
+    /**
+     * Set the reader device RF power.
+     *
+     * @param level the RF power level
+     * @param mode  the RF power mode
+     * @return the future completed when the power has been set
+     */
+    public CompletableFuture<Void> setRFpower(int level, int mode) {
+        return submit(AbstractReaderListener.SET_RF_POWER_COMMAND, null, () -> passive_reader.setRFpower(level, mode));
+    }
+
+    /**
+     * Set the reader device shutdown time.
+     *
+     * @param time the shutdown time (s)
+     * @return the future completed when the time has been set
+     */
+    public CompletableFuture<Void> setShutdownTime(int time) {
+        return submit(AbstractReaderListener.SET_SHUTDOWN_TIME_COMMAND, null,
+                () -> passive_reader.setShutdownTime(time));
+    }
+
+    /**
+     * Send an ISO15693 tunnel command.
+     *
+     * @param command the command to send to the tag
+     * @return the future completed with the tunnel answer
+     */
+    public CompletableFuture<byte[]> ISO15693tunnel(byte[] command) {
+        return submit(AbstractReaderListener.ISO15693_TUNNEL_COMMAND, null,
+                () -> passive_reader.ISO15693tunnel(command));
+    }
+
+    /**
+     * Read EPC tag memory.
+     *
+     * @param tag     the tag
+     * @param address the first block address
+     * @param blocks  the number of blocks
+     * @return the future completed with the read data
+     */
+    public CompletableFuture<byte[]> read(EPC_tag tag, int address, int blocks) {
+        return submit(AbstractResponseListener.READ_COMMAND, tag, () -> tag.read(address, blocks));
+    }
+
+    /**
+     * Read ISO15693 tag memory.
+     *
+     * @param tag     the tag
+     * @param address the first block address
+     * @param blocks  the number of blocks
+     * @return the future completed with the read data
+     */
+    public CompletableFuture<byte[]> read(ISO15693_tag tag, int address, int blocks) {
+        return submit(AbstractResponseListener.READ_COMMAND, tag, () -> tag.read(address, blocks));
+    }
+
+    /**
+     * Read EPC tag TID.
+     *
+     * @param tag      the tag
+     * @param length   the TID length
+     * @param password the access password (may be null)
+     * @return the future completed with the TID
+     */
+    public CompletableFuture<byte[]> readTID(EPC_tag tag, int length, byte[] password) {
+        return submit(AbstractResponseListener.READ_TID_COMMAND, tag, () -> tag.readTID(length, password));
+    }
+
+    /**
+     * Write EPC tag memory.
+     *
+     * @param tag      the tag
+     * @param address  the first block address
+     * @param data     the data to write
+     * @param password the access password (may be null)
+     * @return the future completed when the data has been written
+     */
+    public CompletableFuture<Void> write(EPC_tag tag, int address, byte[] data, byte[] password) {
+        return submit(AbstractResponseListener.WRITE_COMMAND, tag, () -> tag.write(address, data, password),
+                () -> verifyData(read(tag, address, data.length / 2), data));
+    }
+
+    /**
+     * Write ISO15693 tag memory.
+     *
+     * @param tag     the tag
+     * @param address the first block address
+     * @param data    the data to write
+     * @return the future completed when the data has been written
+     */
+    public CompletableFuture<Void> write(ISO15693_tag tag, int address, byte[] data) {
+        return submit(AbstractResponseListener.WRITE_COMMAND, tag, () -> tag.write(address, data),
+                () -> verifyData(read(tag, address, (data.length + 3) / 4), data));
+    }
+
+    /**
+     * Write EPC tag ID.
+     *
+     * @param tag the tag
+     * @param ID  the new tag ID
+     * @param NSI the numbering system identifier
+     * @return the future completed when the ID has been written
+     */
+    public CompletableFuture<Void> writeID(EPC_tag tag, byte[] ID, short NSI) {
+        return submit(AbstractResponseListener.WRITEID_COMMAND, tag, () -> tag.writeID(ID, NSI),
+                () -> verifyID(tag, ID));
+    }
+
+    /**
+     * Lock EPC tag memory.
+     *
+     * @param tag       the tag
+     * @param lock_type the lock type
+     * @param password  the access password (may be null)
+     * @return the future completed when the tag has been locked
+     */
+    public CompletableFuture<Void> lock(EPC_tag tag, int lock_type, byte[] password) {
+        return submit(AbstractResponseListener.LOCK_COMMAND, tag, () -> tag.lock(lock_type, password),
+                () -> verifyReachable(readTID(tag, VERIFY_TID_LENGTH, null)));
+    }
+
+    /**
+     * Lock ISO15693 tag memory.
+     *
+     * @param tag     the tag
+     * @param address the first block address
+     * @param blocks  the number of blocks
+     * @return the future completed when the blocks have been locked
+     */
+    public CompletableFuture<Void> lock(ISO15693_tag tag, int address, int blocks) {
+        return submit(AbstractResponseListener.LOCK_COMMAND, tag, () -> tag.lock(address, blocks),
+                () -> verifyReachable(read(tag, address, 1)));
+    }
+
+    /**
+     * Kill EPC tag.
+     *
+     * @param tag      the tag
+     * @param password the kill password
+     * @return the future completed when the tag has been killed
+     */
+    public CompletableFuture<Void> kill(EPC_tag tag, byte[] password) {
+        return submit(AbstractResponseListener.KILL_COMMAND, tag, () -> tag.kill(password));
+    }
+
+    /**
+     * Write EPC tag kill password.
+     *
+     * @param tag           the tag
+     * @param kill_password the new kill password
+     * @param password      the access password (may be null)
+     * @return the future completed when the password has been written
+     */
+    public CompletableFuture<Void> writeKillPassword(EPC_tag tag, byte[] kill_password, byte[] password) {
+        return submit(AbstractResponseListener.WRITEKILLPASSWORD_COMMAND, tag,
+                () -> tag.writeKillPassword(kill_password, password));
+    }
+
+    /**
+     * Write EPC tag access password.
+     *
+     * @param tag             the tag
+     * @param access_password the new access password
+     * @param password        the current access password (may be null)
+     * @return the future completed when the password has been written
+     */
+    public CompletableFuture<Void> writeAccessPassword(EPC_tag tag, byte[] access_password, byte[] password) {
+        return submit(AbstractResponseListener.WRITEACCESSPASSWORD_COMMAND, tag,
+                () -> tag.writeAccessPassword(access_password, password));
+    }
+
+    private <T> CompletableFuture<T> submit(int command, Tag tag, Runnable call) {
+        return submit(command, tag, call, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> submit(int command, Tag tag, Runnable call,
+                                            Supplier<CompletableFuture<Integer>> verifier) {
+        Request request = new Request(command, tag, call, verifier, passive_reader.getCommandHandle());
+
+        // gets issued from now on must not return the attributes changed by the command
+        cache.invalidateBy(command);
+
+        issue(request);
+        return (CompletableFuture<T>) (CompletableFuture<?>) request.future;
+    }
+
+    private void issue(Request request) {
+        synchronized (requests) {
+            ArrayDeque<Request> queue = requests.get(request.command);
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                requests.put(request.command, queue);
+            }
+            request.order = next_order++;
+            request.value = null;
+            queue.addLast(request);
+        }
+        // errors detected on call are notified (and the request completed) before returning
+        passive_reader.execute(request.handle, request.call);
+    }
+
+    /**
+     * Schedule the retry of a failed request, if allowed by the retry policy.
+     *
+     * @param request the failed request
+     * @param error   the error code
+     * @return true if the request will be retried
+     */
+    private boolean retry(Request request, int error) {
+        RetryPolicy policy = retry_policy;
+        if (policy == null || !policy.canRetry(request.command, error, request.attempts)) {
+            return false;
+        }
+        if (policy.getClassification(request.command) == RetryPolicy.RETRY_VERIFIED && request.verifier == null) {
+            return false;
+        }
+        long delay = policy.getDelay(request.command, request.attempts);
+        request.attempts++;
+        request.error = error;
+        retry_scheduler.schedule(() -> reissue(request), delay, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    private void reissue(Request request) {
+        if (request.verifier == null ||
+                retry_policy == null ||
+                retry_policy.getClassification(request.command) != RetryPolicy.RETRY_VERIFIED) {
+            issue(request);
+            return;
+        }
+        AtomicReference<CompletableFuture<Integer>> verification = new AtomicReference<>();
+        passive_reader.execute(request.handle, () -> verification.set(request.verifier.get()));
+        verification.get().whenComplete((result, failure) -> {
+            if (failure == null && result == RetryPolicy.VERIFY_RETRY) {
+                issue(request);
+            }
+            else if (failure == null && result == RetryPolicy.VERIFY_SUCCEEDED) {
+                executor.execute(() -> request.future.complete(request.value));
+            }
+            else {
+                ReaderException exception = new ReaderException(request.command, request.error);
+                executor.execute(() -> request.future.completeExceptionally(exception));
+            }
+        });
+    }
+
+    /**
+     * Check written data by reading it back.
+     *
+     * @param read the read back operation
+     * @param data the written data
+     * @return the verification result
+     */
+    private static CompletableFuture<Integer> verifyData(CompletableFuture<byte[]> read, byte[] data) {
+        return read.handle((read_data, failure) -> {
+            if (failure != null || read_data == null) {
+                return RetryPolicy.VERIFY_FAILED;
+            }
+            if (read_data.length >= data.length && Arrays.equals(Arrays.copyOf(read_data, data.length), data)) {
+                return RetryPolicy.VERIFY_SUCCEEDED;
+            }
+            return RetryPolicy.VERIFY_RETRY;
+        });
+    }
+
+    /**
+     * Check a written ID: the write succeeded if a tag answers with the new ID,
+     * and may be retried if the tag still answers with the old one.
+     *
+     * @param tag the tag
+     * @param ID  the written ID
+     * @return the verification result
+     */
+    private CompletableFuture<Integer> verifyID(EPC_tag tag, byte[] ID) {
+        EPC_tag written = new EPC_tag(tag.getRSSI(), tag.getPC(), ID, passive_reader);
+        return readTID(written, VERIFY_TID_LENGTH, null)
+                .handle((TID, failure) -> failure == null)
+                .thenCompose(succeeded -> succeeded ?
+                        CompletableFuture.completedFuture(RetryPolicy.VERIFY_SUCCEEDED) :
+                        verifyReachable(readTID(tag, VERIFY_TID_LENGTH, null)));
+    }
+
+    /**
+     * Check that a tag still answers before issuing a lock again; applying the
+     * same lock twice leaves the tag unchanged.
+     *
+     * @param read the tag read operation
+     * @return the verification result
+     */
+    private static CompletableFuture<Integer> verifyReachable(CompletableFuture<byte[]> read) {
+        return read.handle((read_data, failure) ->
+                failure == null ? RetryPolicy.VERIFY_RETRY : RetryPolicy.VERIFY_FAILED);
+    }
+
+    private Request find(int command, byte[] tag_ID, boolean remove) {
+        synchronized (requests) {
+            ArrayDeque<Request> queue = requests.get(command);
+            if (queue == null || queue.isEmpty()) {
+                return null;
+            }
+            Iterator<Request> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                Request request = iterator.next();
+                if (request.matches(tag_ID)) {
+                    if (remove) {
+                        iterator.remove();
+                    }
+                    return request;
+                }
+            }
+            return remove ? queue.pollFirst() : queue.peekFirst();
+        }
+    }
+
+    /**
+     * Get the command of a password write answer, which is the same for kill
+     * and access passwords: the oldest request for the tag, or the oldest
+     * request if no request addresses the tag.
+     *
+     * @param tag_ID the answer tag ID
+     * @return the command code
+     */
+    private int passwordCommand(byte[] tag_ID) {
+        synchronized (requests) {
+            Request kill = first(AbstractResponseListener.WRITEKILLPASSWORD_COMMAND, tag_ID);
+            Request access = first(AbstractResponseListener.WRITEACCESSPASSWORD_COMMAND, tag_ID);
+            if (kill == null && access == null) {
+                kill = first(AbstractResponseListener.WRITEKILLPASSWORD_COMMAND, null);
+                access = first(AbstractResponseListener.WRITEACCESSPASSWORD_COMMAND, null);
+            }
+            if (access == null || (kill != null && kill.order < access.order)) {
+                return AbstractResponseListener.WRITEKILLPASSWORD_COMMAND;
+            }
+            return AbstractResponseListener.WRITEACCESSPASSWORD_COMMAND;
+        }
+    }
+
+    private Request first(int command, byte[] tag_ID) {
+        ArrayDeque<Request> queue = requests.get(command);
+        if (queue != null) {
+            for (Request request : queue) {
+                if (request.matches(tag_ID)) {
+                    return request;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void setValue(int command, Object value) {
+        Request request = find(command, null, false);
+        if (request != null) {
+            request.value = value;
+        }
+    }
+
+    private void complete(int command, byte[] tag_ID, int error, Object value) {
+        Request request = find(command, tag_ID, true);
+        if (request == null) {
+            return;
+        }
+        if (error != AbstractReaderListener.NO_ERROR && retry(request, error)) {
+            return;
+        }
+        if (error != AbstractReaderListener.NO_ERROR) {
+            ReaderException exception = new ReaderException(command, error);
+            executor.execute(() -> request.future.completeExceptionally(exception));
+        }
+        else {
+            Object result = value != null ? value : request.value;
+            executor.execute(() -> request.future.complete(result));
+        }
+    }
+
+    private void failAll(int error) {
+        ArrayDeque<Request> failed = new ArrayDeque<>();
+
+        synchronized (requests) {
+            for (ArrayDeque<Request> queue : requests.values()) {
+                failed.addAll(queue);
+                queue.clear();
+            }
+        }
+        for (Request request : failed) {
+            ReaderException exception = new ReaderException(request.command, error);
+            executor.execute(() -> request.future.completeExceptionally(exception));
+        }
+    }
+
+    private class ReaderForwarder extends AbstractReaderListener {
+        private final AbstractReaderListener listener;
+
+        private ReaderForwarder(AbstractReaderListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void BLEfirmwareVersionEvent(int major, int minor) {
+            setValue(GET_BLE_FIRMWARE_VERSION_COMMAND, new Version(major, minor));
+            listener.BLEfirmwareVersionEvent(major, minor);
+        }
+
+        @Override
+        public void BLEpowerEvent(int BLE_power) {
+            setValue(GET_BLE_POWER_COMMAND, BLE_power);
+            listener.BLEpowerEvent(BLE_power);
+        }
+
+        @Override
+        public void EPCfrequencyEvent(int frequency) {
+            setValue(GET_EPC_FREQUENCY_COMMAND, frequency);
+            listener.EPCfrequencyEvent(frequency);
+        }
+
+        @Override
+        public void ISO15693bitrateEvent(int bitrate, boolean permanent) {
+            listener.ISO15693bitrateEvent(bitrate, permanent);
+        }
+
+        @Override
+        public void ISO15693extensionFlagEvent(boolean flag, boolean permanent) {
+            listener.ISO15693extensionFlagEvent(flag, permanent);
+        }
+
+        @Override
+        public void ISO15693optionBitsEvent(int option_bits) {
+            listener.ISO15693optionBitsEvent(option_bits);
+        }
+
+        @Override
+        public void MACaddressEvent(byte[] MAC_address) {
+            setValue(GET_MAC_ADDRESS_COMMAND, MAC_address);
+            listener.MACaddressEvent(MAC_address);
+        }
+
+        @Override
+        public void RFforISO15693tunnelEvent(int delay, int timeout) {
+            listener.RFforISO15693tunnelEvent(delay, timeout);
+        }
+
+        @Override
+        public void RFpowerEvent(int level, int mode) {
+            setValue(GET_RF_POWER_COMMAND, new RFpower(level, mode));
+            listener.RFpowerEvent(level, mode);
+        }
+
+        @Override
+        public void advertisingIntervalEvent(int advertising_interval) {
+            listener.advertisingIntervalEvent(advertising_interval);
+        }
+
+        @Override
+        public void availabilityEvent(boolean available) {
+            setValue(TEST_AVAILABILITY_COMMAND, available);
+            listener.availabilityEvent(available);
+        }
+
+        @Override
+        public void batteryLevelEvent(float level) {
+            setValue(GET_BATTERY_LEVEL_COMMAND, level);
+            listener.batteryLevelEvent(level);
+        }
+
+        @Override
+        public void batteryStatusEvent(int status) {
+            setValue(GET_BATTERY_STATUS_COMMAND, status);
+            listener.batteryStatusEvent(status);
+        }
+
+        @Override
+        public void connectionFailedEvent(int error) {
+            listener.connectionFailedEvent(error);
+        }
+
+        @Override
+        public void connectionIntervalAndMTUevent(float connection_interval, int MTU) {
+            listener.connectionIntervalAndMTUevent(connection_interval, MTU);
+        }
+
+        @Override
+        public void connectionIntervalEvent(float min_interval, float max_interval) {
+            listener.connectionIntervalEvent(min_interval, max_interval);
+        }
+
+        @Override
+        public void connectionSuccessEvent() {
+            cache.clear();
+            listener.connectionSuccessEvent();
+        }
+
+        @Override
+        public void disconnectionSuccessEvent() {
+            cache.clear();
+            failAll(READER_DRIVER_WRONG_STATUS_ERROR);
+            listener.disconnectionSuccessEvent();
+        }
+
+        @Override
+        public void firmwareVersionEvent(int major, int minor) {
+            setValue(GET_FIRMWARE_VERSION_COMMAND, new Version(major, minor));
+            listener.firmwareVersionEvent(major, minor);
+        }
+
+        @Override
+        public void nameEvent(String device_name) {
+            setValue(GET_DEVICE_NAME_COMMAND, device_name);
+            listener.nameEvent(device_name);
+        }
+
+        @Override
+        public void resultEvent(int command, int error) {
+            cache.invalidateBy(command);
+            complete(command, null, error, null);
+            listener.resultEvent(command, error);
+        }
+
+        @Override
+        public void securityLevelEvent(int level) {
+            setValue(GET_SECURITY_LEVEL_COMMAND, level);
+            listener.securityLevelEvent(level);
+        }
+
+        @Override
+        public void shutdownTimeEvent(int time) {
+            setValue(GET_SHUTDOWN_TIME_COMMAND, time);
+            listener.shutdownTimeEvent(time);
+        }
+
+        @Override
+        public void slaveLatencyEvent(int slave_latency) {
+            listener.slaveLatencyEvent(slave_latency);
+        }
+
+        @Override
+        public void supervisionTimeoutEvent(int supervision_timeout) {
+            listener.supervisionTimeoutEvent(supervision_timeout);
+        }
+
+        @Override
+        public void tunnelEvent(byte[] data) {
+            complete(ISO15693_TUNNEL_COMMAND, null, NO_ERROR, data);
+            listener.tunnelEvent(data);
+        }
+
+        @Override
+        public void tunnelEvent(ByteBuffer data) {
+            byte[] answer = new byte[data.remaining()];
+            data.duplicate().get(answer);
+            complete(ISO15693_TUNNEL_COMMAND, null, NO_ERROR, answer);
+            listener.tunnelEvent(data);
+        }
+
+        @Override
+        public void userMemoryEvent(byte[] data_block) {
+            setValue(READ_USER_MEMORY_COMMAND, data_block);
+            listener.userMemoryEvent(data_block);
+        }
+    }
+
+    private class ResponseForwarder extends AbstractResponseListener {
+        private final AbstractResponseListener listener;
+
+        private ResponseForwarder(AbstractResponseListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void killEvent(byte[] tag_ID, int error) {
+            complete(KILL_COMMAND, tag_ID, error, null);
+            listener.killEvent(tag_ID, error);
+        }
+
+        @Override
+        public void lockEvent(byte[] tag_ID, int error) {
+            complete(LOCK_COMMAND, tag_ID, error, null);
+            listener.lockEvent(tag_ID, error);
+        }
+
+        @Override
+        public void readEvent(byte[] tag_ID, int error, byte[] data) {
+            complete(READ_COMMAND, tag_ID, error, data);
+            listener.readEvent(tag_ID, error, data);
+        }
+
+        @Override
+        public void readTIDevent(byte[] tag_ID, int error, byte[] TID) {
+            complete(READ_TID_COMMAND, tag_ID, error, TID);
+            listener.readTIDevent(tag_ID, error, TID);
+        }
+
+        @Override
+        public void writeEvent(byte[] tag_ID, int error) {
+            complete(WRITE_COMMAND, tag_ID, error, null);
+            listener.writeEvent(tag_ID, error);
+        }
+
+        @Override
+        public void writeIDevent(byte[] tag_ID, int error) {
+            complete(WRITEID_COMMAND, tag_ID, error, null);
+            listener.writeIDevent(tag_ID, error);
+        }
+
+        @Override
+        public void writePasswordEvent(byte[] tag_ID, int error) {
+            complete(passwordCommand(tag_ID), tag_ID, error, null);
+            listener.writePasswordEvent(tag_ID, error);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractReaderListener;
+
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the reader configuration and status attributes returned by the
+ * get commands, with a time to live per attribute.
+ * <p>
+ * A get command for an attribute still valid is completed with the cached
+ * value without being sent; get commands issued while the same attribute is
+ * being fetched share the command already sent. Attributes are invalidated
+ * by the set commands changing them, and all together on connection and
+ * disconnection.
+ */
+final class AttributeCache {
+    private static final class Entry {
+        private long ttl;
+        private Object value;
+        private boolean valid;
+        private long stored;
+        private int generation;
+        private CompletableFuture<Object> pending;
+    }
+
+    private static final int[] ALL = new int[0];
+
+    private final HashMap<Integer, Entry> entries = new HashMap<>();
+    private final HashMap<Integer, int[]> invalidations = new HashMap<>();
+    private long hits;
+    private long misses;
+
+    AttributeCache() {
+        invalidates(AbstractReaderListener.SET_SHUTDOWN_TIME_COMMAND, AbstractReaderListener.GET_SHUTDOWN_TIME_COMMAND);
+        invalidates(AbstractReaderListener.SET_RF_POWER_COMMAND, AbstractReaderListener.GET_RF_POWER_COMMAND);
+        invalidates(AbstractReaderListener.SET_EPC_FREQUENCY_COMMAND, AbstractReaderListener.GET_EPC_FREQUENCY_COMMAND);
+        invalidates(AbstractReaderListener.SET_SECURITY_LEVEL_COMMAND,
+                AbstractReaderListener.GET_SECURITY_LEVEL_COMMAND);
+        invalidates(AbstractReaderListener.SET_DEVICE_NAME_COMMAND, AbstractReaderListener.GET_DEVICE_NAME_COMMAND);
+        invalidates(AbstractReaderListener.SET_BLE_POWER_COMMAND, AbstractReaderListener.GET_BLE_POWER_COMMAND);
+        invalidates(AbstractReaderListener.SET_ADVERTISING_INTERVAL_COMMAND,
+                AbstractReaderListener.GET_ADVERTISING_INTERVAL_COMMAND);
+        invalidates(AbstractReaderListener.SET_CONNECTION_INTERVAL_COMMAND,
+                AbstractReaderListener.GET_CONNECTION_INTERVAL_COMMAND,
+                AbstractReaderListener.GET_CONNECTION_INTERVAL_AND_MTU_COMMAND);
+        invalidates(AbstractReaderListener.SET_SLAVE_LATENCY_COMMAND, AbstractReaderListener.GET_SLAVE_LATENCY_COMMAND);
+        invalidates(AbstractReaderListener.SET_SUPERVISION_TIMEOUT_COMMAND,
+                AbstractReaderListener.GET_SUPERVISION_TIMEOUT_COMMAND);
+        invalidations.put(AbstractReaderListener.DEFAULT_SETUP_COMMAND, ALL);
+        invalidations.put(AbstractReaderListener.DEFAULT_BLE_CONFIGURATION_COMMAND, ALL);
+        invalidations.put(AbstractReaderListener.RESET_COMMAND, ALL);
+        invalidations.put(AbstractReaderListener.ZHAGA_REBOOT_COMMAND, ALL);
+    }
+
+    /**
+     * Set the time to live of an attribute.
+     *
+     * @param command the attribute get command code
+     * @param ttl     the time to live (ms, 0 disables the cache, {@code Long.MAX_VALUE} never expires)
+     */
+    synchronized void setTTL(int command, long ttl) {
+        Entry entry = entry(command);
+        entry.ttl = Math.max(ttl, 0);
+        entry.valid = false;
+        entry.generation++;
+    }
+
+    /**
+     * Get the time to live of an attribute.
+     *
+     * @param command the attribute get command code
+     * @return the time to live (ms, 0 if the attribute is not cached)
+     */
+    synchronized long getTTL(int command) {
+        Entry entry = entries.get(command);
+        return entry != null ? entry.ttl : 0;
+    }
+
+    /**
+     * Get the number of get commands completed without sending a command.
+     *
+     * @return the cache hits count
+     */
+    synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Get the number of get commands sent for a cached attribute.
+     *
+     * @return the cache misses count
+     */
+    synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Get an attribute, fetching it only if not cached or expired and not
+     * being fetched yet.
+     *
+     * @param command the attribute get command code
+     * @param fetch   the get command invocation
+     * @param <T>     the attribute type
+     * @return the future completed with the attribute value
+     */
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> get(int command, Supplier<CompletableFuture<T>> fetch) {
+        Entry entry;
+        CompletableFuture<Object> pending;
+        int generation;
+
+        synchronized (this) {
+            entry = entries.get(command);
+            if (entry == null || entry.ttl == 0) {
+                entry = null;
+                pending = null;
+                generation = 0;
+            }
+            else if (entry.valid && (entry.ttl == Long.MAX_VALUE ||
+                    System.nanoTime() - entry.stored < entry.ttl * 1000000L)) {
+                hits++;
+                return CompletableFuture.completedFuture((T) copy(entry.value));
+            }
+            else if (entry.pending != null) {
+                hits++;
+                return share(entry.pending);
+            }
+            else {
+                misses++;
+                pending = new CompletableFuture<>();
+                entry.pending = pending;
+                generation = entry.generation;
+            }
+        }
+        if (entry == null) {
+            return fetch.get();
+        }
+        Entry fetched = entry;
+        fetch.get().whenComplete((value, failure) -> {
+            synchronized (this) {
+                if (fetched.pending == pending) {
+                    fetched.pending = null;
+                }
+                if (failure == null && fetched.generation == generation) {
+                    fetched.value = value;
+                    fetched.valid = true;
+                    fetched.stored = System.nanoTime();
+                }
+            }
+            if (failure != null) {
+                pending.completeExceptionally(failure);
+            }
+            else {
+                pending.complete(value);
+            }
+        });
+        return share(pending);
+    }
+
+    /**
+     * Invalidate the attributes changed by a command.
+     *
+     * @param command the command code
+     */
+    synchronized void invalidateBy(int command) {
+        int[] commands = invalidations.get(command);
+        if (commands == ALL) {
+            clear();
+        }
+        else if (commands != null) {
+            for (int get_command : commands) {
+                invalidate(get_command);
+            }
+        }
+    }
+
+    /**
+     * Invalidate an attribute.
+     *
+     * @param command the attribute get command code
+     */
+    synchronized void invalidate(int command) {
+        Entry entry = entries.get(command);
+        if (entry != null) {
+            entry.valid = false;
+            entry.value = null;
+            entry.generation++;
+            // commands issued from now on must not share the outdated fetch
+            entry.pending = null;
+        }
+    }
+
+    /**
+     * Invalidate all the attributes.
+     */
+    synchronized void clear() {
+        for (int command : entries.keySet()) {
+            invalidate(command);
+        }
+    }
+
+    private void invalidates(int set_command, int... get_commands) {
+        invalidations.put(set_command, get_commands);
+    }
+
+    private Entry entry(int command) {
+        Entry entry = entries.get(command);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(command, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Get a future of its own for a caller sharing a fetch, so that callers
+     * cannot complete or cancel each other's future.
+     *
+     * @param pending the fetch future
+     * @param <T>     the attribute type
+     * @return the caller future
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> CompletableFuture<T> share(CompletableFuture<Object> pending) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        pending.whenComplete((value, failure) -> {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            }
+            else {
+                future.complete((T) copy(value));
+            }
+        });
+        return future;
+    }
+
+    private static Object copy(Object value) {
+        return value instanceof byte[] ? ((byte[]) value).clone() : value;
+    }
+}
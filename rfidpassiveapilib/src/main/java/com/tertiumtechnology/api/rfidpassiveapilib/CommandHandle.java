@@ -0,0 +1,159 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractReaderListener;
+
+import java.util.ArrayList;
+
+/**
+ * Deadline and cancellation handle of reader and tag commands.
+ * <p>
+ * Commands issued inside {@link PassiveReader#execute(CommandHandle, Runnable)}
+ * are bound to the handle. When the handle is cancelled, or its deadline
+ * expires, the bound commands still queued are never written to the reader
+ * device, and the bound commands waiting for their answer are failed at
+ * once: their listener methods are invoked on the application main thread,
+ * never within {@link #cancel()}, with error code {@link
+ * AbstractReaderListener#READER_DRIVER_COMMAND_CANCELLED_ERROR} or {@link
+ * AbstractReaderListener#READER_DRIVER_COMMAND_DEADLINE_ERROR}, and their
+ * late answer is discarded when received.
+ * <p>
+ * The deadline covers the whole operation (queueing, sending and answer) and
+ * is independent of the BLE timeouts and of the tag timeout sent to the
+ * reader device.
+ */
+public final class CommandHandle {
+    /**
+     * Remaining time of a handle without deadline.
+     */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final long deadline;
+    private final boolean timed;
+    private final ArrayList<PassiveReader> readers = new ArrayList<>();
+    private volatile boolean cancelled;
+
+    /**
+     * Create a handle without deadline.
+     */
+    public CommandHandle() {
+        deadline = 0;
+        timed = false;
+    }
+
+    /**
+     * Create a handle whose deadline expires after a time.
+     *
+     * @param timeout the time to the deadline (ms)
+     */
+    public CommandHandle(long timeout) {
+        deadline = System.nanoTime() + Math.max(timeout, 0) * 1000000L;
+        timed = true;
+    }
+
+    /**
+     * Cancel the commands bound to the handle.
+     *
+     * @return true if the handle has been cancelled, false if it was already cancelled
+     */
+    public boolean cancel() {
+        PassiveReader[] attached;
+
+        synchronized (readers) {
+            if (cancelled) {
+                return false;
+            }
+            cancelled = true;
+            attached = readers.toArray(new PassiveReader[0]);
+        }
+        for (PassiveReader passive_reader : attached) {
+            passive_reader.cancelCommands(this, AbstractReaderListener.READER_DRIVER_COMMAND_CANCELLED_ERROR);
+        }
+        return true;
+    }
+
+    /**
+     * Check if the handle has been cancelled.
+     *
+     * @return true if the handle has been cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Check if the handle deadline has expired.
+     *
+     * @return true if the deadline has expired
+     */
+    public boolean isExpired() {
+        return timed && deadline - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Get the time left before the handle deadline expires.
+     *
+     * @return the remaining time (ms, 0 if expired), or {@link #NO_DEADLINE} if the handle has no deadline
+     */
+    public long getRemainingTime() {
+        if (!timed) {
+            return NO_DEADLINE;
+        }
+        long remaining = deadline - System.nanoTime();
+        return remaining > 0 ? (remaining + 999999L) / 1000000L : 0;
+    }
+
+    /**
+     * Get the error to report for the commands bound to the handle.
+     *
+     * @return the error code, or {@code NO_ERROR} if the commands can still be sent
+     */
+    int getError() {
+        if (cancelled) {
+            return AbstractReaderListener.READER_DRIVER_COMMAND_CANCELLED_ERROR;
+        }
+        if (isExpired()) {
+            return AbstractReaderListener.READER_DRIVER_COMMAND_DEADLINE_ERROR;
+        }
+        return AbstractReaderListener.NO_ERROR;
+    }
+
+    /**
+     * Attach the handle to the reader its commands are sent to.
+     *
+     * @param passive_reader the reader
+     * @return true if the handle was not attached to the reader yet
+     */
+    boolean attach(PassiveReader passive_reader) {
+        synchronized (readers) {
+            if (readers.contains(passive_reader)) {
+                return false;
+            }
+            readers.add(passive_reader);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,580 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractReaderListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.util.LatencyHistogram;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * Bounded priority queue of the commands issued while the reader is busy.
+ * <p>
+ * Each entry re-invokes a public command method once the reader is ready
+ * again, so parameter checks and call-time settings are applied as usual and
+ * the command sequence number is assigned only when the command is sent.
+ * An entry is rejected by re-invoking it with an error code set for the
+ * current thread: the command method then reports that error to its
+ * listener instead of queueing the command again.
+ * <p>
+ * Commands are sent by priority class, in FIFO order within a class. Each
+ * class may have a quota of queued commands, and telemetry commands are held
+ * back while interactive or tag commands keep being issued.
+ * <p>
+ * Commands issued while the current thread is bound to a {@link
+ * CommandHandle} keep the handle while queued, and are rejected instead of
+ * being sent once the handle is cancelled or its deadline expires.
+ */
+final class CommandQueue {
+    /**
+     * Result of {@link #offer(int, Runnable, boolean)}: the queue is full and
+     * the caller may wait for space before offering the command again.
+     */
+    static final int WAIT_FOR_SPACE = -1;
+
+    private static final int PRIORITIES = PassiveReader.COMMAND_PRIORITY_TELEMETRY + 1;
+
+    private static final class Entry {
+        private final Runnable command;
+        private final int priority;
+        private final long enqueued;
+        private final CommandHandle handle;
+
+        private Entry(Runnable command, int priority, long enqueued, CommandHandle handle) {
+            this.command = command;
+            this.priority = priority;
+            this.enqueued = enqueued;
+            this.handle = handle;
+        }
+    }
+
+    private static final class Context {
+        private Entry dispatched;
+        private boolean requeued;
+        private int rejection;
+        private CommandHandle handle;
+        private boolean delivery;
+    }
+
+    private final ArrayList<ArrayDeque<Entry>> entries = new ArrayList<>(PRIORITIES);
+    private final int[] quotas = new int[PRIORITIES];
+    private final long[] rejected = new long[PRIORITIES];
+    private final LatencyHistogram[] wait_latencies = new LatencyHistogram[PRIORITIES];
+    private final ArrayList<Object> waiting_locks = new ArrayList<>();
+    private final ThreadLocal<Context> contexts = new ThreadLocal<Context>() {
+        @Override
+        protected Context initialValue() {
+            return new Context();
+        }
+    };
+    private int count;
+    private int depth;
+    private long wait_time;
+    private int overflow_policy;
+    private long defer_time;
+    private volatile long deferred_until;
+
+    CommandQueue() {
+        for (int n = 0; n < PRIORITIES; n++) {
+            entries.add(new ArrayDeque<>());
+            wait_latencies[n] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Set the queue parameters.
+     *
+     * @param depth           the maximum number of queued commands (0 disables the queue)
+     * @param wait_time       the maximum time, in milliseconds, a command may wait (0 for no limit)
+     * @param overflow_policy the policy applied when the queue is full
+     */
+    synchronized void configure(int depth, long wait_time, int overflow_policy) {
+        this.depth = depth;
+        this.wait_time = wait_time;
+        this.overflow_policy = overflow_policy;
+    }
+
+    /**
+     * Set the maximum number of queued commands of a priority class.
+     *
+     * @param priority the priority class
+     * @param quota    the maximum number of queued commands (0 for the queue depth only)
+     */
+    synchronized void setQuota(int priority, int quota) {
+        quotas[priority] = quota;
+    }
+
+    /**
+     * Set the time telemetry commands are held back after an interactive or
+     * tag command has been issued.
+     *
+     * @param defer_time the defer time (ms, 0 to disable)
+     */
+    synchronized void setDeferTime(long defer_time) {
+        this.defer_time = defer_time;
+        if (defer_time == 0) {
+            deferred_until = 0;
+        }
+    }
+
+    /**
+     * Hold telemetry commands back for the defer time, because an interactive
+     * or tag command has been issued.
+     */
+    void deferTelemetry() {
+        long time = defer_time;
+        if (time > 0) {
+            deferred_until = System.nanoTime() + time * 1000000L;
+        }
+    }
+
+    /**
+     * Check if telemetry commands are held back.
+     *
+     * @return true if telemetry commands must be queued
+     */
+    boolean isTelemetryDeferred() {
+        long until = deferred_until;
+        return until != 0 && until - System.nanoTime() > 0;
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    synchronized int size(int priority) {
+        return entries.get(priority).size();
+    }
+
+    synchronized boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Check if no command of a priority class, or of a more urgent class, is queued.
+     *
+     * @param priority the priority class
+     * @return true if a command of the class would not overtake a queued command
+     */
+    synchronized boolean isEmpty(int priority) {
+        for (int n = 0; n <= priority; n++) {
+            if (!entries.get(n).isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of commands of a priority class rejected because the
+     * queue was full or their wait time expired.
+     *
+     * @param priority the priority class
+     * @return the rejected commands count
+     */
+    synchronized long getRejectedCount(int priority) {
+        return rejected[priority];
+    }
+
+    /**
+     * Get the time spent in the queue by the sent commands of a priority class.
+     *
+     * @param priority the priority class
+     * @return the queue wait time histogram
+     */
+    LatencyHistogram getWaitLatency(int priority) {
+        return wait_latencies[priority];
+    }
+
+    /**
+     * Check if the current thread is sending a queued command.
+     *
+     * @return true if the current thread is sending a queued command
+     */
+    boolean isDispatching() {
+        return contexts.get().dispatched != null;
+    }
+
+    /**
+     * Get the error to report for the command being rejected by the current
+     * thread.
+     *
+     * @return the error code, or {@code NO_ERROR} if no command is being rejected
+     */
+    int getRejection() {
+        Context context = contexts.get();
+        if (context.rejection != AbstractReaderListener.NO_ERROR || context.handle == null) {
+            return context.rejection;
+        }
+        return context.handle.getError();
+    }
+
+    /**
+     * Mark the current thread as a thread delivering the device callbacks:
+     * the answers freeing queue space are delivered by such threads, so they
+     * never wait for space.
+     */
+    void markDeliveryThread() {
+        contexts.get().delivery = true;
+    }
+
+    /**
+     * Check if the current thread delivers the device callbacks.
+     *
+     * @return true if the current thread must never wait for space
+     */
+    boolean isDeliveryThread() {
+        return contexts.get().delivery;
+    }
+
+    /**
+     * Get the handle the commands issued by the current thread are bound to.
+     *
+     * @return the handle, or null if the commands are not bound
+     */
+    CommandHandle getHandle() {
+        return contexts.get().handle;
+    }
+
+    /**
+     * Bind the commands issued by the current thread to a handle.
+     *
+     * @param handle the handle (null to unbind)
+     * @return the handle previously bound
+     */
+    CommandHandle bind(CommandHandle handle) {
+        Context context = contexts.get();
+        CommandHandle previous = context.handle;
+        context.handle = handle;
+        return previous;
+    }
+
+    /**
+     * Queue a command.
+     * <p>
+     * A command re-invoked while being sent keeps its place at the head of its
+     * class. When the queue is full the drop oldest policy drops the oldest
+     * command of the lowest class not above the new command priority, and
+     * rejects the new command if there is no such command. The block policy
+     * returns {@link #WAIT_FOR_SPACE} if the caller may block, see {@link
+     * #awaitSpace(int, Object, long)}, and rejects the command otherwise.
+     *
+     * @param priority  the command priority class
+     * @param command   the command method invocation
+     * @param may_block true if the caller may wait for space
+     * @return {@code NO_ERROR} if the command has been queued, {@link #WAIT_FOR_SPACE} or the error code to report
+     */
+    int offer(int priority, Runnable command, boolean may_block) {
+        Context context = contexts.get();
+        Entry dropped = null;
+        int rejection = getRejection();
+
+        if (rejection != AbstractReaderListener.NO_ERROR) {
+            return rejection;
+        }
+        synchronized (this) {
+            if (context.dispatched != null) {
+                entries.get(context.dispatched.priority).addFirst(context.dispatched);
+                count++;
+                context.requeued = true;
+                return AbstractReaderListener.NO_ERROR;
+            }
+            if (depth == 0) {
+                return AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR;
+            }
+            if (isFull(priority)) {
+                switch (overflow_policy) {
+                    case PassiveReader.COMMAND_QUEUE_DROP_OLDEST:
+                        dropped = dropOldest(priority);
+                        if (dropped == null) {
+                            rejected[priority]++;
+                            return AbstractReaderListener.READER_DRIVER_COMMAND_QUEUE_FULL_ERROR;
+                        }
+                        break;
+                    case PassiveReader.COMMAND_QUEUE_BLOCK:
+                        if (may_block) {
+                            return WAIT_FOR_SPACE;
+                        }
+                        rejected[priority]++;
+                        return AbstractReaderListener.READER_DRIVER_COMMAND_QUEUE_FULL_ERROR;
+                    default:
+                        rejected[priority]++;
+                        return AbstractReaderListener.READER_DRIVER_COMMAND_QUEUE_FULL_ERROR;
+                }
+            }
+            entries.get(priority).addLast(new Entry(command, priority, System.nanoTime(), context.handle));
+            count++;
+        }
+        if (dropped != null) {
+            reject(dropped, AbstractReaderListener.READER_DRIVER_COMMAND_QUEUE_FULL_ERROR);
+        }
+        return AbstractReaderListener.NO_ERROR;
+    }
+
+    /**
+     * Send the queued commands while the reader can accept them.
+     * <p>
+     * Commands waiting longer than the configured wait time, or whose handle
+     * has been cancelled or has expired, are rejected.
+     * Dispatching stops when a command cannot be sent yet (e.g. it waits for
+     * all the in-flight commands to complete), or when only held back
+     * telemetry commands are left.
+     *
+     * @param passive_reader the reader the commands are sent to
+     * @return the time (ms) after which held back telemetry commands can be sent, 0 if there are none
+     */
+    long dispatch(PassiveReader passive_reader) {
+        Context context = contexts.get();
+
+        if (context.dispatched != null || context.rejection != AbstractReaderListener.NO_ERROR) {
+            return 0;
+        }
+        try {
+            while (true) {
+                Entry entry;
+                long limit;
+
+                synchronized (this) {
+                    if (!passive_reader.canSend(false) || count == 0) {
+                        return 0;
+                    }
+                    entry = poll();
+                    if (entry == null) {
+                        long remaining = (deferred_until - System.nanoTime()) / 1000000L;
+                        return Math.max(remaining, 1);
+                    }
+                    limit = wait_time;
+                }
+                wakeWaiters();
+                long waited = System.nanoTime() - entry.enqueued;
+                int error = entry.handle != null ? entry.handle.getError() : AbstractReaderListener.NO_ERROR;
+                if (error != AbstractReaderListener.NO_ERROR) {
+                    reject(entry, error);
+                }
+                else if (limit > 0 && waited > limit * 1000000L) {
+                    synchronized (this) {
+                        rejected[entry.priority]++;
+                    }
+                    reject(entry, AbstractReaderListener.READER_DRIVER_COMMAND_QUEUE_TIMEOUT_ERROR);
+                }
+                else {
+                    wait_latencies[entry.priority].record(waited);
+                    CommandHandle handle = context.handle;
+                    context.dispatched = entry;
+                    context.requeued = false;
+                    context.handle = entry.handle;
+                    try {
+                        entry.command.run();
+                    } finally {
+                        context.dispatched = null;
+                        context.handle = handle;
+                    }
+                    if (context.requeued) {
+                        return 0;
+                    }
+                }
+            }
+        } finally {
+            context.dispatched = null;
+        }
+    }
+
+    /**
+     * Reject all the queued commands.
+     *
+     * @param error the error code to report
+     */
+    void clear(int error) {
+        while (true) {
+            Entry entry = null;
+
+            synchronized (this) {
+                for (int n = 0; n < PRIORITIES && entry == null; n++) {
+                    entry = entries.get(n).pollFirst();
+                }
+                if (entry != null) {
+                    count--;
+                }
+            }
+            wakeWaiters();
+            if (entry == null) {
+                return;
+            }
+            reject(entry, error);
+        }
+    }
+
+    /**
+     * Remove the queued commands bound to a handle, so that they are never
+     * sent.
+     *
+     * @param handle the handle
+     * @param error  the error code to report
+     * @return the task notifying the error to the removed commands
+     */
+    Runnable remove(CommandHandle handle, int error) {
+        ArrayDeque<Entry> removed = new ArrayDeque<>();
+
+        synchronized (this) {
+            for (int n = 0; n < PRIORITIES; n++) {
+                Iterator<Entry> iterator = entries.get(n).iterator();
+                while (iterator.hasNext()) {
+                    Entry entry = iterator.next();
+                    if (entry.handle == handle) {
+                        iterator.remove();
+                        removed.addLast(entry);
+                        count--;
+                    }
+                }
+            }
+        }
+        wakeWaiters();
+        return () -> {
+            for (Entry entry : removed) {
+                reject(entry, error);
+            }
+        };
+    }
+
+    private Entry poll() {
+        for (int n = 0; n < PRIORITIES; n++) {
+            if (!entries.get(n).isEmpty()) {
+                if (n == PassiveReader.COMMAND_PRIORITY_TELEMETRY && isTelemetryDeferred()) {
+                    return null;
+                }
+                count--;
+                return entries.get(n).pollFirst();
+            }
+        }
+        return null;
+    }
+
+    private boolean isFull(int priority) {
+        return count >= depth || (quotas[priority] > 0 && entries.get(priority).size() >= quotas[priority]);
+    }
+
+    private Entry dropOldest(int priority) {
+        if (quotas[priority] > 0 && entries.get(priority).size() >= quotas[priority]) {
+            count--;
+            rejected[priority]++;
+            return entries.get(priority).pollFirst();
+        }
+        for (int n = PRIORITIES - 1; n >= priority; n--) {
+            if (!entries.get(n).isEmpty()) {
+                count--;
+                rejected[n]++;
+                return entries.get(n).pollFirst();
+            }
+        }
+        return null;
+    }
+
+    private void reject(Entry entry, int error) {
+        Context context = contexts.get();
+        Entry dispatched = context.dispatched;
+        int rejection = context.rejection;
+
+        context.dispatched = null;
+        context.rejection = error;
+        try {
+            entry.command.run();
+        } finally {
+            context.dispatched = dispatched;
+            context.rejection = rejection;
+        }
+    }
+
+    /**
+     * Wait for space in the queue for a command of a priority class.
+     * <p>
+     * The caller must hold the monitor of {@code lock}, the object whose
+     * synchronized command method is queueing the command: the monitor is
+     * released while waiting, so that the answers can be delivered and the
+     * queued commands sent meanwhile.
+     *
+     * @param priority the command priority class
+     * @param lock     the monitor held by the caller
+     * @param since    the {@link System#nanoTime()} the command was issued at
+     * @return true if there may be space now, false if the wait time expired or the thread was interrupted
+     */
+    boolean awaitSpace(int priority, Object lock, long since) {
+        synchronized (this) {
+            waiting_locks.add(lock);
+        }
+        try {
+            while (true) {
+                long remaining = 0;
+
+                synchronized (this) {
+                    if (depth == 0 || !isFull(priority)) {
+                        return true;
+                    }
+                    if (wait_time > 0) {
+                        remaining = wait_time - (System.nanoTime() - since) / 1000000L;
+                        if (remaining <= 0) {
+                            rejected[priority]++;
+                            return false;
+                        }
+                    }
+                }
+                // space freed from now on is signalled on lock, which is held until wait releases it
+                lock.wait(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            synchronized (this) {
+                rejected[priority]++;
+            }
+            return false;
+        } finally {
+            synchronized (this) {
+                for (int n = 0; n < waiting_locks.size(); n++) {
+                    if (waiting_locks.get(n) == lock) {
+                        waiting_locks.remove(n);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private void wakeWaiters() {
+        Object[] locks;
+
+        synchronized (this) {
+            if (waiting_locks.isEmpty()) {
+                return;
+            }
+            locks = waiting_locks.toArray();
+        }
+        for (Object lock : locks) {
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.InventoryLine;
+
+/**
+ * Library-managed continuous inventory.
+ * <p>
+ * A running {@code ContinuousInventory} issues the reader inventory command
+ * as soon as the answer of the previous round has been received, after a gap
+ * adapted to the observed new tag yield: the gap is halved after every round
+ * discovering new tags, and doubled (up to the maximum gap) after every round
+ * discovering none, so the reader keeps inventorying while tags are entering
+ * the field and backs off when the field is static:
+ * <pre>
+ * ContinuousInventory continuous_inventory = new ContinuousInventory(passive_reader);
+ * continuous_inventory.setGap(0, 500);
+ * continuous_inventory.start();
+ * ...
+ * continuous_inventory.stop();
+ * </pre>
+ * The discovered tags are notified to the reader inventory listener as for
+ * {@link PassiveReader#doInventory()}. A round whose answer is not received
+ * within the inventory timeout (plus a safety margin) is counted as timed out
+ * and the next round is issued anyway. The loop stops on reader
+ * disconnection; only one loop at a time can run on a reader.
+ */
+public final class ContinuousInventory {
+    /**
+     * Default minimum gap between rounds, in milliseconds.
+     */
+    public static final long DEFAULT_MIN_GAP = 0;
+    /**
+     * Default maximum gap between rounds, in milliseconds.
+     */
+    public static final long DEFAULT_MAX_GAP = 1000;
+
+    private static final long GAP_STEP = 20;
+    private static final long ROUND_MARGIN = 1000;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final PassiveReader passive_reader;
+    private final Scheduler scheduler;
+    private long min_gap = DEFAULT_MIN_GAP;
+    private long max_gap = DEFAULT_MAX_GAP;
+    private boolean running;
+    private int generation;
+    private long gap;
+    private int round_sequential = -1;
+    private int round_new_tags;
+    private long started;
+    private long stopped;
+    private long round_count;
+    private long timed_out_round_count;
+    private TagIDIndex seen = new TagIDIndex(INITIAL_CAPACITY);
+
+    /**
+     * Create a continuous inventory for a reader.
+     *
+     * @param passive_reader the reader
+     */
+    public ContinuousInventory(PassiveReader passive_reader) {
+        this(passive_reader, new Handler(Looper.getMainLooper())::postDelayed);
+    }
+
+    ContinuousInventory(PassiveReader passive_reader, Scheduler scheduler) {
+        this.passive_reader = passive_reader;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Set the bounds of the adaptive gap between rounds.
+     *
+     * @param min_gap the minimum gap in milliseconds (0 to issue the next round at once)
+     * @param max_gap the maximum gap in milliseconds
+     * @return true if the bounds are valid and have been set
+     */
+    public synchronized boolean setGap(long min_gap, long max_gap) {
+        if (min_gap < 0 || max_gap < min_gap) {
+            return false;
+        }
+        this.min_gap = min_gap;
+        this.max_gap = max_gap;
+        gap = Math.min(Math.max(gap, min_gap), max_gap);
+        return true;
+    }
+
+    /**
+     * Start the continuous inventory.
+     * <p>
+     * The round statistics and the set of tags already seen are reset.
+     *
+     * @return true if the loop has been started, false if it was already
+     * running or another loop is running on the reader
+     */
+    public boolean start() {
+        int current;
+        if (isRunning() || !passive_reader.attachInventoryLoop(this)) {
+            return false;
+        }
+        synchronized (this) {
+            if (running) {
+                return false;
+            }
+            running = true;
+            gap = min_gap;
+            started = System.nanoTime();
+            round_count = 0;
+            timed_out_round_count = 0;
+            seen = new TagIDIndex(INITIAL_CAPACITY);
+            current = generation;
+        }
+        trigger(current);
+        return true;
+    }
+
+    /**
+     * Stop the continuous inventory.
+     * <p>
+     * The answer of a round already issued is still received, but no further
+     * round is issued.
+     */
+    public void stop() {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            generation++;
+            round_sequential = -1;
+            stopped = System.nanoTime();
+        }
+        passive_reader.detachInventoryLoop(this);
+    }
+
+    /**
+     * Check if the continuous inventory is running.
+     *
+     * @return true if the loop is running
+     */
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Get the current gap between rounds.
+     *
+     * @return the gap in milliseconds
+     */
+    public synchronized long getGap() {
+        return gap;
+    }
+
+    /**
+     * Get the number of completed rounds since the last start.
+     *
+     * @return the rounds count, timed out rounds included
+     */
+    public synchronized long getRoundCount() {
+        return round_count;
+    }
+
+    /**
+     * Get the number of rounds whose answer was not received.
+     *
+     * @return the timed out rounds count
+     */
+    public synchronized long getTimedOutRoundCount() {
+        return timed_out_round_count;
+    }
+
+    /**
+     * Get the number of distinct tags discovered since the last start.
+     *
+     * @return the distinct tags count
+     */
+    public synchronized int getTagCount() {
+        return seen.size();
+    }
+
+    /**
+     * Get the round rate since the last start.
+     *
+     * @return the completed rounds per second
+     */
+    public synchronized double getRoundsPerSecond() {
+        long elapsed = (running ? System.nanoTime() : stopped) - started;
+        if (round_count == 0 || elapsed <= 0) {
+            return 0;
+        }
+        return round_count * 1e9 / elapsed;
+    }
+
+    synchronized void roundStarted(int sequential) {
+        if (running) {
+            round_sequential = sequential;
+        }
+    }
+
+    synchronized void tagSeen(InventoryLine line) {
+        if (running && add(line)) {
+            round_new_tags++;
+        }
+    }
+
+    void answerReceived(int sequential) {
+        int next;
+        long delay;
+        synchronized (this) {
+            if (!running || sequential != round_sequential) {
+                return;
+            }
+            round_count++;
+            next = ++generation;
+            delay = adapt();
+        }
+        schedule(next, delay);
+    }
+
+    private long adapt() {
+        if (round_new_tags > 0) {
+            gap = Math.max(min_gap, gap / 2);
+        }
+        else {
+            gap = Math.min(max_gap, Math.max(2 * gap, min_gap + GAP_STEP));
+        }
+        round_sequential = -1;
+        return gap;
+    }
+
+    private void schedule(int next, long delay) {
+        scheduler.schedule(() -> trigger(next), delay);
+    }
+
+    private void trigger(int current) {
+        long timeout;
+        synchronized (this) {
+            if (!running || current != generation) {
+                return;
+            }
+            round_new_tags = 0;
+            timeout = passive_reader.getInventoryRoundTimeout() + ROUND_MARGIN;
+        }
+        scheduler.schedule(() -> timeout(current), timeout);
+        passive_reader.doInventory();
+    }
+
+    private void timeout(int current) {
+        int next;
+        long delay;
+        synchronized (this) {
+            if (!running || current != generation) {
+                return;
+            }
+            round_count++;
+            timed_out_round_count++;
+            next = ++generation;
+            delay = adapt();
+        }
+        schedule(next, delay);
+    }
+
+    private boolean add(InventoryLine line) {
+        byte[] ID = line.getBuffer(0);
+        int offset = line.getIDoffset();
+        int length = line.getIDlength();
+        long hash = TagIDIndex.hash(ID, offset, length);
+        if (seen.find(hash, ID, offset, length) >= 0) {
+            return false;
+        }
+        seen.add(hash, ID, offset, length);
+        return true;
+    }
+}
@@ -24,6 +24,8 @@
 
 package com.tertiumtechnology.api.rfidpassiveapilib;
 
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.FrameCodec;
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.FrameEncoder;
 import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractResponseListener;
 
 /**
@@ -146,12 +148,9 @@ public class EPC_tag extends Tag {
      */
     public synchronized byte[] getExtendedID() {
         byte[] extendedID = new byte[2 + ID.length];
-        String tmp = String.format("%04X", PC);
-        extendedID[0] = (byte) PassiveReader.hexToByte(tmp.substring(0, 2));
-        extendedID[1] = (byte) PassiveReader.hexToByte(tmp.substring(2, 4));
-        for (int n = 0; n < ID.length; n++) {
-            extendedID[n + 2] = ID[n];
-        }
+        extendedID[0] = (byte) (PC >> 8);
+        extendedID[1] = (byte) PC;
+        System.arraycopy(ID, 0, extendedID, 2, ID.length);
         return extendedID;
     }
 
@@ -182,12 +181,11 @@ public class EPC_tag extends Tag {
      * @param password tag kill password
      */
     public synchronized void kill(byte[] password) {
-        String tmp, command;
-        byte PC_number[] = new byte[2];
-
-        if (passive_reader.status != PassiveReader.READY_STATUS) {
-            passive_reader.response_listener.killEvent(getExtendedID(),
-                    AbstractResponseListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!passive_reader.isReady(PassiveReader.COMMAND_PRIORITY_TAG)) {
+            int error = passive_reader.enqueue(PassiveReader.COMMAND_PRIORITY_TAG, this, () -> kill(password));
+            if (error != AbstractResponseListener.NO_ERROR) {
+                passive_reader.response_listener.killEvent(getExtendedID(), error);
+            }
             return;
         }
         if (password.length != 4) {
@@ -195,17 +193,13 @@ public class EPC_tag extends Tag {
                     AbstractResponseListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        tmp = String.format("%04X", PC);
-        PC_number[0] = (byte) PassiveReader.hexToByte(tmp.substring(0, 2));
-        PC_number[1] = (byte) PassiveReader.hexToByte(tmp.substring(2, 4));
-        passive_reader.status = PassiveReader.PENDING_COMMAND_STATUS;
-        passive_reader.pending = AbstractResponseListener.KILL_COMMAND;
-        passive_reader.tag_ID = getExtendedID();
-        command = passive_reader.buildCommand(PassiveReader.EPC_KILL_COMMAND, (byte) (timeout / 100),
-                    PC_number[0], PC_number[1]);
-        command = passive_reader.appendDataToCommand(command, ID);
-        command = passive_reader.appendDataToCommand(command, password);
-        passive_reader.device_manager.requestWriteData(command);
+        if (!passive_reader.claim(AbstractResponseListener.KILL_COMMAND, getExtendedID())) {
+            kill(password);
+            return;
+        }
+        FrameEncoder encoder = passive_reader.commandEncoder(PassiveReader.EPC_KILL_COMMAND)
+                .append((byte) (timeout / 100)).appendEncoded(getAddressingPrefix()).append(password);
+        passive_reader.device_manager.requestWriteData(encoder.toFrame());
     }
 
     /**
@@ -218,33 +212,29 @@ public class EPC_tag extends Tag {
      * @param password  tag access password (may be null or empty)
      */
     public synchronized void lock(int lock_type, byte[] password) {
-        String tmp, command;
         byte payload[] = new byte[3];
-        byte PC_number[] = new byte[2];
 
-        if (passive_reader.status != PassiveReader.READY_STATUS) {
-            passive_reader.response_listener.lockEvent(getExtendedID(),
-                    AbstractResponseListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!passive_reader.isReady(PassiveReader.COMMAND_PRIORITY_TAG)) {
+            int error = passive_reader.enqueue(PassiveReader.COMMAND_PRIORITY_TAG, this,
+                    () -> lock(lock_type, password));
+            if (error != AbstractResponseListener.NO_ERROR) {
+                passive_reader.response_listener.lockEvent(getExtendedID(), error);
+            }
+            return;
+        }
+        payload[0] = (byte) (lock_type >> 16);
+        payload[1] = (byte) (lock_type >> 8);
+        payload[2] = (byte) lock_type;
+        if (!passive_reader.claim(AbstractResponseListener.LOCK_COMMAND, getExtendedID())) {
+            lock(lock_type, password);
             return;
         }
-        tmp = String.format("%04X", PC);
-        PC_number[0] = (byte) PassiveReader.hexToByte(tmp.substring(0, 2));
-        PC_number[1] = (byte) PassiveReader.hexToByte(tmp.substring(2, 4));
-        tmp = String.format("%06X", lock_type);
-        payload[0] = (byte) PassiveReader.hexToByte(tmp.substring(0, 2));
-        payload[1] = (byte) PassiveReader.hexToByte(tmp.substring(2, 4));
-        payload[2] = (byte) PassiveReader.hexToByte(tmp.substring(4, 6));
-        passive_reader.status = PassiveReader.PENDING_COMMAND_STATUS;
-        passive_reader.pending = AbstractResponseListener.LOCK_COMMAND;
-        passive_reader.tag_ID = getExtendedID();
-        command = passive_reader.buildCommand(PassiveReader.EPC_LOCK_COMMAND, (byte) (timeout / 100),
-                    PC_number[0], PC_number[1]);
-        command = passive_reader.appendDataToCommand(command, ID);
-        command = passive_reader.appendDataToCommand(command, payload);
+        FrameEncoder encoder = passive_reader.commandEncoder(PassiveReader.EPC_LOCK_COMMAND)
+                .append((byte) (timeout / 100)).appendEncoded(getAddressingPrefix()).append(payload);
         if (password != null) {
-            command = passive_reader.appendDataToCommand(command, password);
+            encoder.append(password);
         }
-        passive_reader.device_manager.requestWriteData(command);
+        passive_reader.device_manager.requestWriteData(encoder.toFrame());
     }
 
     /**
@@ -257,13 +247,13 @@ public class EPC_tag extends Tag {
      * @param blocks  the number of memory 2-bytes blocks to read (1-50)
      */
     public synchronized void read(int address, int blocks) {
-        String tmp, command;
         byte memory_to_read[] = new byte[3];
-        byte PC_number[] = new byte[2];
 
-        if (passive_reader.status != PassiveReader.READY_STATUS) {
-            passive_reader.response_listener.readEvent(getExtendedID(),
-                    AbstractResponseListener.READER_DRIVER_WRONG_STATUS_ERROR, null);
+        if (!passive_reader.isReady(PassiveReader.COMMAND_PRIORITY_TAG)) {
+            int error = passive_reader.enqueue(PassiveReader.COMMAND_PRIORITY_TAG, this, () -> read(address, blocks));
+            if (error != AbstractResponseListener.NO_ERROR) {
+                passive_reader.response_listener.readEvent(getExtendedID(), error, null);
+            }
             return;
         }
         if (address < 0 || address > 255) {
@@ -279,21 +269,14 @@ public class EPC_tag extends Tag {
         memory_to_read[0] = (byte) USER_MEMORY_BANK;
         memory_to_read[1] = (byte) address;
         memory_to_read[2] = (byte) blocks;
-        tmp = String.format("%04X", PC);
-        PC_number[0] = (byte) PassiveReader.hexToByte(tmp.substring(0, 2));
-        PC_number[1] = (byte) PassiveReader.hexToByte(tmp.substring(2, 4));
-        passive_reader.status = PassiveReader.PENDING_COMMAND_STATUS;
-        passive_reader.pending = AbstractResponseListener.READ_COMMAND;
-        passive_reader.tag_ID = getExtendedID();
-        command = passive_reader.buildCommand(PassiveReader.EPC_READ_COMMAND, (byte) (timeout / 100),
-                    PC_number[0], PC_number[1]);
-        command = passive_reader.appendDataToCommand(command, ID);
-        command = passive_reader.appendDataToCommand(command, memory_to_read);
-        /*
-        if (password != null)
-            AckMe_command = passive_reader.appendDataToCommand(AckMe_command, password);
-        */
-        passive_reader.device_manager.requestWriteData(command);
+        if (!passive_reader.claim(AbstractResponseListener.READ_COMMAND, getExtendedID())) {
+            read(address, blocks);
+            return;
+        }
+        FrameEncoder encoder = passive_reader.commandEncoder(PassiveReader.EPC_READ_COMMAND)
+                .append((byte) (timeout / 100)).appendEncoded(getAddressingPrefix())
+                .append(memory_to_read);
+        passive_reader.device_manager.requestWriteData(encoder.toFrame());
     }
 
     /**
@@ -307,13 +290,14 @@ public class EPC_tag extends Tag {
      * @param password tag read password (may be null or empty)
      */
     public synchronized void readTID(int length, byte[] password) {
-        String tmp, command;
         byte memory_to_read[] = new byte[3];
-        byte PC_number[] = new byte[2];
 
-        if (passive_reader.status != PassiveReader.READY_STATUS) {
-            passive_reader.response_listener.readTIDevent(getExtendedID(),
-                    AbstractResponseListener.READER_DRIVER_WRONG_STATUS_ERROR, null);
+        if (!passive_reader.isReady(PassiveReader.COMMAND_PRIORITY_TAG)) {
+            int error = passive_reader.enqueue(PassiveReader.COMMAND_PRIORITY_TAG, this,
+                    () -> readTID(length, password));
+            if (error != AbstractResponseListener.NO_ERROR) {
+                passive_reader.response_listener.readTIDevent(getExtendedID(), error, null);
+            }
             return;
         }
         if (length % 2 != 0 || length > 100) {
@@ -324,20 +308,22 @@ public class EPC_tag extends Tag {
         memory_to_read[0] = (byte) TID_MEMORY_BANK;
         memory_to_read[1] = (byte) 0x00;
         memory_to_read[2] = (byte) (length / 2);
-        tmp = String.format("%04X", PC);
-        PC_number[0] = (byte) PassiveReader.hexToByte(tmp.substring(0, 2));
-        PC_number[1] = (byte) PassiveReader.hexToByte(tmp.substring(2, 4));
-        passive_reader.status = PassiveReader.PENDING_COMMAND_STATUS;
-        passive_reader.pending = AbstractResponseListener.READ_TID_COMMAND;
-        passive_reader.tag_ID = getExtendedID();
-        command = passive_reader.buildCommand(PassiveReader.EPC_READ_COMMAND, (byte) (timeout / 100),
-                    PC_number[0], PC_number[1]);
-        command = passive_reader.appendDataToCommand(command, ID);
-        command = passive_reader.appendDataToCommand(command, memory_to_read);
+        if (!passive_reader.claim(AbstractResponseListener.READ_TID_COMMAND, getExtendedID())) {
+            readTID(length, password);
+            return;
+        }
+        FrameEncoder encoder = passive_reader.commandEncoder(PassiveReader.EPC_READ_COMMAND)
+                .append((byte) (timeout / 100)).appendEncoded(getAddressingPrefix())
+                .append(memory_to_read);
         if (password != null) {
-            command = passive_reader.appendDataToCommand(command, password);
+            encoder.append(password);
         }
-        passive_reader.device_manager.requestWriteData(command);
+        passive_reader.device_manager.requestWriteData(encoder.toFrame());
+    }
+
+    @Override
+    protected char[] encodeAddress(FrameCodec codec) {
+        return codec.encodeAddress(getExtendedID(), 0, 2 + ID.length);
     }
 
     @Override
@@ -368,14 +354,15 @@ public class EPC_tag extends Tag {
      * @param password tag access password (may be null or empty)
      */
     public synchronized void write(int address, byte[] data, byte[] password) {
-        String tmp, command;
         byte memory_to_write[] = new byte[3];
-        byte PC_number[] = new byte[2];
         byte blocks;
 
-        if (passive_reader.status != PassiveReader.READY_STATUS) {
-            passive_reader.response_listener.writeEvent(getExtendedID(),
-                    AbstractResponseListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!passive_reader.isReady(PassiveReader.COMMAND_PRIORITY_TAG)) {
+            int error = passive_reader.enqueue(PassiveReader.COMMAND_PRIORITY_TAG, this,
+                    () -> write(address, data, password));
+            if (error != AbstractResponseListener.NO_ERROR) {
+                passive_reader.response_listener.writeEvent(getExtendedID(), error);
+            }
             return;
         }
         if (address < 0 || address > 255) {
@@ -392,21 +379,17 @@ public class EPC_tag extends Tag {
         memory_to_write[0] = (byte) USER_MEMORY_BANK;
         memory_to_write[1] = (byte) address;
         memory_to_write[2] = blocks;
-        tmp = String.format("%04X", PC);
-        PC_number[0] = (byte) PassiveReader.hexToByte(tmp.substring(0, 2));
-        PC_number[1] = (byte) PassiveReader.hexToByte(tmp.substring(2, 4));
-        passive_reader.status = PassiveReader.PENDING_COMMAND_STATUS;
-        passive_reader.pending = AbstractResponseListener.WRITE_COMMAND;
-        passive_reader.tag_ID = getExtendedID();
-        command = passive_reader.buildCommand(PassiveReader.EPC_WRITE_COMMAND, (byte) (timeout / 100),
-                    PC_number[0], PC_number[1]);
-        command = passive_reader.appendDataToCommand(command, ID);
-        command = passive_reader.appendDataToCommand(command, memory_to_write);
-        command = passive_reader.appendDataToCommand(command, data);
+        if (!passive_reader.claim(AbstractResponseListener.WRITE_COMMAND, getExtendedID())) {
+            write(address, data, password);
+            return;
+        }
+        FrameEncoder encoder = passive_reader.commandEncoder(PassiveReader.EPC_WRITE_COMMAND)
+                .append((byte) (timeout / 100)).appendEncoded(getAddressingPrefix())
+                .append(memory_to_write).append(data);
         if (password != null) {
-            command = passive_reader.appendDataToCommand(command, password);
+            encoder.append(password);
         }
-        passive_reader.device_manager.requestWriteData(command);
+        passive_reader.device_manager.requestWriteData(encoder.toFrame());
     }
 
     /**
@@ -420,13 +403,14 @@ public class EPC_tag extends Tag {
      * @param password        tag access password (may be null or empty)
      */
     public synchronized void writeAccessPassword(byte[] access_password, byte[] password) {
-        String tmp, command;
         byte memory_to_write[] = new byte[3];
-        byte PC_number[] = new byte[2];
 
-        if (passive_reader.status != PassiveReader.READY_STATUS) {
-            passive_reader.response_listener.writePasswordEvent(getExtendedID(),
-                    AbstractResponseListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!passive_reader.isReady(PassiveReader.COMMAND_PRIORITY_TAG)) {
+            int error = passive_reader.enqueue(PassiveReader.COMMAND_PRIORITY_TAG, this,
+                    () -> writeAccessPassword(access_password, password));
+            if (error != AbstractResponseListener.NO_ERROR) {
+                passive_reader.response_listener.writePasswordEvent(getExtendedID(), error);
+            }
             return;
         }
         if (access_password.length != 4) {
@@ -437,21 +421,17 @@ public class EPC_tag extends Tag {
         memory_to_write[0] = (byte) RESERVED_MEMORY_BANK;
         memory_to_write[1] = (byte) ACCESS_PASSWORD_ADDRESS;
         memory_to_write[2] = (byte) (2);
-        tmp = String.format("%04X", PC);
-        PC_number[0] = (byte) PassiveReader.hexToByte(tmp.substring(0, 2));
-        PC_number[1] = (byte) PassiveReader.hexToByte(tmp.substring(2, 4));
-        passive_reader.status = PassiveReader.PENDING_COMMAND_STATUS;
-        passive_reader.pending = AbstractResponseListener.WRITEACCESSPASSWORD_COMMAND;
-        passive_reader.tag_ID = getExtendedID();
-        command = passive_reader.buildCommand(PassiveReader.EPC_WRITE_COMMAND, (byte) (timeout / 100),
-                    PC_number[0], PC_number[1]);
-        command = passive_reader.appendDataToCommand(command, ID);
-        command = passive_reader.appendDataToCommand(command, memory_to_write);
-        command = passive_reader.appendDataToCommand(command, access_password);
+        if (!passive_reader.claim(AbstractResponseListener.WRITEACCESSPASSWORD_COMMAND, getExtendedID())) {
+            writeAccessPassword(access_password, password);
+            return;
+        }
+        FrameEncoder encoder = passive_reader.commandEncoder(PassiveReader.EPC_WRITE_COMMAND)
+                .append((byte) (timeout / 100)).appendEncoded(getAddressingPrefix())
+                .append(memory_to_write).append(access_password);
         if (password != null) {
-            command = passive_reader.appendDataToCommand(command, password);
+            encoder.append(password);
         }
-        passive_reader.device_manager.requestWriteData(command);
+        passive_reader.device_manager.requestWriteData(encoder.toFrame());
     }
 
     /**
@@ -464,12 +444,13 @@ public class EPC_tag extends Tag {
      * @param NSI the tag Number System Identifier to write
      */
     public synchronized void writeID(byte[] ID, short NSI) {
-        String tmp, command;
         byte Numbering_System_Identifier[] = new byte[2];
 
-        if (passive_reader.status != PassiveReader.READY_STATUS) {
-            passive_reader.response_listener.writeIDevent(getExtendedID(),
-                    AbstractResponseListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!passive_reader.isReady(PassiveReader.COMMAND_PRIORITY_TAG)) {
+            int error = passive_reader.enqueue(PassiveReader.COMMAND_PRIORITY_TAG, this, () -> writeID(ID, NSI));
+            if (error != AbstractResponseListener.NO_ERROR) {
+                passive_reader.response_listener.writeIDevent(getExtendedID(), error);
+            }
             return;
         }
         if (ID.length % 2 != 0 || ID.length < 12 || ID.length > 30) {
@@ -477,16 +458,15 @@ public class EPC_tag extends Tag {
                     AbstractResponseListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        tmp = String.format("%04X", NSI);
-        Numbering_System_Identifier[0] = (byte) PassiveReader.hexToByte(tmp.substring(0, 2));
-        Numbering_System_Identifier[1] = (byte) PassiveReader.hexToByte(tmp.substring(2, 4));
-        passive_reader.status = PassiveReader.PENDING_COMMAND_STATUS;
-        passive_reader.pending = AbstractResponseListener.WRITEID_COMMAND;
-        passive_reader.tag_ID = getExtendedID();
-        command = passive_reader.buildCommand(PassiveReader.EPC_WRITEID_COMMAND, (byte) (timeout / 100));
-        command = passive_reader.appendDataToCommand(command, ID);
-        command = passive_reader.appendDataToCommand(command, Numbering_System_Identifier);
-        passive_reader.device_manager.requestWriteData(command);
+        Numbering_System_Identifier[0] = (byte) (NSI >> 8);
+        Numbering_System_Identifier[1] = (byte) NSI;
+        if (!passive_reader.claim(AbstractResponseListener.WRITEID_COMMAND, getExtendedID())) {
+            writeID(ID, NSI);
+            return;
+        }
+        FrameEncoder encoder = passive_reader.commandEncoder(PassiveReader.EPC_WRITEID_COMMAND)
+                .append((byte) (timeout / 100)).append(ID).append(Numbering_System_Identifier);
+        passive_reader.device_manager.requestWriteData(encoder.toFrame());
     }
 
     /**
@@ -500,13 +480,14 @@ public class EPC_tag extends Tag {
      * @param password      tag access password (may be null or empty)
      */
     public synchronized void writeKillPassword(byte[] kill_password, byte[] password) {
-        String tmp, command;
         byte memory_to_write[] = new byte[3];
-        byte PC_number[] = new byte[2];
 
-        if (passive_reader.status != PassiveReader.READY_STATUS) {
-            passive_reader.response_listener.writePasswordEvent(getExtendedID(),
-                    AbstractResponseListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!passive_reader.isReady(PassiveReader.COMMAND_PRIORITY_TAG)) {
+            int error = passive_reader.enqueue(PassiveReader.COMMAND_PRIORITY_TAG, this,
+                    () -> writeKillPassword(kill_password, password));
+            if (error != AbstractResponseListener.NO_ERROR) {
+                passive_reader.response_listener.writePasswordEvent(getExtendedID(), error);
+            }
             return;
         }
         if (kill_password.length != 4) {
@@ -517,20 +498,16 @@ public class EPC_tag extends Tag {
         memory_to_write[0] = (byte) RESERVED_MEMORY_BANK;
         memory_to_write[1] = (byte) KILL_PASSWORD_ADDRESS;
         memory_to_write[2] = (byte) (2);
-        tmp = String.format("%04X", PC);
-        PC_number[0] = (byte) PassiveReader.hexToByte(tmp.substring(0, 2));
-        PC_number[1] = (byte) PassiveReader.hexToByte(tmp.substring(2, 4));
-        passive_reader.status = PassiveReader.PENDING_COMMAND_STATUS;
-        passive_reader.pending = AbstractResponseListener.WRITEKILLPASSWORD_COMMAND;
-        passive_reader.tag_ID = getExtendedID();
-        command = passive_reader.buildCommand(PassiveReader.EPC_WRITE_COMMAND, (byte) (timeout / 100),
-                    PC_number[0], PC_number[1]);
-        command = passive_reader.appendDataToCommand(command, ID);
-        command = passive_reader.appendDataToCommand(command, memory_to_write);
-        command = passive_reader.appendDataToCommand(command, kill_password);
+        if (!passive_reader.claim(AbstractResponseListener.WRITEKILLPASSWORD_COMMAND, getExtendedID())) {
+            writeKillPassword(kill_password, password);
+            return;
+        }
+        FrameEncoder encoder = passive_reader.commandEncoder(PassiveReader.EPC_WRITE_COMMAND)
+                .append((byte) (timeout / 100)).appendEncoded(getAddressingPrefix())
+                .append(memory_to_write).append(kill_password);
         if (password != null) {
-            command = passive_reader.appendDataToCommand(command, password);
+            encoder.append(password);
         }
-        passive_reader.device_manager.requestWriteData(command);
+        passive_reader.device_manager.requestWriteData(encoder.toFrame());
     }
 }
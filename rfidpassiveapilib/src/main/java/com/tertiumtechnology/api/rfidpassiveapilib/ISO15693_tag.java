@@ -24,6 +24,8 @@
 
 package com.tertiumtechnology.api.rfidpassiveapilib;
 
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.FrameCodec;
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.FrameEncoder;
 import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractResponseListener;
 
 /**
@@ -50,12 +52,13 @@ public class ISO15693_tag extends Tag {
      * @param blocks  the number of memory 4-bytes blocks to lock (1-25)
      */
     public synchronized void lock(int address, int blocks) {
-        String tmp;
         byte memory_address[] = new byte[2];
 
-        if (passive_reader.status != PassiveReader.READY_STATUS) {
-            passive_reader.response_listener.lockEvent(getID(),
-                    AbstractResponseListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!passive_reader.isReady(PassiveReader.COMMAND_PRIORITY_TAG)) {
+            int error = passive_reader.enqueue(PassiveReader.COMMAND_PRIORITY_TAG, this, () -> lock(address, blocks));
+            if (error != AbstractResponseListener.NO_ERROR) {
+                passive_reader.response_listener.lockEvent(getID(), error);
+            }
             return;
         }
         if (address < 0 || address > 65535) {
@@ -68,14 +71,16 @@ public class ISO15693_tag extends Tag {
                     AbstractResponseListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        tmp = String.format("%04X", address);
-        memory_address[0] = (byte) PassiveReader.hexToByte(tmp.substring(0, 2));
-        memory_address[1] = (byte) PassiveReader.hexToByte(tmp.substring(2, 4));
-        passive_reader.status = PassiveReader.PENDING_COMMAND_STATUS;
-        passive_reader.pending = AbstractResponseListener.LOCK_COMMAND;
-        passive_reader.tag_ID = getID();
-        passive_reader.device_manager.requestWriteData(passive_reader.buildCommand(PassiveReader.ISO15693_LOCK_COMMAND, (byte) (timeout / 100), ID[0], ID[1], ID[2], ID[3], ID[4], ID[5], ID[6], ID[7],
-                memory_address[0], memory_address[1], (byte) (blocks)));
+        memory_address[0] = (byte) (address >> 8);
+        memory_address[1] = (byte) address;
+        if (!passive_reader.claim(AbstractResponseListener.LOCK_COMMAND, getID())) {
+            lock(address, blocks);
+            return;
+        }
+        FrameEncoder encoder = passive_reader.commandEncoder(PassiveReader.ISO15693_LOCK_COMMAND)
+                .append((byte) (timeout / 100)).appendEncoded(getAddressingPrefix()).append(memory_address)
+                .append((byte) blocks);
+        passive_reader.device_manager.requestWriteData(encoder.toFrame());
     }
 
     /**
@@ -88,12 +93,13 @@ public class ISO15693_tag extends Tag {
      * @param blocks  the number of memory 4-byte blocks to read (1-25)
      */
     public synchronized void read(int address, int blocks) {
-        String tmp;
         byte memory_address[] = new byte[2];
 
-        if (passive_reader.status != PassiveReader.READY_STATUS) {
-            passive_reader.response_listener.readEvent(getID(),
-                    AbstractResponseListener.READER_DRIVER_WRONG_STATUS_ERROR, null);
+        if (!passive_reader.isReady(PassiveReader.COMMAND_PRIORITY_TAG)) {
+            int error = passive_reader.enqueue(PassiveReader.COMMAND_PRIORITY_TAG, this, () -> read(address, blocks));
+            if (error != AbstractResponseListener.NO_ERROR) {
+                passive_reader.response_listener.readEvent(getID(), error, null);
+            }
             return;
         }
         if (address < 0 || address > 65535) {
@@ -106,14 +112,22 @@ public class ISO15693_tag extends Tag {
                     AbstractResponseListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR, null);
             return;
         }
-        tmp = String.format("%04X", address);
-        memory_address[0] = (byte) PassiveReader.hexToByte(tmp.substring(0, 2));
-        memory_address[1] = (byte) PassiveReader.hexToByte(tmp.substring(2, 4));
-        passive_reader.status = PassiveReader.PENDING_COMMAND_STATUS;
-        passive_reader.pending = AbstractResponseListener.READ_COMMAND;
-        passive_reader.tag_ID = getID();
-        passive_reader.device_manager.requestWriteData(passive_reader.buildCommand(PassiveReader.ISO15693_READ_COMMAND, (byte) (timeout / 100), ID[0], ID[1], ID[2], ID[3], ID[4], ID[5], ID[6], ID[7],
-                memory_address[0], memory_address[1], (byte) (blocks)));
+        memory_address[0] = (byte) (address >> 8);
+        memory_address[1] = (byte) address;
+        if (!passive_reader.claim(AbstractResponseListener.READ_COMMAND, getID())) {
+            read(address, blocks);
+            return;
+        }
+        FrameEncoder encoder = passive_reader.commandEncoder(PassiveReader.ISO15693_READ_COMMAND)
+                .append((byte) (timeout / 100)).appendEncoded(getAddressingPrefix()).append(memory_address)
+                .append((byte) blocks);
+        passive_reader.device_manager.requestWriteData(encoder.toFrame());
+    }
+
+    @Override
+    protected char[] encodeAddress(FrameCodec codec) {
+        // the ISO15693 UID is 8 bytes long
+        return codec.encodeAddress(ID, 0, 8);
     }
 
     @Override
@@ -143,13 +157,14 @@ public class ISO15693_tag extends Tag {
      * @param data    the data bytes to write
      */
     public synchronized void write(int address, byte[] data) {
-        String tmp, command;
         byte memory_address[] = new byte[2];
         byte blocks;
 
-        if (passive_reader.status != PassiveReader.READY_STATUS) {
-            passive_reader.response_listener.writeEvent(getID(),
-                    AbstractResponseListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!passive_reader.isReady(PassiveReader.COMMAND_PRIORITY_TAG)) {
+            int error = passive_reader.enqueue(PassiveReader.COMMAND_PRIORITY_TAG, this, () -> write(address, data));
+            if (error != AbstractResponseListener.NO_ERROR) {
+                passive_reader.response_listener.writeEvent(getID(), error);
+            }
             return;
         }
         if (address < 0 || address > 65535) {
@@ -163,14 +178,14 @@ public class ISO15693_tag extends Tag {
             return;
         }
         blocks = (byte) (data.length / 4);
-        tmp = String.format("%04X", address);
-        memory_address[0] = (byte) PassiveReader.hexToByte(tmp.substring(0, 2));
-        memory_address[1] = (byte) PassiveReader.hexToByte(tmp.substring(2, 4));
-        passive_reader.status = PassiveReader.PENDING_COMMAND_STATUS;
-        passive_reader.pending = AbstractResponseListener.WRITE_COMMAND;
-        passive_reader.tag_ID = getID();
-        command = passive_reader.buildCommand(PassiveReader.ISO15693_WRITE_COMMAND, (byte) (timeout / 100), ID[0],
-                ID[1], ID[2], ID[3], ID[4], ID[5], ID[6], ID[7], memory_address[0], memory_address[1], blocks);
-        passive_reader.device_manager.requestWriteData(passive_reader.appendDataToCommand(command, data));
+        memory_address[0] = (byte) (address >> 8);
+        memory_address[1] = (byte) address;
+        if (!passive_reader.claim(AbstractResponseListener.WRITE_COMMAND, getID())) {
+            write(address, data);
+            return;
+        }
+        FrameEncoder encoder = passive_reader.commandEncoder(PassiveReader.ISO15693_WRITE_COMMAND)
+                .append((byte) (timeout / 100)).appendEncoded(getAddressingPrefix()).append(memory_address).append(blocks).append(data);
+        passive_reader.device_manager.requestWriteData(encoder.toFrame());
     }
 }
@@ -0,0 +1,259 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+/**
+ * Table of the commands sent to the reader device and still waiting for
+ * their answer, keyed by the frame sequential number.
+ * <p>
+ * Entries are kept in sending order, so that errors which cannot be related
+ * to a single answer are notified to the oldest command first.
+ * <p>
+ * A command failed before its answer is received (its {@link CommandHandle}
+ * was cancelled or expired) is abandoned: it keeps its entry, and its place
+ * in the window, until the late answer is received and discarded, so that
+ * the answer cannot be matched to another command.
+ */
+final class InFlightCommands {
+    private final int[] commands = new int[256];
+    private final byte[][] tag_IDs = new byte[256][];
+    private final CommandHandle[] handles = new CommandHandle[256];
+    private final boolean[] abandoned = new boolean[256];
+    private final int[] order = new int[256];
+    private int count;
+    private int window = 1;
+    private int command;
+    private byte[] tag_ID;
+
+    synchronized int getWindow() {
+        return window;
+    }
+
+    synchronized void setWindow(int window) {
+        this.window = window;
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    synchronized boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Check if one more command can be sent before the answers of the
+     * in-flight ones are received.
+     *
+     * @return true if the window is not full
+     */
+    synchronized boolean hasRoom() {
+        return count < window;
+    }
+
+    /**
+     * Add a command.
+     *
+     * @param sequential the frame sequential number
+     * @param command    the command code
+     * @param tag_ID     the addressed tag ID (may be null)
+     */
+    synchronized void add(int sequential, int command, byte[] tag_ID) {
+        add(sequential, command, tag_ID, null);
+    }
+
+    /**
+     * Add a command bound to a handle.
+     *
+     * @param sequential the frame sequential number
+     * @param command    the command code
+     * @param tag_ID     the addressed tag ID (may be null)
+     * @param handle     the command handle (may be null)
+     */
+    synchronized void add(int sequential, int command, byte[] tag_ID, CommandHandle handle) {
+        remove(sequential);
+        commands[sequential] = command;
+        tag_IDs[sequential] = tag_ID;
+        handles[sequential] = handle;
+        abandoned[sequential] = false;
+        order[count++] = sequential;
+    }
+
+    /**
+     * Remove the command sent with a sequential number, making it the taken
+     * command.
+     *
+     * @param sequential the frame sequential number of the answer
+     * @return true if a command was waiting for the answer
+     */
+    synchronized boolean take(int sequential) {
+        if (abandoned[sequential] || !remove(sequential)) {
+            return false;
+        }
+        command = commands[sequential];
+        tag_ID = tag_IDs[sequential];
+        tag_IDs[sequential] = null;
+        handles[sequential] = null;
+        return true;
+    }
+
+    /**
+     * Remove the oldest command not abandoned, making it the taken command.
+     *
+     * @return true if there was an in-flight command not abandoned
+     */
+    synchronized boolean takeOldest() {
+        for (int n = 0; n < count; n++) {
+            if (!abandoned[order[n]]) {
+                return take(order[n]);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Abandon the oldest command bound to a handle and not abandoned yet.
+     *
+     * @param handle the handle
+     * @return the command sequential number, or -1 if no command is bound to the handle
+     */
+    synchronized int abandon(CommandHandle handle) {
+        for (int n = 0; n < count; n++) {
+            int sequential = order[n];
+            if (handles[sequential] == handle && !abandoned[sequential]) {
+                abandoned[sequential] = true;
+                return sequential;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Remove an abandoned command.
+     *
+     * @param sequential the frame sequential number of the answer
+     * @return true if the answer is the late answer of an abandoned command
+     */
+    synchronized boolean discard(int sequential) {
+        if (!abandoned[sequential] || !remove(sequential)) {
+            return false;
+        }
+        release(sequential);
+        return true;
+    }
+
+    /**
+     * Remove all the abandoned commands, whose answer will not be received
+     * any more.
+     *
+     * @return true if there were abandoned commands
+     */
+    synchronized boolean discardAbandoned() {
+        boolean discarded = false;
+        for (int n = count - 1; n >= 0; n--) {
+            if (abandoned[order[n]]) {
+                discard(order[n]);
+                discarded = true;
+            }
+        }
+        return discarded;
+    }
+
+    /**
+     * Find the command waiting for an answer.
+     *
+     * @param sequential the frame sequential number of the answer
+     * @return the command code, or -1 if no command was sent with the sequential number
+     */
+    synchronized int findCommand(int sequential) {
+        for (int n = 0; n < count; n++) {
+            if (order[n] == sequential) {
+                return commands[sequential];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the code of an in-flight command.
+     *
+     * @param sequential the frame sequential number
+     * @return the command code
+     */
+    synchronized int getCommand(int sequential) {
+        return commands[sequential];
+    }
+
+    /**
+     * Get the tag ID of an in-flight command.
+     *
+     * @param sequential the frame sequential number
+     * @return the tag ID (may be null)
+     */
+    synchronized byte[] getTagID(int sequential) {
+        return tag_IDs[sequential];
+    }
+
+    /**
+     * Get the code of the last taken command.
+     *
+     * @return the command code
+     */
+    synchronized int getCommand() {
+        return command;
+    }
+
+    /**
+     * Get the tag ID of the last taken command.
+     *
+     * @return the tag ID (may be null)
+     */
+    synchronized byte[] getTagID() {
+        return tag_ID;
+    }
+
+    synchronized void clear() {
+        while (count > 0) {
+            release(order[--count]);
+        }
+    }
+
+    private void release(int sequential) {
+        tag_IDs[sequential] = null;
+        handles[sequential] = null;
+        abandoned[sequential] = false;
+    }
+
+    private boolean remove(int sequential) {
+        for (int n = 0; n < count; n++) {
+            if (order[n] == sequential) {
+                System.arraycopy(order, n + 1, order, n, count - n - 1);
+                count--;
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractInventoryListener;
+
+/**
+ * Inventory listener deduplicating the discovered tags.
+ * <p>
+ * Every raw read updates the statistics of its tag: first and last seen time,
+ * read count and minimum, maximum and mean RSSI. Tags and statistics are kept
+ * in a {@link TagStore}, so a read of an already seen tag allocates nothing.
+ * The first read of each tag is notified to the new tag listener; every read
+ * may also be forwarded to a read listener:
+ * <pre>
+ * InventoryAggregator aggregator = new InventoryAggregator(new_tag_listener, null);
+ * PassiveReader passive_reader = PassiveReader.getInstance(aggregator, ...);
+ * ...
+ * TagStore snapshot = aggregator.snapshot();
+ * for (int n = 0; n &lt; snapshot.size(); n++) {
+ *     ... snapshot.getReadCount(n) ...
+ * }
+ * </pre>
+ * The listeners are invoked on the thread notifying the inventory, with the
+ * same {@link TagView} or {@link Tag} received by the aggregator.
+ */
+public class InventoryAggregator extends AbstractInventoryListener {
+    private final AbstractInventoryListener new_tag_listener;
+    private final AbstractInventoryListener read_listener;
+    private final TagStore store;
+
+    /**
+     * Class constructor.
+     *
+     * @param new_tag_listener the listener notified of the first read of each tag (may be null)
+     * @param read_listener    the listener every read is forwarded to (may be null)
+     */
+    public InventoryAggregator(AbstractInventoryListener new_tag_listener,
+                               AbstractInventoryListener read_listener) {
+        this(new_tag_listener, read_listener, new TagStore());
+    }
+
+    /**
+     * Class constructor aggregating the reads in a given store.
+     * <p>
+     * The store, e.g. sized for the expected number of tags of the session,
+     * must not be accessed directly while the aggregator is in use.
+     *
+     * @param new_tag_listener the listener notified of the first read of each tag (may be null)
+     * @param read_listener    the listener every read is forwarded to (may be null)
+     * @param store            the tag store
+     */
+    public InventoryAggregator(AbstractInventoryListener new_tag_listener,
+                               AbstractInventoryListener read_listener, TagStore store) {
+        this.new_tag_listener = new_tag_listener;
+        this.read_listener = read_listener;
+        this.store = store;
+    }
+
+    @Override
+    public void inventoryEvent(TagView tag) {
+        boolean added;
+
+        synchronized (this) {
+            added = store.getReadCount(store.update(tag)) == 1;
+        }
+        if (added && new_tag_listener != null) {
+            new_tag_listener.inventoryEvent(tag);
+        }
+        if (read_listener != null) {
+            read_listener.inventoryEvent(tag);
+        }
+    }
+
+    @Override
+    public void inventoryEvent(Tag tag) {
+        boolean added;
+        short PC = 0;
+        short RSSI = TagStore.NO_RSSI;
+        int standard;
+
+        if (tag instanceof EPC_tag) {
+            PC = ((EPC_tag) tag).getPC();
+            RSSI = ((EPC_tag) tag).getRSSI();
+            standard = PassiveReader.EPC_STANDARD;
+        }
+        else if (tag instanceof ISO15693_tag) {
+            standard = PassiveReader.ISO15693_STANDARD;
+        }
+        else {
+            standard = PassiveReader.ISO14443A_STANDARD;
+        }
+        synchronized (this) {
+            added = store.getReadCount(store.update(tag.getID(), standard, PC, RSSI)) == 1;
+        }
+        if (added && new_tag_listener != null) {
+            new_tag_listener.inventoryEvent(tag);
+        }
+        if (read_listener != null) {
+            read_listener.inventoryEvent(tag);
+        }
+    }
+
+    /**
+     * Get the number of unique tags.
+     *
+     * @return the unique tags count
+     */
+    public synchronized int size() {
+        return store.size();
+    }
+
+    /**
+     * Get the number of raw reads.
+     *
+     * @return the reads count
+     */
+    public synchronized long getReadCount() {
+        return store.getReadCount();
+    }
+
+    /**
+     * Check if a tag has been read.
+     *
+     * @param ID the tag ID
+     * @return true if the tag has been read
+     */
+    public synchronized boolean contains(byte[] ID) {
+        return store.indexOf(ID) >= 0;
+    }
+
+    /**
+     * Copy the statistics of the tags read so far.
+     * <p>
+     * The copy takes time and memory proportional to the number of tags read,
+     * not to the capacity of the aggregator store.
+     *
+     * @return a copy of the tag store, in discovery order
+     */
+    public synchronized TagStore snapshot() {
+        return store.copy();
+    }
+
+    /**
+     * Forget all the tags read so far.
+     */
+    public synchronized void clear() {
+        store.clear();
+    }
+}
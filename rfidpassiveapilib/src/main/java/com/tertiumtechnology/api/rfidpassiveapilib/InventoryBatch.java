@@ -0,0 +1,205 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.InventoryLine;
+
+import java.util.Arrays;
+
+/**
+ * Reusable container of the tags discovered by an inventory operation.
+ * <p>
+ * When batch delivery is enabled by {@link PassiveReader#setInventoryBatch(int, int, long)
+ * setInventoryBatch}, the tags of a reader notification or of an inventory
+ * round are collected in an {@code InventoryBatch} and notified by a single
+ * {@link com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractInventoryListener#inventoryBatchEvent(InventoryBatch)
+ * inventoryBatchEvent} invocation. Tag IDs are packed in a single byte array
+ * and the other tag fields are kept in primitive arrays, so collecting a tag
+ * allocates nothing once the batch has grown to its working size.
+ * <p>
+ * Batches are reused across notifications, so the content of a batch is
+ * valid only during the {@code inventoryBatchEvent} invocation.
+ */
+public final class InventoryBatch {
+    private static final int INITIAL_CAPACITY = 32;
+
+    private final InventoryLine line = new InventoryLine();
+    private final TagView tag_view;
+    private int count;
+    private byte[] IDs = new byte[INITIAL_CAPACITY * 12];
+    private int IDs_size;
+    private int[] ID_offsets = new int[INITIAL_CAPACITY];
+    private byte[] ID_lengths = new byte[INITIAL_CAPACITY];
+    private byte[] standards = new byte[INITIAL_CAPACITY];
+    private boolean[] with_PC = new boolean[INITIAL_CAPACITY];
+    private short[] PCs = new short[INITIAL_CAPACITY];
+    private short[] RSSIs = new short[INITIAL_CAPACITY];
+    private boolean[] with_RSSI = new boolean[INITIAL_CAPACITY];
+
+    InventoryBatch(PassiveReader passive_reader) {
+        tag_view = new TagView(passive_reader);
+    }
+
+    void add(InventoryLine tag_line, int standard, boolean with_PC) {
+        int length = tag_line.getIDlength();
+        if (count == ID_offsets.length) {
+            int capacity = 2 * count;
+            ID_offsets = Arrays.copyOf(ID_offsets, capacity);
+            ID_lengths = Arrays.copyOf(ID_lengths, capacity);
+            standards = Arrays.copyOf(standards, capacity);
+            this.with_PC = Arrays.copyOf(this.with_PC, capacity);
+            PCs = Arrays.copyOf(PCs, capacity);
+            RSSIs = Arrays.copyOf(RSSIs, capacity);
+            with_RSSI = Arrays.copyOf(with_RSSI, capacity);
+        }
+        if (IDs_size + length > IDs.length) {
+            IDs = Arrays.copyOf(IDs, Math.max(IDs_size + length, 2 * IDs.length));
+        }
+        for (int n = 0; n < length; n++) {
+            IDs[IDs_size + n] = tag_line.getIDbyte(n);
+        }
+        ID_offsets[count] = IDs_size;
+        ID_lengths[count] = (byte) length;
+        standards[count] = (byte) standard;
+        this.with_PC[count] = with_PC;
+        PCs[count] = tag_line.getPC();
+        RSSIs[count] = tag_line.getRSSI();
+        with_RSSI[count] = tag_line.hasRSSI();
+        IDs_size += length;
+        count++;
+    }
+
+    void clear() {
+        count = 0;
+        IDs_size = 0;
+    }
+
+    /**
+     * Get the number of tags in the batch.
+     *
+     * @return the tags count
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Get a view over a tag of the batch.
+     * <p>
+     * The same view is reused by every call, so the returned object is valid
+     * only until the next call; {@link TagView#toTag()} creates the {@link
+     * Tag} object needed to operate on the tag.
+     *
+     * @param index the tag index
+     * @return the reusable view over the tag
+     */
+    public TagView getTag(int index) {
+        checkIndex(index);
+        int length = ID_lengths[index] & 0xFF;
+        System.arraycopy(IDs, ID_offsets[index], line.getBuffer(length), 0, length);
+        if (with_RSSI[index]) {
+            line.set(0, length, PCs[index], RSSIs[index]);
+        }
+        else {
+            line.set(0, length, PCs[index]);
+        }
+        tag_view.set(line, standards[index], with_PC[index]);
+        return tag_view;
+    }
+
+    /**
+     * Get a copy of a tag ID (EPC for UHF tags).
+     *
+     * @param index the tag index
+     * @return a new array holding the tag ID
+     */
+    public byte[] getID(int index) {
+        checkIndex(index);
+        return Arrays.copyOfRange(IDs, ID_offsets[index], ID_offsets[index] + (ID_lengths[index] & 0xFF));
+    }
+
+    /**
+     * Get a single tag ID byte.
+     *
+     * @param index      the tag index
+     * @param byte_index the ID byte index
+     * @return the ID byte
+     */
+    public byte getIDbyte(int index, int byte_index) {
+        checkIndex(index);
+        return IDs[ID_offsets[index] + byte_index];
+    }
+
+    /**
+     * Get a tag ID length.
+     *
+     * @param index the tag index
+     * @return the number of tag ID bytes
+     */
+    public int getIDlength(int index) {
+        checkIndex(index);
+        return ID_lengths[index] & 0xFF;
+    }
+
+    /**
+     * Get a tag PC (Protocol Control).
+     *
+     * @param index the tag index
+     * @return the tag Protocol Control, 0 if the inventory format has no PC
+     */
+    public short getPC(int index) {
+        checkIndex(index);
+        return PCs[index];
+    }
+
+    /**
+     * Get a tag RSSI at inventory time.
+     *
+     * @param index the tag index
+     * @return the tag RSSI value in dBm, -128 if the inventory line has no RSSI
+     */
+    public short getRSSI(int index) {
+        checkIndex(index);
+        return RSSIs[index];
+    }
+
+    /**
+     * Get a tag standard.
+     *
+     * @param index the tag index
+     * @return the tag standard ({@link PassiveReader#EPC_STANDARD}, {@link
+     * PassiveReader#ISO15693_STANDARD} or {@link PassiveReader#ISO14443A_STANDARD})
+     */
+    public int getStandard(int index) {
+        checkIndex(index);
+        return standards[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Invalid tag index: " + index);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.InventoryLine;
+
+/**
+ * Filter of the tags discovered by an inventory operation.
+ * <p>
+ * A filter set by {@link PassiveReader#setInventoryFilter(InventoryFilter)}
+ * is applied to every decoded inventory line, before any {@link TagView},
+ * {@link Tag} or batch entry is filled: rejected lines are only counted (see
+ * {@link PassiveReader#getRejectedInventoryLineCount()}) and never notified
+ * to the inventory listener. A line is accepted if all the conditions set
+ * hold:
+ * <pre>
+ * passive_reader.setInventoryFilter(new InventoryFilter()
+ *         .setIDprefix(company_prefix, company_prefix_mask)
+ *         .setMinRSSI((short) -60)
+ *         .setStandard(PassiveReader.ISO14443A_STANDARD, false));
+ * </pre>
+ * The filter should be configured before being set: changes made while
+ * an inventory is running may be applied to part of a notification only.
+ */
+public final class InventoryFilter {
+    private static final int STANDARD_COUNT = 3;
+
+    private byte[] prefix;
+    private byte[] prefix_mask;
+    private short min_RSSI = InventoryLine.NO_RSSI;
+    private int min_ID_length;
+    private int max_ID_length = Integer.MAX_VALUE;
+    private final boolean[] standards = {true, true, true};
+
+    /**
+     * Accept only the tags whose ID (EPC for UHF tags) starts with a prefix.
+     * <p>
+     * Only the prefix bits set in {@code mask} are compared, so that for
+     * example the company prefix of an EPC can be matched regardless of the
+     * bits following it in its last byte.
+     *
+     * @param prefix the ID prefix (null to accept any ID)
+     * @param mask   the compared prefix bits, as long as {@code prefix} (null to compare all the bits)
+     * @return this filter
+     * @throws IllegalArgumentException if the mask length differs from the prefix length
+     */
+    public InventoryFilter setIDprefix(byte[] prefix, byte[] mask) {
+        if (prefix != null && mask != null && mask.length != prefix.length) {
+            throw new IllegalArgumentException("Mask length differs from prefix length");
+        }
+        this.prefix = prefix == null ? null : prefix.clone();
+        prefix_mask = prefix == null || mask == null ? null : mask.clone();
+        return this;
+    }
+
+    /**
+     * Accept only the tags read with at least a minimum RSSI.
+     * <p>
+     * The condition applies to the UHF inventory lines with the RSSI field
+     * only; tags notified without RSSI are not rejected.
+     *
+     * @param min_RSSI the minimum RSSI in dBm (-128 to accept any RSSI)
+     * @return this filter
+     */
+    public InventoryFilter setMinRSSI(short min_RSSI) {
+        this.min_RSSI = min_RSSI;
+        return this;
+    }
+
+    /**
+     * Accept only the tags whose ID length is within a range.
+     *
+     * @param min_length the minimum number of ID bytes
+     * @param max_length the maximum number of ID bytes
+     * @return this filter
+     * @throws IllegalArgumentException if the range is empty or negative
+     */
+    public InventoryFilter setIDlength(int min_length, int max_length) {
+        if (min_length < 0 || max_length < min_length) {
+            throw new IllegalArgumentException("Invalid ID length range: " + min_length + "-" + max_length);
+        }
+        min_ID_length = min_length;
+        max_ID_length = max_length;
+        return this;
+    }
+
+    /**
+     * Set whether the tags of a standard are accepted (all are by default).
+     * <p>
+     * HF tags are classified as for {@link TagView#getStandard()}: tags with
+     * an 8 bytes ID are {@link PassiveReader#ISO15693_STANDARD} tags, the
+     * others {@link PassiveReader#ISO14443A_STANDARD} tags.
+     *
+     * @param standard the tag standard ({@link PassiveReader#EPC_STANDARD},
+     *                 {@link PassiveReader#ISO15693_STANDARD} or {@link PassiveReader#ISO14443A_STANDARD})
+     * @param accepted true to accept the tags of the standard
+     * @return this filter
+     * @throws IllegalArgumentException if the standard is invalid
+     */
+    public InventoryFilter setStandard(int standard, boolean accepted) {
+        if (standard < 0 || standard >= STANDARD_COUNT) {
+            throw new IllegalArgumentException("Invalid standard: " + standard);
+        }
+        standards[standard] = accepted;
+        return this;
+    }
+
+    boolean accept(InventoryLine line, int standard) {
+        if (!standards[standard]) {
+            return false;
+        }
+        int length = line.getIDlength();
+        if (length < min_ID_length || length > max_ID_length) {
+            return false;
+        }
+        if (line.hasRSSI() && line.getRSSI() < min_RSSI) {
+            return false;
+        }
+        byte[] prefix = this.prefix;
+        if (prefix != null) {
+            if (length < prefix.length) {
+                return false;
+            }
+            byte[] mask = prefix_mask;
+            for (int n = 0; n < prefix.length; n++) {
+                int bits = mask == null ? 0xFF : mask[n];
+                if (((line.getIDbyte(n) ^ prefix[n]) & bits) != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
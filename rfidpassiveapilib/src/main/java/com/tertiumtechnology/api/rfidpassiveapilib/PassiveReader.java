@@ -29,6 +29,14 @@ import android.content.Context;
 import android.os.Handler;
 import android.os.Looper;
 
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.FrameCodec;
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.FrameEncoder;
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.FrameReassembler;
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.HexFrameCodec;
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.InventoryLine;
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.LineScanner;
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.ReaderAnswer;
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.ReaderEvent;
 import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractInventoryListener;
 import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractReaderListener;
 import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractResponseListener;
@@ -38,12 +46,15 @@ import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyReaderListener;
 import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyResponseListener;
 import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyZhagaListener;
 import com.tertiumtechnology.api.rfidpassiveapilib.util.BleSettings;
+import com.tertiumtechnology.api.rfidpassiveapilib.util.LatencyHistogram;
 import com.tertiumtechnology.txrxlib.rw.TxRxDeviceCallback;
 import com.tertiumtechnology.txrxlib.rw.TxRxDeviceManager;
 import com.tertiumtechnology.txrxlib.rw.TxRxTimeouts;
 import com.tertiumtechnology.txrxlib.rw.TxRxTimestamps;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 
 import static com.tertiumtechnology.txrxlib.rw.TxRxDeviceManager.ERROR_CONNECT_DEVICE_NOT_FOUND;
 import static com.tertiumtechnology.txrxlib.rw.TxRxDeviceManager.ERROR_CONNECT_INVALID_BLUETOOTH_ADAPTER;
@@ -61,85 +72,26 @@ import static com.tertiumtechnology.txrxlib.rw.TxRxDeviceManager.ERROR_WRITE_OPE
  */
 public final class PassiveReader implements ZhagaReader {
     private class DeviceCallback implements TxRxDeviceCallback {
-        private class ReaderAnswer {
-            private boolean valid;
-            private int length;
-            private int sequential;
-            private int return_code;
-            private byte[] data;
-
-            protected ReaderAnswer(String answer, boolean bugfix) {
-                valid = false;
-                if (answer.length() >= 6) {
-                    length = hexToByte(answer.substring(2, 4));
-                    if (bugfix && (length % 2 != 0)) {
-                        length++;
-                    }
-                    if (length == answer.length() - 2) {
-                        sequential = hexToByte(answer.substring(4, 6));
-                        return_code = hexToByte(answer.substring(6, 8));
-                        data = new byte[(length - 6) / 2];
-                        for (int n = 0; n < data.length; n++) {
-                            data[n] = (byte) hexToByte(answer.substring(8 + 2 * n, 8 + 2 * n + 2));
-                        }
-                        valid = true;
-                    }
-                }
-            }
-
-            protected byte[] getData() {
-                if (valid) {
-                    return data;
-                }
-                else {
-                    return null;
-                }
-            }
-
-            protected int getLength() {
-                if (valid) {
-                    return length;
-                }
-                else {
-                    return 0;
-                }
-            }
-
-            protected int getReturnCode() {
-                if (valid) {
-                    return return_code;
-                }
-                else {
-                    return 0xFF;
-                }
-            }
-
-            protected int getSequential() {
-                if (valid) {
-                    return sequential;
-                }
-                else {
-                    return 0;
-                }
-            }
-
-            protected boolean isValid() {
-                return valid;
-            }
-        }
-
+        private final ReaderAnswer answer_view = new ReaderAnswer();
+        private final ReaderAnswer tunnel_view = new ReaderAnswer();
+        private final ReaderEvent event_view = new ReaderEvent();
+        private final LineScanner lines = new LineScanner();
+        private final InventoryLine inventory_line = new InventoryLine();
+        private final TagView tag_view = new TagView(PassiveReader.this);
+        private ByteBuffer tunnel_buffer = ByteBuffer.allocate(64);
         private PassiveReader passive_reader;
 
         protected DeviceCallback(PassiveReader passive_reader) {
             this.passive_reader = passive_reader;
-            status = NOT_INITIALIZED_STATUS;
+            setStatus(NOT_INITIALIZED_STATUS);
             sub_status = STREAM_SUBSTATUS;
         }
 
         @Override
         public void onConnectionError(int errorCode) {
+            command_queue.markDeliveryThread();
             System.err.println("Connection error!");
-            status = ERROR_STATUS;
+            setStatus(ERROR_STATUS);
             switch (errorCode) {
                 case ERROR_CONNECT_DEVICE_NOT_FOUND:
                     reader_listener.connectionFailedEvent(AbstractReaderListener.READER_CONNECT_DEVICE_NOT_FOUND_ERROR);
@@ -166,40 +118,49 @@ public final class PassiveReader implements ZhagaReader {
                     zhaga_listener.connectionFailedEvent(AbstractZhagaListener.READER_CONNECT_GENERIC_ERROR);
                     break;
             }
+            dispatchQueuedCommands();
         }
 
         @Override
         public void onConnectionTimeout() {
+            command_queue.markDeliveryThread();
             System.err.println("Connection timeout!");
-            status = ERROR_STATUS;
+            setStatus(ERROR_STATUS);
             reader_listener.connectionFailedEvent(AbstractReaderListener.READER_CONNECT_TIMEOUT_ERROR);
             zhaga_listener.connectionFailedEvent(AbstractZhagaListener.READER_CONNECT_TIMEOUT_ERROR);
+            dispatchQueuedCommands();
         }
 
         @Override
         public void onDeviceConnected() {
+            command_queue.markDeliveryThread();
             System.err.println("Connected.");
         }
 
         @Override
         public void onDeviceDisconnected() {
+            command_queue.markDeliveryThread();
             System.err.println("Disconnected.");
+            flushInventoryBatch();
+            ContinuousInventory loop = inventory_loop;
+            if (loop != null) {
+                loop.stop();
+            }
+            reassembler.reset();
+            in_flight.clear();
             reader_listener.disconnectionSuccessEvent();
             zhaga_listener.disconnectionSuccessEvent();
-            status = NOT_INITIALIZED_STATUS;
+            setStatus(NOT_INITIALIZED_STATUS);
             sub_status = STREAM_SUBSTATUS;
+            dispatchQueuedCommands();
         }
 
         @Override
         public void onEventData(String data) {
-            data = data.substring(0, data.length() - 1);
+            command_queue.markDeliveryThread();
+            long received = System.nanoTime();
 
-            ReaderEvent event = null;
-            System.err.println("\"" + data + "\" received (from EVENT).");
-            if (data.charAt(0) == 'I') {
-                event = new ReaderEvent(data);
-            }
-            else {
+            if (data == null || data.length() < 2 || !frame_codec.decodeEvent(data, 0, data.length() - 1, event_view)) {
                 return;
             }
             switch (status) {
@@ -209,16 +170,15 @@ public final class PassiveReader implements ZhagaReader {
                     break;
                 case READY_STATUS:
                 case PENDING_COMMAND_STATUS:
-                    if (event != null && event.isValid()) {
-                        if (event.getEventCode() == EVENT_CODE) {
-                            zhaga_listener.deviceEventEvent(event.getNumber(), event.getFeatureCode());
-                            if (event.getFeatureCode() == BUTTON_EVENT_FEATURE_CODE &&
-                                    event.getData().length > 1) {
-                                int button = byteToInt(event.getData()[0]);
-                                int time = byteToInt(event.getData()[1]);
-                                zhaga_listener.buttonEvent(button, time * 20);
-                            }
+                    if (event_view.getEventCode() == EVENT_CODE) {
+                        zhaga_listener.deviceEventEvent(event_view.getNumber(), event_view.getFeatureCode());
+                        if (event_view.getFeatureCode() == BUTTON_EVENT_FEATURE_CODE &&
+                                event_view.getDataLength() > 1) {
+                            int button = byteToInt(event_view.getDataByte(0));
+                            int time = byteToInt(event_view.getDataByte(1));
+                            zhaga_listener.buttonEvent(button, time * 20);
                         }
+                        event_latency.record(System.nanoTime() - received);
                     }
                     break;
             }
@@ -226,12 +186,9 @@ public final class PassiveReader implements ZhagaReader {
 
         @Override
         public void onNotifyData(String data) {
+            command_queue.markDeliveryThread();
             // data = data.substring(0, data.length() - 1);
 
-            ReaderAnswer answer = null;
-            byte tunnel_answer[] = null;
-            Tag tag = null;
-
             System.err.println("\"" + data + "\" received (from COMMAND).");
             if (sub_status == CMD_SUBSTATUS) {
                 if (data == null || data.isEmpty()) {
@@ -266,164 +223,206 @@ public final class PassiveReader implements ZhagaReader {
                 return;
             }
             if (data == null || data.isEmpty()) {
-                status = READY_STATUS;
+                synchronized (in_flight) {
+                    setStatus(in_flight.isEmpty() ? READY_STATUS : PENDING_COMMAND_STATUS);
+                }
+                dispatchQueuedCommands();
                 return;
             }
+            processFrames(reassembler.feed(data));
+            dispatchQueuedCommands();
+        }
 
-            String[] dataChunks = data.split("\\r?\\n|\\r");
+        private ByteBuffer tunnelBuffer(ReaderAnswer tunnel_answer) {
+            int length = tunnel_answer.getDataLength();
+            if (tunnel_buffer.capacity() < length) {
+                tunnel_buffer = ByteBuffer.allocate(Math.max(length, 2 * tunnel_buffer.capacity()));
+            }
+            tunnel_buffer.clear();
+            tunnel_answer.getData(tunnel_buffer.array(), 0);
+            tunnel_buffer.limit(length);
+            return tunnel_buffer;
+        }
 
-            for (String chunk : dataChunks) {
-                if (chunk.startsWith("> ")) {
-                    return;
+        private void notifyInventoryLine(int standard, boolean with_PC) {
+            InventoryFilter filter = inventory_filter;
+            if (filter != null && !filter.accept(inventory_line, standard)) {
+                rejected_inventory_lines++;
+                return;
+            }
+            ContinuousInventory loop = inventory_loop;
+            if (loop != null) {
+                loop.tagSeen(inventory_line);
+            }
+            if (inventory_batch_mode == INVENTORY_BATCH_DISABLED) {
+                tag_view.set(inventory_line, standard, with_PC);
+                inventory_listener.inventoryEvent(tag_view);
+                return;
+            }
+            InventoryBatch full_batch = null;
+            synchronized (inventory_batch_lock) {
+                inventory_batch.add(inventory_line, standard, with_PC);
+                if (inventory_batch.size() >= inventory_batch_size) {
+                    full_batch = takeInventoryBatch();
                 }
-                switch (chunk.charAt(0)) {
-                    case 'Z':   // Zhaga transparent command answer
-                        answer = new ReaderAnswer(chunk, false);
-                        break;
-                    case '$':   // command answer
-                        if (pending == AbstractResponseListener.READ_COMMAND ||
-                                pending == AbstractResponseListener.READ_TID_COMMAND) {
-                            answer = new ReaderAnswer(chunk, true);
+                else if (inventory_batch_mode == INVENTORY_BATCH_PER_ROUND && !inventory_batch_scheduled) {
+                    inventory_batch_scheduled = true;
+                    int generation = inventory_batch_generation;
+                    long latency = inventory_batch_latency > 0 ? inventory_batch_latency : getInventoryRoundTimeout();
+                    new Handler(Looper.getMainLooper()).postDelayed(() -> {
+                        InventoryBatch expired_batch = null;
+                        synchronized (inventory_batch_lock) {
+                            if (generation == inventory_batch_generation) {
+                                expired_batch = takeInventoryBatch();
+                            }
                         }
-                        else {
-                            answer = new ReaderAnswer(chunk, false);
+                        notifyInventoryBatch(expired_batch);
+                    }, latency);
+                }
+            }
+            notifyInventoryBatch(full_batch);
+        }
+
+        private void processFrames(String data) {
+            FrameCodec codec = frame_codec;
+            lines.reset(data);
+            while (lines.next()) {
+                int start = lines.getStart();
+                int length = lines.getLength();
+
+                switch (codec.getFrameType(data, start, length)) {
+                    case FrameCodec.EMPTY_FRAME:
+                    case FrameCodec.PROMPT_FRAME:
+                        break;
+                    case FrameCodec.ZHAGA_ANSWER_FRAME:
+                        if (!codec.decodeAnswer(data, start, length, false, answer_view)) {
+                            reassembler.countGarbageFrame();
                         }
+                        processAnswer(answer_view, null);
                         break;
-                    case '#':
-                    case '%':   // tunnel command answer
-                        tunnel_answer = new byte[(chunk.length() - 2) / 2];
-                        for (int n = 0; n < tunnel_answer.length; n++) {
-                            tunnel_answer[n] = (byte) hexToByte(chunk.substring(2 + 2 * n, 2 + 2 * n + 2));
+                    case FrameCodec.ANSWER_FRAME:
+                        if (!codec.decodeAnswer(data, start, length,
+                                isOddLengthAnswer(codec.getAnswerSequential(data, start, length)), answer_view)) {
+                            reassembler.countGarbageFrame();
                         }
+                        processAnswer(answer_view, null);
                         break;
-                    default:
-                        // check for valid ID chars
-                        for (int n = 0; n < chunk.length(); n++) {
-                            if (Character.digit(chunk.charAt(n), 16) < 0) {
-                                return;
-                            }
+                    case FrameCodec.TUNNEL_ANSWER_FRAME:
+                        if (codec.decodeTunnelAnswer(data, start, length, tunnel_view)) {
+                            processAnswer(null, tunnel_view);
+                        }
+                        else {
+                            reassembler.countGarbageFrame();
                         }
+                        break;
+                    case FrameCodec.INVENTORY_FRAME:
                         // tag info
                         if (HF_device) {
-                            byte[] ID = new byte[chunk.length() / 2];
-                            for (int n = 0; n < ID.length; n++) {
-                                ID[n] = (byte) hexToByte(chunk.substring(2 * n, 2 * n + 2));
+                            if (!codec.decodeInventoryLine(data, start, length, FrameCodec.ID_LINE, inventory_line)) {
+                                reassembler.countGarbageFrame();
+                                continue;
                             }
-                            if (ID.length == 8) // ?
+                            if (inventory_line.getIDlength() == 8) // ?
                             {
-                                tag = new ISO15693_tag(ID, passive_reader);
+                                notifyInventoryLine(ISO15693_STANDARD, false);
                             }
                             else {
-                                tag = new ISO14443A_tag(ID, passive_reader);
+                                notifyInventoryLine(ISO14443A_STANDARD, false);
                             }
-                            inventory_listener.inventoryEvent(tag);
                         }
                         if (UHF_device) {
-                            int separator_index = chunk.indexOf(" ");
-                            if (separator_index < 0) {
-                                if (chunk.length() > 4) {
-                                    short PC;
-                                    byte[] ID;
-                                    if (inventory_format == EPC_AND_PC_FORMAT) {
-                                        PC = (short) hexToWord(chunk.substring(0, 4));
-                                        ID = new byte[(chunk.length() - 4) / 2];
-                                        for (int n = 0; n < ID.length; n++) {
-                                            ID[n] = (byte) hexToByte(chunk.substring(4 + 2 * n, 4 + 2 * n + 2));
-                                        }
-                                        tag = new EPC_tag((short) -128, PC, ID, passive_reader);
-                                    }
-                                    else {
-                                        // EPC_ONLY_FORMAT
-                                        ID = new byte[chunk.length()/2];
-                                        for (int n=0; n<ID.length; n++)
-                                            ID[n] = (byte)hexToByte(chunk.substring(2*n, 2*n+2));
-                                        tag = new EPC_simple_tag((short) -128, ID, passive_reader);
-                                    }
-                                    inventory_listener.inventoryEvent(tag);
-                                }
-                            }
-                            else {
-                                if (chunk.length() > 7) {
-                                    short PC = 0x0000;
-                                    byte[] ID;
-                                    if (inventory_format == EPC_AND_PC_FORMAT) {
-                                        PC = (short) hexToWord(chunk.substring(0, 4));
-                                        ID = new byte[(chunk.length() - 7) / 2];
-                                        for (int n = 0; n < ID.length; n++) {
-                                            ID[n] = (byte) hexToByte(chunk.substring(4 + 2 * n, 4 + 2 * n + 2));
-                                        }
-                                    }
-                                    else {
-                                        // EPC_ONLY_FORMAT
-                                        ID = new byte[chunk.length()/2];
-                                        for (int n=0; n<ID.length; n++)
-                                            ID[n] = (byte)hexToByte(chunk.substring(2*n, 2*n+2));
-                                    }
-                                    String rssi = chunk.substring(separator_index + 1, separator_index + 1 + 2);
-                                    int tmp = hexToWord(rssi);
-                                    short RSSI;
-                                    if (tmp < 127) {
-                                        RSSI = (short) tmp;
-                                    }
-                                    else {
-                                        RSSI = (short) (tmp - 256);
-                                    }
-                                    if (inventory_format == EPC_AND_PC_FORMAT)
-                                        tag = new EPC_tag(RSSI, PC, ID, passive_reader);
-                                    else // EPC_ONLY_FORMAT
-                                        tag = new EPC_simple_tag(RSSI, ID, passive_reader);
-                                    inventory_listener.inventoryEvent(tag);
-                                }
+                            boolean with_PC = inventory_format == EPC_AND_PC_FORMAT;
+                            if (!codec.decodeInventoryLine(data, start, length,
+                                    with_PC ? FrameCodec.EPC_AND_PC_LINE : FrameCodec.EPC_LINE, inventory_line)) {
+                                reassembler.countGarbageFrame();
+                                continue;
                             }
+                            notifyInventoryLine(EPC_STANDARD, with_PC);
                         }
+                        break;
+                    default:
+                        // events are not expected on the command channel
+                        reassembler.countGarbageFrame();
+                        break;
                 }
             }
+            if (inventory_batch_mode == INVENTORY_BATCH_PER_NOTIFICATION) {
+                flushInventoryBatch();
+            }
+        }
 
-            if (answer == null && tunnel_answer == null) {
-                return;
+        /**
+         * Check if the answer of an in-flight command needs the odd length fix.
+         *
+         * The fix depends on the command the answer belongs to, found by the
+         * answer sequential number: with pipelined commands the last taken
+         * command is not necessarily the answered one.
+         *
+         * @param sequential the answer sequential number (-1 if unknown)
+         * @return true if the answer is the answer of an in-flight read or read TID command
+         */
+        private boolean isOddLengthAnswer(int sequential) {
+            int command = sequential < 0 ? -1 : in_flight.findCommand(sequential);
+            return command == AbstractResponseListener.READ_COMMAND ||
+                    command == AbstractResponseListener.READ_TID_COMMAND;
+        }
+
+        /**
+         * Dispatch a single answer to the command it belongs to.
+         * <p>
+         * Answers are processed as soon as they are decoded, so that every
+         * answer received by a notification reaches its in-flight command.
+         *
+         * @param answer        the decoded command answer (null for a tunnel answer)
+         * @param tunnel_answer the decoded tunnel answer (null for a command answer)
+         */
+        private void processAnswer(ReaderAnswer answer, ReaderAnswer tunnel_answer) {
+            ContinuousInventory loop = inventory_loop;
+            if (loop != null && answer != null && answer.isValid()) {
+                loop.answerReceived(answer.getSequential());
             }
 
             switch (status) {
                 case ERROR_STATUS:
                 case NOT_INITIALIZED_STATUS:
-                    status = ERROR_STATUS;
+                    setStatus(ERROR_STATUS);
                     break;
                 case UNINITIALIZED_STATUS:
                     if (answer == null || !answer.isValid()) {
-                        status = ERROR_STATUS;
+                        setStatus(ERROR_STATUS);
                         reader_listener.connectionFailedEvent(AbstractReaderListener.READER_ANSWER_WRONG_FORMAT_ERROR);
                         zhaga_listener.connectionFailedEvent(AbstractZhagaListener.READER_ANSWER_WRONG_FORMAT_ERROR);
                         break;
                     }
                     if (answer.getSequential() != (sequential == 0 ? 255 : sequential - 1)) {
-                        status = ERROR_STATUS;
+                        setStatus(ERROR_STATUS);
                         reader_listener.connectionFailedEvent(AbstractReaderListener.READER_COMMAND_ANSWER_MISMATCH_ERROR);
                         zhaga_listener.connectionFailedEvent(AbstractZhagaListener.READER_COMMAND_ANSWER_MISMATCH_ERROR);
                         break;
                     }
-                    if (answer.getData().length == 0) {
-                        status = ERROR_STATUS;
+                    if (answer.getDataLength() == 0) {
+                        setStatus(ERROR_STATUS);
                         reader_listener.connectionFailedEvent(AbstractReaderListener.READER_ANSWER_WRONG_FORMAT_ERROR);
                         zhaga_listener.connectionFailedEvent(AbstractZhagaListener.READER_ANSWER_WRONG_FORMAT_ERROR);
                         break;
                     }
                     if (answer.getReturnCode() != SUCCESSFUL_OPERATION_RETCODE) {
-                        status = ERROR_STATUS;
+                        setStatus(ERROR_STATUS);
                         reader_listener.connectionFailedEvent(answer.getReturnCode());
                         zhaga_listener.connectionFailedEvent(answer.getReturnCode());
                         break;
                     }
-                    if (answer.getData()[0] == EPC_STANDARD) {
+                    if (answer.getDataByte(0) == EPC_STANDARD) {
                         HF_device = false;
                         UHF_device = true;
-                        inventory_standard = answer.getData()[0];
+                        inventory_standard = answer.getDataByte(0);
                     }
                     else {
                         HF_device = true;
                         UHF_device = false;
-                        inventory_standard = answer.getData()[0];
+                        inventory_standard = answer.getDataByte(0);
                     }
-                    status = READY_STATUS;
+                    setStatus(READY_STATUS);
                     reader_listener.connectionSuccessEvent();
                     zhaga_listener.connectionSuccessEvent();
                     break;
@@ -431,16 +430,27 @@ public final class PassiveReader implements ZhagaReader {
                     break;
                 case PENDING_COMMAND_STATUS:
                     if (answer != null && !answer.isValid()) {
-                        status = READY_STATUS;
+                        if (!takeInFlight() && in_flight.discardAbandoned()) {
+                            // only commands already failed by their handle were waiting
+                            setStatus(READY_STATUS);
+                            break;
+                        }
+                        setStatus(READY_STATUS);
                         //reader_listener.resultEvent(pending, AbstractReaderListener.READER_ANSWER_WRONG_FORMAT_ERROR);
                         //zhaga_listener.resultEvent(pending, AbstractZhagaListener.READER_ANSWER_WRONG_FORMAT_ERROR);
                         resultEvent(pending, AbstractZhagaListener.READER_ANSWER_WRONG_FORMAT_ERROR);
                         break;
                     }
-                    if (answer != null && answer.getSequential() == (sequential == 0 ? 255 : sequential - 1)) {
+                    if (answer != null && in_flight.discard(answer.getSequential())) {
+                        // late answer of a command already failed by its handle
+                        reassembler.countGarbageFrame();
+                        setStatus(READY_STATUS);
+                        break;
+                    }
+                    if (answer != null && takeInFlight(answer.getSequential())) {
                         if (answer.getReturnCode() != SUCCESSFUL_OPERATION_RETCODE &&
                                 pending != AbstractReaderListener.ZHAGA_TRANSPARENT_COMMAND) {
-                            status = READY_STATUS;
+                            setStatus(READY_STATUS);
                             if ((pending >= AbstractReaderListener.SOUND_COMMAND &&
                                     pending < AbstractReaderListener.ZHAGA_TRANSPARENT_COMMAND) ||
                                     pending == AbstractReaderListener.SET_INVENTORY_FORMAT_COMMAND) {
@@ -568,44 +578,44 @@ public final class PassiveReader implements ZhagaReader {
                                 break;
                             case AbstractReaderListener.GET_BATTERY_STATUS_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 0) {
-                                    int status = byteToInt(answer.getData()[0]);
+                                        answer.getDataLength() > 0) {
+                                    int status = byteToInt(answer.getDataByte(0));
                                     reader_listener.batteryStatusEvent(status);
                                 }
                                 reader_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractReaderListener.GET_FIRMWARE_VERSION_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 0) {
-                                    int major = byteToInt(answer.getData()[0]) / 16;
-                                    int minor = byteToInt(answer.getData()[0]) % 16;
+                                        answer.getDataLength() > 0) {
+                                    int major = byteToInt(answer.getDataByte(0)) / 16;
+                                    int minor = byteToInt(answer.getDataByte(0)) % 16;
                                     reader_listener.firmwareVersionEvent(major, minor);
                                 }
                                 reader_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractReaderListener.GET_SHUTDOWN_TIME_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 1) {
-                                    int time = byteToInt(answer.getData()[0]) * 256;
-                                    time += byteToInt(answer.getData()[1]);
+                                        answer.getDataLength() > 1) {
+                                    int time = byteToInt(answer.getDataByte(0)) * 256;
+                                    time += byteToInt(answer.getDataByte(1));
                                     reader_listener.shutdownTimeEvent(time);
                                 }
                                 reader_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractReaderListener.GET_RF_POWER_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 1) {
-                                    int level = byteToInt(answer.getData()[0]);
-                                    int mode = byteToInt(answer.getData()[1]);
+                                        answer.getDataLength() > 1) {
+                                    int level = byteToInt(answer.getDataByte(0));
+                                    int mode = byteToInt(answer.getDataByte(1));
                                     reader_listener.RFpowerEvent(level, mode);
                                 }
                                 reader_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractReaderListener.GET_BATTERY_LEVEL_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 1) {
-                                    double level = byteToInt(answer.getData()[0]) * 256;
-                                    level += byteToInt(answer.getData()[1]);
+                                        answer.getDataLength() > 1) {
+                                    double level = byteToInt(answer.getDataByte(0)) * 256;
+                                    level += byteToInt(answer.getDataByte(1));
                                     level = level * (3.3 / 4095) * 2.025; // ADC -> Volt
                                     reader_listener.batteryLevelEvent((float) (level));
                                 }
@@ -613,37 +623,37 @@ public final class PassiveReader implements ZhagaReader {
                                 break;
                             case AbstractReaderListener.GET_RF_FOR_ISO15693_TUNNEL_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 1) {
-                                    int timeout = byteToInt(answer.getData()[0]);
-                                    int delay = byteToInt(answer.getData()[1]);
+                                        answer.getDataLength() > 1) {
+                                    int timeout = byteToInt(answer.getDataByte(0));
+                                    int delay = byteToInt(answer.getDataByte(1));
                                     reader_listener.RFforISO15693tunnelEvent(delay, timeout);
                                 }
                                 reader_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractReaderListener.GET_ISO15693_OPTION_BITS_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 0) {
-                                    int bits = byteToInt(answer.getData()[0]);
+                                        answer.getDataLength() > 0) {
+                                    int bits = byteToInt(answer.getDataByte(0));
                                     reader_listener.ISO15693optionBitsEvent(bits);
                                 }
                                 reader_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractReaderListener.GET_ISO15693_EXTENSION_FLAG_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 0) {
-                                    boolean permanent = (answer.getData()[0] & 0x02) != 0x02;
-                                    boolean flag = (answer.getData()[0] & 0x01) == 0x01;
+                                        answer.getDataLength() > 0) {
+                                    boolean permanent = (answer.getDataByte(0) & 0x02) != 0x02;
+                                    boolean flag = (answer.getDataByte(0) & 0x01) == 0x01;
                                     reader_listener.ISO15693extensionFlagEvent(flag, permanent);
                                 }
                                 reader_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractReaderListener.GET_ISO15693_BITRATE_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 0) {
-                                    boolean permanent = (answer.getData()[0] & 0x02) != 0x02;
+                                        answer.getDataLength() > 0) {
+                                    boolean permanent = (answer.getDataByte(0) & 0x02) != 0x02;
 
                                     int bitrate;
-                                    if ((answer.getData()[0] & 0x01) == 0x01) {
+                                    if ((answer.getDataByte(0) & 0x01) == 0x01) {
                                         bitrate = PassiveReader.ISO15693_HIGH_BITRATE;
                                     }
                                     else {
@@ -655,16 +665,16 @@ public final class PassiveReader implements ZhagaReader {
                                 break;
                             case AbstractReaderListener.GET_EPC_FREQUENCY_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 0) {
-                                    int frequency = byteToInt(answer.getData()[0]);
+                                        answer.getDataLength() > 0) {
+                                    int frequency = byteToInt(answer.getDataByte(0));
                                     reader_listener.EPCfrequencyEvent(frequency);
                                 }
                                 reader_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractReaderListener.GET_SECURITY_LEVEL_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 0) {
-                                    int level = byteToInt(answer.getData()[0]);
+                                        answer.getDataLength() > 0) {
+                                    int level = byteToInt(answer.getDataByte(0));
                                     reader_listener.securityLevelEvent(level);
                                     zhaga_listener.securityLevelEvent(level);
                                 }
@@ -673,12 +683,12 @@ public final class PassiveReader implements ZhagaReader {
                                 break;
                             case AbstractReaderListener.GET_DEVICE_NAME_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 0) {
-                                    String name = "";
-                                    byte tmp[] = answer.getData();
-                                    for (int n = 0; n < tmp.length; n++) {
-                                        name += Character.toString((char) tmp[n]);
+                                        answer.getDataLength() > 0) {
+                                    StringBuilder builder = new StringBuilder(answer.getDataLength());
+                                    for (int n = 0; n < answer.getDataLength(); n++) {
+                                        builder.append((char) answer.getDataByte(n));
                                     }
+                                    String name = builder.toString();
                                     reader_listener.nameEvent(name);
                                     zhaga_listener.nameEvent(name);
                                 }
@@ -687,45 +697,45 @@ public final class PassiveReader implements ZhagaReader {
                                 break;
                             case AbstractReaderListener.GET_ADVERTISING_INTERVAL_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 1) {
-                                    int interval = byteToInt(answer.getData()[0]) * 256;
-                                    interval += byteToInt(answer.getData()[1]);
+                                        answer.getDataLength() > 1) {
+                                    int interval = byteToInt(answer.getDataByte(0)) * 256;
+                                    interval += byteToInt(answer.getDataByte(1));
                                     reader_listener.advertisingIntervalEvent(interval * 625 / 1000);
                                 }
                                 reader_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractReaderListener.GET_BLE_POWER_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 0) {
-                                    int power = byteToInt(answer.getData()[0]);
+                                        answer.getDataLength() > 0) {
+                                    int power = byteToInt(answer.getDataByte(0));
                                     reader_listener.BLEpowerEvent(power);
                                 }
                                 reader_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractReaderListener.GET_CONNECTION_INTERVAL_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 3) {
-                                    float min_interval = byteToInt(answer.getData()[0]) * 256;
-                                    min_interval += byteToInt(answer.getData()[1]);
-                                    float max_interval = byteToInt(answer.getData()[2]) * 256;
-                                    max_interval += byteToInt(answer.getData()[3]);
+                                        answer.getDataLength() > 3) {
+                                    float min_interval = byteToInt(answer.getDataByte(0)) * 256;
+                                    min_interval += byteToInt(answer.getDataByte(1));
+                                    float max_interval = byteToInt(answer.getDataByte(2)) * 256;
+                                    max_interval += byteToInt(answer.getDataByte(3));
                                     reader_listener.connectionIntervalEvent(min_interval * 1.25F, max_interval * 1.25F);
                                 }
                                 reader_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractReaderListener.GET_CONNECTION_INTERVAL_AND_MTU_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 2) {
-                                    float interval = byteToInt(answer.getData()[0]) * 256;
-                                    interval += byteToInt(answer.getData()[1]);
-                                    int MTU = byteToInt(answer.getData()[2]);
+                                        answer.getDataLength() > 2) {
+                                    float interval = byteToInt(answer.getDataByte(0)) * 256;
+                                    interval += byteToInt(answer.getDataByte(1));
+                                    int MTU = byteToInt(answer.getDataByte(2));
                                     reader_listener.connectionIntervalAndMTUevent(interval * 1.25F, MTU);
                                 }
                                 reader_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractReaderListener.GET_MAC_ADDRESS_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 5) {
+                                        answer.getDataLength() > 5) {
                                     byte address[] = answer.getData();
                                     reader_listener.MACaddressEvent(address);
                                 }
@@ -733,34 +743,34 @@ public final class PassiveReader implements ZhagaReader {
                                 break;
                             case AbstractReaderListener.GET_SLAVE_LATENCY_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 1) {
-                                    int latency = byteToInt(answer.getData()[0]) * 256;
-                                    latency += byteToInt(answer.getData()[1]);
+                                        answer.getDataLength() > 1) {
+                                    int latency = byteToInt(answer.getDataByte(0)) * 256;
+                                    latency += byteToInt(answer.getDataByte(1));
                                     reader_listener.slaveLatencyEvent(latency);
                                 }
                                 reader_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractReaderListener.GET_SUPERVISION_TIMEOUT_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 1) {
-                                    int timeout = byteToInt(answer.getData()[0]) * 256;
-                                    timeout += byteToInt(answer.getData()[1]);
+                                        answer.getDataLength() > 1) {
+                                    int timeout = byteToInt(answer.getDataByte(0)) * 256;
+                                    timeout += byteToInt(answer.getDataByte(1));
                                     reader_listener.supervisionTimeoutEvent(timeout * 10);
                                 }
                                 reader_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractReaderListener.GET_BLE_FIRMWARE_VERSION_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 1) {
-                                    int major = byteToInt(answer.getData()[1]) / 16;
-                                    int minor = byteToInt(answer.getData()[1]) % 16;
+                                        answer.getDataLength() > 1) {
+                                    int major = byteToInt(answer.getDataByte(1)) / 16;
+                                    int minor = byteToInt(answer.getDataByte(1)) % 16;
                                     reader_listener.BLEfirmwareVersionEvent(major, minor);
                                 }
                                 reader_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractReaderListener.READ_USER_MEMORY_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 63) {
+                                        answer.getDataLength() > 63) {
                                     byte data_block[] = answer.getData();
                                     reader_listener.userMemoryEvent(data_block);
                                 }
@@ -768,145 +778,145 @@ public final class PassiveReader implements ZhagaReader {
                                 break;
                             case AbstractZhagaListener.ZHAGA_GET_RF_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 0) {
-                                    zhaga_listener.RFevent((answer.getData()[0] == 0x01));
+                                        answer.getDataLength() > 0) {
+                                    zhaga_listener.RFevent((answer.getDataByte(0) == 0x01));
                                 }
                                 zhaga_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractZhagaListener.ZHAGA_GET_HMI_SUPPORT_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 2) {
-                                    int LED_color = byteToInt(answer.getData()[0]);
-                                    int sound_vibration = byteToInt(answer.getData()[1]);
-                                    int button_number = byteToInt(answer.getData()[2]);
+                                        answer.getDataLength() > 2) {
+                                    int LED_color = byteToInt(answer.getDataByte(0));
+                                    int sound_vibration = byteToInt(answer.getDataByte(1));
+                                    int button_number = byteToInt(answer.getDataByte(2));
                                     zhaga_listener.HMIevent(LED_color, sound_vibration, button_number);
                                 }
                                 zhaga_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractZhagaListener.ZHAGA_GET_INVENTORY_SOUND_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 4) {
-                                    int frequency = byteToInt(answer.getData()[0]) * 256;
-                                    frequency += byteToInt(answer.getData()[1]);
-                                    int on_time = byteToInt(answer.getData()[2]) * 10;
-                                    int off_time = byteToInt(answer.getData()[3]) * 10;
-                                    int repetition = byteToInt(answer.getData()[4]);
+                                        answer.getDataLength() > 4) {
+                                    int frequency = byteToInt(answer.getDataByte(0)) * 256;
+                                    frequency += byteToInt(answer.getDataByte(1));
+                                    int on_time = byteToInt(answer.getDataByte(2)) * 10;
+                                    int off_time = byteToInt(answer.getDataByte(3)) * 10;
+                                    int repetition = byteToInt(answer.getDataByte(4));
                                     zhaga_listener.soundForInventoryEvent(frequency, on_time, off_time, repetition);
                                 }
                                 zhaga_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractZhagaListener.ZHAGA_GET_COMMAND_SOUND_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 4) {
-                                    int frequency = byteToInt(answer.getData()[0]) * 256;
-                                    frequency += byteToInt(answer.getData()[1]);
-                                    int on_time = byteToInt(answer.getData()[2]) * 10;
-                                    int off_time = byteToInt(answer.getData()[3]) * 10;
-                                    int repetition = byteToInt(answer.getData()[4]);
+                                        answer.getDataLength() > 4) {
+                                    int frequency = byteToInt(answer.getDataByte(0)) * 256;
+                                    frequency += byteToInt(answer.getDataByte(1));
+                                    int on_time = byteToInt(answer.getDataByte(2)) * 10;
+                                    int off_time = byteToInt(answer.getDataByte(3)) * 10;
+                                    int repetition = byteToInt(answer.getDataByte(4));
                                     zhaga_listener.soundForCommandEvent(frequency, on_time, off_time, repetition);
                                 }
                                 zhaga_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractZhagaListener.ZHAGA_GET_ERROR_SOUND_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 4) {
-                                    int frequency = byteToInt(answer.getData()[0]) * 256;
-                                    frequency += byteToInt(answer.getData()[1]);
-                                    int on_time = byteToInt(answer.getData()[2]) * 10;
-                                    int off_time = byteToInt(answer.getData()[3]) * 10;
-                                    int repetition = byteToInt(answer.getData()[4]);
+                                        answer.getDataLength() > 4) {
+                                    int frequency = byteToInt(answer.getDataByte(0)) * 256;
+                                    frequency += byteToInt(answer.getDataByte(1));
+                                    int on_time = byteToInt(answer.getDataByte(2)) * 10;
+                                    int off_time = byteToInt(answer.getDataByte(3)) * 10;
+                                    int repetition = byteToInt(answer.getDataByte(4));
                                     zhaga_listener.soundForErrorEvent(frequency, on_time, off_time, repetition);
                                 }
                                 zhaga_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractZhagaListener.ZHAGA_GET_INVENTORY_LED_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 3) {
-                                    int color = byteToInt(answer.getData()[0]);
-                                    int on_time = byteToInt(answer.getData()[1]) * 10;
-                                    int off_time = byteToInt(answer.getData()[2]) * 10;
-                                    int repetition = byteToInt(answer.getData()[3]);
+                                        answer.getDataLength() > 3) {
+                                    int color = byteToInt(answer.getDataByte(0));
+                                    int on_time = byteToInt(answer.getDataByte(1)) * 10;
+                                    int off_time = byteToInt(answer.getDataByte(2)) * 10;
+                                    int repetition = byteToInt(answer.getDataByte(3));
                                     zhaga_listener.LEDforInventoryEvent(color, on_time, off_time, repetition);
                                 }
                                 zhaga_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractZhagaListener.ZHAGA_GET_COMMAND_LED_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 3) {
-                                    int color = byteToInt(answer.getData()[0]);
-                                    int on_time = byteToInt(answer.getData()[1]) * 10;
-                                    int off_time = byteToInt(answer.getData()[2]) * 10;
-                                    int repetition = byteToInt(answer.getData()[3]);
+                                        answer.getDataLength() > 3) {
+                                    int color = byteToInt(answer.getDataByte(0));
+                                    int on_time = byteToInt(answer.getDataByte(1)) * 10;
+                                    int off_time = byteToInt(answer.getDataByte(2)) * 10;
+                                    int repetition = byteToInt(answer.getDataByte(3));
                                     zhaga_listener.LEDforCommandEvent(color, on_time, off_time, repetition);
                                 }
                                 zhaga_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractZhagaListener.ZHAGA_GET_ERROR_LED_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 3) {
-                                    int color = byteToInt(answer.getData()[0]);
-                                    int on_time = byteToInt(answer.getData()[1]) * 10;
-                                    int off_time = byteToInt(answer.getData()[2]) * 10;
-                                    int repetition = byteToInt(answer.getData()[3]);
+                                        answer.getDataLength() > 3) {
+                                    int color = byteToInt(answer.getDataByte(0));
+                                    int on_time = byteToInt(answer.getDataByte(1)) * 10;
+                                    int off_time = byteToInt(answer.getDataByte(2)) * 10;
+                                    int repetition = byteToInt(answer.getDataByte(3));
                                     zhaga_listener.LEDforErrorEvent(color, on_time, off_time, repetition);
                                 }
                                 zhaga_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractZhagaListener.ZHAGA_GET_INVENTORY_VIBRATION_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 2) {
-                                    int on_time = byteToInt(answer.getData()[0]) * 10;
-                                    int off_time = byteToInt(answer.getData()[1]) * 10;
-                                    int repetition = byteToInt(answer.getData()[2]);
+                                        answer.getDataLength() > 2) {
+                                    int on_time = byteToInt(answer.getDataByte(0)) * 10;
+                                    int off_time = byteToInt(answer.getDataByte(1)) * 10;
+                                    int repetition = byteToInt(answer.getDataByte(2));
                                     zhaga_listener.vibrationForInventoryEvent(on_time, off_time, repetition);
                                 }
                                 zhaga_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractZhagaListener.ZHAGA_GET_COMMAND_VIBRATION_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 2) {
-                                    int on_time = byteToInt(answer.getData()[0]) * 10;
-                                    int off_time = byteToInt(answer.getData()[1]) * 10;
-                                    int repetition = byteToInt(answer.getData()[2]);
+                                        answer.getDataLength() > 2) {
+                                    int on_time = byteToInt(answer.getDataByte(0)) * 10;
+                                    int off_time = byteToInt(answer.getDataByte(1)) * 10;
+                                    int repetition = byteToInt(answer.getDataByte(2));
                                     zhaga_listener.vibrationForCommandEvent(on_time, off_time, repetition);
                                 }
                                 zhaga_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractZhagaListener.ZHAGA_GET_ERROR_VIBRATION_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 2) {
-                                    int on_time = byteToInt(answer.getData()[0]) * 10;
-                                    int off_time = byteToInt(answer.getData()[1]) * 10;
-                                    int repetition = byteToInt(answer.getData()[2]);
+                                        answer.getDataLength() > 2) {
+                                    int on_time = byteToInt(answer.getDataByte(0)) * 10;
+                                    int off_time = byteToInt(answer.getDataByte(1)) * 10;
+                                    int repetition = byteToInt(answer.getDataByte(2));
                                     zhaga_listener.vibrationForErrorEvent(on_time, off_time, repetition);
                                 }
                                 zhaga_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractZhagaListener.ZHAGA_GET_ACTIVATED_BUTTON_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 0) {
-                                    int button = byteToInt(answer.getData()[0]);
+                                        answer.getDataLength() > 0) {
+                                    int button = byteToInt(answer.getDataByte(0));
                                     zhaga_listener.activatedButtonEvent(button);
                                 }
                                 zhaga_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractZhagaListener.ZHAGA_GET_RF_ONOFF_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 4) {
-                                    int power = byteToInt(answer.getData()[0]);
-                                    int timeout = byteToInt(answer.getData()[1]) * 256;
-                                    timeout += byteToInt(answer.getData()[2]);
-                                    int preactivation = byteToInt(answer.getData()[3]) * 256;
-                                    preactivation += byteToInt(answer.getData()[4]);
+                                        answer.getDataLength() > 4) {
+                                    int power = byteToInt(answer.getDataByte(0));
+                                    int timeout = byteToInt(answer.getDataByte(1)) * 256;
+                                    timeout += byteToInt(answer.getDataByte(2));
+                                    int preactivation = byteToInt(answer.getDataByte(3)) * 256;
+                                    preactivation += byteToInt(answer.getDataByte(4));
                                     zhaga_listener.RFonOffEvent(power, timeout, preactivation);
                                 }
                                 zhaga_listener.resultEvent(pending, answer.getReturnCode());
                                 break;
                             case AbstractZhagaListener.ZHAGA_GET_AUTOOFF_COMMAND:
                                 if (answer.getReturnCode() == AbstractReaderListener.NO_ERROR &&
-                                        answer.getData().length > 1) {
-                                    int time = byteToInt(answer.getData()[0]) * 256;
-                                    time += byteToInt(answer.getData()[1]);
+                                        answer.getDataLength() > 1) {
+                                    int time = byteToInt(answer.getDataByte(0)) * 256;
+                                    time += byteToInt(answer.getDataByte(1));
                                     zhaga_listener.autoOffEvent(time);
                                 }
                                 zhaga_listener.resultEvent(pending, answer.getReturnCode());
@@ -943,7 +953,12 @@ public final class PassiveReader implements ZhagaReader {
                         if (tunnel_answer != null &&
                                 (pending == AbstractReaderListener.ISO15693_ENCRYPTEDTUNNEL_COMMAND ||
                                         pending == AbstractReaderListener.ISO15693_TUNNEL_COMMAND)) {
-                            reader_listener.tunnelEvent(tunnel_answer);
+                            reader_listener.tunnelEvent(tunnelBuffer(tunnel_answer));
+                        }
+                        else if (answer != null && !in_flight.isEmpty()) {
+                            // late answer of a command already failed: keep waiting for the in-flight ones
+                            reassembler.countGarbageFrame();
+                            break;
                         }
                         else {// answer mismatch
                             /*
@@ -977,18 +992,26 @@ public final class PassiveReader implements ZhagaReader {
                             }
                         }
                     }
-                    status = READY_STATUS;
+                    setStatus(READY_STATUS);
                     break;
             }
+            synchronized (in_flight) {
+                if (status == READY_STATUS && !in_flight.isEmpty()) {
+                    // more commands are waiting for their answer
+                    setStatus(PENDING_COMMAND_STATUS);
+                }
+            }
         }
 
         @Override
         public void onReadData(String data) {
+            command_queue.markDeliveryThread();
             System.err.println("\"" + data + "\" read?");
         }
 
         @Override
         public void onReadError(int errorCode) {
+            command_queue.markDeliveryThread();
             int error;
 
             switch (errorCode) {
@@ -1007,7 +1030,7 @@ public final class PassiveReader implements ZhagaReader {
                 case ERROR_STATUS:
                 case NOT_INITIALIZED_STATUS:
                 case UNINITIALIZED_STATUS:
-                    status = ERROR_STATUS;
+                    setStatus(ERROR_STATUS);
                     reader_listener.connectionFailedEvent(error);
                     zhaga_listener.connectionFailedEvent(error);
                     break;
@@ -1019,55 +1042,30 @@ public final class PassiveReader implements ZhagaReader {
                         device_manager.requestSetMode(STREAM_MODE);
                         break;
                     }
-                    if ((pending >= AbstractReaderListener.SOUND_COMMAND &&
-                            pending < AbstractReaderListener.ZHAGA_TRANSPARENT_COMMAND) ||
-                            pending == AbstractReaderListener.SET_INVENTORY_FORMAT_COMMAND) {
-                        //reader_listener.resultEvent(pending, error);
-                        //zhaga_listener.resultEvent(pending, error);
-                        resultEvent(pending, error);
-                    }
-                    else {
-                        switch (pending) {
-                            case AbstractZhagaListener.ZHAGA_TRANSPARENT_COMMAND:
-                                zhaga_listener.resultEvent(pending, error);
-                                break;
-                            case AbstractResponseListener.READ_COMMAND:
-                                response_listener.readEvent(tag_ID, error, null);
-                                break;
-                            case AbstractResponseListener.WRITE_COMMAND:
-                                response_listener.writeEvent(tag_ID, error);
-                                break;
-                            case AbstractResponseListener.LOCK_COMMAND:
-                                response_listener.lockEvent(tag_ID, error);
-                                break;
-                            case AbstractResponseListener.WRITEID_COMMAND:
-                                response_listener.writeIDevent(tag_ID, error);
-                                break;
-                            case AbstractResponseListener.READ_TID_COMMAND:
-                                response_listener.readTIDevent(tag_ID, error, null);
-                                break;
-                            case AbstractResponseListener.KILL_COMMAND:
-                                response_listener.killEvent(tag_ID, error);
-                                break;
-                            case AbstractResponseListener.WRITEKILLPASSWORD_COMMAND:
-                            case AbstractResponseListener.WRITEACCESSPASSWORD_COMMAND:
-                                response_listener.writePasswordEvent(tag_ID, error);
-                                break;
-                        }
-                    }
-                    status = READY_STATUS;
+                    commandFailed(error);
+                    setStatus(READY_STATUS);
                     break;
             }
+            dispatchQueuedCommands();
         }
 
         @Override
         public void onReadNotifyTimeout() {
+            command_queue.markDeliveryThread();
             System.err.println("Read timeout!");
+            String tail = reassembler.flush();
+            if (tail != null) {
+                processFrames(tail);
+                if (status == READY_STATUS) {
+                    dispatchQueuedCommands();
+                    return;
+                }
+            }
             switch (status) {
                 case ERROR_STATUS:
                 case NOT_INITIALIZED_STATUS:
                 case UNINITIALIZED_STATUS:
-                    status = ERROR_STATUS;
+                    setStatus(ERROR_STATUS);
                     reader_listener.connectionFailedEvent(AbstractResponseListener.READER_READ_TIMEOUT_ERROR);
                     zhaga_listener.connectionFailedEvent(AbstractZhagaListener.READER_READ_TIMEOUT_ERROR);
                     break;
@@ -1079,79 +1077,42 @@ public final class PassiveReader implements ZhagaReader {
                         device_manager.requestSetMode(STREAM_MODE);
                         break;
                     }
-                    if ((pending >= AbstractReaderListener.SOUND_COMMAND &&
-                            pending < AbstractReaderListener.ZHAGA_TRANSPARENT_COMMAND) ||
-                            pending == AbstractReaderListener.SET_INVENTORY_FORMAT_COMMAND) {
-                        //reader_listener.resultEvent(pending, AbstractReaderListener.READER_READ_TIMEOUT_ERROR);
-                        //zhaga_listener.resultEvent(pending, AbstractZhagaListener.READER_READ_TIMEOUT_ERROR);
-                        resultEvent(pending, AbstractZhagaListener.READER_READ_TIMEOUT_ERROR);
-                    }
-                    else {
-                        switch (pending) {
-                            case AbstractZhagaListener.ZHAGA_TRANSPARENT_COMMAND:
-                                zhaga_listener.resultEvent(pending, AbstractZhagaListener.READER_READ_TIMEOUT_ERROR);
-                                break;
-                            case AbstractResponseListener.READ_COMMAND:
-                                response_listener.readEvent(tag_ID,
-                                        AbstractResponseListener.READER_READ_TIMEOUT_ERROR, null);
-                                break;
-                            case AbstractResponseListener.WRITE_COMMAND:
-                                response_listener.writeEvent(tag_ID,
-                                        AbstractResponseListener.READER_READ_TIMEOUT_ERROR);
-                                break;
-                            case AbstractResponseListener.LOCK_COMMAND:
-                                response_listener.lockEvent(tag_ID, AbstractResponseListener.READER_READ_TIMEOUT_ERROR);
-                                break;
-                            case AbstractResponseListener.WRITEID_COMMAND:
-                                response_listener.writeIDevent(tag_ID,
-                                        AbstractResponseListener.READER_READ_TIMEOUT_ERROR);
-                                break;
-                            case AbstractResponseListener.READ_TID_COMMAND:
-                                response_listener.readTIDevent(tag_ID,
-                                        AbstractResponseListener.READER_READ_TIMEOUT_ERROR, null);
-                                break;
-                            case AbstractResponseListener.KILL_COMMAND:
-                                response_listener.killEvent(tag_ID, AbstractResponseListener.READER_READ_TIMEOUT_ERROR);
-                                break;
-                            case AbstractResponseListener.WRITEKILLPASSWORD_COMMAND:
-                            case AbstractResponseListener.WRITEACCESSPASSWORD_COMMAND:
-                                response_listener.writePasswordEvent(tag_ID,
-                                        AbstractResponseListener.READER_WRITE_TIMEOUT_ERROR);
-                                break;
-                        }
-                    }
-                    status = READY_STATUS;
+                    commandFailed(AbstractReaderListener.READER_READ_TIMEOUT_ERROR);
+                    setStatus(READY_STATUS);
                     break;
             }
+            dispatchQueuedCommands();
         }
 
         @Override
         public void onReceiveTxRxTimestampsAfterNotifyData(TxRxTimestamps txRxTimestamps) {
+            command_queue.markDeliveryThread();
 
         }
 
         @Override
         public void onSetMode(int mode) {
+            command_queue.markDeliveryThread();
             System.err.println("\"" + mode + "\" set.");
             switch (status) {
                 case ERROR_STATUS:
                 case NOT_INITIALIZED_STATUS:
                 case UNINITIALIZED_STATUS:
-                    status = ERROR_STATUS;
+                    setStatus(ERROR_STATUS);
                     break;
                 case READY_STATUS:
                     if (mode == STREAM_MODE) {
                         sub_status = STREAM_SUBSTATUS;
                     }
                     else {
-                        status = ERROR_STATUS;
+                        setStatus(ERROR_STATUS);
                     }
                     break;
                 case PENDING_COMMAND_STATUS:
                     switch (sub_status) {
                         case STREAM_SUBSTATUS:
                         case CMD_SUBSTATUS:
-                            status = ERROR_STATUS;
+                            setStatus(ERROR_STATUS);
                             break;
                         case SET_CMD_SUBSTATUS:
                             if (mode == CMD_MODE) {
@@ -1159,44 +1120,46 @@ public final class PassiveReader implements ZhagaReader {
                                 device_manager.requestWriteData(command + "\r\n");
                             }
                             else {
-                                status = ERROR_STATUS;
+                                setStatus(ERROR_STATUS);
                             }
                             break;
                         case SET_STREAM_SUBSTATUS:
                             if (mode == STREAM_MODE) {
                                 sub_status = STREAM_SUBSTATUS;
-                                status = READY_STATUS;
+                                setStatus(READY_STATUS);
                                 //reader_listener.resultEvent(pending, AbstractReaderListener.NO_ERROR);
                                 resultEvent(pending, AbstractReaderListener.NO_ERROR);
                             }
                             else {
-                                status = ERROR_STATUS;
+                                setStatus(ERROR_STATUS);
                             }
                             break;
                     }
                     break;
             }
+            dispatchQueuedCommands();
         }
 
         @Override
         public void onSetModeError(int errorCode) {
+            command_queue.markDeliveryThread();
             System.err.println("Setmode error!");
             switch (status) {
                 case ERROR_STATUS:
                 case NOT_INITIALIZED_STATUS:
                 case UNINITIALIZED_STATUS:
                 case READY_STATUS:
-                    status = ERROR_STATUS;
+                    setStatus(ERROR_STATUS);
                     break;
                 case PENDING_COMMAND_STATUS:
                     switch (sub_status) {
                         case STREAM_SUBSTATUS:
                         case CMD_SUBSTATUS:
                         case SET_STREAM_SUBSTATUS:
-                            status = ERROR_STATUS;
+                            setStatus(ERROR_STATUS);
                             break;
                         case SET_CMD_SUBSTATUS:
-                            status = READY_STATUS;
+                            setStatus(READY_STATUS);
                             sub_status = STREAM_SUBSTATUS;
                             /*
                             reader_listener.resultEvent(pending,
@@ -1208,27 +1171,29 @@ public final class PassiveReader implements ZhagaReader {
                     }
                     break;
             }
+            dispatchQueuedCommands();
         }
 
         @Override
         public void onSetModeTimeout() {
+            command_queue.markDeliveryThread();
             System.err.println("Setmode timeout!");
             switch (status) {
                 case ERROR_STATUS:
                 case NOT_INITIALIZED_STATUS:
                 case UNINITIALIZED_STATUS:
                 case READY_STATUS:
-                    status = ERROR_STATUS;
+                    setStatus(ERROR_STATUS);
                     break;
                 case PENDING_COMMAND_STATUS:
                     switch (sub_status) {
                         case STREAM_SUBSTATUS:
                         case CMD_SUBSTATUS:
                         case SET_STREAM_SUBSTATUS:
-                            status = ERROR_STATUS;
+                            setStatus(ERROR_STATUS);
                             break;
                         case SET_CMD_SUBSTATUS:
-                            status = READY_STATUS;
+                            setStatus(READY_STATUS);
                             sub_status = STREAM_SUBSTATUS;
                             /*
                             reader_listener.resultEvent(pending,
@@ -1240,14 +1205,18 @@ public final class PassiveReader implements ZhagaReader {
                     }
                     break;
             }
+            dispatchQueuedCommands();
         }
 
         @Override
         public void onTxRxServiceDiscovered() {
+            command_queue.markDeliveryThread();
             System.err.println("TxRx service discovered.");
+            reassembler.reset();
+            in_flight.clear();
 
             if (zhaga_device) {
-                status = READY_STATUS;
+                setStatus(READY_STATUS);
                 sub_status = STREAM_SUBSTATUS;
                 HF_device = true;
                 UHF_device = false;
@@ -1256,29 +1225,35 @@ public final class PassiveReader implements ZhagaReader {
                 zhaga_listener.connectionSuccessEvent();
             }
             else {
-                status = UNINITIALIZED_STATUS;
+                setStatus(UNINITIALIZED_STATUS);
                 sub_status = STREAM_SUBSTATUS;
 
                 new Handler(Looper.getMainLooper()).postDelayed(
-                        () -> device_manager.requestWriteData(buildCommand(SETSTANDARD_COMMAND)), 1000);
+                        () -> device_manager.requestWriteData(untrackedCommandEncoder(SETSTANDARD_COMMAND).toFrame()),
+                        1000);
             }
+            dispatchQueuedCommands();
         }
 
         @Override
         public void onTxRxServiceNotFound() {
+            command_queue.markDeliveryThread();
             System.err.println("TxRx service not found!");
-            status = ERROR_STATUS;
+            setStatus(ERROR_STATUS);
             reader_listener.connectionFailedEvent(AbstractReaderListener.READER_CONNECT_UNKNOW_SERVICE_ERROR);
             zhaga_listener.connectionFailedEvent(AbstractZhagaListener.READER_CONNECT_UNKNOW_SERVICE_ERROR);
+            dispatchQueuedCommands();
         }
 
         @Override
         public void onWriteData(String data) {
+            command_queue.markDeliveryThread();
             System.err.println("\"" + data + "\" sent.");
         }
 
         @Override
         public void onWriteError(int errorCode) {
+            command_queue.markDeliveryThread();
             int error;
 
             switch (errorCode) {
@@ -1300,7 +1275,7 @@ public final class PassiveReader implements ZhagaReader {
                 case ERROR_STATUS:
                 case NOT_INITIALIZED_STATUS:
                 case UNINITIALIZED_STATUS:
-                    status = ERROR_STATUS;
+                    setStatus(ERROR_STATUS);
                     reader_listener.connectionFailedEvent(error);
                     zhaga_listener.connectionFailedEvent(error);
                     break;
@@ -1312,55 +1287,22 @@ public final class PassiveReader implements ZhagaReader {
                         device_manager.requestSetMode(STREAM_MODE);
                         break;
                     }
-                    if ((pending >= AbstractReaderListener.SOUND_COMMAND &&
-                            pending < AbstractReaderListener.ZHAGA_TRANSPARENT_COMMAND) ||
-                            pending == AbstractReaderListener.SET_INVENTORY_FORMAT_COMMAND) {
-                        //reader_listener.resultEvent(pending, error);
-                        //zhaga_listener.resultEvent(pending, error);
-                        resultEvent(pending, error);
-                    }
-                    else {
-                        switch (pending) {
-                            case AbstractZhagaListener.ZHAGA_TRANSPARENT_COMMAND:
-                                zhaga_listener.resultEvent(pending, error);
-                                break;
-                            case AbstractResponseListener.READ_COMMAND:
-                                response_listener.readEvent(tag_ID, error, null);
-                                break;
-                            case AbstractResponseListener.WRITE_COMMAND:
-                                response_listener.writeEvent(tag_ID, error);
-                                break;
-                            case AbstractResponseListener.LOCK_COMMAND:
-                                response_listener.lockEvent(tag_ID, error);
-                                break;
-                            case AbstractResponseListener.WRITEID_COMMAND:
-                                response_listener.writeIDevent(tag_ID, error);
-                                break;
-                            case AbstractResponseListener.READ_TID_COMMAND:
-                                response_listener.readTIDevent(tag_ID, error, null);
-                                break;
-                            case AbstractResponseListener.KILL_COMMAND:
-                                response_listener.killEvent(tag_ID, error);
-                                break;
-                            case AbstractResponseListener.WRITEKILLPASSWORD_COMMAND:
-                            case AbstractResponseListener.WRITEACCESSPASSWORD_COMMAND:
-                                response_listener.writePasswordEvent(tag_ID, error);
-                                break;
-                        }
-                    }
-                    status = READY_STATUS;
+                    commandFailed(error);
+                    setStatus(READY_STATUS);
                     break;
             }
+            dispatchQueuedCommands();
         }
 
         @Override
         public void onWriteTimeout() {
+            command_queue.markDeliveryThread();
             System.err.println("Write timeout!");
             switch (status) {
                 case ERROR_STATUS:
                 case NOT_INITIALIZED_STATUS:
                 case UNINITIALIZED_STATUS:
-                    status = ERROR_STATUS;
+                    setStatus(ERROR_STATUS);
                     reader_listener.connectionFailedEvent(AbstractResponseListener.READER_WRITE_TIMEOUT_ERROR);
                     zhaga_listener.connectionFailedEvent(AbstractZhagaListener.READER_WRITE_TIMEOUT_ERROR);
                     break;
@@ -1372,52 +1314,96 @@ public final class PassiveReader implements ZhagaReader {
                         device_manager.requestSetMode(STREAM_MODE);
                         break;
                     }
-                    if ((pending >= AbstractReaderListener.SOUND_COMMAND &&
-                            pending < AbstractReaderListener.ZHAGA_TRANSPARENT_COMMAND) ||
-                            pending == AbstractReaderListener.SET_INVENTORY_FORMAT_COMMAND) {
-                        //reader_listener.resultEvent(pending, AbstractReaderListener.READER_WRITE_TIMEOUT_ERROR);
-                        //zhaga_listener.resultEvent(pending, AbstractZhagaListener.READER_WRITE_TIMEOUT_ERROR);
-                        resultEvent(pending, AbstractZhagaListener.READER_WRITE_TIMEOUT_ERROR);
-                    }
-                    else {
-                        switch (pending) {
-                            case AbstractZhagaListener.ZHAGA_TRANSPARENT_COMMAND:
-                                zhaga_listener.resultEvent(pending, AbstractZhagaListener.READER_WRITE_TIMEOUT_ERROR);
-                                break;
-                            case AbstractResponseListener.READ_COMMAND:
-                                response_listener.readEvent(tag_ID,
-                                        AbstractResponseListener.READER_WRITE_TIMEOUT_ERROR, null);
-                                break;
-                            case AbstractResponseListener.WRITE_COMMAND:
-                                response_listener.writeEvent(tag_ID,
-                                        AbstractResponseListener.READER_WRITE_TIMEOUT_ERROR);
-                                break;
-                            case AbstractResponseListener.LOCK_COMMAND:
-                                response_listener.lockEvent(tag_ID,
-                                        AbstractResponseListener.READER_WRITE_TIMEOUT_ERROR);
-                                break;
-                            case AbstractResponseListener.WRITEID_COMMAND:
-                                response_listener.writeIDevent(tag_ID,
-                                        AbstractResponseListener.READER_WRITE_TIMEOUT_ERROR);
-                                break;
-                            case AbstractResponseListener.READ_TID_COMMAND:
-                                response_listener.readTIDevent(tag_ID,
-                                        AbstractResponseListener.READER_WRITE_TIMEOUT_ERROR, null);
-                                break;
-                            case AbstractResponseListener.KILL_COMMAND:
-                                response_listener.killEvent(tag_ID,
-                                        AbstractResponseListener.READER_WRITE_TIMEOUT_ERROR);
-                                break;
-                            case AbstractResponseListener.WRITEKILLPASSWORD_COMMAND:
-                            case AbstractResponseListener.WRITEACCESSPASSWORD_COMMAND:
-                                response_listener.writePasswordEvent(tag_ID,
-                                        AbstractResponseListener.READER_WRITE_TIMEOUT_ERROR);
-                                break;
-                        }
-                    }
-                    status = READY_STATUS;
+                    commandFailed(AbstractReaderListener.READER_WRITE_TIMEOUT_ERROR);
+                    setStatus(READY_STATUS);
                     break;
             }
+            dispatchQueuedCommands();
+        }
+
+        private boolean takeInFlight() {
+            synchronized (in_flight) {
+                if (!in_flight.takeOldest()) {
+                    return false;
+                }
+                pending = in_flight.getCommand();
+                tag_ID = in_flight.getTagID();
+                return true;
+            }
+        }
+
+        private boolean takeInFlight(int sequential) {
+            synchronized (in_flight) {
+                if (!in_flight.take(sequential)) {
+                    return false;
+                }
+                pending = in_flight.getCommand();
+                tag_ID = in_flight.getTagID();
+                return true;
+            }
+        }
+
+        /**
+         * Notify an error to all the in-flight commands, oldest first, or to the
+         * pending command if it has no sequential number.
+         *
+         * @param error the error code
+         */
+        private void commandFailed(int error) {
+            if (in_flight.discardAbandoned() && in_flight.isEmpty()) {
+                // only commands already failed by their handle were waiting
+                return;
+            }
+            takeInFlight();
+            do {
+                commandFailed(pending, tag_ID, error);
+            } while (takeInFlight());
+        }
+
+        /**
+         * Notify an error to the listener of a command.
+         *
+         * @param command the command code
+         * @param tag_ID  the addressed tag ID (may be null)
+         * @param error   the error code
+         */
+        private void commandFailed(int command, byte[] tag_ID, int error) {
+            if ((command >= AbstractReaderListener.SOUND_COMMAND &&
+                    command < AbstractReaderListener.ZHAGA_TRANSPARENT_COMMAND) ||
+                    command == AbstractReaderListener.SET_INVENTORY_FORMAT_COMMAND) {
+                //reader_listener.resultEvent(command, error);
+                //zhaga_listener.resultEvent(command, error);
+                resultEvent(command, error);
+            }
+            else {
+                switch (command) {
+                    case AbstractZhagaListener.ZHAGA_TRANSPARENT_COMMAND:
+                        zhaga_listener.resultEvent(command, error);
+                        break;
+                    case AbstractResponseListener.READ_COMMAND:
+                        response_listener.readEvent(tag_ID, error, null);
+                        break;
+                    case AbstractResponseListener.WRITE_COMMAND:
+                        response_listener.writeEvent(tag_ID, error);
+                        break;
+                    case AbstractResponseListener.LOCK_COMMAND:
+                        response_listener.lockEvent(tag_ID, error);
+                        break;
+                    case AbstractResponseListener.WRITEID_COMMAND:
+                        response_listener.writeIDevent(tag_ID, error);
+                        break;
+                    case AbstractResponseListener.READ_TID_COMMAND:
+                        response_listener.readTIDevent(tag_ID, error, null);
+                        break;
+                    case AbstractResponseListener.KILL_COMMAND:
+                        response_listener.killEvent(tag_ID, error);
+                        break;
+                    case AbstractResponseListener.WRITEKILLPASSWORD_COMMAND:
+                    case AbstractResponseListener.WRITEACCESSPASSWORD_COMMAND:
+                        response_listener.writePasswordEvent(tag_ID, error);
+                        break;
+                }
+            }
         }
 
         private int byteToInt(byte b) {
@@ -1456,81 +1442,6 @@ public final class PassiveReader implements ZhagaReader {
         }
     }
 
-    private class ReaderEvent {
-        private boolean valid;
-        private int length;
-        private int number;
-        private int event_code;
-        private int feature_code;
-        private byte[] data;
-
-        protected ReaderEvent(String event) {
-            valid = false;
-            if (event.length() >= 8) {
-                length = hexToByte(event.substring(2, 4));
-                if (length == event.length() - 2) {
-                    number = hexToByte(event.substring(4, 6));
-                    event_code = hexToByte(event.substring(6, 8));
-                    feature_code = hexToByte(event.substring(8, 10));
-                    data = new byte[(length - 8) / 2];
-                    for (int n = 0; n < data.length; n++) {
-                        data[n] = (byte) hexToByte(event.substring(10 + 2 * n, 10 + 2 * n + 2));
-                    }
-                    valid = true;
-                }
-            }
-        }
-
-        protected byte[] getData() {
-            if (valid) {
-                return data;
-            }
-            else {
-                return null;
-            }
-        }
-
-        protected int getEventCode() {
-            if (valid) {
-                return event_code;
-            }
-            else {
-                return 0xFF;
-            }
-        }
-
-        protected int getFeatureCode() {
-            if (valid) {
-                return feature_code;
-            }
-            else {
-                return 0xFF;
-            }
-        }
-
-        protected int getLength() {
-            if (valid) {
-                return length;
-            }
-            else {
-                return 0;
-            }
-        }
-
-        protected int getNumber() {
-            if (valid) {
-                return number;
-            }
-            else {
-                return 0;
-            }
-        }
-
-        protected boolean isValid() {
-            return valid;
-        }
-    }
-
     /**
      * EPC standard.
      */
@@ -1870,36 +1781,88 @@ public final class PassiveReader implements ZhagaReader {
      * Reset to default BLE configuration excluding device name.
      */
     public static final int BLE_DEFAULT_CONFIGURATION_EXCLUDING_NAME = 0x02;
-
-    private static final byte REGISTER_RF_CHANNEL_SELECTION = (byte) (0xF0);
-    private static final byte REGISTER_BIT_RATE_SELECTION = (byte) (0xF1);
-    private static final byte REGISTER_PROTOCOL_EXTENSION_FLAG = (byte) (0xF3);
-    private static final byte REGISTER_OPTION_BITS = (byte) (0xF6);
-    private static final byte REGISTER_RF_PARAMETERS_FOR_TUNNEL_MODE = (byte) (0xFB);
-    private static final byte REGISTER_ADC_BATTERY_VALUE = (byte) (0xFC);
-    private static final byte RESET_TO_FACTORY_DEFAULT = (byte) (0xFE);
     /**
-     * Inventory operation get ISO15693 and/or ISO14443A ID only.
+     * Command queue overflow policy: reject the new command.
      */
-    private static final int ID_ONLY_FORMAT = 0x01;
+    public static final int COMMAND_QUEUE_REJECT = 0x00;
     /**
-     * Inventory operation get EPC tag ID only.
+     * Command queue overflow policy: block the caller until a queued command
+     * is sent or the queue wait time expires.
      */
-    public static final int EPC_ONLY_FORMAT = 0x01;
+    public static final int COMMAND_QUEUE_BLOCK = 0x01;
     /**
-     * Inventory operation get ECP tag ID and PC (Protocol Code).
+     * Command queue overflow policy: reject the oldest queued command.
      */
-    public static final int EPC_AND_PC_FORMAT = 0x03;
+    public static final int COMMAND_QUEUE_DROP_OLDEST = 0x02;
+
     /**
-     * Inventory operation get EPC tag ID e TID (tag unique ID).
+     * Command priority class of user-triggered operations: inventory, sound,
+     * light, tunnel, transparent and power commands.
      */
-    private static final int EPC_AND_TID_FORMAT = 0x05;
+    public static final int COMMAND_PRIORITY_INTERACTIVE = 0x00;
     /**
-     * Inventory operation get EPC tag ID, PC (Protocol Code) and TID (tag
-     * unique ID).
+     * Command priority class of tag operations.
      */
-    private static final int ECP_AND_PC_AND_TID_FORMAT = 0x07;
-
+    public static final int COMMAND_PRIORITY_TAG = 0x01;
+    /**
+     * Command priority class of reader setting commands.
+     */
+    public static final int COMMAND_PRIORITY_CONFIGURATION = 0x02;
+    /**
+     * Command priority class of reader status and setting queries (e.g.
+     * battery level and status, availability test).
+     */
+    public static final int COMMAND_PRIORITY_TELEMETRY = 0x03;
+
+    /**
+     * Inventory delivery notifying every discovered tag by its own listener
+     * invocation (default).
+     */
+    public static final int INVENTORY_BATCH_DISABLED = 0x00;
+    /**
+     * Inventory delivery notifying the tags of a reader notification by a
+     * single listener invocation.
+     */
+    public static final int INVENTORY_BATCH_PER_NOTIFICATION = 0x01;
+    /**
+     * Inventory delivery notifying the tags of an inventory round by a single
+     * listener invocation.
+     */
+    public static final int INVENTORY_BATCH_PER_ROUND = 0x02;
+    /**
+     * Default maximum number of tags notified by a single batch.
+     */
+    public static final int DEFAULT_INVENTORY_BATCH_SIZE = 256;
+
+    private static final byte REGISTER_RF_CHANNEL_SELECTION = (byte) (0xF0);
+    private static final byte REGISTER_BIT_RATE_SELECTION = (byte) (0xF1);
+    private static final byte REGISTER_PROTOCOL_EXTENSION_FLAG = (byte) (0xF3);
+    private static final byte REGISTER_OPTION_BITS = (byte) (0xF6);
+    private static final byte REGISTER_RF_PARAMETERS_FOR_TUNNEL_MODE = (byte) (0xFB);
+    private static final byte REGISTER_ADC_BATTERY_VALUE = (byte) (0xFC);
+    private static final byte RESET_TO_FACTORY_DEFAULT = (byte) (0xFE);
+    /**
+     * Inventory operation get ISO15693 and/or ISO14443A ID only.
+     */
+    private static final int ID_ONLY_FORMAT = 0x01;
+    /**
+     * Inventory operation get EPC tag ID only.
+     */
+    public static final int EPC_ONLY_FORMAT = 0x01;
+    /**
+     * Inventory operation get ECP tag ID and PC (Protocol Code).
+     */
+    public static final int EPC_AND_PC_FORMAT = 0x03;
+    /**
+     * Inventory operation get EPC tag ID e TID (tag unique ID).
+     */
+    private static final int EPC_AND_TID_FORMAT = 0x05;
+    /**
+     * Inventory operation get EPC tag ID, PC (Protocol Code) and TID (tag
+     * unique ID).
+     */
+    private static final int ECP_AND_PC_AND_TID_FORMAT = 0x07;
+
     protected static final int ERROR_STATUS = -1;
 
     protected static final int NOT_INITIALIZED_STATUS = 0;
@@ -2026,11 +1989,6 @@ public final class PassiveReader implements ZhagaReader {
         return instance;
     }
 
-    protected static String byteToHex(int val) {
-        byte tmp = (byte) (val % 256);
-        return String.format("%02X", tmp);
-    }
-
     protected static int hexToByte(String hex) {
         try {
             return Integer.valueOf(hex, 16);
@@ -2054,11 +2012,37 @@ public final class PassiveReader implements ZhagaReader {
     private volatile boolean UHF_device;
     private volatile boolean inventory_enabled;
     private volatile boolean zhaga_device;
+    // status, pending and tag_ID are written while holding the in_flight lock only
     protected volatile int status;
     protected volatile int sub_status;
     protected volatile int sequential;
     protected volatile int pending;
     protected volatile byte[] tag_ID;
+    private volatile FrameCodec frame_codec = new HexFrameCodec();
+    private final FrameReassembler reassembler = new FrameReassembler(frame_codec);
+    private final LatencyHistogram event_latency = new LatencyHistogram();
+    private final CommandQueue command_queue = new CommandQueue();
+    private volatile Scheduler scheduler = new Handler(Looper.getMainLooper())::postDelayed;
+    private final InFlightCommands in_flight = new InFlightCommands();
+    private volatile boolean deferred_dispatch;
+    // the batch being filled and the one notified last, swapped while holding inventory_batch_lock
+    private final Object inventory_batch_lock = new Object();
+    private InventoryBatch inventory_batch = new InventoryBatch(this);
+    private InventoryBatch spare_inventory_batch;
+    private volatile int inventory_batch_mode = INVENTORY_BATCH_DISABLED;
+    private volatile int inventory_batch_size = DEFAULT_INVENTORY_BATCH_SIZE;
+    private volatile long inventory_batch_latency;
+    private boolean inventory_batch_scheduled;
+    private int inventory_batch_generation;
+    private volatile ContinuousInventory inventory_loop;
+    private volatile InventoryFilter inventory_filter;
+    private volatile long rejected_inventory_lines;
+    private final ThreadLocal<int[]> claimed_sequential = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[]{-1};
+        }
+    };
 
     private PassiveReader(BluetoothAdapter bluetoothAdapter) {
         inventory_listener = null;
@@ -2086,12 +2070,12 @@ public final class PassiveReader implements ZhagaReader {
      * @param command the command to send to the tag
      */
     public synchronized void ISO15693encryptedTunnel(byte flag, byte[] command) {
-        byte frame[] = new byte[1 + command.length];
-
         int s = status;
-        if (status != PassiveReader.READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.ISO15693_ENCRYPTEDTUNNEL_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isIdle(COMMAND_PRIORITY_INTERACTIVE)) {
+            int error = enqueue(COMMAND_PRIORITY_INTERACTIVE, () -> ISO15693encryptedTunnel(flag, command));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.ISO15693_ENCRYPTEDTUNNEL_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2099,13 +2083,11 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        frame[0] = flag;
-        for (int n = 0; n < command.length; n++) {
-            frame[n + 1] = command[n];
+        if (!claim(AbstractReaderListener.ISO15693_ENCRYPTEDTUNNEL_COMMAND, null, true, false)) {
+            ISO15693encryptedTunnel(flag, command);
+            return;
         }
-        status = PassiveReader.PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.ISO15693_ENCRYPTEDTUNNEL_COMMAND;
-        device_manager.requestWriteData(buildTunnelCommand(true, frame));
+        device_manager.requestWriteData(frame_codec.getEncoder().beginTunnel(true).append(flag).append(command).toFrame());
     }
 
     /**
@@ -2121,9 +2103,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void ISO15693tunnel(byte[] command) {
         int s = status;
-        if (status != PassiveReader.READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.ISO15693_TUNNEL_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isIdle(COMMAND_PRIORITY_INTERACTIVE)) {
+            int error = enqueue(COMMAND_PRIORITY_INTERACTIVE, () -> ISO15693tunnel(command));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.ISO15693_TUNNEL_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2131,17 +2115,21 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PassiveReader.PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.ISO15693_TUNNEL_COMMAND;
+        if (!claim(AbstractReaderListener.ISO15693_TUNNEL_COMMAND, null, true, false)) {
+            ISO15693tunnel(command);
+            return;
+        }
         device_manager.requestWriteData(buildTunnelCommand(false, command));
     }
 
     @Override
     public synchronized void activateButton(int button) {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_ACTIVATE_BUTTON_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_INTERACTIVE)) {
+            int error = enqueue(COMMAND_PRIORITY_INTERACTIVE, () -> activateButton(button));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_ACTIVATE_BUTTON_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2154,8 +2142,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_ACTIVATE_BUTTON_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_ACTIVATE_BUTTON_COMMAND)) {
+            activateButton(button);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_ACTIVATE_BUTTON,
                 (byte) (button)));
     }
@@ -2167,7 +2157,7 @@ public final class PassiveReader implements ZhagaReader {
     public synchronized void close() {
         disconnect();
         device_manager.close();
-        status = NOT_INITIALIZED_STATUS;
+        setStatus(NOT_INITIALIZED_STATUS);
     }
 
     /**
@@ -2197,11 +2187,12 @@ public final class PassiveReader implements ZhagaReader {
     @Override
     public synchronized void defaultBLEconfiguration(int mode, boolean erase_bonding) {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.DEFAULT_BLE_CONFIGURATION_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
-            zhaga_listener.resultEvent(AbstractZhagaListener.DEFAULT_BLE_CONFIGURATION_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> defaultBLEconfiguration(mode, erase_bonding));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.DEFAULT_BLE_CONFIGURATION_COMMAND, error);
+                zhaga_listener.resultEvent(AbstractZhagaListener.DEFAULT_BLE_CONFIGURATION_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -2218,8 +2209,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.DEFAULT_BLE_CONFIGURATION_COMMAND;
+        if (!claim(AbstractReaderListener.DEFAULT_BLE_CONFIGURATION_COMMAND)) {
+            defaultBLEconfiguration(mode, erase_bonding);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BLE_CONFIG_COMMAND, BLE_FACTORY_DEFAULT, (byte) mode,
                 (byte) (erase_bonding ? 1 : 0)));
     }
@@ -2227,9 +2220,11 @@ public final class PassiveReader implements ZhagaReader {
     @Override
     public synchronized void defaultConfiguration() {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_DEFAULT_CONFIG_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> defaultConfiguration());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_DEFAULT_CONFIG_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2237,8 +2232,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_DEFAULT_CONFIG_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_DEFAULT_CONFIG_COMMAND)) {
+            defaultConfiguration();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_DEFAULT, (byte) (0x00)));
     }
 
@@ -2252,9 +2249,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void defaultSetup() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.DEFAULT_SETUP_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isIdle(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> defaultSetup());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.DEFAULT_SETUP_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2262,8 +2261,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.DEFAULT_SETUP_COMMAND;
+        if (!claim(AbstractReaderListener.DEFAULT_SETUP_COMMAND, null, true, true)) {
+            defaultSetup();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(SETSTANDARD_COMMAND, RESET_TO_FACTORY_DEFAULT));
     }
 
@@ -2274,7 +2275,9 @@ public final class PassiveReader implements ZhagaReader {
     public synchronized void disconnect() {
         if (status != NOT_INITIALIZED_STATUS) {
             device_manager.disconnect();
-            status = NOT_INITIALIZED_STATUS;
+            setStatus(NOT_INITIALIZED_STATUS);
+            in_flight.clear();
+            command_queue.clear(AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
         }
     }
 
@@ -2287,25 +2290,43 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void doInventory() {
         int s = status;
-        if (status != READY_STATUS || !inventory_enabled) {
+        if (!isReady(COMMAND_PRIORITY_INTERACTIVE)) {
+            int error = enqueue(COMMAND_PRIORITY_INTERACTIVE, () -> doInventory());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.INVENTORY_COMMAND, error);
+            }
+            return;
+        }
+        if (!inventory_enabled) {
             reader_listener.resultEvent(AbstractReaderListener.INVENTORY_COMMAND,
                     AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
             return;
         }
+        int inventory_sequential = nextSequential();
+        ContinuousInventory loop = inventory_loop;
+        if (loop != null) {
+            loop.roundStarted(inventory_sequential);
+        }
         if (HF_device) {
-            device_manager.requestWriteData(buildCommand(ISO15693_INVENTORY_COMMAND, (byte) (inventory_timeout)));
+            device_manager.requestWriteData(frame_codec.getEncoder()
+                    .beginCommand(inventory_sequential, ISO15693_INVENTORY_COMMAND)
+                    .append((byte) (inventory_timeout)).toFrame());
         }
         else { // isUHF
-            device_manager.requestWriteData(buildCommand(EPC_INVENTORY_COMMAND, (byte) (inventory_timeout)));
+            device_manager.requestWriteData(frame_codec.getEncoder()
+                    .beginCommand(inventory_sequential, EPC_INVENTORY_COMMAND)
+                    .append((byte) (inventory_timeout)).toFrame());
         }
     }
 
     @Override
     public synchronized void getActivatedButton() {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_ACTIVATED_BUTTON_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getActivatedButton());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_ACTIVATED_BUTTON_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2313,8 +2334,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_GET_ACTIVATED_BUTTON_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_GET_ACTIVATED_BUTTON_COMMAND)) {
+            getActivatedButton();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_ACTIVATE_BUTTON));
     }
 
@@ -2328,9 +2351,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void getAdvertisingInterval() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_ADVERTISING_INTERVAL_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getAdvertisingInterval());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_ADVERTISING_INTERVAL_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -2338,17 +2363,21 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_ADVERTISING_INTERVAL_COMMAND;
+        if (!claim(AbstractReaderListener.GET_ADVERTISING_INTERVAL_COMMAND)) {
+            getAdvertisingInterval();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BLE_CONFIG_COMMAND, BLE_ADVERTISING_INTERVAL));
     }
 
     @Override
     public synchronized void getAutoOff() {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_AUTOOFF_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getAutoOff());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_AUTOOFF_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2356,8 +2385,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_GET_AUTOOFF_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_GET_AUTOOFF_COMMAND)) {
+            getAutoOff();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_AUTOOFF));
     }
 
@@ -2371,9 +2402,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void getBLEfirmwareVersion() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_BLE_FIRMWARE_VERSION_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getBLEfirmwareVersion());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_BLE_FIRMWARE_VERSION_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -2381,8 +2414,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_BLE_FIRMWARE_VERSION_COMMAND;
+        if (!claim(AbstractReaderListener.GET_BLE_FIRMWARE_VERSION_COMMAND)) {
+            getBLEfirmwareVersion();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BLE_CONFIG_COMMAND, BLE_VERSION));
     }
 
@@ -2396,9 +2431,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void getBLEpower() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_BLE_POWER_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getBLEpower());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_BLE_POWER_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -2406,8 +2443,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_BLE_POWER_COMMAND;
+        if (!claim(AbstractReaderListener.GET_BLE_POWER_COMMAND)) {
+            getBLEpower();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BLE_CONFIG_COMMAND, BLE_TX_POWER));
     }
 
@@ -2421,9 +2460,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void getBatteryLevel() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_BATTERY_LEVEL_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getBatteryLevel());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_BATTERY_LEVEL_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2431,8 +2472,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_BATTERY_LEVEL_COMMAND;
+        if (!claim(AbstractReaderListener.GET_BATTERY_LEVEL_COMMAND)) {
+            getBatteryLevel();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ISO15693_SETREGISTER_COMMAND, REGISTER_ADC_BATTERY_VALUE));
     }
 
@@ -2446,13 +2489,17 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void getBatteryStatus() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_BATTERY_STATUS_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getBatteryStatus());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_BATTERY_STATUS_COMMAND, error);
+            }
+            return;
+        }
+        if (!claim(AbstractReaderListener.GET_BATTERY_STATUS_COMMAND)) {
+            getBatteryStatus();
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_BATTERY_STATUS_COMMAND;
         device_manager.requestWriteData(buildCommand(MODE_COMMAND, (byte) (inventory_mode)));
     }
 
@@ -2466,9 +2513,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void getConnectionInterval() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_CONNECTION_INTERVAL_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getConnectionInterval());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_CONNECTION_INTERVAL_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -2476,8 +2525,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_CONNECTION_INTERVAL_COMMAND;
+        if (!claim(AbstractReaderListener.GET_CONNECTION_INTERVAL_COMMAND)) {
+            getConnectionInterval();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BLE_CONFIG_COMMAND, BLE_CONNECTION_INTERVAL));
     }
 
@@ -2491,9 +2542,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void getConnectionIntervalAndMTU() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_CONNECTION_INTERVAL_AND_MTU_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getConnectionIntervalAndMTU());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_CONNECTION_INTERVAL_AND_MTU_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -2501,8 +2554,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_CONNECTION_INTERVAL_AND_MTU_COMMAND;
+        if (!claim(AbstractReaderListener.GET_CONNECTION_INTERVAL_AND_MTU_COMMAND)) {
+            getConnectionIntervalAndMTU();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BLE_CONFIG_COMMAND, BLE_CONNECTION_INTERVAL_AND_MTU_SIZE));
     }
 
@@ -2516,9 +2571,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void getEPCfrequency() { //throws PassiveReaderException{
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_EPC_FREQUENCY_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getEPCfrequency());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_EPC_FREQUENCY_COMMAND, error);
+            }
             return;
         }
         if (HF_device) {
@@ -2526,11 +2583,86 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_EPC_FREQUENCY_COMMAND;
+        if (!claim(AbstractReaderListener.GET_EPC_FREQUENCY_COMMAND)) {
+            getEPCfrequency();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(EPC_SETREGISTER_COMMAND, REGISTER_RF_CHANNEL_SELECTION));
     }
 
+    /**
+     * Get the number of commands sent to the reader device and still waiting
+     * for their answer.
+     *
+     * @return the number of in-flight commands
+     */
+    public int getInFlightCommandCount() {
+        return in_flight.size();
+    }
+
+    /**
+     * Get the maximum number of commands sent to the reader device before
+     * their answers are received.
+     *
+     * @return the in-flight commands window
+     */
+    public int getPipelineWindow() {
+        return in_flight.getWindow();
+    }
+
+    /**
+     * Get the number of commands waiting to be sent to the reader device.
+     *
+     * @return the number of queued commands
+     */
+    public int getQueuedCommandCount() {
+        return command_queue.size();
+    }
+
+    /**
+     * Get the number of commands of a priority class waiting to be sent to the
+     * reader device.
+     *
+     * @param priority the priority class ({@link #COMMAND_PRIORITY_INTERACTIVE}, {@link #COMMAND_PRIORITY_TAG},
+     *                 {@link #COMMAND_PRIORITY_CONFIGURATION} or {@link #COMMAND_PRIORITY_TELEMETRY})
+     * @return the number of queued commands
+     */
+    public int getQueuedCommandCount(int priority) {
+        return command_queue.size(priority);
+    }
+
+    /**
+     * Get the number of commands of a priority class rejected by the command
+     * queue, because it was full or their wait time expired.
+     *
+     * @param priority the priority class
+     * @return the number of rejected commands, since the reader instance creation
+     */
+    public long getRejectedCommandCount(int priority) {
+        return command_queue.getRejectedCount(priority);
+    }
+
+    /**
+     * Get the time spent in the command queue by the commands of a priority
+     * class.
+     *
+     * @param priority the priority class
+     * @return the queue wait time histogram, updated since the reader instance creation
+     */
+    public LatencyHistogram getCommandQueueLatency(int priority) {
+        return command_queue.getWaitLatency(priority);
+    }
+
+    /**
+     * Get the latency between the reception of a reader device event and the
+     * return of the matching {@link AbstractZhagaListener} callbacks.
+     *
+     * @return the event latency histogram, updated since the reader instance creation
+     */
+    public LatencyHistogram getEventLatency() {
+        return event_latency;
+    }
+
     /**
      * Get the reader device firmware version.
      * <p>
@@ -2541,22 +2673,49 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void getFirmwareVersion() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_FIRMWARE_VERSION_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getFirmwareVersion());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_FIRMWARE_VERSION_COMMAND, error);
+            }
+            return;
+        }
+        if (!claim(AbstractReaderListener.GET_FIRMWARE_VERSION_COMMAND)) {
+            getFirmwareVersion();
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_FIRMWARE_VERSION_COMMAND;
         device_manager.requestWriteData(buildCommand(SETSTANDARD_COMMAND, (byte) (inventory_standard)));
     }
 
+    /**
+     * Get the codec of the reader wire protocol.
+     *
+     * @return the frame codec
+     */
+    public FrameCodec getFrameCodec() {
+        return frame_codec;
+    }
+
+    /**
+     * Get the number of frames received from the reader device and discarded.
+     * <p>
+     * Malformed answers, non-hexadecimal inventory lines and oversized frame
+     * fragments are counted as garbage frames.
+     *
+     * @return the number of discarded frames since the reader instance creation
+     */
+    public long getGarbageFrameCount() {
+        return reassembler.getGarbageFrames();
+    }
+
     @Override
     public synchronized void getHMIsupport() {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_HMI_SUPPORT_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getHMIsupport());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_HMI_SUPPORT_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2564,8 +2723,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_GET_HMI_SUPPORT_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_GET_HMI_SUPPORT_COMMAND)) {
+            getHMIsupport();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_DIRECT_COMMAND, ZHAGA_GET_HMI_SUPPORT));
     }
 
@@ -2579,9 +2740,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void getISO15693bitrate() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_ISO15693_BITRATE_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getISO15693bitrate());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_ISO15693_BITRATE_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2589,8 +2752,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_ISO15693_BITRATE_COMMAND;
+        if (!claim(AbstractReaderListener.GET_ISO15693_BITRATE_COMMAND)) {
+            getISO15693bitrate();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ISO15693_SETREGISTER_COMMAND, REGISTER_BIT_RATE_SELECTION));
     }
 
@@ -2604,9 +2769,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void getISO15693extensionFlag() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_ISO15693_EXTENSION_FLAG_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getISO15693extensionFlag());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_ISO15693_EXTENSION_FLAG_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2614,8 +2781,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_ISO15693_EXTENSION_FLAG_COMMAND;
+        if (!claim(AbstractReaderListener.GET_ISO15693_EXTENSION_FLAG_COMMAND)) {
+            getISO15693extensionFlag();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ISO15693_SETREGISTER_COMMAND, REGISTER_PROTOCOL_EXTENSION_FLAG));
     }
 
@@ -2629,9 +2798,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void getISO15693optionBits() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_ISO15693_OPTION_BITS_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getISO15693optionBits());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_ISO15693_OPTION_BITS_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2639,17 +2810,21 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_ISO15693_OPTION_BITS_COMMAND;
+        if (!claim(AbstractReaderListener.GET_ISO15693_OPTION_BITS_COMMAND)) {
+            getISO15693optionBits();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ISO15693_SETREGISTER_COMMAND, REGISTER_OPTION_BITS));
     }
 
     @Override
     public synchronized void getLEDforCommand() {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_COMMAND_LED_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getLEDforCommand());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_COMMAND_LED_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2657,17 +2832,21 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_GET_COMMAND_LED_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_GET_COMMAND_LED_COMMAND)) {
+            getLEDforCommand();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_COMMAND_LED));
     }
 
     @Override
     public synchronized void getLEDforError() {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_ERROR_LED_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getLEDforError());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_ERROR_LED_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2675,17 +2854,21 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_GET_ERROR_LED_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_GET_ERROR_LED_COMMAND)) {
+            getLEDforError();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_ERROR_LED));
     }
 
     @Override
     public synchronized void getLEDforInventory() {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_INVENTORY_LED_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getLEDforInventory());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_INVENTORY_LED_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2693,8 +2876,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_GET_INVENTORY_LED_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_GET_INVENTORY_LED_COMMAND)) {
+            getLEDforInventory();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_INVENTORY_LED));
     }
 
@@ -2708,9 +2893,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void getMACaddress() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_MAC_ADDRESS_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getMACaddress());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_MAC_ADDRESS_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -2718,8 +2905,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_MAC_ADDRESS_COMMAND;
+        if (!claim(AbstractReaderListener.GET_MAC_ADDRESS_COMMAND)) {
+            getMACaddress();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BLE_CONFIG_COMMAND, BLE_MAC_ADDRESS));
     }
 
@@ -2736,11 +2925,12 @@ public final class PassiveReader implements ZhagaReader {
     @Override
     public synchronized void getName() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_DEVICE_NAME_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
-            zhaga_listener.resultEvent(AbstractZhagaListener.GET_DEVICE_NAME_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getName());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_DEVICE_NAME_COMMAND, error);
+                zhaga_listener.resultEvent(AbstractZhagaListener.GET_DEVICE_NAME_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -2750,17 +2940,32 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_DEVICE_NAME_COMMAND;
+        if (!claim(AbstractReaderListener.GET_DEVICE_NAME_COMMAND)) {
+            getName();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BLE_CONFIG_COMMAND, BLE_DEVICE_NAME));
     }
 
+    /**
+     * Get the number of frames split across BLE notifications.
+     * <p>
+     * Each fragment held back waiting for the rest of its frame is counted.
+     *
+     * @return the number of split frames since the reader instance creation
+     */
+    public long getPartialFrameCount() {
+        return reassembler.getPartialFrames();
+    }
+
     @Override
     public synchronized void getRF() {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_RF_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getRF());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_RF_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2768,8 +2973,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_GET_RF_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_GET_RF_COMMAND)) {
+            getRF();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_DIRECT_COMMAND, ZHAGA_SET_RF));
     }
 
@@ -2783,9 +2990,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void getRFforISO15693tunnel() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_RF_FOR_ISO15693_TUNNEL_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getRFforISO15693tunnel());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_RF_FOR_ISO15693_TUNNEL_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2793,8 +3002,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_RF_FOR_ISO15693_TUNNEL_COMMAND;
+        if (!claim(AbstractReaderListener.GET_RF_FOR_ISO15693_TUNNEL_COMMAND)) {
+            getRFforISO15693tunnel();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ISO15693_SETREGISTER_COMMAND,
                 REGISTER_RF_PARAMETERS_FOR_TUNNEL_MODE));
     }
@@ -2802,9 +3013,11 @@ public final class PassiveReader implements ZhagaReader {
     @Override
     public synchronized void getRFonOff() {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_RF_ONOFF_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getRFonOff());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_RF_ONOFF_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2812,8 +3025,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_GET_RF_ONOFF_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_GET_RF_ONOFF_COMMAND)) {
+            getRFonOff();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_RF_ONOFF));
     }
 
@@ -2827,13 +3042,17 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void getRFpower() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_RF_POWER_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getRFpower());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_RF_POWER_COMMAND, error);
+            }
+            return;
+        }
+        if (!claim(AbstractReaderListener.GET_RF_POWER_COMMAND)) {
+            getRFpower();
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_RF_POWER_COMMAND;
         if (HF_device) {
             device_manager.requestWriteData(buildCommand(ISO15693_SETPOWER_COMMAND));
         }
@@ -2855,15 +3074,19 @@ public final class PassiveReader implements ZhagaReader {
     @Override
     public synchronized void getSecurityLevel() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_SECURITY_LEVEL_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
-            zhaga_listener.resultEvent(AbstractZhagaListener.GET_SECURITY_LEVEL_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (device_manager.isTxRxAckme() ? !isIdle(COMMAND_PRIORITY_TELEMETRY) : !isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getSecurityLevel());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_SECURITY_LEVEL_COMMAND, error);
+                zhaga_listener.resultEvent(AbstractZhagaListener.GET_SECURITY_LEVEL_COMMAND, error);
+            }
+            return;
+        }
+        if (!claim(AbstractReaderListener.GET_SECURITY_LEVEL_COMMAND, null, device_manager.isTxRxAckme(),
+                !device_manager.isTxRxAckme())) {
+            getSecurityLevel();
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_SECURITY_LEVEL_COMMAND;
         if (device_manager.isTxRxAckme()) {
             sub_status = SET_CMD_SUBSTATUS;
             command = "get bl e e";
@@ -2884,13 +3107,17 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void getShutdownTime() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_SHUTDOWN_TIME_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getShutdownTime());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_SHUTDOWN_TIME_COMMAND, error);
+            }
+            return;
+        }
+        if (!claim(AbstractReaderListener.GET_SHUTDOWN_TIME_COMMAND)) {
+            getShutdownTime();
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_SHUTDOWN_TIME_COMMAND;
         device_manager.requestWriteData(buildCommand(SETAUTOOFF_COMMAND));
     }
 
@@ -2904,9 +3131,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void getSlaveLatency() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_SLAVE_LATENCY_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getSlaveLatency());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_SLAVE_LATENCY_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -2914,17 +3143,21 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_SLAVE_LATENCY_COMMAND;
+        if (!claim(AbstractReaderListener.GET_SLAVE_LATENCY_COMMAND)) {
+            getSlaveLatency();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BLE_CONFIG_COMMAND, BLE_SLAVE_LATENCY));
     }
 
     @Override
     public synchronized void getSoundForCommand() {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_COMMAND_SOUND_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getSoundForCommand());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_COMMAND_SOUND_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2932,17 +3165,21 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_GET_COMMAND_SOUND_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_GET_COMMAND_SOUND_COMMAND)) {
+            getSoundForCommand();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_COMMAND_SOUND));
     }
 
     @Override
     public synchronized void getSoundForError() {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_ERROR_SOUND_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getSoundForError());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_ERROR_SOUND_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2950,17 +3187,21 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_GET_ERROR_SOUND_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_GET_ERROR_SOUND_COMMAND)) {
+            getSoundForError();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_ERROR_SOUND));
     }
 
     @Override
     public synchronized void getSoundForInventory() {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_INVENTORY_SOUND_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getSoundForInventory());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_INVENTORY_SOUND_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -2968,8 +3209,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_GET_INVENTORY_SOUND_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_GET_INVENTORY_SOUND_COMMAND)) {
+            getSoundForInventory();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_INVENTORY_SOUND));
     }
 
@@ -2983,9 +3226,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void getSupervisionTimeout() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.GET_SUPERVISION_TIMEOUT_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getSupervisionTimeout());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.GET_SUPERVISION_TIMEOUT_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -2993,17 +3238,21 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.GET_SUPERVISION_TIMEOUT_COMMAND;
+        if (!claim(AbstractReaderListener.GET_SUPERVISION_TIMEOUT_COMMAND)) {
+            getSupervisionTimeout();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BLE_CONFIG_COMMAND, BLE_SUPERVISION_TIMEOUT));
     }
 
     @Override
     public synchronized void getVibrationForCommand() {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_COMMAND_VIBRATION_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getVibrationForCommand());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_COMMAND_VIBRATION_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -3011,17 +3260,21 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_GET_COMMAND_VIBRATION_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_GET_COMMAND_VIBRATION_COMMAND)) {
+            getVibrationForCommand();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_COMMAND_VIBRATION));
     }
 
     @Override
     public synchronized void getVibrationForError() {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_ERROR_VIBRATION_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getVibrationForError());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_ERROR_VIBRATION_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -3029,17 +3282,21 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_GET_ERROR_VIBRATION_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_GET_ERROR_VIBRATION_COMMAND)) {
+            getVibrationForError();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_ERROR_VIBRATION));
     }
 
     @Override
     public synchronized void getVibrationForInventory() {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_INVENTORY_VIBRATION_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> getVibrationForInventory());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_GET_INVENTORY_VIBRATION_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -3047,8 +3304,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_GET_INVENTORY_VIBRATION_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_GET_INVENTORY_VIBRATION_COMMAND)) {
+            getVibrationForInventory();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_INVENTORY_VIBRATION));
     }
 
@@ -3109,9 +3368,11 @@ public final class PassiveReader implements ZhagaReader {
         byte led[] = new byte[2];
 
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.LIGHT_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_INTERACTIVE)) {
+            int error = enqueue(COMMAND_PRIORITY_INTERACTIVE, () -> light(led_status, led_blinking));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.LIGHT_COMMAND, error);
+            }
             return;
         }
         if (led_blinking != 0 && (led_blinking < 10 || led_blinking > 2540)) {
@@ -3126,17 +3387,21 @@ public final class PassiveReader implements ZhagaReader {
             led[0] = (byte) (led_blinking / 10);
         }
         led[1] = (byte) (0x00);
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.LIGHT_COMMAND;
+        if (!claim(AbstractReaderListener.LIGHT_COMMAND)) {
+            light(led_status, led_blinking);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(LED_COMMAND, led[0], led[1]));
     }
 
     @Override
     public synchronized void off() {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_OFF_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_INTERACTIVE)) {
+            int error = enqueue(COMMAND_PRIORITY_INTERACTIVE, () -> off());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_OFF_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -3144,8 +3409,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_OFF_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_OFF_COMMAND)) {
+            off();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_DIRECT_COMMAND, ZHAGA_OFF));
     }
 
@@ -3161,9 +3428,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void readUserMemory(int block) {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.READ_USER_MEMORY_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> readUserMemory(block));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.READ_USER_MEMORY_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -3176,17 +3445,21 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.READ_USER_MEMORY_COMMAND;
+        if (!claim(AbstractReaderListener.READ_USER_MEMORY_COMMAND)) {
+            readUserMemory(block);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BLE_CONFIG_COMMAND, BLE_USER_MEMORY, (byte) block));
     }
 
     @Override
     public synchronized void reboot() {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_REBOOT_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_INTERACTIVE)) {
+            int error = enqueue(COMMAND_PRIORITY_INTERACTIVE, () -> reboot());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_REBOOT_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -3194,8 +3467,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_REBOOT_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_REBOOT_COMMAND)) {
+            reboot();
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_DIRECT_COMMAND, ZHAGA_REBOOT, (byte) 0xFF));
     }
 
@@ -3211,11 +3486,12 @@ public final class PassiveReader implements ZhagaReader {
     @Override
     public synchronized void reset(boolean bootloader) {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.RESET_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
-            zhaga_listener.resultEvent(AbstractZhagaListener.RESET_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_INTERACTIVE)) {
+            int error = enqueue(COMMAND_PRIORITY_INTERACTIVE, () -> reset(bootloader));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.RESET_COMMAND, error);
+                zhaga_listener.resultEvent(AbstractZhagaListener.RESET_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -3232,8 +3508,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.RESET_COMMAND;
+        if (!claim(AbstractReaderListener.RESET_COMMAND)) {
+            reset(bootloader);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BLE_CONFIG_COMMAND, BLE_BOOTLOADER));
     }
 
@@ -3251,9 +3529,11 @@ public final class PassiveReader implements ZhagaReader {
     public synchronized void setAdvertisingInterval(int interval) {
         byte advertising_interval[] = new byte[2];
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SET_ADVERTISING_INTERVAL_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> setAdvertisingInterval(interval));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SET_ADVERTISING_INTERVAL_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -3266,12 +3546,13 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        interval = interval * 1000 / 625;
-        String tmp = String.format("%04X", interval);
+        String tmp = String.format("%04X", interval * 1000 / 625);
         advertising_interval[0] = (byte) hexToByte(tmp.substring(0, 2));
         advertising_interval[1] = (byte) hexToByte(tmp.substring(2, 4));
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SET_ADVERTISING_INTERVAL_COMMAND;
+        if (!claim(AbstractReaderListener.SET_ADVERTISING_INTERVAL_COMMAND)) {
+            setAdvertisingInterval(interval);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BLE_CONFIG_COMMAND, BLE_ADVERTISING_INTERVAL,
                 advertising_interval[0], advertising_interval[1]));
     }
@@ -3281,9 +3562,11 @@ public final class PassiveReader implements ZhagaReader {
         byte time[] = new byte[2];
 
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_AUTOOFF_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> setAutoOff(OFF_time));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_AUTOOFF_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -3296,8 +3579,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_SET_AUTOOFF_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_SET_AUTOOFF_COMMAND)) {
+            setAutoOff(OFF_time);
+            return;
+        }
         String tmp = String.format("%04X", OFF_time);
         time[0] = (byte) hexToByte(tmp.substring(0, 2));
         time[1] = (byte) hexToByte(tmp.substring(2, 4));
@@ -3317,9 +3602,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void setBLEpower(int power) {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SET_BLE_POWER_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> setBLEpower(power));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SET_BLE_POWER_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -3332,8 +3619,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SET_BLE_POWER_COMMAND;
+        if (!claim(AbstractReaderListener.SET_BLE_POWER_COMMAND)) {
+            setBLEpower(power);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BLE_CONFIG_COMMAND, BLE_TX_POWER, (byte) (power)));
     }
 
@@ -3354,9 +3643,12 @@ public final class PassiveReader implements ZhagaReader {
         byte max_connection_interval[] = new byte[2];
         int interval;
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SET_CONNECTION_INTERVAL_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION,
+                    () -> setConnectionInterval(min_interval, max_interval));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SET_CONNECTION_INTERVAL_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -3379,18 +3671,18 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        min_interval /= 1.25;
-        interval = (int) min_interval;
+        interval = (int) (min_interval / 1.25);
         String tmp = String.format("%04X", interval);
         min_connection_interval[0] = (byte) hexToByte(tmp.substring(0, 2));
         min_connection_interval[1] = (byte) hexToByte(tmp.substring(2, 4));
-        max_interval /= 1.25;
-        interval = (int) max_interval;
+        interval = (int) (max_interval / 1.25);
         tmp = String.format("%04X", interval);
         max_connection_interval[0] = (byte) hexToByte(tmp.substring(0, 2));
         max_connection_interval[1] = (byte) hexToByte(tmp.substring(2, 4));
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SET_CONNECTION_INTERVAL_COMMAND;
+        if (!claim(AbstractReaderListener.SET_CONNECTION_INTERVAL_COMMAND)) {
+            setConnectionInterval(min_interval, max_interval);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BLE_CONFIG_COMMAND, BLE_CONNECTION_INTERVAL,
                 min_connection_interval[0], min_connection_interval[1],
                 max_connection_interval[0], max_connection_interval[1]));
@@ -3407,9 +3699,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void setEPCfrequency(int frequency) {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SET_EPC_FREQUENCY_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> setEPCfrequency(frequency));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SET_EPC_FREQUENCY_COMMAND, error);
+            }
             return;
         }
         if (HF_device) {
@@ -3422,21 +3716,256 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SET_EPC_FREQUENCY_COMMAND;
+        if (!claim(AbstractReaderListener.SET_EPC_FREQUENCY_COMMAND)) {
+            setEPCfrequency(frequency);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(EPC_SETREGISTER_COMMAND, REGISTER_RF_CHANNEL_SELECTION,
                 (byte) (frequency)));
     }
 
+    /**
+     * Set the queue of the commands issued while another command is pending.
+     * <p>
+     * Queued commands are sent, by priority class and in order within a
+     * class, as soon as the answer, timeout or error of the pending command
+     * returns the reader to ready status; their results are notified as usual. A command that cannot be queued, or that
+     * waits longer than {@code wait_time}, is notified with a {@code
+     * READER_DRIVER_COMMAND_QUEUE_FULL_ERROR} or {@code
+     * READER_DRIVER_COMMAND_QUEUE_TIMEOUT_ERROR} error. Queued commands are
+     * notified with a {@code READER_DRIVER_WRONG_STATUS_ERROR} error if the
+     * reader device is disconnected. Array parameters of a queued command
+     * should not be modified until the command has been sent.
+     * <p>
+     * The queue is disabled by default (depth 0): commands issued while
+     * another command is pending are notified with a {@code
+     * READER_DRIVER_WRONG_STATUS_ERROR} error. The {@link #COMMAND_QUEUE_BLOCK}
+     * policy waits for space without holding the reader or tag lock. It never
+     * blocks the main thread or the thread notifying the listeners, behaving as
+     * {@link #COMMAND_QUEUE_REJECT} there.
+     *
+     * @param depth           the maximum number of queued commands (0 to disable the queue)
+     * @param wait_time       the maximum time, in milliseconds, a command may wait in the queue (0 for no limit)
+     * @param overflow_policy the policy applied when the queue is full ({@link #COMMAND_QUEUE_REJECT}, {@link
+     *                        #COMMAND_QUEUE_BLOCK} or {@link #COMMAND_QUEUE_DROP_OLDEST})
+     * @return true if the parameters are valid and the queue has been configured
+     */
+    public synchronized boolean setCommandQueue(int depth, long wait_time, int overflow_policy) {
+        if (depth < 0 || wait_time < 0 ||
+                overflow_policy < COMMAND_QUEUE_REJECT || overflow_policy > COMMAND_QUEUE_DROP_OLDEST) {
+            return false;
+        }
+        command_queue.configure(depth, wait_time, overflow_policy);
+        return true;
+    }
+
+    /**
+     * Set the maximum number of queued commands of a priority class.
+     * <p>
+     * Queued commands are sent by priority class ({@link
+     * #COMMAND_PRIORITY_INTERACTIVE} first, {@link #COMMAND_PRIORITY_TELEMETRY}
+     * last) and in order within a class. A quota keeps a class from filling
+     * the whole queue: a command exceeding the quota of its class is handled
+     * by the queue overflow policy, dropping the oldest command of the same
+     * class with {@link #COMMAND_QUEUE_DROP_OLDEST} policy.
+     *
+     * @param priority the priority class
+     * @param quota    the maximum number of queued commands (0 for the queue depth only, the default)
+     * @return true if the parameters are valid and the quota has been set
+     */
+    public synchronized boolean setCommandQueueQuota(int priority, int quota) {
+        if (priority < COMMAND_PRIORITY_INTERACTIVE || priority > COMMAND_PRIORITY_TELEMETRY || quota < 0) {
+            return false;
+        }
+        command_queue.setQuota(priority, quota);
+        return true;
+    }
+
+    /**
+     * Set the time telemetry commands are held back after an interactive or
+     * tag command.
+     * <p>
+     * While interactive and tag commands keep being issued (e.g. during an
+     * inventory burst or a tag write sequence), telemetry commands such as
+     * periodic battery level polling are queued, and sent once no such command
+     * has been issued for {@code defer_time}. The command queue must be
+     * enabled (see {@link #setCommandQueue(int, long, int)}). Telemetry
+     * commands are not held back by default (0).
+     *
+     * @param defer_time the defer time (ms, 0 to disable)
+     * @return true if the time is valid and has been set
+     */
+    public synchronized boolean setTelemetryDeferTime(long defer_time) {
+        if (defer_time < 0) {
+            return false;
+        }
+        command_queue.setDeferTime(defer_time);
+        return true;
+    }
+
+    /**
+     * Set the maximum number of commands sent to the reader device before
+     * their answers are received.
+     * <p>
+     * Answers are matched to the commands by their frame sequential number,
+     * so they may be received in any order; a late answer of a command already
+     * failed is discarded. A read or write error or timeout is notified to all
+     * the in-flight commands. Tunnel commands and the commands changing the
+     * inventory settings are sent only when no other command is in flight.
+     * <p>
+     * The default window (1) sends a command only after the previous one has
+     * been answered; larger windows should be used only with reader devices
+     * whose firmware accepts commands while processing a previous one.
+     *
+     * @param window the maximum number of in-flight commands (1-255)
+     * @return true if the window is valid and has been set
+     */
+    public synchronized boolean setPipelineWindow(int window) {
+        if (window < 1 || window > 255) {
+            return false;
+        }
+        in_flight.setWindow(window);
+        return true;
+    }
+
+    /**
+     * Issue commands bound to a deadline and cancellation handle.
+     * <p>
+     * The reader and tag commands invoked by {@code commands} on the calling
+     * thread are bound to {@code handle}: a command issued after the handle
+     * has been cancelled or has expired is not sent, and its listener method
+     * is invoked with error code {@link
+     * AbstractReaderListener#READER_DRIVER_COMMAND_CANCELLED_ERROR} or {@link
+     * AbstractReaderListener#READER_DRIVER_COMMAND_DEADLINE_ERROR}; the same
+     * error is notified, on the application main thread, as soon as the handle
+     * is cancelled or expires for the bound commands still queued or waiting
+     * for their answer. For example:
+     * <pre>
+     * CommandHandle handle = new CommandHandle(2000);
+     * passive_reader.execute(handle, () -&gt; tag.read(0, 4));
+     * </pre>
+     * Commands whose answer has no sequential number (tunnel commands, and
+     * {@link #getSecurityLevel()} on devices in BLE command mode) cannot be
+     * failed once sent, and complete as usual.
+     *
+     * @param handle   the handle
+     * @param commands the command methods invocation
+     */
+    public void execute(CommandHandle handle, Runnable commands) {
+        CommandHandle previous = command_queue.bind(handle);
+        try {
+            commands.run();
+        } finally {
+            command_queue.bind(previous);
+        }
+    }
+
+    /**
+     * Set how the discovered tags are notified to the inventory listener.
+     * <p>
+     * With {@link #INVENTORY_BATCH_DISABLED} (default) every tag is notified
+     * by its own {@link AbstractInventoryListener#inventoryEvent(TagView)
+     * inventoryEvent} invocation. With {@link #INVENTORY_BATCH_PER_NOTIFICATION}
+     * the tags received by a single reader notification, and with {@link
+     * #INVENTORY_BATCH_PER_ROUND} the tags received within {@code max_latency}
+     * milliseconds from the first one, are collected in an {@link
+     * InventoryBatch} and notified by a single {@link
+     * AbstractInventoryListener#inventoryBatchEvent(InventoryBatch)
+     * inventoryBatchEvent} invocation. In both batch modes a batch is notified
+     * as soon as it holds {@code max_size} tags.
+     * <p>
+     * Per-round batches are notified on the application main thread when
+     * their latency expires; a {@code max_latency} of 0 bounds them by the
+     * inventory timeout set by {@link #setInventoryParameters(int, int, int)
+     * setInventoryParameters}. Tags collected and not notified yet are
+     * notified when the mode is changed and on reader disconnection. Batches
+     * are notified without holding any reader lock, so the listener can
+     * change the delivery mode and new tags are collected meanwhile.
+     *
+     * @param mode        the delivery mode ({@link #INVENTORY_BATCH_DISABLED},
+     *                    {@link #INVENTORY_BATCH_PER_NOTIFICATION} or {@link #INVENTORY_BATCH_PER_ROUND})
+     * @param max_size    the maximum number of tags of a batch (at least 1)
+     * @param max_latency the per-round batch latency in milliseconds (0 for the inventory timeout)
+     * @return true if the parameters are valid and have been set
+     */
+    public boolean setInventoryBatch(int mode, int max_size, long max_latency) {
+        if (mode < INVENTORY_BATCH_DISABLED || mode > INVENTORY_BATCH_PER_ROUND || max_size < 1 ||
+                max_latency < 0) {
+            return false;
+        }
+        InventoryBatch batch;
+        synchronized (inventory_batch_lock) {
+            batch = takeInventoryBatch();
+            inventory_batch_size = max_size;
+            inventory_batch_latency = max_latency;
+            inventory_batch_mode = mode;
+        }
+        notifyInventoryBatch(batch);
+        return true;
+    }
+
+    /**
+     * Get the current inventory delivery mode.
+     *
+     * @return the delivery mode set by {@link #setInventoryBatch(int, int, long) setInventoryBatch}
+     */
+    public int getInventoryBatchMode() {
+        return inventory_batch_mode;
+    }
+
+    /**
+     * Set the filter of the discovered tags.
+     * <p>
+     * The filter is applied to every decoded inventory line before it is
+     * notified, or collected in an inventory batch; rejected lines are only
+     * counted.
+     *
+     * @param filter the inventory filter (null to notify every tag)
+     */
+    public void setInventoryFilter(InventoryFilter filter) {
+        inventory_filter = filter;
+    }
+
+    /**
+     * Get the number of inventory lines rejected by the inventory filter.
+     *
+     * @return the rejected lines count
+     */
+    public long getRejectedInventoryLineCount() {
+        return rejected_inventory_lines;
+    }
+
+    /**
+     * Set the codec of the reader wire protocol.
+     * <p>
+     * The codec is used by all the following commands and answers; it should
+     * be set before connecting to the reader device, or while no command is
+     * pending.
+     *
+     * @param codec the frame codec (null for the default {@link HexFrameCodec})
+     */
+    public synchronized void setFrameCodec(FrameCodec codec) {
+        if (codec == null) {
+            codec = new HexFrameCodec();
+        }
+        frame_codec = codec;
+        reassembler.setFrameCodec(codec);
+    }
+
     @Override
     public synchronized void setHMI(int sound_frequency, int sound_on_time, int sound_off_time, int sound_repetition,
                                     int light_color, int light_on_time, int light_off_time, int light_repetition,
                                     int vibration_on_time, int vibration_off_time, int vibration_repetition) {
         byte frequency[] = new byte[2];
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_HMI_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION,
+                    () -> setHMI(sound_frequency, sound_on_time, sound_off_time, sound_repetition,
+                            light_color, light_on_time, light_off_time, light_repetition, vibration_on_time,
+                            vibration_off_time, vibration_repetition));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_HMI_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -3454,8 +3983,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_SET_HMI_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_SET_HMI_COMMAND)) {
+            setHMI(sound_frequency, sound_on_time, sound_off_time, sound_repetition, light_color, light_on_time, light_off_time, light_repetition, vibration_on_time, vibration_off_time, vibration_repetition);
+            return;
+        }
         String tmp = String.format("%04X", sound_frequency);
         frequency[0] = (byte) hexToByte(tmp.substring(0, 2));
         frequency[1] = (byte) hexToByte(tmp.substring(2, 4));
@@ -3480,9 +4011,11 @@ public final class PassiveReader implements ZhagaReader {
         byte data;
 
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SET_ISO15693_BITRATE_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> setISO15693bitrate(bitrate, permanent));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SET_ISO15693_BITRATE_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -3501,8 +4034,10 @@ public final class PassiveReader implements ZhagaReader {
         else {
             data = (bitrate == ISO15693_HIGH_BITRATE) ? (byte) (0x03) : (byte) (0x02);
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SET_ISO15693_BITRATE_COMMAND;
+        if (!claim(AbstractReaderListener.SET_ISO15693_BITRATE_COMMAND)) {
+            setISO15693bitrate(bitrate, permanent);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ISO15693_SETREGISTER_COMMAND, REGISTER_BIT_RATE_SELECTION, data));
     }
 
@@ -3520,9 +4055,11 @@ public final class PassiveReader implements ZhagaReader {
         byte data;
 
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SET_ISO15693_EXTENSION_FLAG_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> setISO15693extensionFlag(flag, permanent));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SET_ISO15693_EXTENSION_FLAG_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -3536,8 +4073,10 @@ public final class PassiveReader implements ZhagaReader {
         else {
             data = flag ? (byte) (0x03) : (byte) (0x02);
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SET_ISO15693_EXTENSION_FLAG_COMMAND;
+        if (!claim(AbstractReaderListener.SET_ISO15693_EXTENSION_FLAG_COMMAND)) {
+            setISO15693extensionFlag(flag, permanent);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ISO15693_SETREGISTER_COMMAND, REGISTER_PROTOCOL_EXTENSION_FLAG,
                 data));
     }
@@ -3553,9 +4092,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void setISO15693optionBits(int option_bits) {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SET_ISO15693_OPTION_BITS_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> setISO15693optionBits(option_bits));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SET_ISO15693_OPTION_BITS_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -3568,8 +4109,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SET_ISO15693_OPTION_BITS_COMMAND;
+        if (!claim(AbstractReaderListener.SET_ISO15693_OPTION_BITS_COMMAND)) {
+            setISO15693optionBits(option_bits);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ISO15693_SETREGISTER_COMMAND, REGISTER_OPTION_BITS,
                 (byte) (option_bits)));
     }
@@ -3586,9 +4129,11 @@ public final class PassiveReader implements ZhagaReader {
     public synchronized void setInventoryFormat(int format)
     {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SET_INVENTORY_FORMAT_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isIdle(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> setInventoryFormat(format));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SET_INVENTORY_FORMAT_COMMAND, error);
+            }
             return;
         }
         if (HF_device) {
@@ -3602,8 +4147,10 @@ public final class PassiveReader implements ZhagaReader {
             return;
         }
         this.format = format;
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SET_INVENTORY_FORMAT_COMMAND;
+        if (!claim(AbstractReaderListener.SET_INVENTORY_FORMAT_COMMAND, null, true, true)) {
+            setInventoryFormat(format);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(SETMODE_COMMAND, (byte)(mode), (byte)(feedback),
                 (byte)(format), (byte)(max_number), (byte)(timeout), (byte)(interval)));
     }
@@ -3619,9 +4166,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void setInventoryMode(int mode) {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SET_INVENTORY_MODE_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isIdle(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> setInventoryMode(mode));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SET_INVENTORY_MODE_COMMAND, error);
+            }
             return;
         }
         if (mode < NORMAL_MODE || mode > SCAN_ON_INPUT_MODE) {
@@ -3630,8 +4179,10 @@ public final class PassiveReader implements ZhagaReader {
             return;
         }
         this.mode = mode;
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SET_INVENTORY_MODE_COMMAND;
+        if (!claim(AbstractReaderListener.SET_INVENTORY_MODE_COMMAND, null, true, true)) {
+            setInventoryMode(mode);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(MODE_COMMAND, (byte) (mode)));
     }
 
@@ -3650,9 +4201,12 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void setInventoryParameters(int feedback, int timeout, int interval) {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SET_INVENTORY_PARAMETERS_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isIdle(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION,
+                    () -> setInventoryParameters(feedback, timeout, interval));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SET_INVENTORY_PARAMETERS_COMMAND, error);
+            }
             return;
         }
         if (feedback < FEEDBACK_SOUND_AND_LIGHT || feedback > NO_FEEDBACK) {
@@ -3682,8 +4236,10 @@ public final class PassiveReader implements ZhagaReader {
         mode = SCAN_ON_INPUT_MODE;
         this.timeout = timeout / 100;
         this.interval = interval / 100;
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SET_INVENTORY_PARAMETERS_COMMAND;
+        if (!claim(AbstractReaderListener.SET_INVENTORY_PARAMETERS_COMMAND, null, true, true)) {
+            setInventoryParameters(feedback, timeout, interval);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(SETMODE_COMMAND, (byte) (mode), (byte) (feedback),
                 (byte) (format), (byte) (max_number), (byte) (timeout / 100), (byte) (interval / 100)));
     }
@@ -3699,9 +4255,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void setInventoryType(int standard) {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SET_INVENTORY_TYPE_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isIdle(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> setInventoryType(standard));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SET_INVENTORY_TYPE_COMMAND, error);
+            }
             return;
         }
         if (standard < EPC_STANDARD || standard > ISO15693_AND_ISO14443A_STANDARD) {
@@ -3710,8 +4268,10 @@ public final class PassiveReader implements ZhagaReader {
             return;
         }
         this.standard = standard;
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SET_INVENTORY_TYPE_COMMAND;
+        if (!claim(AbstractReaderListener.SET_INVENTORY_TYPE_COMMAND, null, true, true)) {
+            setInventoryType(standard);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(SETSTANDARD_COMMAND, (byte) (standard)));
     }
 
@@ -3719,9 +4279,12 @@ public final class PassiveReader implements ZhagaReader {
     public synchronized void setLEDforCommand(int light_color, int light_on_time, int light_off_time,
                                               int light_repetition) {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_COMMAND_LED_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION,
+                    () -> setLEDforCommand(light_color, light_on_time, light_off_time, light_repetition));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_COMMAND_LED_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -3734,8 +4297,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_SET_COMMAND_LED_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_SET_COMMAND_LED_COMMAND)) {
+            setLEDforCommand(light_color, light_on_time, light_off_time, light_repetition);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_COMMAND_LED,
                 (byte) light_color, (byte) (light_on_time / 10), (byte) (light_off_time / 10),
                 (byte) light_repetition));
@@ -3745,9 +4310,12 @@ public final class PassiveReader implements ZhagaReader {
     public synchronized void setLEDforError(int light_color, int light_on_time, int light_off_time,
                                             int light_repetition) {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_ERROR_LED_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION,
+                    () -> setLEDforError(light_color, light_on_time, light_off_time, light_repetition));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_ERROR_LED_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -3760,8 +4328,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_SET_ERROR_LED_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_SET_ERROR_LED_COMMAND)) {
+            setLEDforError(light_color, light_on_time, light_off_time, light_repetition);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_ERROR_LED, (byte) light_color
                 , (byte) (light_on_time / 10), (byte) (light_off_time / 10), (byte) light_repetition));
     }
@@ -3770,9 +4340,12 @@ public final class PassiveReader implements ZhagaReader {
     public synchronized void setLEDforInventory(int light_color, int light_on_time, int light_off_time,
                                                 int light_repetition) {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_INVENTORY_LED_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION,
+                    () -> setLEDforInventory(light_color, light_on_time, light_off_time, light_repetition));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_INVENTORY_LED_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -3785,8 +4358,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_SET_INVENTORY_LED_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_SET_INVENTORY_LED_COMMAND)) {
+            setLEDforInventory(light_color, light_on_time, light_off_time, light_repetition);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_INVENTORY_LED,
                 (byte) light_color, (byte) (light_on_time / 10), (byte) (light_off_time / 10),
                 (byte) light_repetition));
@@ -3806,11 +4381,12 @@ public final class PassiveReader implements ZhagaReader {
     @Override
     public synchronized void setName(String device_name) {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SET_DEVICE_NAME_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
-            zhaga_listener.resultEvent(AbstractZhagaListener.SET_DEVICE_NAME_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> setName(device_name));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SET_DEVICE_NAME_COMMAND, error);
+                zhaga_listener.resultEvent(AbstractZhagaListener.SET_DEVICE_NAME_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -3827,28 +4403,23 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SET_DEVICE_NAME_COMMAND;
-        String command = "$:";
-        command += byteToHex(6 + 2 + 2 * device_name.length()); // ?
-        command += byteToHex(sequential);
-        sequential = (sequential + 1) % 256;
-        command += byteToHex(BLE_CONFIG_COMMAND);
-        command += byteToHex(BLE_DEVICE_NAME);
-        byte[] name = device_name.getBytes(StandardCharsets.ISO_8859_1);
-        for (int n = 0; n < name.length; n++) {
-            String tmp = byteToHex(name[n]);
-            command += tmp;
+        if (!claim(AbstractReaderListener.SET_DEVICE_NAME_COMMAND)) {
+            setName(device_name);
+            return;
         }
-        device_manager.requestWriteData(command);
+        byte[] name = device_name.getBytes(StandardCharsets.ISO_8859_1);
+        device_manager.requestWriteData(commandEncoder(BLE_CONFIG_COMMAND).append(BLE_DEVICE_NAME).append(name)
+                .toFrame());
     }
 
     @Override
     public synchronized void setRF(boolean RF_on) {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_RF_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> setRF(RF_on));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_RF_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -3856,8 +4427,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_SET_RF_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_SET_RF_COMMAND)) {
+            setRF(RF_on);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_DIRECT_COMMAND, ZHAGA_SET_RF, (byte) (RF_on ? 1 : 0)));
     }
 
@@ -3874,9 +4447,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void setRFforISO15693tunnel(int delay, int timeout) {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SET_RF_FOR_ISO15693_TUNNEL_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> setRFforISO15693tunnel(delay, timeout));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SET_RF_FOR_ISO15693_TUNNEL_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -3894,8 +4469,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SET_RF_FOR_ISO15693_TUNNEL_COMMAND;
+        if (!claim(AbstractReaderListener.SET_RF_FOR_ISO15693_TUNNEL_COMMAND)) {
+            setRFforISO15693tunnel(delay, timeout);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ISO15693_SETREGISTER_COMMAND,
                 REGISTER_RF_PARAMETERS_FOR_TUNNEL_MODE, (byte) (timeout), (byte) (delay)));
     }
@@ -3906,9 +4483,12 @@ public final class PassiveReader implements ZhagaReader {
         byte preactivation[] = new byte[2];
 
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_RF_ONOFF_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION,
+                    () -> setRFonOff(RF_power, RF_off_timeout, RF_on_preactivation));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_RF_ONOFF_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -3923,8 +4503,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_SET_RF_ONOFF_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_SET_RF_ONOFF_COMMAND)) {
+            setRFonOff(RF_power, RF_off_timeout, RF_on_preactivation);
+            return;
+        }
         String tmp = String.format("%04X", RF_off_timeout);
         timeout[0] = (byte) hexToByte(tmp.substring(0, 2));
         timeout[1] = (byte) hexToByte(tmp.substring(2, 4));
@@ -3947,9 +4529,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void setRFpower(int level, int mode) {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SET_RF_POWER_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> setRFpower(level, mode));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SET_RF_POWER_COMMAND, error);
+            }
             return;
         }
         if (HF_device) {
@@ -3976,8 +4560,10 @@ public final class PassiveReader implements ZhagaReader {
                 return;
             }
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SET_RF_POWER_COMMAND;
+        if (!claim(AbstractReaderListener.SET_RF_POWER_COMMAND)) {
+            setRFpower(level, mode);
+            return;
+        }
         if (HF_device) {
             device_manager.requestWriteData(buildCommand(ISO15693_SETPOWER_COMMAND, (byte) (level), (byte) (mode)));
         }
@@ -4000,11 +4586,12 @@ public final class PassiveReader implements ZhagaReader {
     @Override
     public synchronized void setSecurityLevel(int level) {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SET_SECURITY_LEVEL_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
-            zhaga_listener.resultEvent(AbstractZhagaListener.SET_SECURITY_LEVEL_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> setSecurityLevel(level));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SET_SECURITY_LEVEL_COMMAND, error);
+                zhaga_listener.resultEvent(AbstractZhagaListener.SET_SECURITY_LEVEL_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -4021,8 +4608,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SET_SECURITY_LEVEL_COMMAND;
+        if (!claim(AbstractReaderListener.SET_SECURITY_LEVEL_COMMAND)) {
+            setSecurityLevel(level);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BLE_CONFIG_COMMAND, BLE_SECURITY_LEVEL, (byte) (level)));
     }
 
@@ -4040,9 +4629,11 @@ public final class PassiveReader implements ZhagaReader {
         byte shutdown_time[] = new byte[2];
 
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SET_SHUTDOWN_TIME_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> setShutdownTime(time));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SET_SHUTDOWN_TIME_COMMAND, error);
+            }
             return;
         }
         if (time < 10 || time > 64800) {
@@ -4053,8 +4644,10 @@ public final class PassiveReader implements ZhagaReader {
         tmp = String.format("%04X", time);
         shutdown_time[0] = (byte) hexToByte(tmp.substring(0, 2));
         shutdown_time[1] = (byte) hexToByte(tmp.substring(2, 4));
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SET_SHUTDOWN_TIME_COMMAND;
+        if (!claim(AbstractReaderListener.SET_SHUTDOWN_TIME_COMMAND)) {
+            setShutdownTime(time);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(SETAUTOOFF_COMMAND, shutdown_time[0], shutdown_time[1]));
     }
 
@@ -4072,9 +4665,11 @@ public final class PassiveReader implements ZhagaReader {
     public synchronized void setSlaveLatency(int latency) {
         byte slave_latency[] = new byte[2];
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SET_SLAVE_LATENCY_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> setSlaveLatency(latency));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SET_SLAVE_LATENCY_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -4090,8 +4685,10 @@ public final class PassiveReader implements ZhagaReader {
         String tmp = String.format("%04X", latency);
         slave_latency[0] = (byte) hexToByte(tmp.substring(0, 2));
         slave_latency[1] = (byte) hexToByte(tmp.substring(2, 4));
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SET_SLAVE_LATENCY_COMMAND;
+        if (!claim(AbstractReaderListener.SET_SLAVE_LATENCY_COMMAND)) {
+            setSlaveLatency(latency);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BLE_CONFIG_COMMAND, BLE_SLAVE_LATENCY, slave_latency[0],
                 slave_latency[1]));
     }
@@ -4101,9 +4698,13 @@ public final class PassiveReader implements ZhagaReader {
                                                 int sound_repetition) {
         byte frequency[] = new byte[2];
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_COMMAND_SOUND_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION,
+                    () -> setSoundForCommand(sound_frequency, sound_on_time, sound_off_time,
+                    sound_repetition));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_COMMAND_SOUND_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -4117,8 +4718,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_SET_COMMAND_SOUND_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_SET_COMMAND_SOUND_COMMAND)) {
+            setSoundForCommand(sound_frequency, sound_on_time, sound_off_time, sound_repetition);
+            return;
+        }
         String tmp = String.format("%04X", sound_frequency);
         frequency[0] = (byte) hexToByte(tmp.substring(0, 2));
         frequency[1] = (byte) hexToByte(tmp.substring(2, 4));
@@ -4131,9 +4734,13 @@ public final class PassiveReader implements ZhagaReader {
                                               int sound_repetition) {
         byte frequency[] = new byte[2];
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_ERROR_SOUND_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION,
+                    () -> setSoundForError(sound_frequency, sound_on_time, sound_off_time,
+                    sound_repetition));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_ERROR_SOUND_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -4147,8 +4754,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_SET_ERROR_SOUND_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_SET_ERROR_SOUND_COMMAND)) {
+            setSoundForError(sound_frequency, sound_on_time, sound_off_time, sound_repetition);
+            return;
+        }
         String tmp = String.format("%04X", sound_frequency);
         frequency[0] = (byte) hexToByte(tmp.substring(0, 2));
         frequency[1] = (byte) hexToByte(tmp.substring(2, 4));
@@ -4161,9 +4770,13 @@ public final class PassiveReader implements ZhagaReader {
                                                   int sound_repetition) {
         byte frequency[] = new byte[2];
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_INVENTORY_SOUND_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION,
+                    () -> setSoundForInventory(sound_frequency, sound_on_time, sound_off_time,
+                    sound_repetition));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_INVENTORY_SOUND_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -4177,8 +4790,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_SET_INVENTORY_SOUND_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_SET_INVENTORY_SOUND_COMMAND)) {
+            setSoundForInventory(sound_frequency, sound_on_time, sound_off_time, sound_repetition);
+            return;
+        }
         String tmp = String.format("%04X", sound_frequency);
         frequency[0] = (byte) hexToByte(tmp.substring(0, 2));
         frequency[1] = (byte) hexToByte(tmp.substring(2, 4));
@@ -4200,9 +4815,11 @@ public final class PassiveReader implements ZhagaReader {
     public synchronized void setSupervisionTimeout(int timeout) {
         byte supervision_timeout[] = new byte[2];
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SET_SUPERVISION_TIMEOUT_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> setSupervisionTimeout(timeout));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SET_SUPERVISION_TIMEOUT_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -4215,12 +4832,13 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        timeout /= 10;
-        String tmp = String.format("%04X", timeout);
+        String tmp = String.format("%04X", timeout / 10);
         supervision_timeout[0] = (byte) hexToByte(tmp.substring(0, 2));
         supervision_timeout[1] = (byte) hexToByte(tmp.substring(2, 4));
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SET_SUPERVISION_TIMEOUT_COMMAND;
+        if (!claim(AbstractReaderListener.SET_SUPERVISION_TIMEOUT_COMMAND)) {
+            setSupervisionTimeout(timeout);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BLE_CONFIG_COMMAND, BLE_SUPERVISION_TIMEOUT,
                 supervision_timeout[0], supervision_timeout[1]));
     }
@@ -4229,9 +4847,13 @@ public final class PassiveReader implements ZhagaReader {
     public synchronized void setVibrationForCommand(int vibration_on_time, int vibration_off_time,
                                                     int vibration_repetition) {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_COMMAND_VIBRATION_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION,
+                    () -> setVibrationForCommand(vibration_on_time, vibration_off_time,
+                    vibration_repetition));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_COMMAND_VIBRATION_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -4244,8 +4866,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_SET_COMMAND_VIBRATION_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_SET_COMMAND_VIBRATION_COMMAND)) {
+            setVibrationForCommand(vibration_on_time, vibration_off_time, vibration_repetition);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_COMMAND_VIBRATION,
                 (byte) (vibration_on_time / 10), (byte) (vibration_off_time / 10), (byte) vibration_repetition));
     }
@@ -4254,9 +4878,13 @@ public final class PassiveReader implements ZhagaReader {
     public synchronized void setVibrationForError(int vibration_on_time, int vibration_off_time,
                                                   int vibration_repetition) {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_ERROR_VIBRATION_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION,
+                    () -> setVibrationForError(vibration_on_time, vibration_off_time,
+                    vibration_repetition));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_ERROR_VIBRATION_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -4269,8 +4897,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_SET_ERROR_VIBRATION_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_SET_ERROR_VIBRATION_COMMAND)) {
+            setVibrationForError(vibration_on_time, vibration_off_time, vibration_repetition);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_ERROR_VIBRATION,
                 (byte) (vibration_on_time / 10), (byte) (vibration_off_time / 10), (byte) vibration_repetition));
     }
@@ -4279,9 +4909,13 @@ public final class PassiveReader implements ZhagaReader {
     public synchronized void setVibrationForInventory(int vibration_on_time, int vibration_off_time,
                                                       int vibration_repetition) {
         int s = status;
-        if (status != READY_STATUS) {
-            zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_INVENTORY_VIBRATION_COMMAND,
-                    AbstractZhagaListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION,
+                    () -> setVibrationForInventory(vibration_on_time, vibration_off_time,
+                    vibration_repetition));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                zhaga_listener.resultEvent(AbstractZhagaListener.ZHAGA_SET_INVENTORY_VIBRATION_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -4294,8 +4928,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractZhagaListener.ZHAGA_SET_INVENTORY_VIBRATION_COMMAND;
+        if (!claim(AbstractZhagaListener.ZHAGA_SET_INVENTORY_VIBRATION_COMMAND)) {
+            setVibrationForInventory(vibration_on_time, vibration_off_time, vibration_repetition);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(ZHAGA_CONFIGURATION_COMMAND, ZHAGA_INVENTORY_VIBRATION,
                 (byte) (vibration_on_time / 10), (byte) (vibration_off_time / 10), (byte) vibration_repetition));
     }
@@ -4319,9 +4955,12 @@ public final class PassiveReader implements ZhagaReader {
         byte frequency_step[] = new byte[2];
 
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.SOUND_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_INTERACTIVE)) {
+            int error = enqueue(COMMAND_PRIORITY_INTERACTIVE,
+                    () -> sound(frequency, step, duration, interval, repetition));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.SOUND_COMMAND, error);
+            }
             return;
         }
         if (frequency < 40 || frequency > 20000) {
@@ -4361,8 +5000,10 @@ public final class PassiveReader implements ZhagaReader {
         }
         frequency_step[0] = (byte) hexToByte(tmp.substring(0, 2));
         frequency_step[1] = (byte) hexToByte(tmp.substring(2, 4));
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.SOUND_COMMAND;
+        if (!claim(AbstractReaderListener.SOUND_COMMAND)) {
+            sound(frequency, step, duration, interval, repetition);
+            return;
+        }
         device_manager.requestWriteData(buildCommand(BEEPER_COMMAND, start_frequency[0], start_frequency[1],
                 (byte) (duration / 10), (byte) (interval / 10),
                 (byte) (repetition),
@@ -4380,22 +5021,28 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void testAvailability() {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.TEST_AVAILABILITY_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_TELEMETRY)) {
+            int error = enqueue(COMMAND_PRIORITY_TELEMETRY, () -> testAvailability());
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.TEST_AVAILABILITY_COMMAND, error);
+            }
+            return;
+        }
+        if (!claim(AbstractReaderListener.TEST_AVAILABILITY_COMMAND)) {
+            testAvailability();
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.TEST_AVAILABILITY_COMMAND;
         device_manager.requestWriteData(buildCommand(SETSTANDARD_COMMAND));
     }
 
     @Override
     public synchronized void transparent(byte[] command) {
         int s = status;
-        if (status != PassiveReader.READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.ZHAGA_TRANSPARENT_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_INTERACTIVE)) {
+            int error = enqueue(COMMAND_PRIORITY_INTERACTIVE, () -> transparent(command));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.ZHAGA_TRANSPARENT_COMMAND, error);
+            }
             return;
         }
         if (UHF_device) {
@@ -4403,8 +5050,10 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractZhagaListener.READER_DRIVER_UNKNOW_COMMAND_ERROR);
             return;
         }
-        status = PassiveReader.PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.ZHAGA_TRANSPARENT_COMMAND;
+        if (!claim(AbstractReaderListener.ZHAGA_TRANSPARENT_COMMAND)) {
+            transparent(command);
+            return;
+        }
         device_manager.requestWriteData(buildZhagaTransparentCommand(command));
     }
 
@@ -4422,9 +5071,11 @@ public final class PassiveReader implements ZhagaReader {
      */
     public synchronized void writeUserMemory(int block, byte[] data) {
         int s = status;
-        if (status != READY_STATUS) {
-            reader_listener.resultEvent(AbstractReaderListener.WRITE_USER_MEMORY_COMMAND,
-                    AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+        if (!isReady(COMMAND_PRIORITY_CONFIGURATION)) {
+            int error = enqueue(COMMAND_PRIORITY_CONFIGURATION, () -> writeUserMemory(block, data));
+            if (error != AbstractReaderListener.NO_ERROR) {
+                reader_listener.resultEvent(AbstractReaderListener.WRITE_USER_MEMORY_COMMAND, error);
+            }
             return;
         }
         if (device_manager.isTxRxAckme()) {
@@ -4442,20 +5093,12 @@ public final class PassiveReader implements ZhagaReader {
                     AbstractReaderListener.READER_DRIVER_COMMAND_WRONG_PARAMETER_ERROR);
             return;
         }
-        status = PENDING_COMMAND_STATUS;
-        pending = AbstractReaderListener.WRITE_USER_MEMORY_COMMAND;
-        String command = "$:";
-        command += byteToHex(6 + 4 + 2 * data.length); // ?
-        command += byteToHex(sequential);
-        sequential = (sequential + 1) % 256;
-        command += byteToHex(BLE_CONFIG_COMMAND);
-        command += byteToHex(BLE_USER_MEMORY);
-        command += byteToHex(block);
-        for (int n = 0; n < data.length; n++) {
-            String tmp = byteToHex(data[n]);
-            command += tmp;
+        if (!claim(AbstractReaderListener.WRITE_USER_MEMORY_COMMAND)) {
+            writeUserMemory(block, data);
+            return;
         }
-        device_manager.requestWriteData(command);
+        device_manager.requestWriteData(commandEncoder(BLE_CONFIG_COMMAND).append(BLE_USER_MEMORY)
+                .append((byte) block).append(data).toFrame());
     }
 
     private void init(AbstractInventoryListener inventory_listener,
@@ -4473,56 +5116,437 @@ public final class PassiveReader implements ZhagaReader {
         device_manager.setTxRxTimeouts(txrxTimeouts);
     }
 
-    protected String appendDataToCommand(String command, byte data[]) {
-        int frame_length = command.length() - 2;
-        String tail = command.substring(4);
+    /**
+     * Check if a command can be sent right now, possibly while other commands
+     * are waiting for their answer.
+     * <p>
+     * A new command is queued behind the queued commands of its class and of
+     * the more urgent classes, and sent at once otherwise; telemetry commands
+     * are also queued while they are held back.
+     *
+     * @param priority the command priority class
+     * @return true if the command can be sent
+     */
+    boolean isReady(int priority) {
+        return isAvailable(priority) && canSend(false);
+    }
+
+    /**
+     * Check if a command that cannot be pipelined (because its answer has no
+     * sequential number, or it changes settings committed on answer) can be
+     * sent right now.
+     *
+     * @param priority the command priority class
+     * @return true if the command can be sent
+     */
+    boolean isIdle(int priority) {
+        return isAvailable(priority) && canSend(true);
+    }
 
-        for (byte aData : data) {
-            String tmp = byteToHex(aData);
-            tail += tmp;
+    private boolean isAvailable(int priority) {
+        if (priority <= COMMAND_PRIORITY_TAG) {
+            command_queue.deferTelemetry();
         }
-        frame_length += data.length * 2;
-        command = "$:" + byteToHex(frame_length) + tail;
-        return command;
+        if (command_queue.getRejection() != AbstractReaderListener.NO_ERROR) {
+            return false;
+        }
+        if (command_queue.isDispatching()) {
+            return true;
+        }
+        return command_queue.isEmpty(priority) &&
+                (priority != COMMAND_PRIORITY_TELEMETRY || !command_queue.isTelemetryDeferred());
     }
 
-    protected String buildCommand(byte command_code, byte... parameters) {
-        String command = "$:";
-        command += byteToHex(6 + 2 * parameters.length);
-        command += byteToHex(sequential);
-        sequential = (sequential + 1) % 256;
-        command += byteToHex(command_code);
-        for (byte parameter : parameters) {
-            String tmp = byteToHex(parameter);
-            command += tmp;
+    /**
+     * Check the reader status and the in-flight commands window.
+     *
+     * @param exclusive true if the command cannot be sent while other commands are in flight
+     * @return true if the command can be sent
+     */
+    boolean canSend(boolean exclusive) {
+        return canSend(status, exclusive);
+    }
+
+    private boolean canSend(int s, boolean exclusive) {
+        if (s != READY_STATUS && s != PENDING_COMMAND_STATUS) {
+            return false;
+        }
+        if (in_flight.isEmpty()) {
+            // a pending command without sequential number (tunnel or BLE command mode) is not pipelined
+            return s == READY_STATUS;
         }
-        return command;
+        return !exclusive && in_flight.hasRoom();
     }
 
-    protected String buildTunnelCommand(boolean encrypted, byte... parameters) {
-        String command;
-        if (encrypted) {
-            command = "%:";
+    /**
+     * Queue a command that cannot be sent right now.
+     *
+     * @param priority the command priority class
+     * @param command  the command method invocation
+     * @return {@code NO_ERROR} if the command has been queued, the error code to report otherwise
+     * @see #enqueue(int, Object, Runnable)
+     */
+    int enqueue(int priority, Runnable command) {
+        return enqueue(priority, this, command);
+    }
+
+    /**
+     * Queue a command that cannot be sent right now.
+     * <p>
+     * With the {@link #COMMAND_QUEUE_BLOCK} policy the caller waits for space
+     * on the monitor of {@code lock}, held by the synchronized command method,
+     * which is released meanwhile. A caller that cannot release every command
+     * monitor it holds, or that runs on the main thread or on a thread
+     * delivering the device callbacks (e.g. a listener issuing a command), is
+     * not blocked: its command is rejected as with the {@link
+     * #COMMAND_QUEUE_REJECT} policy.
+     *
+     * @param priority the command priority class
+     * @param lock     the object whose synchronized command method is issuing the command
+     * @param command  the command method invocation
+     * @return {@code NO_ERROR} if the command has been queued, the error code to report otherwise
+     */
+    int enqueue(int priority, Object lock, Runnable command) {
+        Looper main_looper = Looper.getMainLooper();
+        boolean may_block = (main_looper == null || Looper.myLooper() != main_looper) &&
+                !command_queue.isDeliveryThread() && Thread.holdsLock(lock) &&
+                (lock == this || !Thread.holdsLock(this));
+        long since = System.nanoTime();
+        int error;
+
+        while (true) {
+            int s = status;
+            if (s != READY_STATUS && s != PENDING_COMMAND_STATUS && s != UNINITIALIZED_STATUS &&
+                    command_queue.getRejection() == AbstractReaderListener.NO_ERROR) {
+                return AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR;
+            }
+            error = command_queue.offer(priority, command, may_block);
+            if (error != CommandQueue.WAIT_FOR_SPACE) {
+                break;
+            }
+            if (!command_queue.awaitSpace(priority, lock, since)) {
+                return AbstractReaderListener.READER_DRIVER_COMMAND_QUEUE_FULL_ERROR;
+            }
         }
-        else {
-            command = "#:";
+        if (error == AbstractReaderListener.NO_ERROR) {
+            watch(command_queue.getHandle());
+        }
+        if (error == AbstractReaderListener.NO_ERROR && canSend(false) && !command_queue.isDispatching()) {
+            // the pending command completed meanwhile
+            new Handler(Looper.getMainLooper()).post(this::dispatchQueuedCommands);
+        }
+        return error;
+    }
+
+    /**
+     * Claim the reader to send a command which can be pipelined.
+     *
+     * @param command the command code notified to the listeners
+     * @return true if the command can be sent, false if another thread claimed the reader first
+     * @see #claim(int, byte[], boolean, boolean)
+     */
+    boolean claim(int command) {
+        return claim(command, null, false, true);
+    }
+
+    /**
+     * Claim the reader to send a tag command.
+     *
+     * @param command the command code notified to the response listener
+     * @param tag_ID  the addressed tag ID
+     * @return true if the command can be sent, false if another thread claimed the reader first
+     * @see #claim(int, byte[], boolean, boolean)
+     */
+    boolean claim(int command, byte[] tag_ID) {
+        return claim(command, tag_ID, false, true);
+    }
+
+    /**
+     * Claim the reader to send a command.
+     * <p>
+     * Reader and tag commands are synchronized on different objects, so the
+     * {@link #isReady(int)} check made on entry may be outdated when the command
+     * is sent. The claim checks the status again and moves it to pending
+     * while holding the lock of the in-flight table, which also serializes
+     * every status change made by the device callback (see {@link
+     * #setStatus(int)}), so the callback cannot change the status between the
+     * check and the update; a command with sequential number is also
+     * given its number and its in-flight table entry, so that neither the
+     * number nor the pending command code can be overwritten by another
+     * thread before the command is encoded with {@link
+     * #commandEncoder(byte)}.
+     * <p>
+     * The status goes back to ready when the answers of all the in-flight
+     * commands have been received.
+     * <p>
+     * The claim fails if the command is bound to a {@link CommandHandle}
+     * already cancelled or expired, so that the command is rejected instead of
+     * being sent.
+     *
+     * @param command   the command code notified to the listeners
+     * @param tag_ID    the addressed tag ID (may be null)
+     * @param exclusive true if the command cannot be sent while other commands are in flight
+     * @param sequenced false if the command answer has no sequential number
+     * @return true if the command can be sent, false if another thread claimed the reader first
+     */
+    boolean claim(int command, byte[] tag_ID, boolean exclusive, boolean sequenced) {
+        CommandHandle handle = command_queue.getHandle();
+
+        if (handle != null && handle.getError() != AbstractReaderListener.NO_ERROR) {
+            // the command is re-invoked and rejected
+            return false;
+        }
+        synchronized (in_flight) {
+            if (!canSend(status, exclusive)) {
+                return false;
+            }
+            status = PENDING_COMMAND_STATUS;
+            if (sequenced) {
+                int next = nextSequential();
+                in_flight.add(next, command, tag_ID, handle);
+                claimed_sequential.get()[0] = next;
+            }
+            else {
+                pending = command;
+                this.tag_ID = tag_ID;
+            }
+        }
+        if (sequenced) {
+            watch(handle);
+        }
+        return true;
+    }
+
+    /**
+     * Change the reader status.
+     * <p>
+     * Status changes take the lock of the in-flight table, the same lock held
+     * by {@link #claim(int, byte[], boolean, boolean)} while it checks and
+     * updates the status.
+     *
+     * @param status the new status
+     */
+    private void setStatus(int status) {
+        synchronized (in_flight) {
+            this.status = status;
+        }
+    }
+
+    /**
+     * Get the handle the commands issued by the calling thread are bound to.
+     *
+     * @return the handle, or null if the commands are not bound
+     * @see #execute(CommandHandle, Runnable)
+     */
+    CommandHandle getCommandHandle() {
+        return command_queue.getHandle();
+    }
+
+    /**
+     * Fail the commands bound to a handle: the queued ones are rejected, the
+     * in-flight ones are abandoned, so that their late answer is discarded.
+     * <p>
+     * The commands are removed at once, while the errors are notified by a
+     * task run on the main thread, never on the cancelling thread.
+     *
+     * @param handle the handle
+     * @param error  the error code to report
+     */
+    void cancelCommands(CommandHandle handle, int error) {
+        Runnable rejections = command_queue.remove(handle, error);
+        ArrayList<Integer> commands = new ArrayList<>();
+        ArrayList<byte[]> tag_IDs = new ArrayList<>();
+
+        synchronized (in_flight) {
+            int abandoned;
+            while ((abandoned = in_flight.abandon(handle)) >= 0) {
+                commands.add(in_flight.getCommand(abandoned));
+                tag_IDs.add(in_flight.getTagID(abandoned));
+            }
+        }
+        scheduler.schedule(() -> {
+            rejections.run();
+            for (int n = 0; n < commands.size(); n++) {
+                ((DeviceCallback) device_callback).commandFailed(commands.get(n), tag_IDs.get(n), error);
+            }
+        }, 0);
+    }
+
+    /**
+     * Replace the scheduler running the command deadlines and the
+     * cancellation notifications.
+     *
+     * @param scheduler the scheduler
+     */
+    void setScheduler(Scheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Schedule the deadline of a handle the first time one of its commands is
+     * queued or sent.
+     *
+     * @param handle the handle (may be null)
+     */
+    private void watch(CommandHandle handle) {
+        if (handle == null || !handle.attach(this)) {
+            return;
+        }
+        long remaining = handle.getRemainingTime();
+        if (remaining != CommandHandle.NO_DEADLINE) {
+            scheduler.schedule(() ->
+                    cancelCommands(handle, AbstractReaderListener.READER_DRIVER_COMMAND_DEADLINE_ERROR), remaining);
+        }
+        if (handle.isCancelled()) {
+            // cancelled before being attached
+            cancelCommands(handle, AbstractReaderListener.READER_DRIVER_COMMAND_CANCELLED_ERROR);
+        }
+    }
+
+    synchronized boolean attachInventoryLoop(ContinuousInventory loop) {
+        if (inventory_loop != null && inventory_loop != loop) {
+            return false;
+        }
+        inventory_loop = loop;
+        return true;
+    }
+
+    synchronized void detachInventoryLoop(ContinuousInventory loop) {
+        if (inventory_loop == loop) {
+            inventory_loop = null;
+        }
+    }
+
+    /**
+     * Get the duration of an inventory round.
+     *
+     * @return the inventory timeout in milliseconds
+     */
+    long getInventoryRoundTimeout() {
+        return 100L * inventory_timeout;
+    }
+
+    private void flushInventoryBatch() {
+        notifyInventoryBatch(takeInventoryBatch());
+    }
+
+    /**
+     * Swap the batch being filled with an empty one.
+     *
+     * @return the filled batch, null if no tag has been collected
+     */
+    private InventoryBatch takeInventoryBatch() {
+        synchronized (inventory_batch_lock) {
+            inventory_batch_scheduled = false;
+            inventory_batch_generation++;
+            InventoryBatch batch = inventory_batch;
+            if (batch.size() == 0) {
+                return null;
+            }
+            inventory_batch = spare_inventory_batch != null ? spare_inventory_batch : new InventoryBatch(this);
+            spare_inventory_batch = null;
+            return batch;
+        }
+    }
+
+    /**
+     * Notify a batch taken by {@link #takeInventoryBatch()}, without holding
+     * the batch lock, then keep it for reuse.
+     *
+     * @param batch the batch to notify (may be null)
+     */
+    private void notifyInventoryBatch(InventoryBatch batch) {
+        if (batch == null) {
+            return;
         }
-        for (byte parameter : parameters) {
-            String tmp = byteToHex(parameter);
-            command += tmp;
+        try {
+            inventory_listener.inventoryBatchEvent(batch);
+        } finally {
+            batch.clear();
+            synchronized (inventory_batch_lock) {
+                spare_inventory_batch = batch;
+            }
         }
-        return command;
+    }
+
+    private void dispatchQueuedCommands() {
+        switch (status) {
+            case READY_STATUS:
+            case PENDING_COMMAND_STATUS:
+                long delay = command_queue.dispatch(this);
+                if (delay > 0 && !deferred_dispatch) {
+                    // only held back telemetry commands are left
+                    deferred_dispatch = true;
+                    new Handler(Looper.getMainLooper()).postDelayed(() -> {
+                        deferred_dispatch = false;
+                        dispatchQueuedCommands();
+                    }, delay);
+                }
+                break;
+            case UNINITIALIZED_STATUS:
+                break;
+            default:
+                command_queue.clear(AbstractReaderListener.READER_DRIVER_WRONG_STATUS_ERROR);
+                break;
+        }
+    }
+
+    protected String buildCommand(byte command_code) {
+        return commandEncoder(command_code).toFrame();
+    }
+
+    protected String buildCommand(byte command_code, byte... parameters) {
+        return commandEncoder(command_code).append(parameters).toFrame();
+    }
+
+    protected String buildTunnelCommand(boolean encrypted, byte... parameters) {
+        return frame_codec.getEncoder().beginTunnel(encrypted).append(parameters).toFrame();
     }
 
     protected String buildZhagaTransparentCommand(byte... parameters) {
-        String command = "Z:";
-        command += byteToHex(4 + 2 * parameters.length);
-        command += byteToHex(sequential);
-        sequential = (sequential + 1) % 256;
-        for (int n = 0; n < parameters.length; n++) {
-            String tmp = byteToHex(parameters[n]);
-            command += tmp;
-        }
-        return command;
+        return frame_codec.getEncoder().beginZhagaTransparent(takeClaimedSequential()).append(parameters).toFrame();
+    }
+
+    protected FrameEncoder commandEncoder(byte command_code) {
+        return frame_codec.getEncoder().beginCommand(takeClaimedSequential(), command_code);
+    }
+
+    /**
+     * Get the encoder of a command whose answer is not matched against a
+     * pending command.
+     *
+     * @param command_code the command code
+     * @return the encoder
+     */
+    private FrameEncoder untrackedCommandEncoder(byte command_code) {
+        return frame_codec.getEncoder().beginCommand(nextSequential(), command_code);
+    }
+
+    private int nextSequential() {
+        synchronized (in_flight) {
+            int next = sequential;
+            sequential = (next + 1) % 256;
+            return next;
+        }
+    }
+
+    /**
+     * Get the sequential number claimed by the calling thread for the command
+     * it is sending.
+     *
+     * @return the frame sequential number
+     */
+    private int takeClaimedSequential() {
+        int[] claimed = claimed_sequential.get();
+        int next = claimed[0];
+        claimed[0] = -1;
+        if (next < 0) {
+            // command sent without claim
+            synchronized (in_flight) {
+                next = nextSequential();
+                in_flight.add(next, pending, tag_ID);
+            }
+        }
+        return next;
     }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractReaderListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractResponseListener;
+
+/**
+ * Failure of a command issued through {@link AsyncPassiveReader}.
+ * <p>
+ * The command and error codes are the ones notified to the listeners, e.g.
+ * {@link AbstractReaderListener#GET_BATTERY_LEVEL_COMMAND} and {@link
+ * AbstractReaderListener#READER_READ_TIMEOUT_ERROR}, or {@link
+ * AbstractResponseListener#READ_COMMAND} for tag operations.
+ */
+public class ReaderException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final int command;
+    private final int error;
+
+    /**
+     * Class constructor.
+     *
+     * @param command the command code
+     * @param error   the error code
+     */
+    public ReaderException(int command, int error) {
+        super(String.format("command %d failed with error 0x%02X", command, error));
+        this.command = command;
+        this.error = error;
+    }
+
+    /**
+     * Get the code of the failed command.
+     *
+     * @return the command code
+     */
+    public int getCommand() {
+        return command;
+    }
+
+    /**
+     * Get the error code.
+     *
+     * @return the error code
+     */
+    public int getError() {
+        return error;
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractReaderListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractResponseListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * Retry policy of the commands issued through {@link AsyncPassiveReader}.
+ * <p>
+ * A command failed with a transient error (by default tag not found, tag
+ * timeout and BLE read or write timeout) is issued again after a backoff
+ * delay, up to its maximum number of attempts, before its future is
+ * completed. Each command code has its own classification:
+ * <ul>
+ * <li>{@link #RETRY_NEVER}: the command is never retried (the default for
+ * commands changing the reader or tag state);</li>
+ * <li>{@link #RETRY_IDEMPOTENT}: the command is simply issued again (the
+ * default for reads and gets);</li>
+ * <li>{@link #RETRY_VERIFIED}: the command may have been executed even if its
+ * answer was lost, so the tag is checked before the command is issued again
+ * (the default for tag memory write, ID write and lock).</li>
+ * </ul>
+ * The backoff delay doubles at each attempt, up to a maximum, and is spread
+ * by a random jitter so that retries of several commands do not stay aligned.
+ */
+public final class RetryPolicy {
+    /**
+     * Command never retried.
+     */
+    public static final int RETRY_NEVER = 0;
+    /**
+     * Command retried as it is.
+     */
+    public static final int RETRY_IDEMPOTENT = 1;
+    /**
+     * Command retried after verifying the tag.
+     */
+    public static final int RETRY_VERIFIED = 2;
+
+    /**
+     * Verification result: the command must be issued again.
+     */
+    public static final int VERIFY_RETRY = 0;
+    /**
+     * Verification result: the command was executed, its answer was lost.
+     */
+    public static final int VERIFY_SUCCEEDED = 1;
+    /**
+     * Verification result: the tag state is unknown, the command fails.
+     */
+    public static final int VERIFY_FAILED = 2;
+
+    /**
+     * Default maximum number of attempts, the first one included.
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    /**
+     * Default delay before the first retry (ms).
+     */
+    public static final long DEFAULT_BACKOFF = 50;
+    /**
+     * Default maximum delay between retries (ms).
+     */
+    public static final long DEFAULT_MAX_BACKOFF = 1000;
+    /**
+     * Default backoff jitter (fraction of the delay).
+     */
+    public static final double DEFAULT_JITTER = 0.2;
+
+    private static final class Rule {
+        private int classification;
+        private int max_attempts = DEFAULT_MAX_ATTEMPTS;
+        private long backoff = DEFAULT_BACKOFF;
+        private long max_backoff = DEFAULT_MAX_BACKOFF;
+        private double jitter = DEFAULT_JITTER;
+    }
+
+    private static final int[] IDEMPOTENT_COMMANDS = {
+            AbstractReaderListener.GET_BATTERY_STATUS_COMMAND,
+            AbstractReaderListener.GET_FIRMWARE_VERSION_COMMAND,
+            AbstractReaderListener.GET_SHUTDOWN_TIME_COMMAND,
+            AbstractReaderListener.GET_RF_POWER_COMMAND,
+            AbstractReaderListener.GET_RF_FOR_ISO15693_TUNNEL_COMMAND,
+            AbstractReaderListener.GET_ISO15693_OPTION_BITS_COMMAND,
+            AbstractReaderListener.GET_ISO15693_EXTENSION_FLAG_COMMAND,
+            AbstractReaderListener.GET_ISO15693_BITRATE_COMMAND,
+            AbstractReaderListener.GET_EPC_FREQUENCY_COMMAND,
+            AbstractReaderListener.TEST_AVAILABILITY_COMMAND,
+            AbstractReaderListener.GET_BATTERY_LEVEL_COMMAND,
+            AbstractReaderListener.GET_SECURITY_LEVEL_COMMAND,
+            AbstractReaderListener.GET_DEVICE_NAME_COMMAND,
+            AbstractReaderListener.GET_ADVERTISING_INTERVAL_COMMAND,
+            AbstractReaderListener.GET_BLE_POWER_COMMAND,
+            AbstractReaderListener.GET_CONNECTION_INTERVAL_COMMAND,
+            AbstractReaderListener.GET_CONNECTION_INTERVAL_AND_MTU_COMMAND,
+            AbstractReaderListener.GET_MAC_ADDRESS_COMMAND,
+            AbstractReaderListener.GET_SLAVE_LATENCY_COMMAND,
+            AbstractReaderListener.GET_SUPERVISION_TIMEOUT_COMMAND,
+            AbstractReaderListener.GET_BLE_FIRMWARE_VERSION_COMMAND,
+            AbstractReaderListener.READ_USER_MEMORY_COMMAND,
+            AbstractResponseListener.READ_COMMAND,
+            AbstractResponseListener.READ_TID_COMMAND
+    };
+
+    private static final int[] VERIFIED_COMMANDS = {
+            AbstractResponseListener.WRITE_COMMAND,
+            AbstractResponseListener.WRITEID_COMMAND,
+            AbstractResponseListener.LOCK_COMMAND
+    };
+
+    private static final int[] TRANSIENT_ERRORS = {
+            AbstractReaderListener.INVENTORY_ERROR,
+            AbstractReaderListener.TIMEOUT_ERROR,
+            AbstractReaderListener.READER_WRITE_TIMEOUT_ERROR,
+            AbstractReaderListener.READER_READ_TIMEOUT_ERROR
+    };
+
+    private final HashMap<Integer, Rule> rules = new HashMap<>();
+    private final HashSet<Integer> transient_errors = new HashSet<>();
+    private final Random random = new Random();
+
+    /**
+     * Class constructor, with the default classifications, attempts, backoff
+     * and transient errors.
+     */
+    public RetryPolicy() {
+        for (int command : IDEMPOTENT_COMMANDS) {
+            rule(command).classification = RETRY_IDEMPOTENT;
+        }
+        for (int command : VERIFIED_COMMANDS) {
+            rule(command).classification = RETRY_VERIFIED;
+        }
+        for (int error : TRANSIENT_ERRORS) {
+            transient_errors.add(error);
+        }
+    }
+
+    /**
+     * Set the classification of a command.
+     *
+     * @param command        the command code
+     * @param classification the classification ({@link #RETRY_NEVER}, {@link #RETRY_IDEMPOTENT} or
+     *                       {@link #RETRY_VERIFIED})
+     * @return this policy
+     */
+    public synchronized RetryPolicy setClassification(int command, int classification) {
+        rule(command).classification = classification;
+        return this;
+    }
+
+    /**
+     * Get the classification of a command.
+     *
+     * @param command the command code
+     * @return the classification
+     */
+    public synchronized int getClassification(int command) {
+        Rule rule = rules.get(command);
+        return rule != null ? rule.classification : RETRY_NEVER;
+    }
+
+    /**
+     * Set the maximum number of attempts of a command.
+     *
+     * @param command      the command code
+     * @param max_attempts the maximum number of attempts, the first one included (1 disables retries)
+     * @return this policy
+     */
+    public synchronized RetryPolicy setMaxAttempts(int command, int max_attempts) {
+        rule(command).max_attempts = Math.max(max_attempts, 1);
+        return this;
+    }
+
+    /**
+     * Set the backoff of a command.
+     *
+     * @param command     the command code
+     * @param backoff     the delay before the first retry (ms)
+     * @param max_backoff the maximum delay between retries (ms)
+     * @param jitter      the random spread of the delay (fraction of the delay, 0-1)
+     * @return this policy
+     */
+    public synchronized RetryPolicy setBackoff(int command, long backoff, long max_backoff, double jitter) {
+        Rule rule = rule(command);
+        rule.backoff = Math.max(backoff, 0);
+        rule.max_backoff = Math.max(max_backoff, rule.backoff);
+        rule.jitter = Math.min(Math.max(jitter, 0), 1);
+        return this;
+    }
+
+    /**
+     * Set whether an error is transient, i.e. whether the commands failed with
+     * it may be retried.
+     *
+     * @param error     the error code
+     * @param retryable true if the error is transient
+     * @return this policy
+     */
+    public synchronized RetryPolicy setTransient(int error, boolean retryable) {
+        if (retryable) {
+            transient_errors.add(error);
+        }
+        else {
+            transient_errors.remove(error);
+        }
+        return this;
+    }
+
+    /**
+     * Check if an error is transient.
+     *
+     * @param error the error code
+     * @return true if the commands failed with the error may be retried
+     */
+    public synchronized boolean isTransient(int error) {
+        return transient_errors.contains(error);
+    }
+
+    /**
+     * Check if a failed command may be retried.
+     *
+     * @param command  the command code
+     * @param error    the error code
+     * @param attempts the number of attempts already made
+     * @return true if the command may be retried
+     */
+    synchronized boolean canRetry(int command, int error, int attempts) {
+        Rule rule = rules.get(command);
+        return rule != null && rule.classification != RETRY_NEVER && attempts < rule.max_attempts &&
+                transient_errors.contains(error);
+    }
+
+    /**
+     * Get the delay before a retry.
+     *
+     * @param command  the command code
+     * @param attempts the number of attempts already made
+     * @return the delay (ms)
+     */
+    synchronized long getDelay(int command, int attempts) {
+        Rule rule = rule(command);
+        long delay = rule.backoff;
+        for (int n = 1; n < attempts && delay < rule.max_backoff; n++) {
+            delay *= 2;
+        }
+        delay = Math.min(delay, rule.max_backoff);
+        return Math.max(0, Math.round(delay * (1 + rule.jitter * (2 * random.nextDouble() - 1))));
+    }
+
+    private Rule rule(int command) {
+        Rule rule = rules.get(command);
+        if (rule == null) {
+            rule = new Rule();
+            rules.put(command, rule);
+        }
+        return rule;
+    }
+}
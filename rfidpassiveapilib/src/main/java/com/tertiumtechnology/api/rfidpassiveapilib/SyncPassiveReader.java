@@ -0,0 +1,577 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import android.os.Looper;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractReaderListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractResponseListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.util.LatencyHistogram;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Blocking facade over {@link AsyncPassiveReader}, for background worker
+ * threads.
+ * <p>
+ * Every method issues the command and parks the calling thread until its
+ * answer, its error or the given timeout; each call waits on its own
+ * completion handle, so any number of threads can wait at the same time:
+ * <pre>
+ * byte[] data = sync_reader.read(tag, address, blocks, 2000);
+ * </pre>
+ * A command whose answer is not received in time fails with {@link
+ * AbstractReaderListener#READER_DRIVER_COMMAND_ANSWER_TIMEOUT_ERROR}; the
+ * command is then cancelled through its {@link CommandHandle}, so it is not
+ * sent if still queued and its late answer is discarded.
+ * <p>
+ * The methods must not be called on the main thread, which delivers the
+ * answers to the waiting threads: they throw {@code IllegalStateException}
+ * there.
+ */
+public final class SyncPassiveReader {
+    private final AsyncPassiveReader async_reader;
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * Class constructor.
+     *
+     * @param async_reader the asynchronous reader issuing the commands
+     */
+    public SyncPassiveReader(AsyncPassiveReader async_reader) {
+        this.async_reader = async_reader;
+    }
+
+    /**
+     * Get the asynchronous reader issuing the commands.
+     *
+     * @return the asynchronous reader
+     */
+    public AsyncPassiveReader getAsyncPassiveReader() {
+        return async_reader;
+    }
+
+    /**
+     * Get the histogram of the time spent waiting by the calling threads,
+     * from command issue to answer, error or timeout.
+     *
+     * @return the wait time histogram
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Test the reader device availability.
+     *
+     * @param wait_time the answer wait time (ms)
+     * @return true if the reader device is available
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public boolean testAvailability(long wait_time) throws ReaderException, InterruptedException {
+        return await(async_reader::testAvailability, AbstractReaderListener.TEST_AVAILABILITY_COMMAND, wait_time);
+    }
+
+    /**
+     * Get the reader device battery level.
+     *
+     * @param wait_time the answer wait time (ms)
+     * @return the battery level (V)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public float getBatteryLevel(long wait_time) throws ReaderException, InterruptedException {
+        return await(async_reader::getBatteryLevel, AbstractReaderListener.GET_BATTERY_LEVEL_COMMAND, wait_time);
+    }
+
+    /**
+     * Get the reader device battery status.
+     *
+     * @param wait_time the answer wait time (ms)
+     * @return the battery status
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public int getBatteryStatus(long wait_time) throws ReaderException, InterruptedException {
+        return await(async_reader::getBatteryStatus, AbstractReaderListener.GET_BATTERY_STATUS_COMMAND, wait_time);
+    }
+
+    /**
+     * Get the reader device firmware version.
+     *
+     * @param wait_time the answer wait time (ms)
+     * @return the firmware version
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public AsyncPassiveReader.Version getFirmwareVersion(long wait_time) throws ReaderException, InterruptedException {
+        return await(async_reader::getFirmwareVersion,
+                AbstractReaderListener.GET_FIRMWARE_VERSION_COMMAND, wait_time);
+    }
+
+    /**
+     * Get the reader device BLE firmware version.
+     *
+     * @param wait_time the answer wait time (ms)
+     * @return the BLE firmware version
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public AsyncPassiveReader.Version getBLEfirmwareVersion(long wait_time)
+            throws ReaderException, InterruptedException {
+        return await(async_reader::getBLEfirmwareVersion,
+                AbstractReaderListener.GET_BLE_FIRMWARE_VERSION_COMMAND, wait_time);
+    }
+
+    /**
+     * Get the reader device BLE advertising power.
+     *
+     * @param wait_time the answer wait time (ms)
+     * @return the BLE power
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public int getBLEpower(long wait_time) throws ReaderException, InterruptedException {
+        return await(async_reader::getBLEpower, AbstractReaderListener.GET_BLE_POWER_COMMAND, wait_time);
+    }
+
+    /**
+     * Get the reader device EPC frequency.
+     *
+     * @param wait_time the answer wait time (ms)
+     * @return the EPC frequency
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public int getEPCfrequency(long wait_time) throws ReaderException, InterruptedException {
+        return await(async_reader::getEPCfrequency, AbstractReaderListener.GET_EPC_FREQUENCY_COMMAND, wait_time);
+    }
+
+    /**
+     * Get the reader device MAC address.
+     *
+     * @param wait_time the answer wait time (ms)
+     * @return the MAC address
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public byte[] getMACaddress(long wait_time) throws ReaderException, InterruptedException {
+        return await(async_reader::getMACaddress, AbstractReaderListener.GET_MAC_ADDRESS_COMMAND, wait_time);
+    }
+
+    /**
+     * Get the reader device name.
+     *
+     * @param wait_time the answer wait time (ms)
+     * @return the device name
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public String getName(long wait_time) throws ReaderException, InterruptedException {
+        return await(async_reader::getName, AbstractReaderListener.GET_DEVICE_NAME_COMMAND, wait_time);
+    }
+
+    /**
+     * Get the reader device BLE security level.
+     *
+     * @param wait_time the answer wait time (ms)
+     * @return the security level
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public int getSecurityLevel(long wait_time) throws ReaderException, InterruptedException {
+        return await(async_reader::getSecurityLevel, AbstractReaderListener.GET_SECURITY_LEVEL_COMMAND, wait_time);
+    }
+
+    /**
+     * Get the reader device shutdown time.
+     *
+     * @param wait_time the answer wait time (ms)
+     * @return the shutdown time (s)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public int getShutdownTime(long wait_time) throws ReaderException, InterruptedException {
+        return await(async_reader::getShutdownTime, AbstractReaderListener.GET_SHUTDOWN_TIME_COMMAND, wait_time);
+    }
+
+    /**
+     * Read a reader device user memory block.
+     *
+     * @param block     the block number
+     * @param wait_time the answer wait time (ms)
+     * @return the block data
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public byte[] readUserMemory(int block, long wait_time) throws ReaderException, InterruptedException {
+        return await(() -> async_reader.readUserMemory(block),
+                AbstractReaderListener.READ_USER_MEMORY_COMMAND, wait_time);
+    }
+
+    /**
+     * Write a reader device user memory block.
+     *
+     * @param block     the block number
+     * @param data      the block data
+     * @param wait_time the answer wait time (ms)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void writeUserMemory(int block, byte[] data, long wait_time) throws ReaderException, InterruptedException {
+        await(() -> async_reader.writeUserMemory(block, data),
+                AbstractReaderListener.WRITE_USER_MEMORY_COMMAND, wait_time);
+    }
+
+    /**
+     * Drive the reader device LED.
+     *
+     * @param led_status   the LED status
+     * @param led_blinking the LED blinking time
+     * @param wait_time    the answer wait time (ms)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     * @see PassiveReader#light(boolean, int)
+     */
+    public void light(boolean led_status, int led_blinking, long wait_time)
+            throws ReaderException, InterruptedException {
+        await(() -> async_reader.light(led_status, led_blinking), AbstractReaderListener.LIGHT_COMMAND, wait_time);
+    }
+
+    /**
+     * Drive the reader device beeper.
+     *
+     * @param frequency  the sound frequency
+     * @param step       the sound frequency step
+     * @param duration   the sound duration
+     * @param interval   the sound interval
+     * @param repetition the sound repetitions
+     * @param wait_time  the answer wait time (ms)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     * @see PassiveReader#sound(int, int, int, int, int)
+     */
+    public void sound(int frequency, int step, int duration, int interval, int repetition, long wait_time)
+            throws ReaderException, InterruptedException {
+        await(() -> async_reader.sound(frequency, step, duration, interval, repetition),
+                AbstractReaderListener.SOUND_COMMAND, wait_time);
+    }
+
+    /**
+     * Set the reader device EPC frequency.
+     *
+     * @param frequency the EPC frequency
+     * @param wait_time the answer wait time (ms)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void setEPCfrequency(int frequency, long wait_time) throws ReaderException, InterruptedException {
+        await(() -> async_reader.setEPCfrequency(frequency),
+                AbstractReaderListener.SET_EPC_FREQUENCY_COMMAND, wait_time);
+    }
+
+    /**
+     * Set the reader device inventory mode.
+     *
+     * @param mode      the inventory mode
+     * @param wait_time the answer wait time (ms)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void setInventoryMode(int mode, long wait_time) throws ReaderException, InterruptedException {
+        await(() -> async_reader.setInventoryMode(mode), AbstractReaderListener.SET_INVENTORY_MODE_COMMAND, wait_time);
+    }
+
+    /**
+     * Set the reader device inventory parameters.
+     *
+     * @param feedback  the inventory feedback
+     * @param timeout   the inventory timeout (ms)
+     * @param interval  the inventory interval (ms)
+     * @param wait_time the answer wait time (ms)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void setInventoryParameters(int feedback, int timeout, int interval, long wait_time)
+            throws ReaderException, InterruptedException {
+        await(() -> async_reader.setInventoryParameters(feedback, timeout, interval),
+                AbstractReaderListener.SET_INVENTORY_PARAMETERS_COMMAND, wait_time);
+    }
+
+    /**
+     * Set the reader device inventory standard.
+     *
+     * @param standard  the inventory standard
+     * @param wait_time the answer wait time (ms)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void setInventoryType(int standard, long wait_time) throws ReaderException, InterruptedException {
+        await(() -> async_reader.setInventoryType(standard),
+                AbstractReaderListener.SET_INVENTORY_TYPE_COMMAND, wait_time);
+    }
+
+    /**
+     * Set the reader device RF power.
+     *
+     * @param level     the RF power level
+     * @param mode      the RF power mode
+     * @param wait_time the answer wait time (ms)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void setRFpower(int level, int mode, long wait_time) throws ReaderException, InterruptedException {
+        await(() -> async_reader.setRFpower(level, mode), AbstractReaderListener.SET_RF_POWER_COMMAND, wait_time);
+    }
+
+    /**
+     * Set the reader device shutdown time.
+     *
+     * @param time      the shutdown time (s)
+     * @param wait_time the answer wait time (ms)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void setShutdownTime(int time, long wait_time) throws ReaderException, InterruptedException {
+        await(() -> async_reader.setShutdownTime(time), AbstractReaderListener.SET_SHUTDOWN_TIME_COMMAND, wait_time);
+    }
+
+    /**
+     * Send an ISO15693 tunnel command.
+     *
+     * @param command   the command to send to the tag
+     * @param wait_time the answer wait time (ms)
+     * @return the tunnel answer
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public byte[] ISO15693tunnel(byte[] command, long wait_time) throws ReaderException, InterruptedException {
+        return await(() -> async_reader.ISO15693tunnel(command),
+                AbstractReaderListener.ISO15693_TUNNEL_COMMAND, wait_time);
+    }
+
+    /**
+     * Read EPC tag memory.
+     *
+     * @param tag       the tag
+     * @param address   the first block address
+     * @param blocks    the number of blocks
+     * @param wait_time the answer wait time (ms)
+     * @return the read data
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public byte[] read(EPC_tag tag, int address, int blocks, long wait_time)
+            throws ReaderException, InterruptedException {
+        return await(() -> async_reader.read(tag, address, blocks), AbstractResponseListener.READ_COMMAND, wait_time);
+    }
+
+    /**
+     * Read ISO15693 tag memory.
+     *
+     * @param tag       the tag
+     * @param address   the first block address
+     * @param blocks    the number of blocks
+     * @param wait_time the answer wait time (ms)
+     * @return the read data
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public byte[] read(ISO15693_tag tag, int address, int blocks, long wait_time)
+            throws ReaderException, InterruptedException {
+        return await(() -> async_reader.read(tag, address, blocks), AbstractResponseListener.READ_COMMAND, wait_time);
+    }
+
+    /**
+     * Read EPC tag TID.
+     *
+     * @param tag       the tag
+     * @param length    the TID length
+     * @param password  the access password (may be null)
+     * @param wait_time the answer wait time (ms)
+     * @return the TID
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public byte[] readTID(EPC_tag tag, int length, byte[] password, long wait_time)
+            throws ReaderException, InterruptedException {
+        return await(() -> async_reader.readTID(tag, length, password),
+                AbstractResponseListener.READ_TID_COMMAND, wait_time);
+    }
+
+    /**
+     * Write EPC tag memory.
+     *
+     * @param tag       the tag
+     * @param address   the first block address
+     * @param data      the data to write
+     * @param password  the access password (may be null)
+     * @param wait_time the answer wait time (ms)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void write(EPC_tag tag, int address, byte[] data, byte[] password, long wait_time)
+            throws ReaderException, InterruptedException {
+        await(() -> async_reader.write(tag, address, data, password),
+                AbstractResponseListener.WRITE_COMMAND, wait_time);
+    }
+
+    /**
+     * Write ISO15693 tag memory.
+     *
+     * @param tag       the tag
+     * @param address   the first block address
+     * @param data      the data to write
+     * @param wait_time the answer wait time (ms)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void write(ISO15693_tag tag, int address, byte[] data, long wait_time)
+            throws ReaderException, InterruptedException {
+        await(() -> async_reader.write(tag, address, data), AbstractResponseListener.WRITE_COMMAND, wait_time);
+    }
+
+    /**
+     * Write EPC tag ID.
+     *
+     * @param tag       the tag
+     * @param ID        the new tag ID
+     * @param NSI       the numbering system identifier
+     * @param wait_time the answer wait time (ms)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void writeID(EPC_tag tag, byte[] ID, short NSI, long wait_time)
+            throws ReaderException, InterruptedException {
+        await(() -> async_reader.writeID(tag, ID, NSI), AbstractResponseListener.WRITEID_COMMAND, wait_time);
+    }
+
+    /**
+     * Lock EPC tag memory.
+     *
+     * @param tag       the tag
+     * @param lock_type the lock type
+     * @param password  the access password (may be null)
+     * @param wait_time the answer wait time (ms)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void lock(EPC_tag tag, int lock_type, byte[] password, long wait_time)
+            throws ReaderException, InterruptedException {
+        await(() -> async_reader.lock(tag, lock_type, password), AbstractResponseListener.LOCK_COMMAND, wait_time);
+    }
+
+    /**
+     * Lock ISO15693 tag memory.
+     *
+     * @param tag       the tag
+     * @param address   the first block address
+     * @param blocks    the number of blocks
+     * @param wait_time the answer wait time (ms)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void lock(ISO15693_tag tag, int address, int blocks, long wait_time)
+            throws ReaderException, InterruptedException {
+        await(() -> async_reader.lock(tag, address, blocks), AbstractResponseListener.LOCK_COMMAND, wait_time);
+    }
+
+    /**
+     * Kill EPC tag.
+     *
+     * @param tag       the tag
+     * @param password  the kill password
+     * @param wait_time the answer wait time (ms)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void kill(EPC_tag tag, byte[] password, long wait_time) throws ReaderException, InterruptedException {
+        await(() -> async_reader.kill(tag, password), AbstractResponseListener.KILL_COMMAND, wait_time);
+    }
+
+    /**
+     * Write EPC tag kill password.
+     *
+     * @param tag           the tag
+     * @param kill_password the new kill password
+     * @param password      the access password (may be null)
+     * @param wait_time     the answer wait time (ms)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void writeKillPassword(EPC_tag tag, byte[] kill_password, byte[] password, long wait_time)
+            throws ReaderException, InterruptedException {
+        await(() -> async_reader.writeKillPassword(tag, kill_password, password),
+                AbstractResponseListener.WRITEKILLPASSWORD_COMMAND, wait_time);
+    }
+
+    /**
+     * Write EPC tag access password.
+     *
+     * @param tag             the tag
+     * @param access_password the new access password
+     * @param password        the current access password (may be null)
+     * @param wait_time       the answer wait time (ms)
+     * @throws ReaderException      if the command fails or its answer is not received in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void writeAccessPassword(EPC_tag tag, byte[] access_password, byte[] password, long wait_time)
+            throws ReaderException, InterruptedException {
+        await(() -> async_reader.writeAccessPassword(tag, access_password, password),
+                AbstractResponseListener.WRITEACCESSPASSWORD_COMMAND, wait_time);
+    }
+
+    private <T> T await(Supplier<CompletableFuture<T>> call, int command, long wait_time)
+            throws ReaderException, InterruptedException {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            throw new IllegalStateException("synchronous reader commands cannot be issued on the main thread");
+        }
+        long start = System.nanoTime();
+        CommandHandle handle = new CommandHandle();
+        CompletableFuture<T> future = async_reader.execute(handle, call);
+        try {
+            return future.get(wait_time, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ReaderException) {
+                throw (ReaderException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // the command is dropped if still queued, and its late answer discarded
+            handle.cancel();
+            throw new ReaderException(command, AbstractReaderListener.READER_DRIVER_COMMAND_ANSWER_TIMEOUT_ERROR);
+        } catch (InterruptedException e) {
+            handle.cancel();
+            throw e;
+        } finally {
+            latency.record(System.nanoTime() - start);
+        }
+    }
+}
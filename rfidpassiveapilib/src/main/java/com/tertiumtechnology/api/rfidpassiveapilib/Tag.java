@@ -24,6 +24,8 @@
 
 package com.tertiumtechnology.api.rfidpassiveapilib;
 
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.FrameCodec;
+
 /**
  * Represents a single tag with its ID.
  * <p>
@@ -35,6 +37,7 @@ public abstract class Tag {
     protected final PassiveReader passive_reader;
     protected boolean reverseID;
     protected int timeout;
+    private volatile AddressingPrefix addressing_prefix;
 
     /**
      * Class constructor
@@ -93,7 +96,48 @@ public abstract class Tag {
         this.reverseID = reverseID;
     }
 
+    /**
+     * Get the tag address sent with every tag command, encoded by the reader
+     * frame codec.
+     * <p>
+     * The address is encoded on first use and then reused by all the
+     * following commands addressed to the tag, until the reader codec
+     * changes. The encoded address and its codec are published together, so
+     * a tag may be addressed by commands issued from different threads.
+     *
+     * @return the encoded tag address
+     */
+    protected char[] getAddressingPrefix() {
+        FrameCodec codec = passive_reader.getFrameCodec();
+        AddressingPrefix prefix = addressing_prefix;
+        if (prefix == null || prefix.codec != codec) {
+            prefix = new AddressingPrefix(codec, encodeAddress(codec));
+            addressing_prefix = prefix;
+        }
+        return prefix.address;
+    }
+
+    /**
+     * Encode the tag address (the tag ID by default).
+     *
+     * @param codec the reader frame codec
+     * @return the encoded tag address
+     */
+    protected char[] encodeAddress(FrameCodec codec) {
+        return codec.encodeAddress(ID, 0, ID.length);
+    }
+
     protected String byteToHex(byte val) {
         return String.format("%02X", val);
     }
+
+    private static final class AddressingPrefix {
+        private final FrameCodec codec;
+        private final char[] address;
+
+        private AddressingPrefix(FrameCodec codec, char[] address) {
+            this.codec = codec;
+            this.address = address;
+        }
+    }
 }
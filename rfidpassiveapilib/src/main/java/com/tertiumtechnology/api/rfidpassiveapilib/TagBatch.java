@@ -0,0 +1,514 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractResponseListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Batch of tag operations executed as a single transaction.
+ * <p>
+ * Operations on any number of tags are collected in order and then streamed
+ * to the reader back to back by {@link #execute()}: a few operations are
+ * kept queued in the reader while the previous ones are in flight, so the
+ * next command is sent as soon as an answer is received. The batch result is
+ * a single {@link Report} with the return code and the timing of every
+ * operation:
+ * <pre>
+ * new TagBatch(async_reader)
+ *         .writeID(tag, ID, NSI)
+ *         .writeAccessPassword(tag, access_password, null)
+ *         .lock(tag, EPC_tag.MEMORY_PASSWORD_WRITABLE, access_password)
+ *         .execute()
+ *         .thenAccept(report -&gt; ...);
+ * </pre>
+ * A batch can be executed more than once; every execution has its own report.
+ */
+public final class TagBatch {
+    /**
+     * Error policy executing all the operations whatever their result.
+     */
+    public static final int CONTINUE_ON_ERROR = 0;
+    /**
+     * Error policy skipping the operations following the first failed one.
+     * <p>
+     * The operations are issued one at a time, so that no operation following
+     * a failed one is ever sent to the reader.
+     */
+    public static final int STOP_ON_ERROR = 1;
+
+    /**
+     * Return code of an operation not executed because a previous one failed.
+     */
+    public static final int NOT_EXECUTED = -1;
+
+    /**
+     * Default number of operations issued and not completed yet.
+     */
+    public static final int DEFAULT_MAX_OUTSTANDING = 4;
+
+    /**
+     * Single operation of an executed batch.
+     */
+    public static final class Operation {
+        private final int command;
+        private final Tag tag;
+        private final Supplier<CompletableFuture<?>> call;
+        private int error = NOT_EXECUTED;
+        private byte[] data;
+        private long start_time;
+        private long end_time;
+
+        private Operation(int command, Tag tag, Supplier<CompletableFuture<?>> call) {
+            this.command = command;
+            this.tag = tag;
+            this.call = call;
+        }
+
+        private Operation(Operation operation) {
+            this(operation.command, operation.tag, operation.call);
+        }
+
+        /**
+         * Get the operation command code.
+         *
+         * @return the command code (e.g. {@link AbstractResponseListener#WRITEID_COMMAND})
+         */
+        public int getCommand() {
+            return command;
+        }
+
+        /**
+         * Get the operation tag.
+         *
+         * @return the tag
+         */
+        public Tag getTag() {
+            return tag;
+        }
+
+        /**
+         * Get the operation return code.
+         *
+         * @return {@code NO_ERROR}, the error code notified to the response listener, or {@link #NOT_EXECUTED}
+         */
+        public int getError() {
+            return error;
+        }
+
+        /**
+         * Get the data read by a read or read TID operation.
+         *
+         * @return the read data (null for other operations or on error)
+         */
+        public byte[] getData() {
+            return data;
+        }
+
+        /**
+         * Get the time from the operation issue to its answer.
+         *
+         * @return the operation latency (ns), 0 if the operation has not been executed
+         */
+        public long getLatency() {
+            return end_time - start_time;
+        }
+    }
+
+    /**
+     * Aggregated result of a batch execution.
+     */
+    public static final class Report {
+        private final List<Operation> operations;
+        private final long elapsed_time;
+        private final long idle_time;
+        private final int errors;
+        private final int not_executed;
+
+        private Report(List<Operation> operations, long elapsed_time, long idle_time) {
+            int errors = 0;
+            int not_executed = 0;
+
+            for (Operation operation : operations) {
+                if (operation.error == NOT_EXECUTED) {
+                    not_executed++;
+                }
+                else if (operation.error != AbstractResponseListener.NO_ERROR) {
+                    errors++;
+                }
+            }
+            this.operations = Collections.unmodifiableList(operations);
+            this.elapsed_time = elapsed_time;
+            this.idle_time = idle_time;
+            this.errors = errors;
+            this.not_executed = not_executed;
+        }
+
+        /**
+         * Get the operations, in the order they were added to the batch.
+         *
+         * @return the operations
+         */
+        public List<Operation> getOperations() {
+            return operations;
+        }
+
+        /**
+         * Check if all the operations have been executed without error.
+         *
+         * @return true if the batch succeeded
+         */
+        public boolean isSuccessful() {
+            return errors == 0 && not_executed == 0;
+        }
+
+        /**
+         * Get the number of failed operations.
+         *
+         * @return the failed operations count
+         */
+        public int getErrorCount() {
+            return errors;
+        }
+
+        /**
+         * Get the number of operations not executed because a previous one failed.
+         *
+         * @return the not executed operations count
+         */
+        public int getNotExecutedCount() {
+            return not_executed;
+        }
+
+        /**
+         * Get the time from the batch execution start to the last answer.
+         *
+         * @return the batch execution time (ns)
+         */
+        public long getElapsedTime() {
+            return elapsed_time;
+        }
+
+        /**
+         * Get the total time with no operation in flight, i.e. the time lost
+         * between an answer and the next command.
+         *
+         * @return the batch idle time (ns)
+         */
+        public long getIdleTime() {
+            return idle_time;
+        }
+    }
+
+    private final AsyncPassiveReader async_reader;
+    private final List<Operation> operations = new ArrayList<>();
+    private int error_policy = CONTINUE_ON_ERROR;
+    private int max_outstanding = DEFAULT_MAX_OUTSTANDING;
+
+    /**
+     * Class constructor.
+     *
+     * @param async_reader the asynchronous reader executing the operations
+     */
+    public TagBatch(AsyncPassiveReader async_reader) {
+        this.async_reader = async_reader;
+    }
+
+    /**
+     * Set the error policy.
+     *
+     * @param error_policy {@link #CONTINUE_ON_ERROR} or {@link #STOP_ON_ERROR}
+     * @return this batch
+     */
+    public TagBatch setErrorPolicy(int error_policy) {
+        if (error_policy != CONTINUE_ON_ERROR && error_policy != STOP_ON_ERROR) {
+            throw new IllegalArgumentException("invalid error policy " + error_policy);
+        }
+        this.error_policy = error_policy;
+        return this;
+    }
+
+    /**
+     * Set the number of operations issued and not completed yet.
+     * <p>
+     * Operations exceeding the reader pipeline window wait in the reader
+     * command queue, ready to be sent as soon as an answer is received; the
+     * value should not exceed the command queue depth (see {@link
+     * AsyncPassiveReader#DEFAULT_COMMAND_QUEUE_DEPTH}). The value is ignored
+     * with {@link #STOP_ON_ERROR} policy, which issues one operation at a time.
+     *
+     * @param max_outstanding the number of outstanding operations (at least 1)
+     * @return this batch
+     */
+    public TagBatch setMaxOutstanding(int max_outstanding) {
+        if (max_outstanding < 1) {
+            throw new IllegalArgumentException("invalid outstanding operations number " + max_outstanding);
+        }
+        this.max_outstanding = max_outstanding;
+        return this;
+    }
+
+    /**
+     * Get the number of operations in the batch.
+     *
+     * @return the operations count
+     */
+    public int size() {
+        return operations.size();
+    }
+
+    /**
+     * Add an EPC tag memory read operation.
+     *
+     * @param tag     the tag
+     * @param address the first block address
+     * @param blocks  the number of blocks
+     * @return this batch
+     */
+    public TagBatch read(EPC_tag tag, int address, int blocks) {
+        return add(AbstractResponseListener.READ_COMMAND, tag, () -> async_reader.read(tag, address, blocks));
+    }
+
+    /**
+     * Add an ISO15693 tag memory read operation.
+     *
+     * @param tag     the tag
+     * @param address the first block address
+     * @param blocks  the number of blocks
+     * @return this batch
+     */
+    public TagBatch read(ISO15693_tag tag, int address, int blocks) {
+        return add(AbstractResponseListener.READ_COMMAND, tag, () -> async_reader.read(tag, address, blocks));
+    }
+
+    /**
+     * Add an EPC tag TID read operation.
+     *
+     * @param tag      the tag
+     * @param length   the TID length
+     * @param password the access password (may be null)
+     * @return this batch
+     */
+    public TagBatch readTID(EPC_tag tag, int length, byte[] password) {
+        return add(AbstractResponseListener.READ_TID_COMMAND, tag, () -> async_reader.readTID(tag, length, password));
+    }
+
+    /**
+     * Add an EPC tag memory write operation.
+     *
+     * @param tag      the tag
+     * @param address  the first block address
+     * @param data     the data to write
+     * @param password the access password (may be null)
+     * @return this batch
+     */
+    public TagBatch write(EPC_tag tag, int address, byte[] data, byte[] password) {
+        return add(AbstractResponseListener.WRITE_COMMAND, tag,
+                () -> async_reader.write(tag, address, data, password));
+    }
+
+    /**
+     * Add an ISO15693 tag memory write operation.
+     *
+     * @param tag     the tag
+     * @param address the first block address
+     * @param data    the data to write
+     * @return this batch
+     */
+    public TagBatch write(ISO15693_tag tag, int address, byte[] data) {
+        return add(AbstractResponseListener.WRITE_COMMAND, tag, () -> async_reader.write(tag, address, data));
+    }
+
+    /**
+     * Add an EPC tag ID write operation.
+     *
+     * @param tag the tag
+     * @param ID  the new tag ID
+     * @param NSI the numbering system identifier
+     * @return this batch
+     */
+    public TagBatch writeID(EPC_tag tag, byte[] ID, short NSI) {
+        return add(AbstractResponseListener.WRITEID_COMMAND, tag, () -> async_reader.writeID(tag, ID, NSI));
+    }
+
+    /**
+     * Add an EPC tag lock operation.
+     *
+     * @param tag       the tag
+     * @param lock_type the lock type
+     * @param password  the access password (may be null)
+     * @return this batch
+     */
+    public TagBatch lock(EPC_tag tag, int lock_type, byte[] password) {
+        return add(AbstractResponseListener.LOCK_COMMAND, tag, () -> async_reader.lock(tag, lock_type, password));
+    }
+
+    /**
+     * Add an ISO15693 tag lock operation.
+     *
+     * @param tag     the tag
+     * @param address the first block address
+     * @param blocks  the number of blocks
+     * @return this batch
+     */
+    public TagBatch lock(ISO15693_tag tag, int address, int blocks) {
+        return add(AbstractResponseListener.LOCK_COMMAND, tag, () -> async_reader.lock(tag, address, blocks));
+    }
+
+    /**
+     * Add an EPC tag kill operation.
+     *
+     * @param tag      the tag
+     * @param password the kill password
+     * @return this batch
+     */
+    public TagBatch kill(EPC_tag tag, byte[] password) {
+        return add(AbstractResponseListener.KILL_COMMAND, tag, () -> async_reader.kill(tag, password));
+    }
+
+    /**
+     * Add an EPC tag kill password write operation.
+     *
+     * @param tag           the tag
+     * @param kill_password the new kill password
+     * @param password      the access password (may be null)
+     * @return this batch
+     */
+    public TagBatch writeKillPassword(EPC_tag tag, byte[] kill_password, byte[] password) {
+        return add(AbstractResponseListener.WRITEKILLPASSWORD_COMMAND, tag,
+                () -> async_reader.writeKillPassword(tag, kill_password, password));
+    }
+
+    /**
+     * Add an EPC tag access password write operation.
+     *
+     * @param tag             the tag
+     * @param access_password the new access password
+     * @param password        the current access password (may be null)
+     * @return this batch
+     */
+    public TagBatch writeAccessPassword(EPC_tag tag, byte[] access_password, byte[] password) {
+        return add(AbstractResponseListener.WRITEACCESSPASSWORD_COMMAND, tag,
+                () -> async_reader.writeAccessPassword(tag, access_password, password));
+    }
+
+    /**
+     * Execute the batch operations.
+     *
+     * @return the future completed with the batch report when all the operations have been executed or skipped
+     */
+    public CompletableFuture<Report> execute() {
+        List<Operation> copy = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            copy.add(new Operation(operation));
+        }
+        Execution execution = new Execution(copy, error_policy, max_outstanding);
+        execution.issue();
+        return execution.report;
+    }
+
+    private TagBatch add(int command, Tag tag, Supplier<CompletableFuture<?>> call) {
+        operations.add(new Operation(command, tag, call));
+        return this;
+    }
+
+    private static final class Execution {
+        private final CompletableFuture<Report> report = new CompletableFuture<>();
+        private final List<Operation> operations;
+        private final int error_policy;
+        private final int max_outstanding;
+        private final long start_time = System.nanoTime();
+        private int next;
+        private int outstanding;
+        private boolean failed;
+        private long idle_start = start_time;
+        private long idle_time;
+
+        private Execution(List<Operation> operations, int error_policy, int max_outstanding) {
+            this.operations = operations;
+            this.error_policy = error_policy;
+            // an operation queued behind a failing one would be sent before the failure is known
+            this.max_outstanding = error_policy == STOP_ON_ERROR ? 1 : max_outstanding;
+        }
+
+        private void issue() {
+            while (true) {
+                Operation operation;
+
+                synchronized (this) {
+                    if (failed && error_policy == STOP_ON_ERROR) {
+                        next = operations.size();
+                    }
+                    if (next == operations.size() || outstanding == max_outstanding) {
+                        if (next == operations.size() && outstanding == 0 && !report.isDone()) {
+                            long end_time = System.nanoTime();
+                            report.complete(new Report(operations, end_time - start_time,
+                                    idle_time + end_time - idle_start));
+                        }
+                        return;
+                    }
+                    operation = operations.get(next++);
+                    operation.start_time = System.nanoTime();
+                    if (outstanding++ == 0) {
+                        idle_time += operation.start_time - idle_start;
+                    }
+                }
+                // errors detected on call complete the future (and re-enter issue) before returning
+                operation.call.get().whenComplete((result, exception) -> complete(operation, result, exception));
+            }
+        }
+
+        private void complete(Operation operation, Object result, Throwable exception) {
+            synchronized (this) {
+                operation.end_time = System.nanoTime();
+                if (exception == null) {
+                    operation.error = AbstractResponseListener.NO_ERROR;
+                    if (result instanceof byte[]) {
+                        operation.data = (byte[]) result;
+                    }
+                }
+                else {
+                    if (exception instanceof CompletionException && exception.getCause() != null) {
+                        exception = exception.getCause();
+                    }
+                    operation.error = exception instanceof ReaderException ?
+                            ((ReaderException) exception).getError() :
+                            AbstractResponseListener.READER_DRIVER_WRONG_STATUS_ERROR;
+                    failed = true;
+                }
+                if (--outstanding == 0) {
+                    idle_start = operation.end_time;
+                }
+            }
+            issue();
+        }
+    }
+}
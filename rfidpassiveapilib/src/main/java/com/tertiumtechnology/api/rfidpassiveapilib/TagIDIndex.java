@@ -0,0 +1,211 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing index of tag IDs.
+ * <p>
+ * The IDs are packed in a single byte array and indexed by their 64-bit
+ * FNV-1a hash, so finding an already indexed ID allocates nothing. IDs are
+ * never removed: their indexes (insertion order) are stable until the index
+ * is cleared. Not thread-safe.
+ */
+final class TagIDIndex {
+    private static final int ID_BYTES_HINT = 12;
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private int[] slots;
+    private long[] hashes;
+    private byte[] IDs;
+    private int IDs_size;
+    private int[] ID_offsets;
+    private byte[] ID_lengths;
+    private int count;
+
+    /**
+     * Create an empty index.
+     *
+     * @param capacity the number of IDs the index holds before growing (at least 1)
+     */
+    TagIDIndex(int capacity) {
+        slots = slots(capacity);
+        hashes = new long[capacity];
+        IDs = new byte[ID_BYTES_HINT * capacity];
+        ID_offsets = new int[capacity];
+        ID_lengths = new byte[capacity];
+    }
+
+    /**
+     * Copy an index.
+     *
+     * @param index    the index to copy
+     * @param capacity the copy capacity, not lower than the number of IDs (at least 1)
+     */
+    TagIDIndex(TagIDIndex index, int capacity) {
+        count = index.count;
+        IDs_size = index.IDs_size;
+        hashes = Arrays.copyOf(index.hashes, capacity);
+        IDs = Arrays.copyOf(index.IDs, Math.max(IDs_size, 1));
+        ID_offsets = Arrays.copyOf(index.ID_offsets, capacity);
+        ID_lengths = Arrays.copyOf(index.ID_lengths, capacity);
+        rehash(capacity);
+    }
+
+    /**
+     * Hash an ID.
+     *
+     * @param ID     the array holding the ID
+     * @param offset the index of the first ID byte
+     * @param length the number of ID bytes
+     * @return the ID hash
+     */
+    static long hash(byte[] ID, int offset, int length) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int n = offset; n < offset + length; n++) {
+            hash = (hash ^ (ID[n] & 0xFF)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Find an ID.
+     *
+     * @param hash   the ID hash
+     * @param ID     the array holding the ID
+     * @param offset the index of the first ID byte
+     * @param length the number of ID bytes
+     * @return the ID index, -1 if the ID is not indexed
+     */
+    int find(long hash, byte[] ID, int offset, int length) {
+        int mask = slots.length - 1;
+        for (int slot = (int) (hash ^ (hash >>> 32)) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int index = slots[slot] - 1;
+            if (hashes[index] == hash && (ID_lengths[index] & 0xFF) == length) {
+                int stored = ID_offsets[index];
+                int n = 0;
+                while (n < length && IDs[stored + n] == ID[offset + n]) {
+                    n++;
+                }
+                if (n == length) {
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Add an ID not indexed yet.
+     *
+     * @param hash   the ID hash
+     * @param ID     the array holding the ID
+     * @param offset the index of the first ID byte
+     * @param length the number of ID bytes (at most 255)
+     * @return the new ID index
+     */
+    int add(long hash, byte[] ID, int offset, int length) {
+        if (count == hashes.length) {
+            grow();
+        }
+        if (IDs_size + length > IDs.length) {
+            IDs = Arrays.copyOf(IDs, Math.max(2 * IDs.length, IDs_size + length));
+        }
+        System.arraycopy(ID, offset, IDs, IDs_size, length);
+        int index = count++;
+        hashes[index] = hash;
+        ID_offsets[index] = IDs_size;
+        ID_lengths[index] = (byte) length;
+        IDs_size += length;
+        insert(index);
+        return index;
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * Get the number of IDs the index holds before growing.
+     *
+     * @return the index capacity
+     */
+    int capacity() {
+        return hashes.length;
+    }
+
+    byte[] getID(int index) {
+        return Arrays.copyOfRange(IDs, ID_offsets[index], ID_offsets[index] + (ID_lengths[index] & 0xFF));
+    }
+
+    byte getIDbyte(int index, int byte_index) {
+        return IDs[ID_offsets[index] + byte_index];
+    }
+
+    int getIDlength(int index) {
+        return ID_lengths[index] & 0xFF;
+    }
+
+    /**
+     * Remove all the IDs, keeping the current capacity.
+     */
+    void clear() {
+        Arrays.fill(slots, 0);
+        count = 0;
+        IDs_size = 0;
+    }
+
+    private void insert(int index) {
+        int mask = slots.length - 1;
+        long hash = hashes[index];
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = index + 1;
+    }
+
+    private static int[] slots(int capacity) {
+        // power of two, at most half full
+        return new int[Integer.highestOneBit(2 * capacity - 1) << 1];
+    }
+
+    private void grow() {
+        int capacity = 2 * hashes.length;
+        hashes = Arrays.copyOf(hashes, capacity);
+        ID_offsets = Arrays.copyOf(ID_offsets, capacity);
+        ID_lengths = Arrays.copyOf(ID_lengths, capacity);
+        rehash(capacity);
+    }
+
+    private void rehash(int capacity) {
+        slots = slots(capacity);
+        for (int index = 0; index < count; index++) {
+            insert(index);
+        }
+    }
+}
@@ -0,0 +1,379 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.InventoryLine;
+
+import java.util.Arrays;
+
+/**
+ * Compact columnar store of inventoried tags.
+ * <p>
+ * Every stored tag keeps its ID, standard and last PC, its first and last
+ * read time, its read count and its minimum, maximum and mean RSSI. The tag
+ * IDs are packed in a single byte array, indexed by a 64-bit hash of the ID
+ * bytes in an open addressing table, and the other fields are kept in
+ * parallel primitive arrays: a store of 100k tags takes a few megabytes, and
+ * updating an already stored tag allocates nothing. Tags are never removed,
+ * so their indexes (insertion order) are stable and the store can be
+ * iterated in bulk:
+ * <pre>
+ * TagStore store = new TagStore(100000);
+ * int index = store.update(tag_view);
+ * if (store.getReadCount(index) == 1) {
+ *     ... first read of the tag ...
+ * }
+ * ...
+ * for (int n = 0; n &lt; store.size(); n++) {
+ *     ... store.getIDbyte(n, 0), store.getReadCount(n) ...
+ * }
+ * </pre>
+ * A {@code TagStore} is not thread-safe: concurrent updates and reads must
+ * be synchronized by the caller, or performed on a {@link #copy()}.
+ */
+public final class TagStore {
+    /**
+     * RSSI value of a tag read without RSSI.
+     */
+    public static final short NO_RSSI = -128;
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final TagIDIndex IDs;
+    private byte[] standards;
+    private short[] PCs;
+    private long[] first_seen;
+    private long[] last_seen;
+    private int[] read_counts;
+    private short[] min_RSSI;
+    private short[] max_RSSI;
+    private long[] RSSI_sums;
+    private int[] RSSI_counts;
+    private long reads;
+
+    /**
+     * Create an empty store.
+     */
+    public TagStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create an empty store sized for an expected number of tags.
+     * <p>
+     * The store grows past the expected size as needed; sizing it for the
+     * whole session avoids the copies made while growing.
+     *
+     * @param expected_size the expected number of tags
+     */
+    public TagStore(int expected_size) {
+        int capacity = Math.max(expected_size, DEFAULT_CAPACITY);
+        IDs = new TagIDIndex(capacity);
+        allocate(capacity);
+    }
+
+    private TagStore(TagStore store) {
+        int capacity = Math.max(store.size(), 1);
+        reads = store.reads;
+        IDs = new TagIDIndex(store.IDs, capacity);
+        standards = Arrays.copyOf(store.standards, capacity);
+        PCs = Arrays.copyOf(store.PCs, capacity);
+        first_seen = Arrays.copyOf(store.first_seen, capacity);
+        last_seen = Arrays.copyOf(store.last_seen, capacity);
+        read_counts = Arrays.copyOf(store.read_counts, capacity);
+        min_RSSI = Arrays.copyOf(store.min_RSSI, capacity);
+        max_RSSI = Arrays.copyOf(store.max_RSSI, capacity);
+        RSSI_sums = Arrays.copyOf(store.RSSI_sums, capacity);
+        RSSI_counts = Arrays.copyOf(store.RSSI_counts, capacity);
+    }
+
+    /**
+     * Record a read of the viewed tag, adding the tag if not stored yet.
+     *
+     * @param tag the view over the read tag
+     * @return the tag index (its read count is 1 if the tag has just been added)
+     */
+    public int update(TagView tag) {
+        InventoryLine line = tag.getLine();
+        int index = update(line.getBuffer(0), line.getIDoffset(), line.getIDlength(), tag.getStandard());
+        update(index, tag.getPC(), tag.getRSSI(), tag.hasRSSI());
+        return index;
+    }
+
+    /**
+     * Record a read of a tag, adding the tag if not stored yet.
+     *
+     * @param ID       the tag ID (EPC for UHF tags)
+     * @param standard the tag standard ({@link PassiveReader#EPC_STANDARD},
+     *                 {@link PassiveReader#ISO15693_STANDARD} or {@link PassiveReader#ISO14443A_STANDARD})
+     * @param PC       the tag PC, 0 if unknown
+     * @param RSSI     the tag RSSI, {@link #NO_RSSI} if unknown
+     * @return the tag index (its read count is 1 if the tag has just been added)
+     */
+    public int update(byte[] ID, int standard, short PC, short RSSI) {
+        int index = update(ID, 0, ID.length, standard);
+        update(index, PC, RSSI, RSSI != NO_RSSI);
+        return index;
+    }
+
+    /**
+     * Find a stored tag.
+     *
+     * @param ID the tag ID
+     * @return the tag index, -1 if the tag is not stored
+     */
+    public int indexOf(byte[] ID) {
+        return IDs.find(TagIDIndex.hash(ID, 0, ID.length), ID, 0, ID.length);
+    }
+
+    /**
+     * Get the number of stored tags.
+     *
+     * @return the tags count
+     */
+    public int size() {
+        return IDs.size();
+    }
+
+    /**
+     * Get the number of reads recorded for all the tags.
+     *
+     * @return the reads count
+     */
+    public long getReadCount() {
+        return reads;
+    }
+
+    /**
+     * Get a copy of a tag ID.
+     *
+     * @param index the tag index
+     * @return a new array holding the tag ID
+     */
+    public byte[] getID(int index) {
+        checkIndex(index);
+        return IDs.getID(index);
+    }
+
+    /**
+     * Get a single tag ID byte.
+     *
+     * @param index      the tag index
+     * @param byte_index the ID byte index
+     * @return the ID byte
+     */
+    public byte getIDbyte(int index, int byte_index) {
+        checkIndex(index);
+        return IDs.getIDbyte(index, byte_index);
+    }
+
+    /**
+     * Get a tag ID length.
+     *
+     * @param index the tag index
+     * @return the number of tag ID bytes
+     */
+    public int getIDlength(int index) {
+        checkIndex(index);
+        return IDs.getIDlength(index);
+    }
+
+    /**
+     * Get a tag standard.
+     *
+     * @param index the tag index
+     * @return the tag standard
+     */
+    public int getStandard(int index) {
+        checkIndex(index);
+        return standards[index];
+    }
+
+    /**
+     * Get a tag PC (Protocol Control) at its last read.
+     *
+     * @param index the tag index
+     * @return the tag Protocol Control, 0 if unknown
+     */
+    public short getPC(int index) {
+        checkIndex(index);
+        return PCs[index];
+    }
+
+    /**
+     * Get the time a tag was first read.
+     *
+     * @param index the tag index
+     * @return the first read time (ms since the epoch)
+     */
+    public long getFirstSeen(int index) {
+        checkIndex(index);
+        return first_seen[index];
+    }
+
+    /**
+     * Get the time a tag was last read.
+     *
+     * @param index the tag index
+     * @return the last read time (ms since the epoch)
+     */
+    public long getLastSeen(int index) {
+        checkIndex(index);
+        return last_seen[index];
+    }
+
+    /**
+     * Get the number of reads of a tag.
+     *
+     * @param index the tag index
+     * @return the read count
+     */
+    public int getReadCount(int index) {
+        checkIndex(index);
+        return read_counts[index];
+    }
+
+    /**
+     * Get the minimum RSSI of a tag.
+     *
+     * @param index the tag index
+     * @return the minimum RSSI (dBm), {@link #NO_RSSI} if no read had RSSI
+     */
+    public short getMinRSSI(int index) {
+        checkIndex(index);
+        return min_RSSI[index];
+    }
+
+    /**
+     * Get the maximum RSSI of a tag.
+     *
+     * @param index the tag index
+     * @return the maximum RSSI (dBm), {@link #NO_RSSI} if no read had RSSI
+     */
+    public short getMaxRSSI(int index) {
+        checkIndex(index);
+        return max_RSSI[index];
+    }
+
+    /**
+     * Get the mean RSSI of a tag.
+     *
+     * @param index the tag index
+     * @return the mean RSSI (dBm), {@link #NO_RSSI} if no read had RSSI
+     */
+    public float getMeanRSSI(int index) {
+        checkIndex(index);
+        return RSSI_counts[index] == 0 ? NO_RSSI : (float) RSSI_sums[index] / RSSI_counts[index];
+    }
+
+    /**
+     * Copy the store.
+     * <p>
+     * The copy is sized for the stored tags only, whatever the capacity of
+     * this store: it grows as needed if more tags are added to it.
+     *
+     * @return a new store holding the same tags and statistics
+     */
+    public TagStore copy() {
+        return new TagStore(this);
+    }
+
+    /**
+     * Remove all the tags.
+     * <p>
+     * The store keeps its current capacity.
+     */
+    public void clear() {
+        IDs.clear();
+        reads = 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= IDs.size()) {
+            throw new IndexOutOfBoundsException("Invalid tag index: " + index);
+        }
+    }
+
+    private int update(byte[] ID, int offset, int length, int standard) {
+        long hash = TagIDIndex.hash(ID, offset, length);
+        int index = IDs.find(hash, ID, offset, length);
+        if (index >= 0) {
+            return index;
+        }
+        index = IDs.add(hash, ID, offset, length);
+        if (IDs.capacity() > standards.length) {
+            grow(IDs.capacity());
+        }
+        standards[index] = (byte) standard;
+        first_seen[index] = System.currentTimeMillis();
+        read_counts[index] = 0;
+        min_RSSI[index] = NO_RSSI;
+        max_RSSI[index] = NO_RSSI;
+        RSSI_sums[index] = 0;
+        RSSI_counts[index] = 0;
+        return index;
+    }
+
+    private void update(int index, short PC, short RSSI, boolean with_RSSI) {
+        reads++;
+        read_counts[index]++;
+        last_seen[index] = System.currentTimeMillis();
+        PCs[index] = PC;
+        if (with_RSSI) {
+            if (RSSI_counts[index] == 0 || RSSI < min_RSSI[index]) {
+                min_RSSI[index] = RSSI;
+            }
+            if (RSSI_counts[index] == 0 || RSSI > max_RSSI[index]) {
+                max_RSSI[index] = RSSI;
+            }
+            RSSI_sums[index] += RSSI;
+            RSSI_counts[index]++;
+        }
+    }
+
+    private void allocate(int capacity) {
+        standards = new byte[capacity];
+        PCs = new short[capacity];
+        first_seen = new long[capacity];
+        last_seen = new long[capacity];
+        read_counts = new int[capacity];
+        min_RSSI = new short[capacity];
+        max_RSSI = new short[capacity];
+        RSSI_sums = new long[capacity];
+        RSSI_counts = new int[capacity];
+    }
+
+    private void grow(int capacity) {
+        standards = Arrays.copyOf(standards, capacity);
+        PCs = Arrays.copyOf(PCs, capacity);
+        first_seen = Arrays.copyOf(first_seen, capacity);
+        last_seen = Arrays.copyOf(last_seen, capacity);
+        read_counts = Arrays.copyOf(read_counts, capacity);
+        min_RSSI = Arrays.copyOf(min_RSSI, capacity);
+        max_RSSI = Arrays.copyOf(max_RSSI, capacity);
+        RSSI_sums = Arrays.copyOf(RSSI_sums, capacity);
+        RSSI_counts = Arrays.copyOf(RSSI_counts, capacity);
+    }
+}
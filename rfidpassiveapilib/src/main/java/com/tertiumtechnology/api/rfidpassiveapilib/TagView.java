@@ -0,0 +1,175 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.InventoryLine;
+
+/**
+ * Lightweight view over a tag discovered by an inventory operation.
+ * <p>
+ * A {@code TagView} exposes the decoded tag line (ID, PC, RSSI and
+ * standard) without allocating a {@link Tag} object; the same view is reused
+ * for every tag, so it is valid only during the
+ * {@link com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractInventoryListener#inventoryEvent(TagView)
+ * inventoryEvent} invocation. A full {@code Tag}, needed to operate on the
+ * tag, is created by {@link #toTag()}.
+ */
+public final class TagView {
+    private final PassiveReader passive_reader;
+    private InventoryLine line;
+    private int standard;
+    private boolean with_PC;
+    private Tag tag;
+
+    TagView(PassiveReader passive_reader) {
+        this.passive_reader = passive_reader;
+    }
+
+    void set(InventoryLine line, int standard, boolean with_PC) {
+        this.line = line;
+        this.standard = standard;
+        this.with_PC = with_PC;
+        tag = null;
+    }
+
+    InventoryLine getLine() {
+        return line;
+    }
+
+    /**
+     * Get a copy of the tag ID (EPC for UHF tags).
+     *
+     * @return a new array holding the tag ID
+     */
+    public byte[] getID() {
+        return line.getID();
+    }
+
+    /**
+     * Get a single tag ID byte.
+     *
+     * @param index the ID byte index
+     * @return the ID byte
+     */
+    public byte getIDbyte(int index) {
+        return line.getIDbyte(index);
+    }
+
+    /**
+     * Get the tag ID length.
+     *
+     * @return the number of tag ID bytes
+     */
+    public int getIDlength() {
+        return line.getIDlength();
+    }
+
+    /**
+     * Get tag PC (Protocol Control).
+     *
+     * @return the tag Protocol Control, 0 if the inventory format has no PC
+     */
+    public short getPC() {
+        return line.getPC();
+    }
+
+    /**
+     * Get tag RSSI at inventory time.
+     *
+     * @return the tag RSSI value in dBm, -128 if the inventory line has no RSSI
+     */
+    public short getRSSI() {
+        return line.getRSSI();
+    }
+
+    /**
+     * Check if the tag has been read with RSSI.
+     *
+     * @return true if the inventory line has the RSSI field, even if it reads -128
+     */
+    public boolean hasRSSI() {
+        return line.hasRSSI();
+    }
+
+    /**
+     * Get the tag standard.
+     *
+     * @return the tag standard ({@link PassiveReader#EPC_STANDARD}, {@link
+     * PassiveReader#ISO15693_STANDARD} or {@link PassiveReader#ISO14443A_STANDARD})
+     */
+    public int getStandard() {
+        return standard;
+    }
+
+    /**
+     * Check if the tag ID matches a byte array, without copying the ID.
+     *
+     * @param ID the ID to compare
+     * @return true if the tag ID is equal to {@code ID}
+     */
+    public boolean matchesID(byte[] ID) {
+        if (ID.length != line.getIDlength()) {
+            return false;
+        }
+        for (int n = 0; n < ID.length; n++) {
+            if (ID[n] != line.getIDbyte(n)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Create the {@link Tag} object for the viewed tag.
+     * <p>
+     * The created object is an {@link EPC_tag}, {@link EPC_simple_tag},
+     * {@link ISO15693_tag} or {@link ISO14443A_tag}, as when it is notified
+     * by {@link com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractInventoryListener#inventoryEvent(Tag)
+     * inventoryEvent}; further calls for the same tag line return the same object.
+     *
+     * @return the tag
+     */
+    public Tag toTag() {
+        if (tag == null) {
+            switch (standard) {
+                case PassiveReader.EPC_STANDARD:
+                    if (with_PC) {
+                        tag = new EPC_tag(line.getRSSI(), line.getPC(), line.getID(), passive_reader);
+                    }
+                    else {
+                        tag = new EPC_simple_tag(line.getRSSI(), line.getID(), passive_reader);
+                    }
+                    break;
+                case PassiveReader.ISO15693_STANDARD:
+                    tag = new ISO15693_tag(line.getID(), passive_reader);
+                    break;
+                default:
+                    tag = new ISO14443A_tag(line.getID(), passive_reader);
+                    break;
+            }
+        }
+        return tag;
+    }
+}
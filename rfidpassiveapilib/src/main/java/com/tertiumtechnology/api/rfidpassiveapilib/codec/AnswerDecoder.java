@@ -0,0 +1,64 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib.codec;
+
+/**
+ * Allocation-free decoder for {@code $} and {@code Z} reader answer frames.
+ */
+public final class AnswerDecoder {
+    private AnswerDecoder() {
+    }
+
+    /**
+     * Decode an answer frame into a caller-owned view.
+     * <p>
+     * If {@code bugfix} is true an odd frame length is rounded up to the next
+     * even value before it is checked, as required by read and read TID
+     * answers.
+     *
+     * @param frame  the characters holding the answer frame
+     * @param offset the index of the frame first character (the frame type)
+     * @param count  the number of frame characters
+     * @param bugfix the odd length fix flag
+     * @param answer the view to fill
+     * @return true if the answer is valid
+     */
+    public static boolean decode(CharSequence frame, int offset, int count, boolean bugfix, ReaderAnswer answer) {
+        answer.clear();
+        if (count < 6) {
+            return false;
+        }
+        int length = Hex.decodeByte(frame, offset + 2);
+        if (bugfix && (length % 2 != 0)) {
+            length++;
+        }
+        if (length != count - 2 || count < 8) {
+            return false;
+        }
+        answer.set(frame, length, Hex.decodeByte(frame, offset + 4), Hex.decodeByte(frame, offset + 6),
+                offset + 8, (length - 6) / 2);
+        return true;
+    }
+}
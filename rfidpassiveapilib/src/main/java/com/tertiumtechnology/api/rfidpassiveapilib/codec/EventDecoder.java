@@ -0,0 +1,56 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib.codec;
+
+/**
+ * Allocation-free decoder for {@code I} reader event frames.
+ */
+public final class EventDecoder {
+    private EventDecoder() {
+    }
+
+    /**
+     * Decode an event frame into a caller-owned view.
+     *
+     * @param frame  the characters holding the event frame
+     * @param offset the index of the frame first character (the frame type)
+     * @param count  the number of frame characters
+     * @param event  the view to fill
+     * @return true if the event is valid
+     */
+    public static boolean decode(CharSequence frame, int offset, int count, ReaderEvent event) {
+        event.clear();
+        if (count < 10 || frame.charAt(offset) != 'I') {
+            return false;
+        }
+        int length = Hex.decodeByte(frame, offset + 2);
+        if (length != count - 2) {
+            return false;
+        }
+        event.set(frame, Hex.decodeByte(frame, offset + 4), Hex.decodeByte(frame, offset + 6),
+                Hex.decodeByte(frame, offset + 8), offset + 10, (length - 8) / 2);
+        return true;
+    }
+}
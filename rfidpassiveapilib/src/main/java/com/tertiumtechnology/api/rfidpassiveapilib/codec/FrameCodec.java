@@ -0,0 +1,193 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib.codec;
+
+/**
+ * Encoder and decoder of the reader wire protocol frames.
+ * <p>
+ * A {@code FrameCodec} owns the layout of every frame exchanged with the
+ * reader device: command, tunnel and Zhaga transparent frames written to the
+ * reader, and answer, event, inventory and prompt lines read from it. Lines
+ * are split on CR/LF before being decoded; decoded data bytes are read by the
+ * {@link ReaderAnswer} and {@link ReaderEvent} views as hexadecimal digits.
+ * <p>
+ * {@link HexFrameCodec} is the default implementation. Any implementation
+ * must pass the golden vectors of {@code FrameCodecConformanceTest}, which
+ * its unit test extends. Implementations must be thread safe.
+ */
+public interface FrameCodec {
+    /**
+     * Empty line.
+     */
+    int EMPTY_FRAME = 0;
+    /**
+     * Reader prompt.
+     */
+    int PROMPT_FRAME = 1;
+    /**
+     * Command answer.
+     */
+    int ANSWER_FRAME = 2;
+    /**
+     * Zhaga transparent command answer.
+     */
+    int ZHAGA_ANSWER_FRAME = 3;
+    /**
+     * Tunnel command answer.
+     */
+    int TUNNEL_ANSWER_FRAME = 4;
+    /**
+     * Reader device event.
+     */
+    int EVENT_FRAME = 5;
+    /**
+     * Inventory tag line.
+     */
+    int INVENTORY_FRAME = 6;
+
+    /**
+     * HF inventory line layout: tag ID only.
+     */
+    int ID_LINE = 0;
+    /**
+     * UHF inventory line layout: tag EPC and optional RSSI.
+     */
+    int EPC_LINE = 1;
+    /**
+     * UHF inventory line layout: tag PC, tag EPC and optional RSSI.
+     */
+    int EPC_AND_PC_LINE = 2;
+
+    /**
+     * Get the frame encoder of the calling thread.
+     *
+     * @return the frame encoder, reused by following calls from the same thread
+     */
+    FrameEncoder getEncoder();
+
+    /**
+     * Encode tag address bytes, to be appended to a frame with
+     * {@link FrameEncoder#appendEncoded(char[])}.
+     *
+     * @param data   the bytes array
+     * @param offset the index of the first byte to encode
+     * @param length the number of bytes to encode
+     * @return the encoded bytes
+     */
+    char[] encodeAddress(byte[] data, int offset, int length);
+
+    /**
+     * Get the type of a received line.
+     *
+     * @param frame  the characters holding the line
+     * @param offset the index of the first character of the line
+     * @param count  the line length
+     * @return the frame type ({@link #EMPTY_FRAME}, {@link #PROMPT_FRAME}, ...)
+     */
+    int getFrameType(CharSequence frame, int offset, int count);
+
+    /**
+     * Check if a line not terminated by CR/LF is a complete frame anyway.
+     *
+     * @param frame  the characters holding the line
+     * @param offset the index of the first character of the line
+     * @param count  the line length
+     * @return true if the line is a complete frame
+     */
+    boolean isFrameComplete(CharSequence frame, int offset, int count);
+
+    /**
+     * Check if a received character may continue an incomplete frame.
+     *
+     * @param first the first character of the incomplete frame
+     * @param next  the received character
+     * @return true if {@code next} may belong to the incomplete frame
+     */
+    boolean isFrameContinuation(char first, char next);
+
+    /**
+     * Decode a command answer or a Zhaga transparent command answer.
+     * <p>
+     * If {@code bugfix} is true an odd answer length is accepted, as
+     * required by read and read TID answers.
+     *
+     * @param frame  the characters holding the answer
+     * @param offset the index of the first character of the answer
+     * @param count  the answer length
+     * @param bugfix the odd length fix flag
+     * @param answer the view to fill
+     * @return true if the answer is valid
+     */
+    boolean decodeAnswer(CharSequence frame, int offset, int count, boolean bugfix, ReaderAnswer answer);
+
+    /**
+     * Get the sequential number of a command answer without decoding it.
+     * <p>
+     * The sequential number identifies the command the answer belongs to, so
+     * that the odd length fix of {@link #decodeAnswer} can be chosen.
+     *
+     * @param frame  the characters holding the answer
+     * @param offset the index of the first character of the answer
+     * @param count  the answer length
+     * @return the answer sequential number, or -1 if the answer is too short
+     */
+    int getAnswerSequential(CharSequence frame, int offset, int count);
+
+    /**
+     * Decode a tunnel command answer.
+     * <p>
+     * Only the data of the filled view is meaningful.
+     *
+     * @param frame  the characters holding the answer
+     * @param offset the index of the first character of the answer
+     * @param count  the answer length
+     * @param answer the view to fill
+     * @return true if the answer is valid
+     */
+    boolean decodeTunnelAnswer(CharSequence frame, int offset, int count, ReaderAnswer answer);
+
+    /**
+     * Decode a reader device event.
+     *
+     * @param frame  the characters holding the event
+     * @param offset the index of the first character of the event
+     * @param count  the event length
+     * @param event  the view to fill
+     * @return true if the event is valid
+     */
+    boolean decodeEvent(CharSequence frame, int offset, int count, ReaderEvent event);
+
+    /**
+     * Decode an inventory tag line.
+     *
+     * @param frame  the characters holding the line
+     * @param offset the index of the first character of the line
+     * @param count  the line length
+     * @param layout the line layout ({@link #ID_LINE}, {@link #EPC_LINE} or {@link #EPC_AND_PC_LINE})
+     * @param line   the line to fill
+     * @return true if the line is valid
+     */
+    boolean decodeInventoryLine(CharSequence frame, int offset, int count, int layout, InventoryLine line);
+}
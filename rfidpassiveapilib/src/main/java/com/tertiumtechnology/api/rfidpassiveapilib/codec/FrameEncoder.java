@@ -0,0 +1,100 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib.codec;
+
+/**
+ * Builder of reader command frames.
+ * <p>
+ * A frame is started with one of the {@code begin} methods, filled with
+ * {@code append} calls and completed with {@link #toFrame()}. Encoders are
+ * reused across frames and are not required to be thread safe.
+ */
+public interface FrameEncoder {
+    /**
+     * Start a command frame.
+     *
+     * @param sequential   the frame sequential number
+     * @param command_code the command code
+     * @return this encoder
+     */
+    FrameEncoder beginCommand(int sequential, byte command_code);
+
+    /**
+     * Start a tunnel frame.
+     *
+     * @param encrypted the encrypted tunnel flag
+     * @return this encoder
+     */
+    FrameEncoder beginTunnel(boolean encrypted);
+
+    /**
+     * Start a Zhaga transparent frame.
+     *
+     * @param sequential the frame sequential number
+     * @return this encoder
+     */
+    FrameEncoder beginZhagaTransparent(int sequential);
+
+    /**
+     * Append a byte to the current frame.
+     *
+     * @param value the byte to append
+     * @return this encoder
+     */
+    FrameEncoder append(byte value);
+
+    /**
+     * Append bytes to the current frame.
+     *
+     * @param data the bytes to append
+     * @return this encoder
+     */
+    FrameEncoder append(byte[] data);
+
+    /**
+     * Append bytes to the current frame.
+     *
+     * @param data   the bytes array
+     * @param offset the index of the first byte to append
+     * @param length the number of bytes to append
+     * @return this encoder
+     */
+    FrameEncoder append(byte[] data, int offset, int length);
+
+    /**
+     * Append bytes already encoded by {@link FrameCodec#encodeAddress(byte[], int, int)}.
+     *
+     * @param encoded the encoded bytes
+     * @return this encoder
+     */
+    FrameEncoder appendEncoded(char[] encoded);
+
+    /**
+     * Complete the current frame.
+     *
+     * @return the frame
+     */
+    String toFrame();
+}
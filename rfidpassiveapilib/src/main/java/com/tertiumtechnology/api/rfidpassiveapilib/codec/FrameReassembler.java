@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib.codec;
+
+/**
+ * Reassembles reader frames split across BLE notifications.
+ * <p>
+ * The trailing part of a notification that is not terminated by a line end
+ * is kept in a carry-over buffer and joined with the following notification,
+ * unless the codec reports it as a frame that is already complete (e.g. a
+ * prompt, or an answer whose length field is satisfied).
+ * <p>
+ * Frames without a length field, such as tunnel answers, cannot be told
+ * complete without their line end: an unterminated one is held until the
+ * following notification, which either continues it or delivers it as it
+ * is, or until {@link #flush()} releases it (the reader does so when no
+ * notification arrives before its read timeout).
+ * <p>
+ * A {@code FrameReassembler} is meant to be fed from the BLE callback thread
+ * only; counters can be read from any thread.
+ */
+public final class FrameReassembler {
+    private static final int MAX_CARRY_LENGTH = 2048;
+
+    private final StringBuilder carry = new StringBuilder();
+    private volatile FrameCodec codec;
+    private volatile long partial_frames;
+    private volatile long garbage_frames;
+
+    /**
+     * Create a reassembler for the frames of a wire protocol.
+     *
+     * @param codec the wire protocol codec
+     */
+    public FrameReassembler(FrameCodec codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Set the wire protocol codec.
+     *
+     * @param codec the wire protocol codec
+     */
+    public void setFrameCodec(FrameCodec codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Feed a notification to the reassembler.
+     *
+     * @param data the notification data
+     * @return the notification data made of complete frames only (may be empty)
+     */
+    public String feed(String data) {
+        String joined;
+
+        if (carry.length() > 0) {
+            if (!data.isEmpty() && !codec.isFrameContinuation(carry.charAt(0), data.charAt(0))) {
+                // the carried frame cannot continue here: deliver it as it is
+                carry.append('\n');
+            }
+            carry.append(data);
+            joined = carry.toString();
+            carry.setLength(0);
+        }
+        else {
+            joined = data;
+        }
+        int end = Math.max(joined.lastIndexOf('\n'), joined.lastIndexOf('\r')) + 1;
+        if (end == joined.length() || codec.isFrameComplete(joined, end, joined.length() - end)) {
+            return joined;
+        }
+        if (joined.length() - end > MAX_CARRY_LENGTH) {
+            garbage_frames++;
+        }
+        else {
+            partial_frames++;
+            carry.append(joined, end, joined.length());
+        }
+        return joined.substring(0, end);
+    }
+
+    /**
+     * Release the carried frame, if any, as a complete frame.
+     *
+     * @return the carried frame, or null if there is none
+     */
+    public String flush() {
+        if (carry.length() == 0) {
+            return null;
+        }
+        String tail = carry.toString();
+        carry.setLength(0);
+        return tail;
+    }
+
+    /**
+     * Discard the carried frame, if any.
+     */
+    public void reset() {
+        carry.setLength(0);
+    }
+
+    /**
+     * Count a frame discarded because it could not be decoded.
+     */
+    public void countGarbageFrame() {
+        garbage_frames++;
+    }
+
+    /**
+     * Get the number of discarded frames.
+     *
+     * @return the number of frames discarded as malformed or oversized
+     */
+    public long getGarbageFrames() {
+        return garbage_frames;
+    }
+
+    /**
+     * Get the number of frames split across notifications.
+     *
+     * @return the number of frame fragments carried over to the next notification
+     */
+    public long getPartialFrames() {
+        return partial_frames;
+    }
+}
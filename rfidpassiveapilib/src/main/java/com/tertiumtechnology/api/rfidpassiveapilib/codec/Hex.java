@@ -0,0 +1,120 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib.codec;
+
+/**
+ * Hexadecimal helpers working directly on characters, without intermediate
+ * {@code String} objects.
+ */
+public final class Hex {
+    private static final char[] UPPERCASE_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final byte[] DIGITS = new byte[128];
+
+    static {
+        for (int n = 0; n < DIGITS.length; n++) {
+            DIGITS[n] = -1;
+        }
+        for (int n = 0; n < 10; n++) {
+            DIGITS['0' + n] = (byte) n;
+        }
+        for (int n = 0; n < 6; n++) {
+            DIGITS['A' + n] = (byte) (10 + n);
+            DIGITS['a' + n] = (byte) (10 + n);
+        }
+    }
+
+    private Hex() {
+    }
+
+    /**
+     * Get the value of a hexadecimal digit.
+     *
+     * @param c the digit character
+     * @return the digit value (0-15), or -1 if {@code c} is not a hexadecimal digit
+     */
+    public static int digit(char c) {
+        if (c < 128) {
+            return DIGITS[c];
+        }
+        return Character.digit(c, 16);
+    }
+
+    /**
+     * Decode the two hexadecimal characters starting at {@code index}.
+     * <p>
+     * The result is the same of {@code Integer.valueOf(s.substring(index, index + 2), 16)},
+     * 0 being returned where that call would throw {@code NumberFormatException}.
+     *
+     * @param s     the characters to decode
+     * @param index the index of the first character
+     * @return the decoded value
+     */
+    public static int decodeByte(CharSequence s, int index) {
+        int low = digit(s.charAt(index + 1));
+        if (low < 0) {
+            return 0;
+        }
+        char c = s.charAt(index);
+        if (c == '-') {
+            return -low;
+        }
+        if (c == '+') {
+            return low;
+        }
+        int high = digit(c);
+        if (high < 0) {
+            return 0;
+        }
+        return (high << 4) | low;
+    }
+
+    /**
+     * Encode a byte as two uppercase hexadecimal characters.
+     *
+     * @param value  the byte value (only the 8 low bits are used)
+     * @param buffer the destination buffer
+     * @param index  the index of the first character to write
+     */
+    public static void encodeByte(int value, char[] buffer, int index) {
+        buffer[index] = UPPERCASE_DIGITS[(value >> 4) & 0x0F];
+        buffer[index + 1] = UPPERCASE_DIGITS[value & 0x0F];
+    }
+
+    /**
+     * Encode bytes as uppercase hexadecimal characters.
+     *
+     * @param data   the bytes array
+     * @param offset the index of the first byte to encode
+     * @param length the number of bytes to encode
+     * @return the encoded characters (two per byte)
+     */
+    public static char[] encode(byte[] data, int offset, int length) {
+        char[] buffer = new char[2 * length];
+        for (int n = 0; n < length; n++) {
+            encodeByte(data[offset + n], buffer, 2 * n);
+        }
+        return buffer;
+    }
+}
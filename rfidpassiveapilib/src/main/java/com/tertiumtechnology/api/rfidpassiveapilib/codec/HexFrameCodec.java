@@ -0,0 +1,154 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib.codec;
+
+/**
+ * Codec of the hex-ASCII reader wire protocol.
+ * <p>
+ * Frames written to the reader are {@code $:} commands, {@code #:} and
+ * {@code %:} (encrypted) tunnel commands and {@code Z:} Zhaga transparent
+ * commands; lines read from the reader are the matching answers, {@code I}
+ * events, {@code "> "} prompts and inventory tag lines.
+ */
+public class HexFrameCodec implements FrameCodec {
+    private final ThreadLocal<FrameEncoder> encoders = new ThreadLocal<FrameEncoder>() {
+        @Override
+        protected FrameEncoder initialValue() {
+            return new HexFrameEncoder();
+        }
+    };
+
+    @Override
+    public FrameEncoder getEncoder() {
+        return encoders.get();
+    }
+
+    @Override
+    public char[] encodeAddress(byte[] data, int offset, int length) {
+        return Hex.encode(data, offset, length);
+    }
+
+    @Override
+    public int getFrameType(CharSequence frame, int offset, int count) {
+        if (count == 0) {
+            return EMPTY_FRAME;
+        }
+        switch (frame.charAt(offset)) {
+            case '$':
+                return ANSWER_FRAME;
+            case 'Z':
+                return ZHAGA_ANSWER_FRAME;
+            case '#':
+            case '%':
+                return TUNNEL_ANSWER_FRAME;
+            case 'I':
+                return EVENT_FRAME;
+            case '>':
+                if (count >= 2 && frame.charAt(offset + 1) == ' ') {
+                    return PROMPT_FRAME;
+                }
+                return INVENTORY_FRAME;
+            default:
+                return INVENTORY_FRAME;
+        }
+    }
+
+    @Override
+    public boolean isFrameComplete(CharSequence frame, int offset, int count) {
+        if (count == 0) {
+            return false;
+        }
+        char type = frame.charAt(offset);
+        if (type == '>') {
+            return true;
+        }
+        if (type == '$' || type == 'Z') {
+            if (count < 4) {
+                return false;
+            }
+            int length = Hex.decodeByte(frame, offset + 2);
+            if (type == '$' && length % 2 != 0) {
+                // read and read TID answers declare one character less than they hold
+                length++;
+            }
+            return count - 2 >= length;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isFrameContinuation(char first, char next) {
+        if (next == '\r' || next == '\n') {
+            return true;
+        }
+        if (first == '$' || first == 'Z' || first == '#' || first == '%') {
+            return next != '$' && next != 'Z' && next != '#' && next != '%' && next != '>';
+        }
+        return Hex.digit(next) >= 0 || next == ' ';
+    }
+
+    @Override
+    public boolean decodeAnswer(CharSequence frame, int offset, int count, boolean bugfix, ReaderAnswer answer) {
+        return AnswerDecoder.decode(frame, offset, count, bugfix, answer);
+    }
+
+    @Override
+    public int getAnswerSequential(CharSequence frame, int offset, int count) {
+        if (count < 6) {
+            return -1;
+        }
+        return Hex.decodeByte(frame, offset + 4);
+    }
+
+    @Override
+    public boolean decodeTunnelAnswer(CharSequence frame, int offset, int count, ReaderAnswer answer) {
+        answer.clear();
+        if (count < 2) {
+            return false;
+        }
+        answer.set(frame, count - 2, 0, 0, offset + 2, (count - 2) / 2);
+        return true;
+    }
+
+    @Override
+    public boolean decodeEvent(CharSequence frame, int offset, int count, ReaderEvent event) {
+        return EventDecoder.decode(frame, offset, count, event);
+    }
+
+    @Override
+    public boolean decodeInventoryLine(CharSequence frame, int offset, int count, int layout, InventoryLine line) {
+        switch (layout) {
+            case ID_LINE:
+                return InventoryDecoder.decodeID(frame, offset, count, line);
+            case EPC_LINE:
+                return InventoryDecoder.decodeEPC(frame, offset, count, line);
+            case EPC_AND_PC_LINE:
+                return InventoryDecoder.decodeEPCandPC(frame, offset, count, line);
+            default:
+                line.clear();
+                return false;
+        }
+    }
+}
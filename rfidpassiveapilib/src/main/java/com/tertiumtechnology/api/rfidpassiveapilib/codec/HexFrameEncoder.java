@@ -0,0 +1,174 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib.codec;
+
+/**
+ * Single-pass encoder for hex-ASCII reader command frames.
+ * <p>
+ * Frame characters are written into a reusable buffer; the frame length field
+ * is patched in place when the frame is completed, so building a frame costs
+ * one allocation (the returned {@code String}) once the buffer has grown to
+ * the largest frame size.
+ * <p>
+ * A {@code HexFrameEncoder} is not thread safe.
+ */
+public final class HexFrameEncoder implements FrameEncoder {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private char[] buffer;
+    private int count;
+    private boolean length_field;
+
+    public HexFrameEncoder() {
+        buffer = new char[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Start a command frame ({@code $:}).
+     *
+     * @param sequential   the frame sequential number
+     * @param command_code the command code
+     * @return this encoder
+     */
+    @Override
+    public FrameEncoder beginCommand(int sequential, byte command_code) {
+        begin('$', true);
+        append((byte) sequential);
+        return append(command_code);
+    }
+
+    /**
+     * Start a tunnel frame ({@code #:} or {@code %:} if encrypted).
+     *
+     * @param encrypted the encrypted tunnel flag
+     * @return this encoder
+     */
+    @Override
+    public FrameEncoder beginTunnel(boolean encrypted) {
+        begin(encrypted ? '%' : '#', false);
+        return this;
+    }
+
+    /**
+     * Start a Zhaga transparent frame ({@code Z:}).
+     *
+     * @param sequential the frame sequential number
+     * @return this encoder
+     */
+    @Override
+    public FrameEncoder beginZhagaTransparent(int sequential) {
+        begin('Z', true);
+        return append((byte) sequential);
+    }
+
+    /**
+     * Append a byte to the current frame.
+     *
+     * @param value the byte to append
+     * @return this encoder
+     */
+    @Override
+    public FrameEncoder append(byte value) {
+        ensureCapacity(2);
+        Hex.encodeByte(value, buffer, count);
+        count += 2;
+        return this;
+    }
+
+    /**
+     * Append bytes to the current frame.
+     *
+     * @param data the bytes to append
+     * @return this encoder
+     */
+    @Override
+    public FrameEncoder append(byte[] data) {
+        return append(data, 0, data.length);
+    }
+
+    /**
+     * Append bytes to the current frame.
+     *
+     * @param data   the bytes array
+     * @param offset the index of the first byte to append
+     * @param length the number of bytes to append
+     * @return this encoder
+     */
+    @Override
+    public FrameEncoder append(byte[] data, int offset, int length) {
+        ensureCapacity(2 * length);
+        for (int n = offset; n < offset + length; n++) {
+            Hex.encodeByte(data[n], buffer, count);
+            count += 2;
+        }
+        return this;
+    }
+
+    /**
+     * Append characters already hex-encoded to the current frame.
+     *
+     * @param encoded the encoded characters (two per byte)
+     * @return this encoder
+     */
+    @Override
+    public FrameEncoder appendEncoded(char[] encoded) {
+        ensureCapacity(encoded.length);
+        System.arraycopy(encoded, 0, buffer, count, encoded.length);
+        count += encoded.length;
+        return this;
+    }
+
+    /**
+     * Complete the current frame.
+     *
+     * @return the frame
+     */
+    @Override
+    public String toFrame() {
+        if (length_field) {
+            // frame length excludes the two frame type characters
+            Hex.encodeByte(count - 2, buffer, 2);
+        }
+        return new String(buffer, 0, count);
+    }
+
+    private void begin(char type, boolean length_field) {
+        this.length_field = length_field;
+        buffer[0] = type;
+        buffer[1] = ':';
+        count = 2;
+        if (length_field) {
+            count += 2;
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (count + extra > buffer.length) {
+            char[] tmp = new char[Math.max(2 * buffer.length, count + extra)];
+            System.arraycopy(buffer, 0, tmp, 0, count);
+            buffer = tmp;
+        }
+    }
+}
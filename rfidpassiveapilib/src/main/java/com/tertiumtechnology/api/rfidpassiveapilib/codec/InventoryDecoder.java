@@ -0,0 +1,153 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib.codec;
+
+/**
+ * Decoder for the tag lines sent by the reader during an inventory.
+ * <p>
+ * Each line is validated and decoded in a single pass into the buffer of a
+ * caller-owned {@link InventoryLine}; a malformed line is rejected at its
+ * first invalid character. Supported line layouts are:
+ * <ul>
+ * <li>HF ID only: {@code <ID>}</li>
+ * <li>UHF EPC only: {@code <EPC>[ <RSSI>]}</li>
+ * <li>UHF EPC and PC: {@code <PC><EPC>[ <RSSI>]}</li>
+ * </ul>
+ */
+public final class InventoryDecoder {
+    private InventoryDecoder() {
+    }
+
+    /**
+     * Decode a HF tag line made of the tag ID only.
+     *
+     * @param frame  the characters holding the line
+     * @param offset the index of the first character of the line
+     * @param count  the line length
+     * @param line   the line to fill
+     * @return true if the line is valid, false otherwise
+     */
+    public static boolean decodeID(CharSequence frame, int offset, int count, InventoryLine line) {
+        line.clear();
+        if (count == 0 || decodeHex(frame, offset, count, line) != count) {
+            return false;
+        }
+        line.set(0, count / 2, (short) 0);
+        return true;
+    }
+
+    /**
+     * Decode a UHF tag line made of the tag EPC and an optional RSSI field.
+     *
+     * @param frame  the characters holding the line
+     * @param offset the index of the first character of the line
+     * @param count  the line length
+     * @param line   the line to fill
+     * @return true if the line is valid, false otherwise
+     */
+    public static boolean decodeEPC(CharSequence frame, int offset, int count, InventoryLine line) {
+        return decodeUHF(frame, offset, count, false, line);
+    }
+
+    /**
+     * Decode a UHF tag line made of the tag PC, the tag EPC and an optional RSSI field.
+     *
+     * @param frame  the characters holding the line
+     * @param offset the index of the first character of the line
+     * @param count  the line length
+     * @param line   the line to fill
+     * @return true if the line is valid, false otherwise
+     */
+    public static boolean decodeEPCandPC(CharSequence frame, int offset, int count, InventoryLine line) {
+        return decodeUHF(frame, offset, count, true, line);
+    }
+
+    private static boolean decodeUHF(CharSequence frame, int offset, int count, boolean with_PC,
+                                     InventoryLine line) {
+        short PC = 0;
+        short RSSI = 0;
+        int id_offset = 0;
+
+        line.clear();
+        int hex_length = decodeHex(frame, offset, count, line);
+        if (hex_length <= 4) {
+            // invalid char, or line too short
+            return false;
+        }
+        if (hex_length < count) {
+            // RSSI field: a space followed by two hexadecimal digits
+            if (frame.charAt(offset + hex_length) != ' ' || count - hex_length != 3) {
+                return false;
+            }
+            int high = Hex.digit(frame.charAt(offset + hex_length + 1));
+            int low = Hex.digit(frame.charAt(offset + hex_length + 2));
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            // signed dBm value
+            RSSI = (byte) ((high << 4) | low);
+        }
+        if (with_PC) {
+            byte[] buffer = line.getBuffer(2);
+            PC = (short) (((buffer[0] & 0xFF) << 8) | (buffer[1] & 0xFF));
+            id_offset = 2;
+        }
+        if (hex_length < count) {
+            line.set(id_offset, hex_length / 2 - id_offset, PC, RSSI);
+        }
+        else {
+            line.set(id_offset, hex_length / 2 - id_offset, PC);
+        }
+        return true;
+    }
+
+    /**
+     * Decode hexadecimal digits into the line buffer until the end of the
+     * line or the first space.
+     *
+     * @return the number of hexadecimal digits, or -1 at the first invalid char
+     */
+    private static int decodeHex(CharSequence frame, int offset, int count, InventoryLine line) {
+        byte[] buffer = line.getBuffer(count / 2);
+        int high = 0;
+        for (int n = 0; n < count; n++) {
+            char c = frame.charAt(offset + n);
+            if (c == ' ') {
+                return n;
+            }
+            int digit = Hex.digit(c);
+            if (digit < 0) {
+                return -1;
+            }
+            if ((n & 1) == 0) {
+                high = digit;
+            }
+            else {
+                buffer[n >> 1] = (byte) ((high << 4) | digit);
+            }
+        }
+        return count;
+    }
+}
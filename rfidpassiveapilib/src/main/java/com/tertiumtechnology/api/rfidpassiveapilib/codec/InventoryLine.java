@@ -0,0 +1,157 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib.codec;
+
+import java.util.Arrays;
+
+/**
+ * Reusable holder of a decoded inventory tag line.
+ * <p>
+ * The tag ID bytes are kept in a buffer reused across lines, so the content
+ * is valid only until the line is filled again.
+ */
+public final class InventoryLine {
+    /**
+     * RSSI value of a tag line without the RSSI field (see {@link #hasRSSI()}).
+     */
+    public static final short NO_RSSI = -128;
+
+    private byte[] buffer = new byte[32];
+    private boolean valid;
+    private int id_offset;
+    private int id_length;
+    private short PC;
+    private short RSSI;
+    private boolean with_RSSI;
+
+    /**
+     * Get the line buffer, grown to hold at least {@code capacity} bytes.
+     * <p>
+     * Decoders write the tag ID bytes in this buffer, then call
+     * {@link #set(int, int, short)} or {@link #set(int, int, short, short)}.
+     *
+     * @param capacity the required capacity
+     * @return the line buffer
+     */
+    public byte[] getBuffer(int capacity) {
+        if (buffer.length < capacity) {
+            buffer = new byte[Math.max(capacity, 2 * buffer.length)];
+        }
+        return buffer;
+    }
+
+    /**
+     * Fill the line with a decoded tag without the RSSI field.
+     *
+     * @param id_offset the index in the line buffer of the first ID byte
+     * @param id_length the number of ID bytes
+     * @param PC        the tag PC, 0 if the line has no PC
+     */
+    public void set(int id_offset, int id_length, short PC) {
+        set(id_offset, id_length, PC, NO_RSSI);
+        with_RSSI = false;
+    }
+
+    /**
+     * Fill the line with a decoded tag with the RSSI field.
+     *
+     * @param id_offset the index in the line buffer of the first ID byte
+     * @param id_length the number of ID bytes
+     * @param PC        the tag PC, 0 if the line has no PC
+     * @param RSSI      the tag RSSI (dBm)
+     */
+    public void set(int id_offset, int id_length, short PC, short RSSI) {
+        this.id_offset = id_offset;
+        this.id_length = id_length;
+        this.PC = PC;
+        this.RSSI = RSSI;
+        with_RSSI = true;
+        valid = true;
+    }
+
+    /**
+     * Mark the line as invalid.
+     */
+    public void clear() {
+        id_length = 0;
+        valid = false;
+    }
+
+    /**
+     * Get a copy of the tag ID (or EPC).
+     *
+     * @return a new array holding the tag ID
+     */
+    public byte[] getID() {
+        return Arrays.copyOfRange(buffer, id_offset, id_offset + id_length);
+    }
+
+    /**
+     * Get a single tag ID byte.
+     *
+     * @param index the ID byte index
+     * @return the ID byte
+     */
+    public byte getIDbyte(int index) {
+        return buffer[id_offset + index];
+    }
+
+    /**
+     * Get the index in the line buffer of the first tag ID byte.
+     *
+     * @return the ID offset in {@link #getBuffer(int)}
+     */
+    public int getIDoffset() {
+        return id_offset;
+    }
+
+    public int getIDlength() {
+        return id_length;
+    }
+
+    public short getPC() {
+        return PC;
+    }
+
+    public short getRSSI() {
+        return RSSI;
+    }
+
+    /**
+     * Check if the line has the RSSI field.
+     * <p>
+     * {@link #NO_RSSI} is also a valid reading, so the RSSI value alone
+     * cannot tell a line without RSSI.
+     *
+     * @return true if {@link #getRSSI()} is a reading
+     */
+    public boolean hasRSSI() {
+        return with_RSSI;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+}
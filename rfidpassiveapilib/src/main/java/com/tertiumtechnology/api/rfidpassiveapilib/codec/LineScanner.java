@@ -0,0 +1,127 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib.codec;
+
+/**
+ * Cursor over the lines of a notification.
+ * <p>
+ * Lines are terminated by {@code "\r\n"}, {@code "\n"} or {@code "\r"}, as
+ * with {@code split("\\r?\\n|\\r")}; each line is exposed as an offset and a
+ * length over the scanned characters, without copying them.
+ */
+public final class LineScanner {
+    private CharSequence source;
+    private int position;
+    private int end;
+    private int line_start;
+    private int line_length;
+
+    /**
+     * Start scanning a new sequence of characters.
+     *
+     * @param source the characters to scan
+     * @return this scanner
+     */
+    public LineScanner reset(CharSequence source) {
+        this.source = source;
+        position = 0;
+        end = source.length();
+        line_start = 0;
+        line_length = 0;
+        return this;
+    }
+
+    /**
+     * Move to the next line.
+     *
+     * @return true if a line is available, false at the end of the characters
+     */
+    public boolean next() {
+        if (position >= end) {
+            return false;
+        }
+        int n = position;
+        while (n < end) {
+            char c = source.charAt(n);
+            if (c == '\r' || c == '\n') {
+                break;
+            }
+            n++;
+        }
+        line_start = position;
+        line_length = n - position;
+        if (n < end && source.charAt(n) == '\r' && n + 1 < end && source.charAt(n + 1) == '\n') {
+            n++;
+        }
+        position = n + 1;
+        return true;
+    }
+
+    /**
+     * Get the offset of the current line.
+     *
+     * @return the index of the first character of the current line
+     */
+    public int getStart() {
+        return line_start;
+    }
+
+    /**
+     * Get the length of the current line.
+     *
+     * @return the length of the current line, line terminator excluded
+     */
+    public int getLength() {
+        return line_length;
+    }
+
+    /**
+     * Get a character of the current line.
+     *
+     * @param index the index of the character, relative to the line start
+     * @return the character
+     */
+    public char charAt(int index) {
+        return source.charAt(line_start + index);
+    }
+
+    /**
+     * Check if the current line starts with the given prefix.
+     *
+     * @param prefix the prefix
+     * @return true if the current line starts with {@code prefix}
+     */
+    public boolean startsWith(String prefix) {
+        if (prefix.length() > line_length) {
+            return false;
+        }
+        for (int n = 0; n < prefix.length(); n++) {
+            if (source.charAt(line_start + n) != prefix.charAt(n)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib.codec;
+
+/**
+ * Reusable view over a reader answer frame.
+ * <p>
+ * A {@code ReaderAnswer} does not copy the answer: data bytes are decoded on
+ * demand from the frame characters, so the view is valid only until it is
+ * filled again or the underlying notification is discarded.
+ */
+public final class ReaderAnswer {
+    private boolean valid;
+    private int length;
+    private int sequential;
+    private int return_code;
+    private CharSequence source;
+    private int data_offset;
+    private int data_length;
+
+    /**
+     * Fill the view with a decoded answer.
+     *
+     * @param source      the characters holding the answer frame
+     * @param length      the answer frame length
+     * @param sequential  the answer sequential number
+     * @param return_code the answer return code
+     * @param data_offset the index in {@code source} of the first data character
+     * @param data_length the number of data bytes
+     */
+    public void set(CharSequence source, int length, int sequential, int return_code, int data_offset,
+                    int data_length) {
+        this.source = source;
+        this.length = length;
+        this.sequential = sequential;
+        this.return_code = return_code;
+        this.data_offset = data_offset;
+        this.data_length = data_length;
+        valid = true;
+    }
+
+    /**
+     * Mark the view as invalid and release the underlying frame.
+     */
+    public void clear() {
+        source = null;
+        valid = false;
+    }
+
+    /**
+     * Get a copy of the answer data.
+     *
+     * @return the answer data, or null if the answer is not valid
+     */
+    public byte[] getData() {
+        if (valid) {
+            byte[] data = new byte[data_length];
+            for (int n = 0; n < data_length; n++) {
+                data[n] = getDataByte(n);
+            }
+            return data;
+        }
+        else {
+            return null;
+        }
+    }
+
+    /**
+     * Decode the answer data into a caller-supplied buffer.
+     *
+     * @param buffer the destination buffer, with room for {@link #getDataLength()} bytes from {@code offset}
+     * @param offset the index in {@code buffer} of the first data byte
+     * @return the number of data bytes decoded (0 if the answer is not valid)
+     */
+    public int getData(byte[] buffer, int offset) {
+        int length = getDataLength();
+        for (int n = 0; n < length; n++) {
+            buffer[offset + n] = getDataByte(n);
+        }
+        return length;
+    }
+
+    /**
+     * Get a single answer data byte.
+     *
+     * @param index the data byte index
+     * @return the data byte
+     */
+    public byte getDataByte(int index) {
+        return (byte) Hex.decodeByte(source, data_offset + 2 * index);
+    }
+
+    public int getDataLength() {
+        if (valid) {
+            return data_length;
+        }
+        else {
+            return 0;
+        }
+    }
+
+    public int getDataOffset() {
+        return data_offset;
+    }
+
+    public int getLength() {
+        if (valid) {
+            return length;
+        }
+        else {
+            return 0;
+        }
+    }
+
+    public int getReturnCode() {
+        if (valid) {
+            return return_code;
+        }
+        else {
+            return 0xFF;
+        }
+    }
+
+    public int getSequential() {
+        if (valid) {
+            return sequential;
+        }
+        else {
+            return 0;
+        }
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+}
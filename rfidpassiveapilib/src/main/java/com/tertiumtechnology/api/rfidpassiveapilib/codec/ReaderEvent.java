@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib.codec;
+
+/**
+ * Reusable view over a reader event frame.
+ * <p>
+ * A {@code ReaderEvent} does not copy the event: data bytes are decoded on
+ * demand from the frame characters, so the view is valid only until it is
+ * filled again or the underlying notification is discarded.
+ */
+public final class ReaderEvent {
+    private boolean valid;
+    private int number;
+    private int event_code;
+    private int feature_code;
+    private CharSequence source;
+    private int data_offset;
+    private int data_length;
+
+    /**
+     * Fill the view with a decoded event.
+     *
+     * @param source       the characters holding the event frame
+     * @param number       the event sequence number
+     * @param event_code   the event code
+     * @param feature_code the event feature code
+     * @param data_offset  the index in {@code source} of the first data character
+     * @param data_length  the number of data bytes
+     */
+    public void set(CharSequence source, int number, int event_code, int feature_code, int data_offset,
+                    int data_length) {
+        this.source = source;
+        this.number = number;
+        this.event_code = event_code;
+        this.feature_code = feature_code;
+        this.data_offset = data_offset;
+        this.data_length = data_length;
+        valid = true;
+    }
+
+    /**
+     * Mark the view as invalid and release the underlying frame.
+     */
+    public void clear() {
+        source = null;
+        valid = false;
+    }
+
+    /**
+     * Get a single event data byte.
+     *
+     * @param index the data byte index
+     * @return the data byte
+     */
+    public byte getDataByte(int index) {
+        return (byte) Hex.decodeByte(source, data_offset + 2 * index);
+    }
+
+    public int getDataLength() {
+        if (valid) {
+            return data_length;
+        }
+        else {
+            return 0;
+        }
+    }
+
+    public int getEventCode() {
+        if (valid) {
+            return event_code;
+        }
+        else {
+            return 0xFF;
+        }
+    }
+
+    public int getFeatureCode() {
+        if (valid) {
+            return feature_code;
+        }
+        else {
+            return 0xFF;
+        }
+    }
+
+    public int getNumber() {
+        if (valid) {
+            return number;
+        }
+        else {
+            return 0;
+        }
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+}
@@ -24,7 +24,9 @@
 
 package com.tertiumtechnology.api.rfidpassiveapilib.listener;
 
+import com.tertiumtechnology.api.rfidpassiveapilib.InventoryBatch;
 import com.tertiumtechnology.api.rfidpassiveapilib.Tag;
+import com.tertiumtechnology.api.rfidpassiveapilib.TagView;
 
 /**
  * Listener template for event generated by inventory operation.
@@ -45,4 +47,37 @@ public abstract class AbstractInventoryListener {
      * @param tag one tag discovered
      */
     public abstract void inventoryEvent(Tag tag);
+
+    /**
+     * Invoked after an inventory operation for every discovered tag, before
+     * any {@link Tag} object is created.
+     * <p>
+     * The default implementation creates the tag object and invokes {@link
+     * #inventoryEvent(Tag)}. Listeners that only count or look up tags may
+     * override this method to avoid a per-tag allocation, calling {@link
+     * TagView#toTag()} only for the tags they need to operate on.
+     *
+     * @param tag the reusable view over the discovered tag, valid only during this invocation
+     */
+    public void inventoryEvent(TagView tag) {
+        inventoryEvent(tag.toTag());
+    }
+
+    /**
+     * Invoked with the tags discovered by a reader notification or by an
+     * inventory round, when batch delivery is enabled by {@link
+     * com.tertiumtechnology.api.rfidpassiveapilib.PassiveReader#setInventoryBatch(int, int, long)
+     * setInventoryBatch}.
+     * <p>
+     * The default implementation invokes {@link #inventoryEvent(TagView)} for
+     * every tag of the batch. Listeners updating a user interface may override
+     * this method to refresh it once per batch instead of once per tag.
+     *
+     * @param batch the reusable batch of discovered tags, valid only during this invocation
+     */
+    public void inventoryBatchEvent(InventoryBatch batch) {
+        for (int n = 0; n < batch.size(); n++) {
+            inventoryEvent(batch.getTag(n));
+        }
+    }
 }
@@ -26,6 +26,8 @@ package com.tertiumtechnology.api.rfidpassiveapilib.listener;
 
 import com.tertiumtechnology.api.rfidpassiveapilib.PassiveReader;
 
+import java.nio.ByteBuffer;
+
 /**
  * Listener template for event generated in response to a {@code PassiveReader}
  * method invocation.
@@ -542,6 +544,26 @@ public abstract class AbstractReaderListener {
      * Reader answer wrong format error code.
      */
     public static final int READER_ANSWER_WRONG_FORMAT_ERROR = 0x2C;
+    /**
+     * Reader driver command queue full error code.
+     */
+    public static final int READER_DRIVER_COMMAND_QUEUE_FULL_ERROR = 0x2D;
+    /**
+     * Reader driver command queue wait timeout error code.
+     */
+    public static final int READER_DRIVER_COMMAND_QUEUE_TIMEOUT_ERROR = 0x2E;
+    /**
+     * Reader driver command answer wait timeout error code.
+     */
+    public static final int READER_DRIVER_COMMAND_ANSWER_TIMEOUT_ERROR = 0x2F;
+    /**
+     * Reader driver command deadline expired error code.
+     */
+    public static final int READER_DRIVER_COMMAND_DEADLINE_ERROR = 0x30;
+    /**
+     * Reader driver command cancelled error code.
+     */
+    public static final int READER_DRIVER_COMMAND_CANCELLED_ERROR = 0x31;
 
     /**
      * Low battery status
@@ -1054,6 +1076,25 @@ public abstract class AbstractReaderListener {
      */
     public abstract void tunnelEvent(byte data[]);
 
+    /**
+     * Invoked after a {@link PassiveReader#ISO15693tunnel(byte[]) ISO15693tunnel}
+     * or {@link PassiveReader#ISO15693encryptedTunnel(byte, byte[])
+     * ISO15693encryptedTunnel} method invocation to notify result.
+     * <p>
+     * The buffer is reused for every tunnel answer: its content (from position
+     * to limit) is valid only during this invocation. The default
+     * implementation copies the answer data and invokes {@link
+     * #tunnelEvent(byte[])}; high-volume tunnel users may override this
+     * method to avoid the copy.
+     *
+     * @param data command answer data
+     */
+    public void tunnelEvent(ByteBuffer data) {
+        byte[] copy = new byte[data.remaining()];
+        data.get(copy);
+        tunnelEvent(copy);
+    }
+
     /**
      * Invoked after a {@link PassiveReader#readUserMemory(int) readUserMemory}
      * method invocation to notify result.
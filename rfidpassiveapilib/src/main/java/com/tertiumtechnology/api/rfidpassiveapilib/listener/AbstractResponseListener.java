@@ -149,6 +149,26 @@ public abstract class AbstractResponseListener {
      * Reader command mode answer error.
      */
     public static final int READER_DRIVER_COMMAND_CMD_MODE_ANSWER_ERROR = 0x28;
+    /**
+     * Reader driver command queue full error code.
+     */
+    public static final int READER_DRIVER_COMMAND_QUEUE_FULL_ERROR = 0x2D;
+    /**
+     * Reader driver command queue wait timeout error code.
+     */
+    public static final int READER_DRIVER_COMMAND_QUEUE_TIMEOUT_ERROR = 0x2E;
+    /**
+     * Reader driver command answer wait timeout error code.
+     */
+    public static final int READER_DRIVER_COMMAND_ANSWER_TIMEOUT_ERROR = 0x2F;
+    /**
+     * Reader driver command deadline expired error code.
+     */
+    public static final int READER_DRIVER_COMMAND_DEADLINE_ERROR = 0x30;
+    /**
+     * Reader driver command cancelled error code.
+     */
+    public static final int READER_DRIVER_COMMAND_CANCELLED_ERROR = 0x31;
 
     /**
      * Invoked after a {@link EPC_tag#kill(byte[]) kill} method invocation to
@@ -325,6 +325,26 @@ public abstract class AbstractZhagaListener {
      * Reader answer wrong format error code.
      */
     public static final int READER_ANSWER_WRONG_FORMAT_ERROR = 0x2C;
+    /**
+     * Reader driver command queue full error code.
+     */
+    public static final int READER_DRIVER_COMMAND_QUEUE_FULL_ERROR = 0x2D;
+    /**
+     * Reader driver command queue wait timeout error code.
+     */
+    public static final int READER_DRIVER_COMMAND_QUEUE_TIMEOUT_ERROR = 0x2E;
+    /**
+     * Reader driver command answer wait timeout error code.
+     */
+    public static final int READER_DRIVER_COMMAND_ANSWER_TIMEOUT_ERROR = 0x2F;
+    /**
+     * Reader driver command deadline expired error code.
+     */
+    public static final int READER_DRIVER_COMMAND_DEADLINE_ERROR = 0x30;
+    /**
+     * Reader driver command cancelled error code.
+     */
+    public static final int READER_DRIVER_COMMAND_CANCELLED_ERROR = 0x31;
 
     /**
      * BLE security level 1 (no security).
@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets.
+ * <p>
+ * Bucket {@code n} counts the samples lower than {@code 2^n} microseconds
+ * (and not lower than {@code 2^(n-1)}); the last bucket also counts all the
+ * longer samples. Samples can be recorded and read from any thread.
+ */
+public final class LatencyHistogram {
+    /**
+     * Number of histogram buckets.
+     */
+    public static final int BUCKETS = 32;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Record a latency sample.
+     *
+     * @param nanos the latency (ns)
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        counts.incrementAndGet(Math.min(bucket, BUCKETS - 1));
+    }
+
+    /**
+     * Get the number of samples in a bucket.
+     *
+     * @param bucket the bucket index (0-31)
+     * @return the bucket sample count
+     */
+    public long getBucketCount(int bucket) {
+        return counts.get(bucket);
+    }
+
+    /**
+     * Get the total number of samples.
+     *
+     * @return the sample count
+     */
+    public long getCount() {
+        long count = 0;
+        for (int n = 0; n < BUCKETS; n++) {
+            count += counts.get(n);
+        }
+        return count;
+    }
+
+    /**
+     * Get an upper bound of a latency percentile.
+     *
+     * @param percentile the percentile (0-100)
+     * @return the upper bound of the bucket holding the percentile (us), 0 if there are no samples
+     */
+    public long getPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * Math.min(Math.max(percentile, 0), 100) / 100);
+        long seen = 0;
+        for (int n = 0; n < BUCKETS; n++) {
+            seen += counts.get(n);
+            if (seen >= rank && seen > 0) {
+                return 1L << n;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+
+    /**
+     * Discard all the samples.
+     */
+    public void reset() {
+        for (int n = 0; n < BUCKETS; n++) {
+            counts.set(n, 0);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractResponseListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyInventoryListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyReaderListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyResponseListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.util.BleSettings;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncRetryTest {
+    @Test(timeout = 10000)
+    public void readFailedWithTimeoutIsIssuedAgain() throws Exception {
+        AsyncPassiveReader async_reader = AsyncPassiveReader.getInstance(new DummyInventoryListener(),
+                new DummyReaderListener(), new DummyResponseListener(), null, new BleSettings(), Runnable::run);
+        async_reader.setRetryPolicy(new RetryPolicy().setBackoff(AbstractResponseListener.READ_COMMAND, 10, 10, 0));
+        SimulatedDevice device = SimulatedDevice.attach(async_reader.getPassiveReader());
+        EPC_tag tag = new EPC_tag((short) -50, (short) 0x3000, new byte[12], async_reader.getPassiveReader());
+
+        CompletableFuture<byte[]> data = async_reader.read(tag, 0, 2);
+        String frame = device.takeFrame(1000);
+        assertNotNull(frame);
+        device.receive(SimulatedDevice.answer(SimulatedDevice.getSequential(frame),
+                AbstractResponseListener.TIMEOUT_ERROR, ""));
+
+        // the retry is scheduled by the facade, not posted to the application main looper
+        String retried = device.takeFrame(5000);
+        assertNotNull(retried);
+        assertEquals(SimulatedDevice.getCommandCode(frame), SimulatedDevice.getCommandCode(retried));
+        device.receive(SimulatedDevice.answer(SimulatedDevice.getSequential(retried), 0, "01020304"));
+
+        assertArrayEquals(new byte[]{0x01, 0x02, 0x03, 0x04}, data.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test(timeout = 10000)
+    public void facadesShareTheirThreads() throws Exception {
+        for (int n = 0; n < 3; n++) {
+            AsyncPassiveReader async_reader = AsyncPassiveReader.getInstance(new DummyInventoryListener(),
+                    new DummyReaderListener(), new DummyResponseListener(), null, new BleSettings());
+            async_reader.setRetryPolicy(new RetryPolicy().setBackoff(AbstractResponseListener.READ_COMMAND, 10, 10, 0));
+            SimulatedDevice device = SimulatedDevice.attach(async_reader.getPassiveReader());
+            EPC_tag tag = new EPC_tag((short) -50, (short) 0x3000, new byte[12], async_reader.getPassiveReader());
+
+            CompletableFuture<byte[]> data = async_reader.read(tag, 0, 2);
+            String frame = device.takeFrame(1000);
+            device.receive(SimulatedDevice.answer(SimulatedDevice.getSequential(frame),
+                    AbstractResponseListener.TIMEOUT_ERROR, ""));
+            String retried = device.takeFrame(5000);
+            assertNotNull(retried);
+            device.receive(SimulatedDevice.answer(SimulatedDevice.getSequential(retried), 0, "01020304"));
+            assertArrayEquals(new byte[]{0x01, 0x02, 0x03, 0x04}, data.get(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, countThreads("AsyncPassiveReader retry"));
+        assertEquals(1, countThreads("AsyncPassiveReader"));
+    }
+
+    private static int countThreads(String name) {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals(name)) {
+                assertTrue(thread.isDaemon());
+                count++;
+            }
+        }
+        return count;
+    }
+}
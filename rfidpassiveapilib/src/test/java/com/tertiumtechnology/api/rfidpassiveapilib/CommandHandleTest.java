@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractResponseListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyInventoryListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyReaderListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyResponseListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CommandHandleTest {
+    private final List<Integer> read_errors = new ArrayList<>();
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final List<Long> delays = new ArrayList<>();
+    private SimulatedDevice device;
+    private PassiveReader passive_reader;
+    private EPC_tag tag;
+
+    @Before
+    public void setUp() {
+        device = SimulatedDevice.connect(new DummyInventoryListener(), new DummyReaderListener(),
+                new DummyResponseListener() {
+                    @Override
+                    public void readEvent(byte[] tag_ID, int error, byte[] data) {
+                        read_errors.add(error);
+                    }
+                });
+        passive_reader = device.getReader();
+        passive_reader.setScheduler((task, delay) -> {
+            tasks.add(task);
+            delays.add(delay);
+        });
+        tag = new EPC_tag((short) -50, (short) 0x3000, new byte[12], passive_reader);
+    }
+
+    @Test
+    public void expiredDeadlineFailsTheInFlightCommand() {
+        CommandHandle handle = new CommandHandle(5000);
+        passive_reader.execute(handle, () -> tag.read(1, 2));
+        String frame = device.takeFrames().get(0);
+        assertEquals(1, tasks.size());
+        assertTrue(delays.get(0) > 0 && delays.get(0) <= 5000);
+
+        // the deadline timer
+        tasks.get(0).run();
+        assertEquals(Collections.emptyList(), read_errors);
+        runTasks(1);
+        assertEquals(Collections.singletonList(AbstractResponseListener.READER_DRIVER_COMMAND_DEADLINE_ERROR),
+                read_errors);
+
+        // the late answer is discarded, and the reader is free again
+        device.receive(SimulatedDevice.answer(SimulatedDevice.getSequential(frame), 0, "01020304"));
+        assertEquals(1, read_errors.size());
+        tag.read(2, 2);
+        answer(2);
+        assertEquals(Arrays.asList(AbstractResponseListener.READER_DRIVER_COMMAND_DEADLINE_ERROR,
+                AbstractResponseListener.NO_ERROR), read_errors);
+    }
+
+    @Test
+    public void commandIssuedAfterTheDeadlineIsNotSent() {
+        CommandHandle handle = new CommandHandle(0);
+        passive_reader.execute(handle, () -> tag.read(1, 2));
+
+        assertNull(takeFrame(0));
+        assertEquals(Collections.singletonList(AbstractResponseListener.READER_DRIVER_COMMAND_DEADLINE_ERROR),
+                read_errors);
+    }
+
+    @Test
+    public void cancelledCommandsAreFailedOutsideCancel() {
+        passive_reader.setCommandQueue(4, 0, PassiveReader.COMMAND_QUEUE_REJECT);
+        CommandHandle handle = new CommandHandle();
+        passive_reader.execute(handle, () -> {
+            tag.read(1, 2);
+            tag.read(2, 2);
+        });
+        String frame = takeFrame(0);
+        assertNotNull(frame);
+        assertEquals(1, passive_reader.getQueuedCommandCount());
+
+        assertTrue(handle.cancel());
+        assertEquals(Collections.emptyList(), read_errors);
+        assertEquals(0, passive_reader.getQueuedCommandCount());
+        runTasks(1);
+        assertEquals(Arrays.asList(AbstractResponseListener.READER_DRIVER_COMMAND_CANCELLED_ERROR,
+                AbstractResponseListener.READER_DRIVER_COMMAND_CANCELLED_ERROR), read_errors);
+
+        // the late answer of the cancelled command is discarded, the queued one is never sent
+        device.receive(SimulatedDevice.answer(SimulatedDevice.getSequential(frame), 0, "01020304"));
+        assertEquals(2, read_errors.size());
+        assertNull(takeFrame(0));
+        tag.read(3, 2);
+        answer(3);
+        assertEquals(AbstractResponseListener.NO_ERROR, (int) read_errors.get(2));
+    }
+
+    @Test
+    public void lateAnswerDoesNotCompleteTheNextCommand() {
+        passive_reader.setPipelineWindow(2);
+        CommandHandle handle = new CommandHandle();
+        passive_reader.execute(handle, () -> tag.read(1, 2));
+        String cancelled = takeFrame(0);
+        handle.cancel();
+        runTasks(1);
+        tag.read(2, 2);
+        String frame = takeFrame(0);
+        assertNotNull(frame);
+
+        device.receive(SimulatedDevice.answer(SimulatedDevice.getSequential(cancelled), 0, "01020304"));
+        assertEquals(1, read_errors.size());
+        device.receive(SimulatedDevice.answer(SimulatedDevice.getSequential(frame), 0, "01020304"));
+        assertEquals(Arrays.asList(AbstractResponseListener.READER_DRIVER_COMMAND_CANCELLED_ERROR,
+                AbstractResponseListener.NO_ERROR), read_errors);
+    }
+
+    private void runTasks(int expected) {
+        List<Runnable> pending = new ArrayList<>(tasks.subList(tasks.size() - expected, tasks.size()));
+        for (Runnable task : pending) {
+            task.run();
+        }
+    }
+
+    private String takeFrame(long timeout) {
+        try {
+            return device.takeFrame(timeout);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private void answer(int address) {
+        String frame = takeFrame(1000);
+        assertNotNull("no frame for address " + address, frame);
+        assertEquals(address, Integer.parseInt(frame.substring(frame.length() - 4, frame.length() - 2), 16));
+        device.receive(SimulatedDevice.answer(SimulatedDevice.getSequential(frame), 0, "01020304"));
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractReaderListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractResponseListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyInventoryListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyReaderListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyResponseListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CommandQueueTest {
+    private final List<Integer> read_errors = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> battery_errors = Collections.synchronizedList(new ArrayList<>());
+    private SimulatedDevice device;
+    private PassiveReader passive_reader;
+    private EPC_tag tag;
+
+    @Before
+    public void setUp() {
+        device = SimulatedDevice.connect(new DummyInventoryListener(), new DummyReaderListener() {
+                    @Override
+                    public void resultEvent(int command, int error) {
+                        if (command == AbstractReaderListener.GET_BATTERY_LEVEL_COMMAND) {
+                            battery_errors.add(error);
+                        }
+                    }
+                },
+                new DummyResponseListener() {
+                    @Override
+                    public void readEvent(byte[] tag_ID, int error, byte[] data) {
+                        read_errors.add(error);
+                    }
+                });
+        passive_reader = device.getReader();
+        tag = new EPC_tag((short) -50, (short) 0x3000, new byte[12], passive_reader);
+    }
+
+    @Test
+    public void rejectPolicyRejectsTheNewCommand() {
+        passive_reader.setCommandQueue(1, 0, PassiveReader.COMMAND_QUEUE_REJECT);
+        tag.read(1, 2);
+        tag.read(2, 2);
+        tag.read(3, 2);
+
+        assertEquals(Collections.singletonList(AbstractResponseListener.READER_DRIVER_COMMAND_QUEUE_FULL_ERROR),
+                read_errors);
+        assertEquals(1, passive_reader.getQueuedCommandCount());
+        answer(1);
+        answer(2);
+        assertNull(takeFrame(0));
+    }
+
+    @Test
+    public void dropOldestPolicyDropsTheQueuedCommand() {
+        passive_reader.setCommandQueue(1, 0, PassiveReader.COMMAND_QUEUE_DROP_OLDEST);
+        tag.read(1, 2);
+        tag.read(2, 2);
+        tag.read(3, 2);
+
+        assertEquals(Collections.singletonList(AbstractResponseListener.READER_DRIVER_COMMAND_QUEUE_FULL_ERROR),
+                read_errors);
+        answer(1);
+        answer(3);
+        assertNull(takeFrame(0));
+    }
+
+    @Test(timeout = 10000)
+    public void blockPolicyWaitsForSpaceWithoutHoldingTheCommandMonitor() throws Exception {
+        passive_reader.setCommandQueue(1, 0, PassiveReader.COMMAND_QUEUE_BLOCK);
+        tag.read(1, 2);
+        tag.read(2, 2);
+        Thread worker = new Thread(() -> tag.read(3, 2), "worker");
+        worker.start();
+        worker.join(200);
+        assertTrue("the worker must wait for space", worker.isAlive());
+
+        // sending the queued command needs the tag monitor the worker is waiting with
+        answer(1);
+        worker.join(5000);
+        assertFalse(worker.isAlive());
+        answer(2);
+        answer(3);
+        assertEquals(Arrays.asList(AbstractResponseListener.NO_ERROR, AbstractResponseListener.NO_ERROR,
+                AbstractResponseListener.NO_ERROR), read_errors);
+    }
+
+    @Test(timeout = 10000)
+    public void blockPolicyRejectsTheCommandAfterTheWaitTime() throws Exception {
+        passive_reader.setCommandQueue(1, 100, PassiveReader.COMMAND_QUEUE_BLOCK);
+        tag.read(1, 2);
+        tag.read(2, 2);
+        Thread worker = new Thread(() -> tag.read(3, 2), "worker");
+        worker.start();
+        worker.join(5000);
+
+        assertFalse(worker.isAlive());
+        assertEquals(Collections.singletonList(AbstractResponseListener.READER_DRIVER_COMMAND_QUEUE_FULL_ERROR),
+                read_errors);
+        assertEquals(1, passive_reader.getQueuedCommandCount());
+    }
+
+    @Test(timeout = 10000)
+    public void blockPolicyNeverBlocksTheAnswerDelivery() throws Exception {
+        AtomicBoolean issued = new AtomicBoolean();
+        passive_reader.setCommandQueue(1, 0, PassiveReader.COMMAND_QUEUE_BLOCK);
+        passive_reader.response_listener = new DummyResponseListener() {
+            @Override
+            public void readEvent(byte[] tag_ID, int error, byte[] data) {
+                read_errors.add(error);
+                if (!issued.getAndSet(true)) {
+                    // the queue is full: blocking here would keep the queued command from being sent
+                    tag.read(9, 2);
+                }
+            }
+        };
+        tag.read(1, 2);
+        tag.read(2, 2);
+        Thread worker = new Thread(() -> tag.read(3, 2), "worker");
+        worker.start();
+        worker.join(200);
+        assertTrue(worker.isAlive());
+
+        Thread delivery = new Thread(() -> answer(1), "delivery");
+        delivery.start();
+        delivery.join(5000);
+        assertFalse("the answer delivery must not block", delivery.isAlive());
+        worker.join(5000);
+        assertFalse(worker.isAlive());
+        assertEquals(Arrays.asList(AbstractResponseListener.NO_ERROR,
+                AbstractResponseListener.READER_DRIVER_COMMAND_QUEUE_FULL_ERROR), read_errors);
+        answer(2);
+        answer(3);
+    }
+
+    @Test
+    public void commandIsSentAtOnceWhenOnlyLessUrgentCommandsAreQueued() {
+        passive_reader.setCommandQueue(4, 0, PassiveReader.COMMAND_QUEUE_REJECT);
+        passive_reader.setTelemetryDeferTime(60000);
+        tag.read(1, 2);
+        answer(1);
+        passive_reader.getBatteryLevel();
+        assertEquals(1, passive_reader.getQueuedCommandCount(PassiveReader.COMMAND_PRIORITY_TELEMETRY));
+
+        tag.read(2, 2);
+        answer(2);
+        assertEquals(1, passive_reader.getQueuedCommandCount());
+    }
+
+    @Test
+    public void telemetryIsHeldBackForTheDeferTime() throws Exception {
+        passive_reader.setCommandQueue(4, 0, PassiveReader.COMMAND_QUEUE_REJECT);
+        passive_reader.setTelemetryDeferTime(50);
+        tag.read(1, 2);
+        answer(1);
+        passive_reader.getBatteryLevel();
+        assertNull(takeFrame(0));
+        assertEquals(1, passive_reader.getQueuedCommandCount(PassiveReader.COMMAND_PRIORITY_TELEMETRY));
+
+        Thread.sleep(100);
+        device.receive("");
+        assertNotNull(takeFrame(1000));
+        assertEquals(0, passive_reader.getQueuedCommandCount());
+        assertEquals(Collections.emptyList(), battery_errors);
+    }
+
+    @Test
+    public void quotaLimitsTheQueuedCommandsOfAClass() {
+        passive_reader.setCommandQueue(4, 0, PassiveReader.COMMAND_QUEUE_REJECT);
+        passive_reader.setCommandQueueQuota(PassiveReader.COMMAND_PRIORITY_TELEMETRY, 1);
+        tag.read(1, 2);
+        passive_reader.getBatteryLevel();
+        passive_reader.getBatteryLevel();
+        tag.read(2, 2);
+
+        assertEquals(Collections.singletonList(AbstractReaderListener.READER_DRIVER_COMMAND_QUEUE_FULL_ERROR),
+                battery_errors);
+        assertEquals(1, passive_reader.getQueuedCommandCount(PassiveReader.COMMAND_PRIORITY_TELEMETRY));
+        assertEquals(1, passive_reader.getQueuedCommandCount(PassiveReader.COMMAND_PRIORITY_TAG));
+        assertEquals(1, passive_reader.getRejectedCommandCount(PassiveReader.COMMAND_PRIORITY_TELEMETRY));
+        // tag commands are sent first
+        answer(1);
+        answer(2);
+    }
+
+    @Test
+    public void dropOldestPolicyDropsTheLeastUrgentClass() {
+        passive_reader.setCommandQueue(2, 0, PassiveReader.COMMAND_QUEUE_DROP_OLDEST);
+        tag.read(1, 2);
+        passive_reader.getBatteryLevel();
+        tag.read(2, 2);
+        tag.read(3, 2);
+
+        assertEquals(Collections.singletonList(AbstractReaderListener.READER_DRIVER_COMMAND_QUEUE_FULL_ERROR),
+                battery_errors);
+        assertEquals(2, passive_reader.getQueuedCommandCount(PassiveReader.COMMAND_PRIORITY_TAG));
+        // no queued command is less urgent than a telemetry one
+        passive_reader.getBatteryLevel();
+        assertEquals(Arrays.asList(AbstractReaderListener.READER_DRIVER_COMMAND_QUEUE_FULL_ERROR,
+                AbstractReaderListener.READER_DRIVER_COMMAND_QUEUE_FULL_ERROR), battery_errors);
+        answer(1);
+        answer(2);
+        answer(3);
+        assertEquals(Collections.emptyList(), read_errors.subList(3, read_errors.size()));
+    }
+
+    @Test
+    public void dropOldestPolicyDropsWithinAClassOverItsQuota() {
+        passive_reader.setCommandQueue(4, 0, PassiveReader.COMMAND_QUEUE_DROP_OLDEST);
+        passive_reader.setCommandQueueQuota(PassiveReader.COMMAND_PRIORITY_TAG, 1);
+        tag.read(1, 2);
+        passive_reader.getBatteryLevel();
+        tag.read(2, 2);
+        tag.read(3, 2);
+
+        assertEquals(Collections.singletonList(AbstractResponseListener.READER_DRIVER_COMMAND_QUEUE_FULL_ERROR),
+                read_errors);
+        assertEquals(Collections.emptyList(), battery_errors);
+        answer(1);
+        answer(3);
+    }
+
+    private String takeFrame(long timeout) {
+        try {
+            return device.takeFrame(timeout);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Answer the next written read frame, checking its memory address.
+     */
+    private void answer(int address) {
+        String frame = takeFrame(1000);
+        assertNotNull("no frame for address " + address, frame);
+        assertEquals(address, Integer.parseInt(frame.substring(frame.length() - 4, frame.length() - 2), 16));
+        device.receive(SimulatedDevice.answer(SimulatedDevice.getSequential(frame), 0, "01020304"));
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractResponseListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyInventoryListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyReaderListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyResponseListener;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Several worker threads, each reading its own tag, while a simulated device
+ * answers from its own callback thread: every read must complete once, with
+ * the answer of its own tag.
+ */
+public class ConcurrentSubmissionTest {
+    private static final int THREADS = 8;
+    private static final int READS_PER_TAG = 500;
+    private static final int MAX_OUTSTANDING = 3;
+    private static final int TAG_BASE = 0x10;
+
+    private final ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final Semaphore[] outstanding = new Semaphore[THREADS];
+    private CountDownLatch done;
+
+    @Test(timeout = 60000)
+    public void severalThreadsAndTagsWindowOne() throws Exception {
+        stress(1);
+    }
+
+    @Test(timeout = 60000)
+    public void severalThreadsAndTagsPipelined() throws Exception {
+        stress(4);
+    }
+
+    private void stress(int window) throws Exception {
+        done = new CountDownLatch(THREADS * READS_PER_TAG);
+        for (int n = 0; n < THREADS; n++) {
+            outstanding[n] = new Semaphore(MAX_OUTSTANDING);
+        }
+        SimulatedDevice device = SimulatedDevice.connect(new DummyInventoryListener(), new DummyReaderListener(),
+                new DummyResponseListener() {
+                    @Override
+                    public void readEvent(byte[] tag_ID, int error, byte[] data) {
+                        int tag = tag_ID[tag_ID.length - 1] - TAG_BASE;
+                        if (error != AbstractResponseListener.NO_ERROR) {
+                            failures.add("tag " + tag + " error " + error);
+                        }
+                        else if (data == null || data.length != 4 || data[3] != tag_ID[tag_ID.length - 1]) {
+                            failures.add("tag " + tag + " got " + Arrays.toString(data));
+                        }
+                        completed.incrementAndGet();
+                        outstanding[tag].release();
+                        done.countDown();
+                    }
+                });
+        PassiveReader passive_reader = device.getReader();
+        passive_reader.setPipelineWindow(window);
+        passive_reader.setCommandQueue(THREADS * MAX_OUTSTANDING, 0, PassiveReader.COMMAND_QUEUE_REJECT);
+        EPC_tag[] tags = new EPC_tag[THREADS];
+        for (int n = 0; n < THREADS; n++) {
+            tags[n] = new EPC_tag((short) -50, (short) 0x3000, filled((byte) (TAG_BASE + n)), passive_reader);
+        }
+
+        Thread answering = new Thread(() -> answer(device), "device");
+        answering.setDaemon(true);
+        answering.start();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[THREADS];
+        for (int n = 0; n < workers.length; n++) {
+            int tag = n;
+            workers[n] = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int read = 0; read < READS_PER_TAG; read++) {
+                        outstanding[tag].acquire();
+                        tags[tag].read(read % 8, 2);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "worker-" + n);
+            workers[n].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        boolean all = done.await(30, TimeUnit.SECONDS);
+        answering.interrupt();
+
+        assertTrue("completed " + completed.get() + " of " + THREADS * READS_PER_TAG, all);
+        assertEquals("failures: " + failures, 0, failures.size());
+        assertEquals(THREADS * READS_PER_TAG, completed.get());
+        assertEquals(0, passive_reader.getInFlightCommandCount());
+        assertEquals(0, passive_reader.getQueuedCommandCount());
+    }
+
+    private static byte[] filled(byte value) {
+        byte[] ID = new byte[12];
+        Arrays.fill(ID, value);
+        return ID;
+    }
+
+    /**
+     * Answer every written read frame with the last byte of the addressed tag
+     * ID; while idle, deliver empty notifications so that queued commands are
+     * dispatched without an application main looper.
+     */
+    private static void answer(SimulatedDevice device) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                String frame = device.takeFrame(5);
+                if (frame == null) {
+                    device.receive("");
+                    continue;
+                }
+                String last = null;
+                for (int n = 0; n < THREADS && last == null; n++) {
+                    String ID = String.format("%02X", TAG_BASE + n);
+                    if (frame.contains(new String(new char[12]).replace("\0", ID))) {
+                        last = ID;
+                    }
+                }
+                device.receive(SimulatedDevice.answer(SimulatedDevice.getSequential(frame), 0, "000000" + last));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
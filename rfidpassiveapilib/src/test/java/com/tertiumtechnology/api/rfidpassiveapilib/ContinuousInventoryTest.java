@@ -0,0 +1,160 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.InventoryLine;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyInventoryListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyReaderListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyResponseListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ContinuousInventoryTest {
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final List<Long> delays = new ArrayList<>();
+    private final InventoryLine line = new InventoryLine();
+    private ContinuousInventory loop;
+    private int sequential;
+
+    @Before
+    public void setUp() {
+        PassiveReader passive_reader = SimulatedDevice.connect(new DummyInventoryListener(),
+                new DummyReaderListener(), new DummyResponseListener()).getReader();
+        loop = new ContinuousInventory(passive_reader, (task, delay) -> {
+            tasks.add(task);
+            delays.add(delay);
+        });
+        assertTrue(loop.setGap(0, 100));
+        assertTrue(loop.start());
+    }
+
+    @After
+    public void tearDown() {
+        loop.stop();
+    }
+
+    @Test
+    public void gapDoublesAfterRoundsWithoutNewTags() {
+        assertEquals(20, round());
+        assertEquals(40, round());
+        assertEquals(80, round());
+        assertEquals(100, round());
+        assertEquals(100, round());
+        assertEquals(100, loop.getGap());
+        assertEquals(5, loop.getRoundCount());
+        assertEquals(0, loop.getTimedOutRoundCount());
+    }
+
+    @Test
+    public void gapHalvesAfterRoundsWithNewTags() {
+        round();
+        round();
+        round();
+        assertEquals(40, round(1, 2));
+        assertEquals(20, round(3));
+        // tags already seen are not new
+        assertEquals(40, round(1, 3));
+        assertEquals(20, round(4));
+        assertEquals(4, loop.getTagCount());
+    }
+
+    @Test
+    public void gapStaysWithinItsBounds() {
+        assertTrue(loop.setGap(30, 50));
+        assertEquals(50, round());
+        assertEquals(50, round());
+        assertEquals(30, round(1));
+        assertEquals(30, round(2));
+        assertFalse(loop.setGap(60, 50));
+        assertFalse(loop.setGap(-1, 50));
+    }
+
+    @Test
+    public void unansweredRoundTimesOut() {
+        Runnable timeout = tasks.get(0);
+        assertTrue(delays.get(0) >= 1000);
+
+        loop.roundStarted(++sequential);
+        timeout.run();
+        assertEquals(1, loop.getRoundCount());
+        assertEquals(1, loop.getTimedOutRoundCount());
+        assertEquals(20, (long) delays.get(delays.size() - 1));
+
+        // the late answer of the timed out round is ignored
+        loop.answerReceived(sequential);
+        assertEquals(1, loop.getRoundCount());
+    }
+
+    @Test
+    public void answeredRoundDoesNotTimeOut() {
+        Runnable timeout = tasks.get(0);
+        round();
+
+        timeout.run();
+        assertEquals(1, loop.getRoundCount());
+        assertEquals(0, loop.getTimedOutRoundCount());
+    }
+
+    @Test
+    public void stoppedLoopIssuesNoRound() {
+        loop.roundStarted(++sequential);
+        loop.answerReceived(sequential);
+        Runnable next = tasks.get(tasks.size() - 1);
+        loop.stop();
+        int scheduled = tasks.size();
+
+        next.run();
+        assertEquals(scheduled, tasks.size());
+        assertFalse(loop.isRunning());
+    }
+
+    /**
+     * Complete a round discovering some tags, then issue the next round.
+     *
+     * @return the gap before the next round
+     */
+    private long round(int... tags) {
+        loop.roundStarted(++sequential);
+        for (int tag : tags) {
+            byte[] ID = line.getBuffer(12);
+            ID[11] = (byte) tag;
+            line.set(0, 12, (short) 0x3000, (short) -50);
+            loop.tagSeen(line);
+        }
+        loop.answerReceived(sequential);
+        long gap = delays.get(delays.size() - 1);
+        tasks.get(tasks.size() - 1).run();
+        return gap;
+    }
+}
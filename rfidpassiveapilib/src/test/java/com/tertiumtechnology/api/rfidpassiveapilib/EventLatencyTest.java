@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyInventoryListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyReaderListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyResponseListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyZhagaListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.util.BleSettings;
+import com.tertiumtechnology.api.rfidpassiveapilib.util.LatencyHistogram;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EventLatencyTest {
+    private static final long LISTENER_TIME = 5;
+
+    private final List<Integer> buttons = new ArrayList<>();
+    private SimulatedDevice device;
+
+    @Before
+    public void setUp() {
+        PassiveReader passive_reader = PassiveReader.getPassiveReaderInstance(new DummyInventoryListener(),
+                new DummyReaderListener(), new DummyResponseListener(), new DummyZhagaListener() {
+                    @Override
+                    public void buttonEvent(int button, int time) {
+                        buttons.add(button);
+                        try {
+                            Thread.sleep(LISTENER_TIME);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }, null, new BleSettings());
+        device = SimulatedDevice.attach(passive_reader);
+    }
+
+    @Test
+    public void latencyIncludesTheListenerCallbacks() {
+        device.receiveEvent("I:0C0180000305\n");
+
+        assertEquals(1, buttons.size());
+        assertEquals(3, (int) buttons.get(0));
+        LatencyHistogram latency = device.getReader().getEventLatency();
+        assertEquals(1, latency.getCount());
+        assertTrue(latency.getPercentile(100) >= LISTENER_TIME * 1000);
+    }
+
+    @Test
+    public void invalidEventIsNotRecorded() {
+        device.receiveEvent("I:0D0180000305\n");
+        device.receiveEvent("I:08\n");
+
+        assertEquals(0, buttons.size());
+        assertEquals(0, device.getReader().getEventLatency().getCount());
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyInventoryListener;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InventoryAggregatorTest {
+    private final List<Tag> new_tags = new ArrayList<>();
+    private final List<Tag> reads = new ArrayList<>();
+    private final InventoryAggregator aggregator = new InventoryAggregator(new DummyInventoryListener() {
+        @Override
+        public void inventoryEvent(Tag tag) {
+            new_tags.add(tag);
+        }
+    }, new DummyInventoryListener() {
+        @Override
+        public void inventoryEvent(Tag tag) {
+            reads.add(tag);
+        }
+    }, new TagStore(1000));
+
+    @Test
+    public void repeatedReadsAreDeduplicated() {
+        read(1, -50);
+        read(2, -50);
+        read(1, -50);
+        read(1, -50);
+
+        assertEquals(2, aggregator.size());
+        assertEquals(4, aggregator.getReadCount());
+        assertTrue(aggregator.contains(ID(1)));
+        assertFalse(aggregator.contains(ID(3)));
+        TagStore snapshot = aggregator.snapshot();
+        assertArrayEquals(ID(1), snapshot.getID(0));
+        assertEquals(3, snapshot.getReadCount(0));
+        assertArrayEquals(ID(2), snapshot.getID(1));
+        assertEquals(1, snapshot.getReadCount(1));
+    }
+
+    @Test
+    public void newTagListenerIsNotifiedOncePerTag() {
+        read(1, -50);
+        read(2, -50);
+        read(1, -50);
+        read(3, -50);
+        read(2, -50);
+
+        assertEquals(3, new_tags.size());
+        assertArrayEquals(ID(1), new_tags.get(0).getID());
+        assertArrayEquals(ID(2), new_tags.get(1).getID());
+        assertArrayEquals(ID(3), new_tags.get(2).getID());
+        assertEquals(5, reads.size());
+
+        aggregator.clear();
+        read(1, -50);
+        assertEquals(4, new_tags.size());
+    }
+
+    @Test
+    public void RSSIStatisticsCoverEveryRead() {
+        read(1, -60);
+        read(1, -40);
+        read(1, -50);
+        read(1, -56);
+        aggregator.inventoryEvent(new ISO15693_tag(ID(2), null));
+
+        TagStore snapshot = aggregator.snapshot();
+        assertEquals(-60, snapshot.getMinRSSI(0));
+        assertEquals(-40, snapshot.getMaxRSSI(0));
+        assertEquals(-51.5f, snapshot.getMeanRSSI(0), 0.001f);
+        assertEquals(PassiveReader.EPC_STANDARD, snapshot.getStandard(0));
+        assertEquals(TagStore.NO_RSSI, snapshot.getMinRSSI(1));
+        assertEquals(TagStore.NO_RSSI, snapshot.getMaxRSSI(1));
+        assertEquals(TagStore.NO_RSSI, snapshot.getMeanRSSI(1), 0);
+        assertEquals(PassiveReader.ISO15693_STANDARD, snapshot.getStandard(1));
+    }
+
+    @Test
+    public void snapshotIsIndependentOfTheAggregator() {
+        read(1, -50);
+        read(2, -50);
+        TagStore snapshot = aggregator.snapshot();
+        read(3, -50);
+        read(1, -50);
+
+        assertEquals(2, snapshot.size());
+        assertEquals(1, snapshot.getReadCount(0));
+        for (int n = 10; n < 200; n++) {
+            snapshot.update(ID(n), PassiveReader.EPC_STANDARD, (short) 0, (short) -50);
+        }
+        assertEquals(192, snapshot.size());
+        for (int n = 10; n < 200; n++) {
+            assertEquals(n - 8, snapshot.indexOf(ID(n)));
+        }
+        assertEquals(0, snapshot.indexOf(ID(1)));
+        assertEquals(3, aggregator.size());
+    }
+
+    private void read(int tag, int RSSI) {
+        aggregator.inventoryEvent(new EPC_tag((short) RSSI, (short) 0x3000, ID(tag), null));
+    }
+
+    private static byte[] ID(int tag) {
+        byte[] ID = new byte[12];
+        ID[10] = (byte) (tag >> 8);
+        ID[11] = (byte) tag;
+        return ID;
+    }
+}
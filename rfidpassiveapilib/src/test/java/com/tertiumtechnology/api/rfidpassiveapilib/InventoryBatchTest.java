@@ -0,0 +1,131 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.InventoryLine;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyInventoryListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyReaderListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyResponseListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class InventoryBatchTest {
+    private final List<List<byte[]>> batches = new ArrayList<>();
+    private Runnable batch_action;
+    private SimulatedDevice device;
+    private PassiveReader passive_reader;
+
+    @Before
+    public void setUp() {
+        device = SimulatedDevice.connect(new DummyInventoryListener() {
+            @Override
+            public void inventoryBatchEvent(InventoryBatch batch) {
+                List<byte[]> IDs = new ArrayList<>();
+                for (int n = 0; n < batch.size(); n++) {
+                    IDs.add(batch.getID(n));
+                }
+                batches.add(IDs);
+                if (batch_action != null) {
+                    batch_action.run();
+                }
+            }
+        }, new DummyReaderListener(), new DummyResponseListener()).setUHF();
+        passive_reader = device.getReader();
+    }
+
+    @Test
+    public void fullBatchIsNotifiedAtOnce() {
+        passive_reader.setInventoryBatch(PassiveReader.INVENTORY_BATCH_PER_NOTIFICATION, 2, 0);
+        device.receive("E2001231 C4\r\nE2001232 C4\r\nE2001233 C4\r\n");
+
+        assertEquals(2, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertArrayEquals(new byte[]{(byte) 0xE2, 0x00, 0x12, 0x31}, batches.get(0).get(0));
+        assertArrayEquals(new byte[]{(byte) 0xE2, 0x00, 0x12, 0x32}, batches.get(0).get(1));
+        assertEquals(1, batches.get(1).size());
+        assertArrayEquals(new byte[]{(byte) 0xE2, 0x00, 0x12, 0x33}, batches.get(1).get(0));
+    }
+
+    @Test
+    public void listenerRunsWithoutHoldingTheBatchLock() throws InterruptedException {
+        passive_reader.setInventoryBatch(PassiveReader.INVENTORY_BATCH_PER_NOTIFICATION, 10, 0);
+        List<Thread> threads = new ArrayList<>();
+        batch_action = () -> {
+            // another thread changing the delivery mode while the batch is notified
+            Thread thread = new Thread(() ->
+                    passive_reader.setInventoryBatch(PassiveReader.INVENTORY_BATCH_DISABLED, 1, 0));
+            thread.start();
+            try {
+                thread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            threads.add(thread);
+        };
+        device.receive("E2001231 C4\r\nE2001232 C4\r\n");
+
+        assertEquals(1, threads.size());
+        assertFalse(threads.get(0).isAlive());
+        assertEquals(PassiveReader.INVENTORY_BATCH_DISABLED, passive_reader.getInventoryBatchMode());
+    }
+
+    @Test
+    public void indexesPastTheBatchAreRejected() {
+        InventoryBatch batch = new InventoryBatch(null);
+        InventoryLine line = new InventoryLine();
+        line.getBuffer(4)[3] = 1;
+        line.set(0, 4, (short) 0x3000, (short) -50);
+        batch.add(line, PassiveReader.EPC_STANDARD, true);
+        assertEquals(4, batch.getIDlength(0));
+        batch.clear();
+
+        List<Runnable> getters = new ArrayList<>();
+        getters.add(() -> batch.getTag(0));
+        getters.add(() -> batch.getID(0));
+        getters.add(() -> batch.getIDbyte(0, 3));
+        getters.add(() -> batch.getIDlength(0));
+        getters.add(() -> batch.getPC(0));
+        getters.add(() -> batch.getRSSI(0));
+        getters.add(() -> batch.getStandard(0));
+        getters.add(() -> batch.getStandard(-1));
+        for (Runnable getter : getters) {
+            try {
+                getter.run();
+                fail("index accepted");
+            } catch (IndexOutOfBoundsException e) {
+                // expected
+            }
+        }
+    }
+}
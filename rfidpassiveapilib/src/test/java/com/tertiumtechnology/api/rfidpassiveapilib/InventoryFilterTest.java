@@ -0,0 +1,151 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.InventoryLine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class InventoryFilterTest {
+    private static final byte[] EPC = {0x30, 0x14, (byte) 0xE2, 0x00, 0x12, 0x34, 0x56, 0x78, 0x00, 0x00, 0x00, 0x01};
+
+    private final InventoryFilter filter = new InventoryFilter();
+
+    @Test
+    public void emptyFilterAcceptsEveryLine() {
+        assertTrue(filter.accept(line(EPC, -90), PassiveReader.EPC_STANDARD));
+        assertTrue(filter.accept(line(new byte[8]), PassiveReader.ISO15693_STANDARD));
+        assertTrue(filter.accept(line(new byte[4]), PassiveReader.ISO14443A_STANDARD));
+        assertTrue(filter.accept(line(EPC, -128), PassiveReader.EPC_STANDARD));
+    }
+
+    @Test
+    public void prefixIsComparedByteByByte() {
+        filter.setIDprefix(new byte[]{0x30, 0x14, (byte) 0xE2}, null);
+
+        assertTrue(filter.accept(line(EPC, -50), PassiveReader.EPC_STANDARD));
+        assertFalse(filter.accept(line(new byte[]{0x30, 0x14, (byte) 0xE3, 0x00}, -50), PassiveReader.EPC_STANDARD));
+        // ID shorter than the prefix
+        assertFalse(filter.accept(line(new byte[]{0x30, 0x14}, -50), PassiveReader.EPC_STANDARD));
+
+        filter.setIDprefix(null, null);
+        assertTrue(filter.accept(line(new byte[]{0x30, 0x14}, -50), PassiveReader.EPC_STANDARD));
+    }
+
+    @Test
+    public void prefixMaskSelectsTheComparedBits() {
+        // first 20 bits only
+        filter.setIDprefix(new byte[]{0x30, 0x14, (byte) 0xE0}, new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xF0});
+
+        assertTrue(filter.accept(line(EPC, -50), PassiveReader.EPC_STANDARD));
+        assertTrue(filter.accept(line(new byte[]{0x30, 0x14, (byte) 0xEF}, -50), PassiveReader.EPC_STANDARD));
+        assertFalse(filter.accept(line(new byte[]{0x30, 0x14, (byte) 0xD2}, -50), PassiveReader.EPC_STANDARD));
+        assertFalse(filter.accept(line(new byte[]{0x31, 0x14, (byte) 0xE2}, -50), PassiveReader.EPC_STANDARD));
+        try {
+            filter.setIDprefix(new byte[]{0x30, 0x14}, new byte[]{(byte) 0xFF});
+            fail("mask accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void IDlengthMustBeInRange() {
+        filter.setIDlength(8, 12);
+
+        assertTrue(filter.accept(line(new byte[8]), PassiveReader.ISO15693_STANDARD));
+        assertTrue(filter.accept(line(EPC, -50), PassiveReader.EPC_STANDARD));
+        assertFalse(filter.accept(line(new byte[7]), PassiveReader.ISO14443A_STANDARD));
+        assertFalse(filter.accept(line(new byte[16], -50), PassiveReader.EPC_STANDARD));
+        try {
+            filter.setIDlength(8, 7);
+            fail("range accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void rejectedStandardsAreFiltered() {
+        filter.setStandard(PassiveReader.ISO14443A_STANDARD, false);
+
+        assertFalse(filter.accept(line(new byte[4]), PassiveReader.ISO14443A_STANDARD));
+        assertTrue(filter.accept(line(new byte[8]), PassiveReader.ISO15693_STANDARD));
+        assertTrue(filter.accept(line(EPC, -50), PassiveReader.EPC_STANDARD));
+
+        filter.setStandard(PassiveReader.ISO14443A_STANDARD, true);
+        assertTrue(filter.accept(line(new byte[4]), PassiveReader.ISO14443A_STANDARD));
+        try {
+            filter.setStandard(3, false);
+            fail("standard accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void minimumRSSIRejectsWeakerReadings() {
+        filter.setMinRSSI((short) -60);
+
+        assertTrue(filter.accept(line(EPC, -60), PassiveReader.EPC_STANDARD));
+        assertTrue(filter.accept(line(EPC, -30), PassiveReader.EPC_STANDARD));
+        assertFalse(filter.accept(line(EPC, -61), PassiveReader.EPC_STANDARD));
+        // a -128 dBm reading is a reading, not a missing RSSI
+        assertFalse(filter.accept(line(EPC, -128), PassiveReader.EPC_STANDARD));
+        // lines without RSSI are not rejected
+        assertTrue(filter.accept(line(EPC), PassiveReader.EPC_STANDARD));
+    }
+
+    @Test
+    public void allConditionsMustHold() {
+        filter.setIDprefix(new byte[]{0x30}, null)
+                .setIDlength(12, 12)
+                .setMinRSSI((short) -60)
+                .setStandard(PassiveReader.ISO15693_STANDARD, false);
+
+        assertTrue(filter.accept(line(EPC, -50), PassiveReader.EPC_STANDARD));
+        assertFalse(filter.accept(line(EPC, -70), PassiveReader.EPC_STANDARD));
+        assertFalse(filter.accept(line(EPC, -50), PassiveReader.ISO15693_STANDARD));
+        assertFalse(filter.accept(line(new byte[]{0x30, 0x00}, -50), PassiveReader.EPC_STANDARD));
+    }
+
+    private static InventoryLine line(byte[] ID) {
+        InventoryLine line = new InventoryLine();
+        System.arraycopy(ID, 0, line.getBuffer(ID.length), 0, ID.length);
+        line.set(0, ID.length, (short) 0);
+        return line;
+    }
+
+    private static InventoryLine line(byte[] ID, int RSSI) {
+        InventoryLine line = new InventoryLine();
+        System.arraycopy(ID, 0, line.getBuffer(ID.length), 0, ID.length);
+        line.set(0, ID.length, (short) 0x3000, (short) RSSI);
+        return line;
+    }
+}
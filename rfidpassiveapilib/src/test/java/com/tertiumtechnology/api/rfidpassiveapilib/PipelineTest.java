@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractResponseListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyInventoryListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyReaderListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyResponseListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class PipelineTest {
+    private final List<byte[]> read_data = new ArrayList<>();
+    private final List<Integer> read_errors = new ArrayList<>();
+    private SimulatedDevice device;
+    private PassiveReader passive_reader;
+
+    @Before
+    public void setUp() {
+        device = SimulatedDevice.connect(new DummyInventoryListener(), new DummyReaderListener(),
+                new DummyResponseListener() {
+                    @Override
+                    public void readEvent(byte[] tag_ID, int error, byte[] data) {
+                        read_errors.add(error);
+                        read_data.add(data);
+                    }
+                });
+        passive_reader = device.getReader();
+    }
+
+    @Test
+    public void answersInOneNotificationCompleteAllCommands() {
+        passive_reader.setPipelineWindow(2);
+        EPC_tag tag = new EPC_tag((short) -50, (short) 0x3000, new byte[12], passive_reader);
+        tag.read(0, 2);
+        tag.read(2, 2);
+        List<String> frames = device.takeFrames();
+        assertEquals(2, frames.size());
+        assertEquals(2, passive_reader.getInFlightCommandCount());
+
+        device.receive(SimulatedDevice.answer(SimulatedDevice.getSequential(frames.get(0)), 0, "11223344") +
+                SimulatedDevice.answer(SimulatedDevice.getSequential(frames.get(1)), 0, "55667788"));
+
+        assertEquals(0, passive_reader.getInFlightCommandCount());
+        assertEquals(2, read_errors.size());
+        assertEquals(AbstractResponseListener.NO_ERROR, (int) read_errors.get(0));
+        assertEquals(AbstractResponseListener.NO_ERROR, (int) read_errors.get(1));
+        assertArrayEquals(new byte[]{0x11, 0x22, 0x33, 0x44}, read_data.get(0));
+        assertArrayEquals(new byte[]{0x55, 0x66, 0x77, (byte) 0x88}, read_data.get(1));
+    }
+
+    @Test
+    public void answersInOneNotificationOutOfOrder() {
+        passive_reader.setPipelineWindow(2);
+        EPC_tag tag = new EPC_tag((short) -50, (short) 0x3000, new byte[12], passive_reader);
+        tag.read(0, 2);
+        tag.read(2, 2);
+        List<String> frames = device.takeFrames();
+
+        device.receive(SimulatedDevice.answer(SimulatedDevice.getSequential(frames.get(1)), 0, "55667788") +
+                SimulatedDevice.answer(SimulatedDevice.getSequential(frames.get(0)), 0, "11223344"));
+
+        assertEquals(0, passive_reader.getInFlightCommandCount());
+        assertEquals(2, read_data.size());
+        assertArrayEquals(new byte[]{0x55, 0x66, 0x77, (byte) 0x88}, read_data.get(0));
+        assertArrayEquals(new byte[]{0x11, 0x22, 0x33, 0x44}, read_data.get(1));
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractInventoryListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractReaderListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractResponseListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.util.BleSettings;
+import com.tertiumtechnology.txrxlib.rw.TxRxDeviceCallback;
+import com.tertiumtechnology.txrxlib.rw.TxRxDeviceManager;
+import com.tertiumtechnology.txrxlib.rw.TxRxTimeouts;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Simulated reader device: records the frames written by the driver and
+ * feeds answer notifications to its device callback.
+ */
+class SimulatedDevice extends TxRxDeviceManager {
+    private final List<String> frames = new ArrayList<>();
+    private final TxRxDeviceCallback callback;
+    private PassiveReader passive_reader;
+
+    private SimulatedDevice(TxRxDeviceCallback callback) {
+        super(null, callback);
+        this.callback = callback;
+    }
+
+    /**
+     * Create a reader connected to a simulated device, ready to send commands.
+     *
+     * @param inventory_listener the inventory listener
+     * @param reader_listener    the reader listener
+     * @param response_listener  the response listener
+     * @return the simulated device
+     */
+    static SimulatedDevice connect(AbstractInventoryListener inventory_listener,
+                                   AbstractReaderListener reader_listener,
+                                   AbstractResponseListener response_listener) {
+        return attach(PassiveReader.getInstance(inventory_listener, reader_listener, response_listener, null,
+                new BleSettings()));
+    }
+
+    /**
+     * Connect the last created reader to a simulated device, ready to send commands.
+     *
+     * @param passive_reader the reader
+     * @return the simulated device
+     */
+    static SimulatedDevice attach(PassiveReader passive_reader) {
+        SimulatedDevice device = new SimulatedDevice(getDeviceCallback());
+        PassiveReader.device_manager = device;
+        device.passive_reader = passive_reader;
+        passive_reader.status = PassiveReader.READY_STATUS;
+        return device;
+    }
+
+    /**
+     * Make the reader decode the inventory lines as a UHF reader does.
+     *
+     * @return this device
+     */
+    SimulatedDevice setUHF() {
+        try {
+            Field field = PassiveReader.class.getDeclaredField("UHF_device");
+            field.setAccessible(true);
+            field.setBoolean(passive_reader, true);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        return this;
+    }
+
+    PassiveReader getReader() {
+        return passive_reader;
+    }
+
+    @Override
+    public boolean requestWriteData(String data) {
+        synchronized (frames) {
+            frames.add(data);
+            frames.notifyAll();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean requestSetMode(int mode) {
+        return true;
+    }
+
+    @Override
+    public boolean isTxRxAckme() {
+        return false;
+    }
+
+    @Override
+    public void setTxRxTimeouts(TxRxTimeouts timeouts) {
+    }
+
+    /**
+     * Remove and get the frames written so far.
+     *
+     * @return the written frames, in writing order
+     */
+    List<String> takeFrames() {
+        synchronized (frames) {
+            List<String> taken = new ArrayList<>(frames);
+            frames.clear();
+            return taken;
+        }
+    }
+
+    /**
+     * Wait for a written frame.
+     *
+     * @param timeout the maximum wait in milliseconds
+     * @return the oldest frame not taken yet, or null on timeout
+     * @throws InterruptedException if the wait is interrupted
+     */
+    String takeFrame(long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        synchronized (frames) {
+            while (frames.isEmpty()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return null;
+                }
+                frames.wait(remaining);
+            }
+            return frames.remove(0);
+        }
+    }
+
+    /**
+     * Deliver a notification to the driver.
+     *
+     * @param data the notification data
+     */
+    void receive(String data) {
+        callback.onNotifyData(data);
+    }
+
+    /**
+     * Deliver an event notification to the driver.
+     *
+     * @param data the event data
+     */
+    void receiveEvent(String data) {
+        callback.onEventData(data);
+    }
+
+    /**
+     * Get the sequential number of a written command frame.
+     *
+     * @param frame the command frame
+     * @return the frame sequential number
+     */
+    static int getSequential(String frame) {
+        return Integer.parseInt(frame.substring(4, 6), 16);
+    }
+
+    /**
+     * Get the command code of a written command frame.
+     *
+     * @param frame the command frame
+     * @return the reader command code
+     */
+    static int getCommandCode(String frame) {
+        return Integer.parseInt(frame.substring(6, 8), 16);
+    }
+
+    /**
+     * Build an answer line.
+     *
+     * @param sequential  the answer sequential number
+     * @param return_code the answer return code
+     * @param data        the hexadecimal answer data
+     * @return the answer line, terminated by CR LF
+     */
+    static String answer(int sequential, int return_code, String data) {
+        return String.format("$:%02X%02X%02X%s\r\n", 6 + data.length(), sequential, return_code, data);
+    }
+
+    private static TxRxDeviceCallback getDeviceCallback() {
+        try {
+            Field field = PassiveReader.class.getDeclaredField("device_callback");
+            field.setAccessible(true);
+            return (TxRxDeviceCallback) field.get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
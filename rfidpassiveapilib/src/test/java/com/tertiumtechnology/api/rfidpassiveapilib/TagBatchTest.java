@@ -0,0 +1,115 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.AbstractResponseListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyInventoryListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyReaderListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.listener.DummyResponseListener;
+import com.tertiumtechnology.api.rfidpassiveapilib.util.BleSettings;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TagBatchTest {
+    private static final byte[] PASSWORD = {0x01, 0x02, 0x03, 0x04};
+
+    private AsyncPassiveReader async_reader;
+    private SimulatedDevice device;
+    private EPC_tag tag;
+
+    @Before
+    public void setUp() {
+        async_reader = AsyncPassiveReader.getInstance(new DummyInventoryListener(), new DummyReaderListener(),
+                new DummyResponseListener(), null, new BleSettings(), Runnable::run);
+        device = SimulatedDevice.attach(async_reader.getPassiveReader());
+        tag = new EPC_tag((short) -50, (short) 0x3000, new byte[12], async_reader.getPassiveReader());
+    }
+
+    @Test(timeout = 10000)
+    public void stopOnErrorNeverSendsTheOperationsFollowingAFailure() throws Exception {
+        CompletableFuture<TagBatch.Report> report = batch().setErrorPolicy(TagBatch.STOP_ON_ERROR).execute();
+
+        answer(AbstractResponseListener.TIMEOUT_ERROR);
+        assertNull("the lock must not be sent", device.takeFrame(200));
+
+        TagBatch.Report result = report.get(5, TimeUnit.SECONDS);
+        assertFalse(result.isSuccessful());
+        assertEquals(1, result.getErrorCount());
+        assertEquals(2, result.getNotExecutedCount());
+        assertEquals(AbstractResponseListener.TIMEOUT_ERROR, result.getOperations().get(0).getError());
+        assertEquals(TagBatch.NOT_EXECUTED, result.getOperations().get(1).getError());
+        assertEquals(TagBatch.NOT_EXECUTED, result.getOperations().get(2).getError());
+    }
+
+    @Test(timeout = 10000)
+    public void stopOnErrorExecutesEveryOperationWithoutFailures() throws Exception {
+        CompletableFuture<TagBatch.Report> report = batch().setErrorPolicy(TagBatch.STOP_ON_ERROR).execute();
+
+        for (int n = 0; n < 3; n++) {
+            answer(AbstractResponseListener.NO_ERROR);
+        }
+        TagBatch.Report result = report.get(5, TimeUnit.SECONDS);
+        assertTrue(result.isSuccessful());
+        assertEquals(3, result.getOperations().size());
+    }
+
+    @Test(timeout = 10000)
+    public void continueOnErrorExecutesTheOperationsFollowingAFailure() throws Exception {
+        CompletableFuture<TagBatch.Report> report = batch().execute();
+
+        answer(AbstractResponseListener.TIMEOUT_ERROR);
+        answer(AbstractResponseListener.NO_ERROR);
+        answer(AbstractResponseListener.NO_ERROR);
+
+        TagBatch.Report result = report.get(5, TimeUnit.SECONDS);
+        assertFalse(result.isSuccessful());
+        assertEquals(1, result.getErrorCount());
+        assertEquals(0, result.getNotExecutedCount());
+        assertEquals(AbstractResponseListener.NO_ERROR, result.getOperations().get(2).getError());
+    }
+
+    private TagBatch batch() {
+        return new TagBatch(async_reader)
+                .writeAccessPassword(tag, PASSWORD, null)
+                .lock(tag, EPC_tag.MEMORY_PASSWORD_WRITABLE, PASSWORD)
+                .read(tag, 0, 2);
+    }
+
+    private void answer(int return_code) throws InterruptedException {
+        String frame = device.takeFrame(1000);
+        assertNotNull(frame);
+        device.receive(SimulatedDevice.answer(SimulatedDevice.getSequential(frame), return_code, ""));
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib;
+
+import com.tertiumtechnology.api.rfidpassiveapilib.codec.InventoryLine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TagStoreTest {
+    private static final int TAGS = 1000;
+
+    private final TagStore store = new TagStore();
+
+    @Test
+    public void storeGrowsPastItsInitialCapacity() {
+        for (int n = 0; n < TAGS; n++) {
+            assertEquals(n, store.update(ID(n, 12), PassiveReader.EPC_STANDARD, (short) n, (short) -50));
+        }
+        for (int n = 0; n < TAGS; n++) {
+            assertEquals(n, store.update(ID(n, 12), PassiveReader.EPC_STANDARD, (short) n, (short) -50));
+        }
+
+        assertEquals(TAGS, store.size());
+        assertEquals(2 * TAGS, store.getReadCount());
+        for (int n = 0; n < TAGS; n++) {
+            assertEquals(n, store.indexOf(ID(n, 12)));
+            assertArrayEquals(ID(n, 12), store.getID(n));
+            assertEquals(2, store.getReadCount(n));
+            assertEquals(n, store.getPC(n));
+        }
+        assertEquals(-1, store.indexOf(ID(TAGS, 12)));
+    }
+
+    @Test
+    public void clearedStoreTakesNewTags() {
+        for (int n = 0; n < TAGS; n++) {
+            store.update(ID(n, 12), PassiveReader.EPC_STANDARD, (short) 0, (short) -50);
+        }
+        store.clear();
+
+        assertEquals(0, store.size());
+        assertEquals(0, store.getReadCount());
+        assertEquals(-1, store.indexOf(ID(0, 12)));
+        assertEquals(0, store.update(ID(5, 8), PassiveReader.ISO15693_STANDARD, (short) 0, TagStore.NO_RSSI));
+        assertEquals(1, store.update(ID(0, 12), PassiveReader.EPC_STANDARD, (short) 0, (short) -70));
+        assertEquals(1, store.getReadCount(0));
+        assertEquals(1, store.getReadCount(1));
+        assertEquals(-70, store.getMinRSSI(1));
+        assertEquals(-70, store.getMaxRSSI(1));
+        assertArrayEquals(ID(5, 8), store.getID(0));
+        assertEquals(PassiveReader.ISO15693_STANDARD, store.getStandard(0));
+    }
+
+    @Test
+    public void copyIsIndependentOfTheStore() {
+        store.update(ID(1, 12), PassiveReader.EPC_STANDARD, (short) 0, (short) -50);
+        store.update(ID(2, 12), PassiveReader.EPC_STANDARD, (short) 0, (short) -50);
+        TagStore copy = store.copy();
+
+        store.update(ID(1, 12), PassiveReader.EPC_STANDARD, (short) 0, (short) -30);
+        store.update(ID(3, 12), PassiveReader.EPC_STANDARD, (short) 0, (short) -50);
+        copy.update(ID(4, 12), PassiveReader.EPC_STANDARD, (short) 0, (short) -60);
+
+        assertEquals(3, store.size());
+        assertEquals(4, store.getReadCount());
+        assertEquals(-1, store.indexOf(ID(4, 12)));
+        assertEquals(-30, store.getMaxRSSI(0));
+        assertEquals(3, copy.size());
+        assertEquals(3, copy.getReadCount());
+        assertEquals(-1, copy.indexOf(ID(3, 12)));
+        assertEquals(2, copy.indexOf(ID(4, 12)));
+        assertEquals(1, copy.getReadCount(0));
+        assertEquals(-50, copy.getMaxRSSI(0));
+
+        store.clear();
+        assertEquals(3, copy.size());
+        assertArrayEquals(ID(2, 12), copy.getID(1));
+    }
+
+    @Test
+    public void IDsOfDifferentLengthsAreDifferentTags() {
+        int[] lengths = {1, 2, 4, 8, 12, 16, 32, 62};
+        for (int length : lengths) {
+            store.update(ID(7, length), PassiveReader.EPC_STANDARD, (short) 0, (short) -50);
+        }
+        // same bytes, longer ID
+        store.update(new byte[13], PassiveReader.EPC_STANDARD, (short) 0, (short) -50);
+        store.update(new byte[12], PassiveReader.EPC_STANDARD, (short) 0, (short) -50);
+
+        assertEquals(lengths.length + 2, store.size());
+        for (int n = 0; n < lengths.length; n++) {
+            assertEquals(n, store.indexOf(ID(7, lengths[n])));
+            assertEquals(lengths[n], store.getIDlength(n));
+            assertEquals(7, store.getIDbyte(n, lengths[n] - 1));
+        }
+        assertEquals(lengths.length, store.indexOf(new byte[13]));
+        assertEquals(lengths.length + 1, store.indexOf(new byte[12]));
+    }
+
+    @Test
+    public void RSSIStatisticsSkipTheReadsWithoutRSSI() {
+        short[] RSSIs = {-60, TagStore.NO_RSSI, -40, -50, TagStore.NO_RSSI, -45};
+        for (short RSSI : RSSIs) {
+            store.update(ID(1, 12), PassiveReader.EPC_STANDARD, (short) 0, RSSI);
+        }
+        store.update(ID(2, 12), PassiveReader.EPC_STANDARD, (short) 0, TagStore.NO_RSSI);
+
+        assertEquals(6, store.getReadCount(0));
+        assertEquals(-60, store.getMinRSSI(0));
+        assertEquals(-40, store.getMaxRSSI(0));
+        assertEquals(-48.75f, store.getMeanRSSI(0), 0.001f);
+        assertEquals(TagStore.NO_RSSI, store.getMinRSSI(1));
+        assertEquals(TagStore.NO_RSSI, store.getMaxRSSI(1));
+        assertEquals(TagStore.NO_RSSI, store.getMeanRSSI(1), 0);
+    }
+
+    @Test
+    public void viewedTagsMatchTheTagsReadById() {
+        InventoryLine line = new InventoryLine();
+        TagView view = new TagView(null);
+        byte[] buffer = line.getBuffer(16);
+        System.arraycopy(ID(9, 12), 0, buffer, 4, 12);
+        line.set(4, 12, (short) 0x3000, (short) -55);
+        view.set(line, PassiveReader.EPC_STANDARD, true);
+
+        assertEquals(0, store.update(view));
+        assertEquals(0, store.update(ID(9, 12), PassiveReader.EPC_STANDARD, (short) 0x3000, (short) -65));
+        assertEquals(1, store.size());
+        assertEquals(2, store.getReadCount(0));
+        assertEquals(-65, store.getMinRSSI(0));
+        assertEquals(-55, store.getMaxRSSI(0));
+        assertEquals(0x3000, store.getPC(0));
+    }
+
+    @Test
+    public void viewedReadingOfMinus128IsCounted() {
+        InventoryLine line = new InventoryLine();
+        TagView view = new TagView(null);
+        System.arraycopy(ID(9, 12), 0, line.getBuffer(12), 0, 12);
+        line.set(0, 12, (short) 0x3000, (short) -128);
+        view.set(line, PassiveReader.EPC_STANDARD, true);
+        store.update(view);
+        line.set(0, 12, (short) 0x3000, (short) -60);
+        store.update(view);
+        line.set(0, 12, (short) 0x3000);
+        store.update(view);
+
+        assertEquals(3, store.getReadCount(0));
+        assertEquals(-128, store.getMinRSSI(0));
+        assertEquals(-60, store.getMaxRSSI(0));
+        assertEquals(-94f, store.getMeanRSSI(0), 0.001f);
+    }
+
+    @Test
+    public void indexPastTheStoredTagsIsRejected() {
+        store.update(ID(1, 12), PassiveReader.EPC_STANDARD, (short) 0, (short) -50);
+        store.clear();
+        try {
+            store.getReadCount(0);
+            fail("index accepted");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    private static byte[] ID(int tag, int length) {
+        byte[] ID = new byte[length];
+        for (int n = 0; n < 4 && n < length; n++) {
+            ID[length - 1 - n] = (byte) (tag >> (8 * n));
+        }
+        return ID;
+    }
+}
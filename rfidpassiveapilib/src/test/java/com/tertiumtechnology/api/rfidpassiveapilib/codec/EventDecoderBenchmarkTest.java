@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib.codec;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Microbenchmark of the event decoding: the in-place decoder against the
+ * substring based parsing it replaced. The timings are only printed, the
+ * test fails if the two decoders disagree.
+ */
+public class EventDecoderBenchmarkTest {
+    private static final int EVENTS = 256;
+    private static final int ROUNDS = 200;
+    private static final int WARMUP_ROUNDS = 50;
+
+    private final String[] events = new String[EVENTS];
+
+    public EventDecoderBenchmarkTest() {
+        for (int n = 0; n < EVENTS; n++) {
+            events[n] = String.format("I:%02X%02X80%02X%02X%02X\n", 12, n, n % 3, n, n * 7 & 0xFF);
+        }
+    }
+
+    @Test
+    public void inPlaceDecoderMatchesSubstringParsing() {
+        ReaderEvent event = new ReaderEvent();
+        for (String frame : events) {
+            assertEquals(true, EventDecoder.decode(frame, 0, frame.length() - 1, event));
+            SubstringEvent expected = new SubstringEvent(frame.substring(0, frame.length() - 1));
+            assertEquals(expected.number, event.getNumber());
+            assertEquals(expected.event_code, event.getEventCode());
+            assertEquals(expected.feature_code, event.getFeatureCode());
+            assertEquals(expected.data.length, event.getDataLength());
+            for (int n = 0; n < expected.data.length; n++) {
+                assertEquals(expected.data[n], event.getDataByte(n));
+            }
+        }
+    }
+
+    @Test
+    public void decodingTime() {
+        ReaderEvent event = new ReaderEvent();
+        long sink = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            sink += decodeInPlace(event) + decodeWithSubstrings();
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            sink += decodeInPlace(event);
+        }
+        long in_place = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            sink += decodeWithSubstrings();
+        }
+        long substrings = System.nanoTime() - start;
+        System.out.printf("event decoding: in place %d ns/event, substrings %d ns/event (%d)%n",
+                in_place / (ROUNDS * EVENTS), substrings / (ROUNDS * EVENTS), sink);
+    }
+
+    private long decodeInPlace(ReaderEvent event) {
+        long sum = 0;
+        for (String frame : events) {
+            EventDecoder.decode(frame, 0, frame.length() - 1, event);
+            sum += event.getNumber() + event.getFeatureCode() + event.getDataByte(1);
+        }
+        return sum;
+    }
+
+    private long decodeWithSubstrings() {
+        long sum = 0;
+        for (String frame : events) {
+            SubstringEvent event = new SubstringEvent(frame.substring(0, frame.length() - 1));
+            sum += event.number + event.feature_code + event.data[1];
+        }
+        return sum;
+    }
+
+    /**
+     * The event parsing used before the in-place decoder.
+     */
+    private static class SubstringEvent {
+        private final int number;
+        private final int event_code;
+        private final int feature_code;
+        private final byte[] data;
+
+        private SubstringEvent(String event) {
+            int length = Integer.parseInt(event.substring(2, 4), 16);
+            number = Integer.parseInt(event.substring(4, 6), 16);
+            event_code = Integer.parseInt(event.substring(6, 8), 16);
+            feature_code = Integer.parseInt(event.substring(8, 10), 16);
+            data = new byte[(length - 8) / 2];
+            for (int n = 0; n < data.length; n++) {
+                data[n] = (byte) Integer.parseInt(event.substring(10 + 2 * n, 10 + 2 * n + 2), 16);
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib.codec;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Golden vectors of the reader wire protocol.
+ * <p>
+ * Every {@link FrameCodec} implementation must encode and decode these frames
+ * exactly as the reader firmware does: a codec test extends this class and
+ * returns the codec under test from {@link #createCodec()}.
+ */
+public abstract class FrameCodecConformanceTest {
+    protected FrameCodec codec;
+
+    /**
+     * Create the codec under test.
+     *
+     * @return the codec to check against the golden vectors
+     */
+    protected abstract FrameCodec createCodec();
+
+    @Before
+    public void setUp() {
+        codec = createCodec();
+    }
+
+    @Test
+    public void encodesCommands() {
+        FrameEncoder encoder = codec.getEncoder();
+
+        assertEquals("$:060030", encoder.beginCommand(0x00, (byte) 0x30).toFrame());
+        assertEquals("$:0A052801AB",
+                encoder.beginCommand(0x05, (byte) 0x28).append(new byte[]{(byte) 0x01, (byte) 0xAB}).toFrame());
+        assertEquals("$:12FF1E143000E20203", encoder.beginCommand(0xFF, (byte) 0x1E).append((byte) 0x14)
+                .appendEncoded(codec.encodeAddress(new byte[]{0x00, 0x30, 0x00, (byte) 0xE2, 0x00}, 1, 3))
+                .append(new byte[]{0x01, 0x02, 0x03, 0x04}, 1, 2).toFrame());
+    }
+
+    @Test
+    public void encodesTunnelAndZhagaCommands() {
+        FrameEncoder encoder = codec.getEncoder();
+
+        assertEquals("#:229F", encoder.beginTunnel(false).append(new byte[]{0x22, (byte) 0x9F}).toFrame());
+        assertEquals("%:01", encoder.beginTunnel(true).append((byte) 0x01).toFrame());
+        assertEquals("Z:087F1020", encoder.beginZhagaTransparent(0x7F).append(new byte[]{0x10, 0x20}).toFrame());
+    }
+
+    @Test
+    public void classifiesFrames() {
+        String[] lines = {"", "> ", "$:0805000A", "Z:0805000A", "#:AB", "%:AB", "I:0A01020304", "3000E200"};
+        int[] types = {FrameCodec.EMPTY_FRAME, FrameCodec.PROMPT_FRAME, FrameCodec.ANSWER_FRAME,
+                FrameCodec.ZHAGA_ANSWER_FRAME, FrameCodec.TUNNEL_ANSWER_FRAME, FrameCodec.TUNNEL_ANSWER_FRAME,
+                FrameCodec.EVENT_FRAME, FrameCodec.INVENTORY_FRAME};
+
+        for (int n = 0; n < lines.length; n++) {
+            String line = "\n" + lines[n] + "\n";
+            assertEquals("frame type of \"" + lines[n] + "\"", types[n],
+                    codec.getFrameType(line, 1, lines[n].length()));
+        }
+    }
+
+    @Test
+    public void detectsFrameCompletion() {
+        assertTrue(codec.isFrameComplete("$:0805000A", 0, 10));
+        assertFalse(codec.isFrameComplete("$:0805000", 0, 9));
+        assertTrue(codec.isFrameComplete("> ", 0, 2));
+        assertFalse(codec.isFrameComplete("3000E2", 0, 6));
+    }
+
+    @Test
+    public void holdsOddLengthAnswersUntilTheirLastCharacter() {
+        assertFalse(codec.isFrameComplete("$:0D01001122334", 0, 15));
+        assertTrue(codec.isFrameComplete("$:0D010011223344", 0, 16));
+    }
+
+    @Test
+    public void detectsFrameContinuation() {
+        assertTrue(codec.isFrameContinuation('$', '0'));
+        assertFalse(codec.isFrameContinuation('$', '$'));
+        assertTrue(codec.isFrameContinuation('3', 'A'));
+        assertFalse(codec.isFrameContinuation('3', '#'));
+    }
+
+    @Test
+    public void decodesAnswers() {
+        ReaderAnswer answer = new ReaderAnswer();
+
+        assertTrue(codec.decodeAnswer("x$:0C05000102FFx", 1, 14, false, answer));
+        assertEquals(12, answer.getLength());
+        assertEquals(0x05, answer.getSequential());
+        assertEquals(0x00, answer.getReturnCode());
+        assertArrayEquals(new byte[]{0x01, 0x02, (byte) 0xFF}, answer.getData());
+
+        assertTrue(codec.decodeAnswer("Z:06FF0A", 0, 8, false, answer));
+        assertEquals(0xFF, answer.getSequential());
+        assertEquals(0x0A, answer.getReturnCode());
+        assertEquals(0, answer.getDataLength());
+    }
+
+    @Test
+    public void rejectsMalformedAnswers() {
+        ReaderAnswer answer = new ReaderAnswer();
+
+        assertFalse(codec.decodeAnswer("$:0B05000102", 0, 12, false, answer));
+        assertFalse(answer.isValid());
+        assertFalse(codec.decodeAnswer("$:0405", 0, 6, false, answer));
+    }
+
+    @Test
+    public void decodesOddLengthAnswers() {
+        ReaderAnswer answer = new ReaderAnswer();
+
+        assertFalse(codec.decodeAnswer("$:0905000102", 0, 12, false, answer));
+        assertTrue(codec.decodeAnswer("$:0905000102", 0, 12, true, answer));
+        assertArrayEquals(new byte[]{0x01, 0x02}, answer.getData());
+    }
+
+    @Test
+    public void readsAnswerSequential() {
+        assertEquals(0x05, codec.getAnswerSequential("x$:0C05000102FFx", 1, 14));
+        assertEquals(0xFF, codec.getAnswerSequential("Z:06FF0A", 0, 8));
+        assertEquals(-1, codec.getAnswerSequential("$:0C0", 0, 5));
+    }
+
+    @Test
+    public void decodesTunnelAnswers() {
+        ReaderAnswer answer = new ReaderAnswer();
+
+        assertTrue(codec.decodeTunnelAnswer("%:00A1B2", 0, 8, answer));
+        assertArrayEquals(new byte[]{0x00, (byte) 0xA1, (byte) 0xB2}, answer.getData());
+    }
+
+    @Test
+    public void decodesEvents() {
+        ReaderEvent event = new ReaderEvent();
+
+        assertTrue(codec.decodeEvent("I:0C0102030405", 0, 14, event));
+        assertEquals(0x01, event.getNumber());
+        assertEquals(0x02, event.getEventCode());
+        assertEquals(0x03, event.getFeatureCode());
+        assertEquals(2, event.getDataLength());
+        assertEquals(0x04, event.getDataByte(0));
+        assertEquals(0x05, event.getDataByte(1));
+
+        assertFalse(codec.decodeEvent("I:0D0102030405", 0, 14, event));
+        assertFalse(event.isValid());
+        assertFalse(codec.decodeEvent("I:0601", 0, 6, event));
+    }
+
+    @Test
+    public void decodesInventoryLines() {
+        InventoryLine line = new InventoryLine();
+
+        assertTrue(codec.decodeInventoryLine("E004010012345678", 0, 16, FrameCodec.ID_LINE, line));
+        assertArrayEquals(new byte[]{(byte) 0xE0, 0x04, 0x01, 0x00, 0x12, 0x34, 0x56, 0x78}, line.getID());
+
+        assertTrue(codec.decodeInventoryLine("3000E2001234", 0, 12, FrameCodec.EPC_AND_PC_LINE, line));
+        assertEquals(0x3000, line.getPC());
+        assertEquals(InventoryLine.NO_RSSI, line.getRSSI());
+        assertFalse(line.hasRSSI());
+        assertArrayEquals(new byte[]{(byte) 0xE2, 0x00, 0x12, 0x34}, line.getID());
+
+        assertTrue(codec.decodeInventoryLine("3000E2001234 C4", 0, 15, FrameCodec.EPC_AND_PC_LINE, line));
+        assertEquals(0x3000, line.getPC());
+        assertEquals(-60, line.getRSSI());
+        assertTrue(line.hasRSSI());
+        assertArrayEquals(new byte[]{(byte) 0xE2, 0x00, 0x12, 0x34}, line.getID());
+
+        assertTrue(codec.decodeInventoryLine("E2001234 80", 0, 11, FrameCodec.EPC_LINE, line));
+        assertEquals(-128, line.getRSSI());
+        assertTrue(line.hasRSSI());
+
+        assertTrue(codec.decodeInventoryLine("E2001234 1E", 0, 11, FrameCodec.EPC_LINE, line));
+        assertEquals(0, line.getPC());
+        assertEquals(30, line.getRSSI());
+        assertArrayEquals(new byte[]{(byte) 0xE2, 0x00, 0x12, 0x34}, line.getID());
+    }
+
+    @Test
+    public void rejectsMalformedInventoryLines() {
+        InventoryLine line = new InventoryLine();
+
+        assertFalse(codec.decodeInventoryLine("E2001G34", 0, 8, FrameCodec.EPC_LINE, line));
+        assertFalse(codec.decodeInventoryLine("E200", 0, 4, FrameCodec.EPC_LINE, line));
+        assertFalse(codec.decodeInventoryLine("E2001234 1", 0, 10, FrameCodec.EPC_LINE, line));
+        assertFalse(codec.decodeInventoryLine("E004 0100", 0, 9, FrameCodec.ID_LINE, line));
+    }
+}
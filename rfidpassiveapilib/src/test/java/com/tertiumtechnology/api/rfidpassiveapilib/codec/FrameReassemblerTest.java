@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2021 Tertium Technology.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.tertiumtechnology.api.rfidpassiveapilib.codec;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class FrameReassemblerTest {
+    private final FrameReassembler reassembler = new FrameReassembler(new HexFrameCodec());
+
+    @Test
+    public void oddLengthAnswerSplitBeforeLastCharacterIsHeld() {
+        assertEquals("", reassembler.feed("$:0D01001122334"));
+        assertEquals(1, reassembler.getPartialFrames());
+        assertEquals("$:0D010011223344\r\n", reassembler.feed("4\r\n"));
+        assertNull(reassembler.flush());
+    }
+
+    @Test
+    public void oddLengthAnswerWithoutLineEndIsComplete() {
+        assertEquals("$:0D010011223344", reassembler.feed("$:0D010011223344"));
+        assertNull(reassembler.flush());
+    }
+
+    @Test
+    public void answerSplitInsideLengthIsHeld() {
+        assertEquals("", reassembler.feed("$:0"));
+        assertEquals("$:0805000A\r\n", reassembler.feed("805000A\r\n"));
+    }
+
+    @Test
+    public void carriedFrameIsDeliveredBeforeANewFrame() {
+        assertEquals("", reassembler.feed("$:0D01001122334"));
+        assertEquals("$:0D01001122334\n$:0805000A\r\n", reassembler.feed("$:0805000A\r\n"));
+    }
+
+    @Test
+    public void unterminatedTunnelAnswerIsHeldUntilFlushed() {
+        assertEquals("", reassembler.feed("#:0102"));
+        assertEquals("", reassembler.feed("0304"));
+        assertEquals(2, reassembler.getPartialFrames());
+        assertEquals("#:01020304", reassembler.flush());
+        assertNull(reassembler.flush());
+    }
+
+    @Test
+    public void unterminatedTunnelAnswerIsDeliveredBeforeANewFrame() {
+        assertEquals("", reassembler.feed("#:0102"));
+        assertEquals("#:0102\n$:0805000A\r\n", reassembler.feed("$:0805000A\r\n"));
+        assertNull(reassembler.flush());
+    }
+}